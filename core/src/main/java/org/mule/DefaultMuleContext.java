@@ -755,6 +755,7 @@ public class DefaultMuleContext implements MuleContext
     public void setClusterNodeId(int clusterNodeId)
     {
         this.clusterNodeId = clusterNodeId;
+        UUID.setClusterNodeId(clusterNodeId);
     }
 
     public void setPollingController(PollingController pollingController)
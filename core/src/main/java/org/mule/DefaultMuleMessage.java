@@ -28,6 +28,7 @@ import org.mule.api.transport.OutputHandler;
 import org.mule.api.transport.PropertyScope;
 import org.mule.config.MuleManifest;
 import org.mule.config.i18n.CoreMessages;
+import org.mule.message.PayloadRepresentationCache;
 import org.mule.transformer.TransformerUtils;
 import org.mule.transformer.types.DataTypeFactory;
 import org.mule.transformer.types.MimeTypes;
@@ -37,6 +38,7 @@ import org.mule.util.ObjectUtils;
 import org.mule.util.StringMessageUtils;
 import org.mule.util.StringUtils;
 import org.mule.util.UUID;
+import org.mule.util.id.UniqueId;
 import org.mule.util.store.DeserializationPostInitialisable;
 
 import java.io.File;
@@ -79,10 +81,12 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
 
     /**
      * The default UUID for the message. If the underlying transport has the notion of a
-     * message id, this uuid will be ignored
+     * message id, this uuid will be ignored. It is only rendered in <code>id</code> when
+     * read, <code>rootId</code> is null while it is the same as the id.
      */
-    private String id = UUID.getUUID();
-    private String rootId = id;
+    private transient UniqueId generatedId = UUID.getUniqueId();
+    private String id;
+    private String rootId;
 
     private transient Object payload;
     private transient Object originalPayload;
@@ -109,6 +113,11 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
     private transient Map<String, DataHandler> outboundAttachments = new ConcurrentHashMap<String, DataHandler>();
 
     private transient byte[] cache;
+
+    /**
+     * Other representations the payload was converted to, created on first use
+     */
+    private transient PayloadRepresentationCache representations;
     protected transient MuleContext muleContext;
 
     // these are transient because serialisation generates a new instance
@@ -185,8 +194,19 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
 
     public DefaultMuleMessage(Object message, MuleMessage previous, MuleContext muleContext)
     {
-        id = previous.getUniqueId();
-        rootId = previous.getMessageRootId();
+        if (previous instanceof DefaultMuleMessage)
+        {
+            // keep the ids unrendered
+            DefaultMuleMessage previousMessage = (DefaultMuleMessage) previous;
+            generatedId = previousMessage.generatedId;
+            id = previousMessage.id;
+            rootId = previousMessage.rootId;
+        }
+        else
+        {
+            id = previous.getUniqueId();
+            rootId = previous.getMessageRootId();
+        }
         setMuleContext(muleContext);
         setEncoding(previous.getEncoding());
 
@@ -300,7 +320,7 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
     @Override
     public <T> T getPayload(Class<T> outputType) throws TransformerException
     {
-        return getPayload(DataTypeFactory.create(outputType), getEncoding());
+        return getPayload(DataTypeFactory.intern(outputType), getEncoding());
     }
 
 
@@ -343,7 +363,7 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
             throw new IllegalArgumentException(CoreMessages.objectIsNull("resultType").getMessage());
         }
 
-        DataType source = DataTypeFactory.createFromObject(this);
+        DataType source = DataTypeFactory.internFromObject(this);
 
         // If no conversion is necessary, just return the payload as-is
         if (resultType.isCompatibleWith(source))
@@ -351,6 +371,12 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
             return (T) getPayload();
         }
 
+        Object cached = getCachedRepresentation(resultType, encoding, source);
+        if (cached != null)
+        {
+            return (T) cached;
+        }
+
         // The transformer to execute on this message
         Transformer transformer = muleContext.getRegistry().lookupTransformer(source, resultType);
         if (transformer == null)
@@ -373,10 +399,63 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
         {
             setPayload(result);
         }
+        else
+        {
+            // readers of a cached representation get their own copy of it
+            cacheRepresentation(resultType, encoding, source, result);
+        }
 
         return (T) result;
     }
 
+    private Object getCachedRepresentation(DataType<?> resultType, String encoding, DataType<?> source)
+    {
+        PayloadRepresentationCache cachedRepresentations = representations;
+        return cachedRepresentations == null ? null : cachedRepresentations.get(resultType, encoding, payload,
+            source);
+    }
+
+    private void cacheRepresentation(DataType<?> resultType, String encoding, DataType<?> source, Object result)
+    {
+        if (!PayloadRepresentationCache.isCacheable(payload, result))
+        {
+            return;
+        }
+        PayloadRepresentationCache cachedRepresentations = getRepresentations();
+        if (cachedRepresentations != null)
+        {
+            cachedRepresentations.put(resultType, encoding, payload, source, result);
+        }
+    }
+
+    private PayloadRepresentationCache getRepresentations()
+    {
+        if (representations == null && PayloadRepresentationCache.isEnabled())
+        {
+            representations = new PayloadRepresentationCache();
+        }
+        return representations;
+    }
+
+    private void clearRepresentations()
+    {
+        cache = null;
+        invalidateRepresentations();
+    }
+
+    /**
+     * Discards the converted representations, but not the cached bytes of the payload,
+     * when the datatype, encoding or mime type of the message change.
+     */
+    private void invalidateRepresentations()
+    {
+        PayloadRepresentationCache cachedRepresentations = representations;
+        if (cachedRepresentations != null)
+        {
+            cachedRepresentations.clear();
+        }
+    }
+
     /**
      * Checks if the payload has been consumed for this message. This only applies to Streaming payload types
      * since once the stream has been read, the payload of the message should be updated to represent the data read
@@ -612,7 +691,14 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
         assertAccess(READ);
         if (cache != null)
         {
-            return new String(cache, encoding);
+            String cached = (String) getCachedRepresentation(DataType.STRING_DATA_TYPE, encoding, null);
+            if (cached != null)
+            {
+                return cached;
+            }
+            String decoded = new String(cache, encoding);
+            cacheRepresentation(DataType.STRING_DATA_TYPE, encoding, null, decoded);
+            return decoded;
         }
         String result = getPayload(DataType.STRING_DATA_TYPE, encoding);
         if (muleContext.getConfiguration().isCacheMessageAsBytes())
@@ -680,12 +766,26 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
     public String getUniqueId()
     {
         assertAccess(READ);
+        return renderId();
+    }
+
+    private String renderId()
+    {
+        if (id == null)
+        {
+            id = generatedId.toString();
+        }
         return id;
     }
 
     public void setUniqueId(String uid)
     {
         assertAccess(WRITE);
+        if (rootId == null)
+        {
+            // the root id stays the original id
+            rootId = renderId();
+        }
         id = uid;
     }
 
@@ -693,7 +793,7 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
     public String getMessageRootId()
     {
         assertAccess(READ);
-        return rootId;
+        return rootId == null ? renderId() : rootId;
     }
 
     @Override
@@ -1202,6 +1302,7 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
         assertAccess(WRITE);
         if (encoding != null)
         {
+            invalidateRepresentations();
             setOutboundProperty(MuleProperties.MULE_ENCODING_PROPERTY, encoding);
         }
     }
@@ -1220,6 +1321,7 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
             {
                 mimeType = mimeType + ";charset=" + encoding;
             }
+            invalidateRepresentations();
             setOutboundProperty(MuleProperties.CONTENT_TYPE_PROPERTY, mimeType);
         }
     }
@@ -1303,7 +1405,7 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
         {
             this.payload = payload;
         }
-        cache = null;
+        clearRepresentations();
     }
 
     /**
@@ -1312,7 +1414,7 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
     @Override
     public void release()
     {
-        cache = null;
+        clearRepresentations();
     }
 
     /**
@@ -1492,6 +1594,7 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
 
     protected void setDataType(DataType<?> dt)
     {
+        invalidateRepresentations();
         dataType = dt;
         setEncoding(dt == null ? null : dt.getEncoding());
         setMimeType(dt == null ? null : dt.getMimeType());
@@ -1690,6 +1793,7 @@ public class DefaultMuleMessage implements MuleMessage, ThreadSafeAccess, Deseri
 
     private void writeObject(ObjectOutputStream out) throws Exception
     {
+        renderId();
         out.defaultWriteObject();
         if (payload instanceof Serializable)
         {
@@ -0,0 +1,35 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.api.cache;
+
+import org.mule.api.MuleEvent;
+
+import java.io.NotSerializableException;
+import java.io.Serializable;
+
+/**
+ * Generates the key used by a {@link CachingStrategy} to store and look up the
+ * response for a {@link MuleEvent}. Events that must share a cached response must
+ * generate equal keys.
+ */
+public interface MuleEventKeyGenerator
+{
+
+    /**
+     * Generates a key for the given event.
+     *
+     * @param event the event being processed
+     * @return a non null key
+     * @throws NotSerializableException when the key cannot be generated or is not
+     *             serializable
+     */
+    Serializable generateKey(MuleEvent event) throws NotSerializableException;
+}
@@ -245,6 +245,35 @@ public interface ExpressionManager
     public String parse(final String expression, final MuleEvent event, final boolean failIfNull)
         throws ExpressionRuntimeException;
 
+    /**
+     * Parses a template once so it can be evaluated many times with
+     * {@link #parse(ExpressionTemplate, MuleEvent, boolean)} without being scanned for
+     * expressions again.
+     * 
+     * @param template one or more expressions embedded in a literal string i.e.
+     *            "Value is #[mule:message.headers(foo)] and #[xpath://foo]"
+     * @return the parsed template
+     */
+    public ExpressionTemplate compileTemplate(String template);
+
+    /**
+     * Evaluates the expressions of a template obtained from {@link #compileTemplate(String)}.
+     * 
+     * @param template the compiled template
+     * @param event The current event being processed
+     * @param failIfNull determines if an exception should be thrown if expression could not be evaluated or
+     *            returns null.
+     * @return the parsered expression string
+     * @throws ExpressionRuntimeException if an expression is invalid, or a null is found for an expression
+     *             and 'failIfNull is set to true.
+     */
+    public String parse(ExpressionTemplate template, MuleEvent event, boolean failIfNull)
+        throws ExpressionRuntimeException;
+
+    @Deprecated
+    public String parse(ExpressionTemplate template, MuleMessage message, boolean failIfNull)
+        throws ExpressionRuntimeException;
+
     /**
      * Clears all registered evaluators from the manager.
      */
@@ -0,0 +1,128 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.api.expression;
+
+import org.mule.api.el.ExpressionLanguage;
+
+import java.io.Serializable;
+
+/**
+ * A string with embedded expressions, i.e. "Value is #[payload]", parsed once into its
+ * literal text and expressions. Instances are created by
+ * {@link ExpressionManager#compileTemplate(String)} and rendered with
+ * {@link ExpressionManager#parse(ExpressionTemplate, org.mule.api.MuleEvent, boolean)},
+ * which only evaluates the expressions and appends the results between the literals.
+ */
+public final class ExpressionTemplate
+{
+
+    private final String template;
+    private final String[] literals;
+    private final String[] expressions;
+    private final Serializable[] compiledExpressions;
+    private final ExpressionLanguage compiledWith;
+    private final int literalLength;
+
+    /**
+     * @param template the original template
+     * @param literals the literal text around the expressions, one more than
+     *            expressions
+     * @param expressions the expressions, without the enclosing braces
+     * @param compiledExpressions the compiled form of each expression, or
+     *            <code>null</code> for the expressions that are evaluated by name
+     * @param compiledWith the expression language that compiled the expressions
+     */
+    public ExpressionTemplate(String template,
+                              String[] literals,
+                              String[] expressions,
+                              Serializable[] compiledExpressions,
+                              ExpressionLanguage compiledWith)
+    {
+        if (literals.length != expressions.length + 1 || compiledExpressions.length != expressions.length)
+        {
+            throw new IllegalArgumentException("A template needs one more literal than expressions");
+        }
+        this.template = template;
+        this.literals = literals;
+        this.expressions = expressions;
+        this.compiledExpressions = compiledExpressions;
+        this.compiledWith = compiledWith;
+
+        int length = 0;
+        for (String literal : literals)
+        {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public String getTemplate()
+    {
+        return template;
+    }
+
+    /**
+     * @return true if the template contains no expression, in which case it renders to
+     *         itself
+     */
+    public boolean isLiteral()
+    {
+        return expressions.length == 0;
+    }
+
+    public int getExpressionCount()
+    {
+        return expressions.length;
+    }
+
+    /**
+     * @return the literal text before the expression at the given index, or after the
+     *         last expression for index {@link #getExpressionCount()}
+     */
+    public String getLiteral(int index)
+    {
+        return literals[index];
+    }
+
+    public String getExpression(int index)
+    {
+        return expressions[index];
+    }
+
+    public Serializable getCompiledExpression(int index)
+    {
+        return compiledExpressions[index];
+    }
+
+    /**
+     * @return the expression language the compiled expressions belong to, they must not
+     *         be evaluated by another one
+     */
+    public ExpressionLanguage getCompiledWith()
+    {
+        return compiledWith;
+    }
+
+    /**
+     * @return the total length of the literal text, a lower bound of the rendered
+     *         length
+     */
+    public int getLiteralLength()
+    {
+        return literalLength;
+    }
+
+    @Override
+    public String toString()
+    {
+        return template;
+    }
+}
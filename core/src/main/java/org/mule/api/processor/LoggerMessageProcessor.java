@@ -22,6 +22,7 @@ import org.mule.api.MuleEvent;
 import org.mule.api.MuleException;
 import org.mule.api.context.MuleContextAware;
 import org.mule.api.expression.ExpressionManager;
+import org.mule.api.expression.ExpressionTemplate;
 import org.mule.api.lifecycle.Initialisable;
 import org.mule.api.lifecycle.InitialisationException;
 import org.mule.util.StringUtils;
@@ -46,12 +47,17 @@ public class LoggerMessageProcessor implements MessageProcessor, Initialisable,
 
     protected MuleContext muleContext;
     protected ExpressionManager expressionManager;
+    protected ExpressionTemplate messageTemplate;
     private final Map<QName, Object> annotations = new ConcurrentHashMap<QName, Object>();
 
     public void initialise() throws InitialisationException
     {
         initLogger();
         expressionManager = muleContext.getExpressionManager();
+        if (StringUtils.isNotEmpty(message))
+        {
+            messageTemplate = expressionManager.compileTemplate(message);
+        }
     }
 
     protected void initLogger()
@@ -74,20 +80,26 @@ public class LoggerMessageProcessor implements MessageProcessor, Initialisable,
 
     protected void log(MuleEvent event)
     {
+        // nothing is rendered or evaluated unless it is going to be logged
+        if (!isLevelEnabled())
+        {
+            return;
+        }
         if (event == null)
         {
             logWithLevel(null);
         }
+        else if (StringUtils.isEmpty(message))
+        {
+            logWithLevel(event.getMessage());
+        }
+        else if (messageTemplate != null)
+        {
+            logWithLevel(expressionManager.parse(messageTemplate, event, false));
+        }
         else
         {
-            if (StringUtils.isEmpty(message))
-            {
-                logWithLevel(event.getMessage());
-            }
-            else
-            {
-                logWithLevel(expressionManager.parse(message, event));
-            }
+            logWithLevel(expressionManager.parse(message, event));
         }
     }
 
@@ -124,6 +136,31 @@ public class LoggerMessageProcessor implements MessageProcessor, Initialisable,
         }
     }
 
+    protected boolean isLevelEnabled()
+    {
+        if ("ERROR".equals(level))
+        {
+            return logger.isErrorEnabled();
+        }
+        else if ("WARN".equals(level))
+        {
+            return logger.isWarnEnabled();
+        }
+        else if ("INFO".equals(level))
+        {
+            return logger.isInfoEnabled();
+        }
+        else if ("DEBUG".equals(level))
+        {
+            return logger.isDebugEnabled();
+        }
+        else if ("TRACE".equals(level))
+        {
+            return logger.isTraceEnabled();
+        }
+        return false;
+    }
+
     public void setMuleContext(MuleContext muleContext)
     {
         this.muleContext = muleContext;
@@ -132,6 +169,7 @@ public class LoggerMessageProcessor implements MessageProcessor, Initialisable,
     public void setMessage(String message)
     {
         this.message = message;
+        this.messageTemplate = null;
     }
 
     public void setCategory(String category)
@@ -0,0 +1,30 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.api.retry;
+
+/**
+ * A {@link RetryPolicy} that can tell how long to wait before the next attempt instead
+ * of waiting itself, so the retry can be scheduled without holding a thread. See
+ * {@link org.mule.retry.async.RetryScheduler}.
+ */
+public interface DelayedRetryPolicy extends RetryPolicy
+{
+    long POLICY_EXHAUSTED = -1;
+
+    /**
+     * Registers a failed attempt and returns the number of milliseconds to wait before
+     * the next one. Must not block.
+     *
+     * @return the delay before the next attempt or {@link #POLICY_EXHAUSTED} if no more
+     *         attempts should be made
+     */
+    public long nextRetryDelay(Throwable cause);
+}
@@ -0,0 +1,602 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.cache;
+
+import org.mule.DefaultMuleEvent;
+import org.mule.DefaultMuleMessage;
+import org.mule.VoidMuleEvent;
+import org.mule.api.MuleContext;
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.MuleMessage;
+import org.mule.api.cache.CachingStrategy;
+import org.mule.api.cache.MuleEventKeyGenerator;
+import org.mule.api.config.MuleProperties;
+import org.mule.api.context.MuleContextAware;
+import org.mule.api.lifecycle.Disposable;
+import org.mule.api.lifecycle.Initialisable;
+import org.mule.api.lifecycle.InitialisationException;
+import org.mule.api.processor.MessageProcessor;
+import org.mule.api.routing.filter.Filter;
+import org.mule.api.store.ObjectDoesNotExistException;
+import org.mule.api.store.ObjectStore;
+import org.mule.api.store.ObjectStoreException;
+import org.mule.api.store.ObjectStoreManager;
+import org.mule.api.transport.OutputHandler;
+import org.mule.cache.keygenerator.DigestMuleEventKeyGenerator;
+import org.mule.cache.keygenerator.ExpressionMuleEventKeyGenerator;
+import org.mule.config.i18n.CoreMessages;
+import org.mule.transport.NullPayload;
+import org.mule.util.SerializationUtils;
+import org.mule.util.UUID;
+import org.mule.util.concurrent.Latch;
+
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A {@link CachingStrategy} that keeps the responses in an {@link ObjectStore}.
+ * <p/>
+ * The key of each request is generated by a {@link MuleEventKeyGenerator}: when a
+ * <code>keyGenerationExpression</code> is configured it is evaluated against the
+ * request, otherwise a digest of the payload is used. Requests not accepted by the
+ * optional <code>filter</code> are always processed.
+ * <p/>
+ * Entries expire <code>entryTTL</code> milliseconds after being stored and the
+ * oldest ones are evicted when more than <code>maxEntries</code> have been stored by
+ * this strategy. When no store is configured a partition of the default in-memory
+ * store is used. Streamed payloads, both in the request and in the response, are read
+ * into memory so they can be hashed and stored; the message keeps the read bytes as
+ * its payload.
+ * <p/>
+ * Each response gets its own copy of the cached payload, so processors changing it in
+ * place don't affect the cache or the other responses. Immutable payloads, such as
+ * strings and numbers, are shared, byte arrays are cloned and any other payload is
+ * stored serialized and deserialized again for every hit.
+ * <p/>
+ * Concurrent misses for the same key are processed only once: the first request
+ * invokes the message processor while the others wait for its response.
+ */
+public class ObjectStoreCachingStrategy implements CachingStrategy, MuleContextAware, Initialisable, Disposable
+{
+
+    public static final int DEFAULT_MAX_ENTRIES = 4000;
+
+    protected transient Log logger = LogFactory.getLog(getClass());
+
+    private MuleContext muleContext;
+    private String name;
+    private ObjectStore<CachedResponse> store;
+    private boolean defaultStore;
+    private MuleEventKeyGenerator keyGenerator;
+    private String keyGenerationExpression;
+    private Filter filter;
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private long entryTTL = -1;
+
+    private final LinkedHashMap<Serializable, Long> storedKeys = new LinkedHashMap<Serializable, Long>();
+    private final ConcurrentMap<Serializable, Load> loads = new ConcurrentHashMap<Serializable, Load>();
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+    private final AtomicLong expirations = new AtomicLong(0);
+    private final AtomicLong coalescedRequests = new AtomicLong(0);
+
+    public void initialise() throws InitialisationException
+    {
+        if (keyGenerator == null)
+        {
+            keyGenerator = keyGenerationExpression != null
+                           ? new ExpressionMuleEventKeyGenerator(keyGenerationExpression)
+                           : new DigestMuleEventKeyGenerator();
+        }
+
+        if (name == null)
+        {
+            name = "caching-strategy-" + UUID.getUUID();
+        }
+
+        if (store == null)
+        {
+            ObjectStoreManager objectStoreManager = (ObjectStoreManager) muleContext.getRegistry().get(
+                MuleProperties.OBJECT_STORE_MANAGER);
+            int ttl = entryTTL > 0 ? (int) Math.min(entryTTL, Integer.MAX_VALUE) : -1;
+            store = objectStoreManager.getObjectStore(name, false, -1, ttl, ttl > 0 ? Math.max(ttl / 2, 1000) : 60000);
+            defaultStore = true;
+        }
+    }
+
+    public void dispose()
+    {
+        if (defaultStore)
+        {
+            try
+            {
+                ((ObjectStoreManager) muleContext.getRegistry().get(MuleProperties.OBJECT_STORE_MANAGER)).disposeStore(store);
+            }
+            catch (ObjectStoreException e)
+            {
+                logger.warn("Unable to dispose cache store " + name, e);
+            }
+        }
+        synchronized (storedKeys)
+        {
+            storedKeys.clear();
+        }
+    }
+
+    public MuleEvent process(MuleEvent request, MessageProcessor messageProcessor) throws MuleException
+    {
+        if (filter != null && !filter.accept(request.getMessage()))
+        {
+            return messageProcessor.process(request);
+        }
+
+        Serializable key;
+        try
+        {
+            key = keyGenerator.generateKey(request);
+        }
+        catch (NotSerializableException e)
+        {
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Unable to generate cache key, processing request without cache", e);
+            }
+            return messageProcessor.process(request);
+        }
+
+        CachedResponse cached = retrieve(key);
+        if (cached != null)
+        {
+            hits.incrementAndGet();
+            return createResponse(request, cached);
+        }
+
+        Load load = new Load();
+        Load inProgress = loads.putIfAbsent(key, load);
+        if (inProgress != null)
+        {
+            coalescedRequests.incrementAndGet();
+            return awaitLoad(request, inProgress, messageProcessor);
+        }
+
+        misses.incrementAndGet();
+        try
+        {
+            MuleEvent response = messageProcessor.process(request);
+            load.response = store(key, response);
+            return response;
+        }
+        finally
+        {
+            loads.remove(key, load);
+            load.latch.countDown();
+        }
+    }
+
+    private MuleEvent awaitLoad(MuleEvent request, Load load, MessageProcessor messageProcessor) throws MuleException
+    {
+        try
+        {
+            int timeout = request.getTimeout();
+            if (timeout > 0)
+            {
+                load.latch.await(timeout, TimeUnit.MILLISECONDS);
+            }
+            else
+            {
+                load.latch.await();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        CachedResponse response = load.response;
+        if (response != null)
+        {
+            hits.incrementAndGet();
+            return createResponse(request, response);
+        }
+
+        // the response could not be cached, the request has to be processed anyway
+        misses.incrementAndGet();
+        return messageProcessor.process(request);
+    }
+
+    private CachedResponse retrieve(Serializable key)
+    {
+        try
+        {
+            if (!store.contains(key))
+            {
+                return null;
+            }
+            CachedResponse cached = store.retrieve(key);
+            if (entryTTL > 0 && System.currentTimeMillis() - cached.created >= entryTTL)
+            {
+                expirations.incrementAndGet();
+                remove(key);
+                return null;
+            }
+            return cached;
+        }
+        catch (ObjectDoesNotExistException e)
+        {
+            return null;
+        }
+        catch (ObjectStoreException e)
+        {
+            logger.warn("Unable to retrieve cached response for key: " + key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the response when it is cacheable.
+     *
+     * @return the stored response or null if it was not stored
+     */
+    private CachedResponse store(Serializable key, MuleEvent response)
+    {
+        if (response == null || VoidMuleEvent.getInstance().equals(response))
+        {
+            return null;
+        }
+
+        MuleMessage message = response.getMessage();
+        if (message == null || message.getExceptionPayload() != null || message.getPayload() instanceof NullPayload)
+        {
+            return null;
+        }
+
+        CachedResponse cached;
+        try
+        {
+            MuleMessage copy = copyForStorage(message);
+            boolean serialized = !isSharedOrCloned(copy.getPayload());
+            if (serialized)
+            {
+                copy.setPayload(SerializationUtils.serialize((Serializable) copy.getPayload()));
+            }
+            else if (copy.getPayload() instanceof byte[])
+            {
+                copy.setPayload(((byte[]) copy.getPayload()).clone());
+            }
+            cached = new CachedResponse(copy, serialized);
+        }
+        catch (Exception e)
+        {
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Response is not cacheable for key: " + key, e);
+            }
+            return null;
+        }
+
+        try
+        {
+            remove(key);
+            store.store(key, cached);
+        }
+        catch (ObjectStoreException e)
+        {
+            logger.warn("Unable to store response for key: " + key, e);
+            return null;
+        }
+
+        synchronized (storedKeys)
+        {
+            storedKeys.remove(key);
+            storedKeys.put(key, cached.created);
+            Iterator<Serializable> oldest = storedKeys.keySet().iterator();
+            while (maxEntries > 0 && storedKeys.size() > maxEntries)
+            {
+                Serializable evicted = oldest.next();
+                oldest.remove();
+                evictions.incrementAndGet();
+                removeFromStore(evicted);
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * Creates a copy of the response message holding only its payload and inbound and
+     * outbound properties. Streamed payloads are read into memory, both in the copy and
+     * in the original message.
+     */
+    private MuleMessage copyForStorage(MuleMessage message) throws Exception
+    {
+        Object payload = message.getPayload();
+        if (payload instanceof InputStream || payload instanceof OutputHandler)
+        {
+            payload = message.getPayloadAsBytes();
+            message.setPayload(payload);
+        }
+        if (!(payload instanceof Serializable))
+        {
+            throw new NotSerializableException(payload.getClass().getName());
+        }
+
+        Map<String, Object> inboundProperties = new HashMap<String, Object>();
+        for (String propertyName : message.getInboundPropertyNames())
+        {
+            inboundProperties.put(propertyName, message.getInboundProperty(propertyName));
+        }
+        Map<String, Object> outboundProperties = new HashMap<String, Object>();
+        for (String propertyName : message.getOutboundPropertyNames())
+        {
+            outboundProperties.put(propertyName, message.getOutboundProperty(propertyName));
+        }
+
+        DefaultMuleMessage copy = new DefaultMuleMessage(payload, inboundProperties, outboundProperties, null, muleContext);
+        copy.setEncoding(message.getEncoding());
+        return copy;
+    }
+
+    /**
+     * @return true if the payload is immutable, so it can be shared, or a byte array,
+     *         which is cloned, rather than being serialized
+     */
+    private boolean isSharedOrCloned(Object payload)
+    {
+        return payload instanceof String || payload instanceof Number || payload instanceof Boolean
+               || payload instanceof Character || payload instanceof byte[];
+    }
+
+    /**
+     * Creates the response for a request from a cached response. The payload and the
+     * inbound and outbound properties are taken from the cached message, while the
+     * invocation and session properties are kept from the request. The response gets
+     * its own copy of a mutable payload.
+     */
+    private MuleEvent createResponse(MuleEvent request, CachedResponse cached)
+    {
+        MuleMessage message = new DefaultMuleMessage(cached.message, request.getMessage(), muleContext);
+        Object payload = cached.message.getPayload();
+        if (cached.serializedPayload)
+        {
+            message.setPayload(SerializationUtils.deserialize((byte[]) payload, muleContext));
+        }
+        else if (payload instanceof byte[])
+        {
+            message.setPayload(((byte[]) payload).clone());
+        }
+        return new DefaultMuleEvent(message, request);
+    }
+
+    private void remove(Serializable key)
+    {
+        synchronized (storedKeys)
+        {
+            storedKeys.remove(key);
+        }
+        removeFromStore(key);
+    }
+
+    private void removeFromStore(Serializable key)
+    {
+        try
+        {
+            if (store.contains(key))
+            {
+                store.remove(key);
+            }
+        }
+        catch (ObjectDoesNotExistException e)
+        {
+            // already expired or removed by another thread
+        }
+        catch (ObjectStoreException e)
+        {
+            logger.warn("Unable to remove cached response for key: " + key, e);
+        }
+    }
+
+    /**
+     * Removes the cached response for the given key, if any.
+     */
+    public void invalidate(Serializable key)
+    {
+        remove(key);
+    }
+
+    public void setMuleContext(MuleContext context)
+    {
+        this.muleContext = context;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    public ObjectStore<CachedResponse> getStore()
+    {
+        return store;
+    }
+
+    public void setStore(ObjectStore<CachedResponse> store)
+    {
+        this.store = store;
+    }
+
+    public MuleEventKeyGenerator getKeyGenerator()
+    {
+        return keyGenerator;
+    }
+
+    public void setKeyGenerator(MuleEventKeyGenerator keyGenerator)
+    {
+        this.keyGenerator = keyGenerator;
+    }
+
+    public String getKeyGenerationExpression()
+    {
+        return keyGenerationExpression;
+    }
+
+    public void setKeyGenerationExpression(String keyGenerationExpression)
+    {
+        this.keyGenerationExpression = keyGenerationExpression;
+    }
+
+    public Filter getFilter()
+    {
+        return filter;
+    }
+
+    public void setFilter(Filter filter)
+    {
+        this.filter = filter;
+    }
+
+    public int getMaxEntries()
+    {
+        return maxEntries;
+    }
+
+    /**
+     * Sets the maximum number of responses kept by this strategy, the oldest ones are
+     * evicted first. Zero or less for no limit.
+     */
+    public void setMaxEntries(int maxEntries)
+    {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getEntryTTL()
+    {
+        return entryTTL;
+    }
+
+    /**
+     * Sets the number of milliseconds a response is kept, zero or less for no expiration.
+     */
+    public void setEntryTTL(long entryTTL)
+    {
+        if (entryTTL > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException(CoreMessages.propertyHasInvalidValue("entryTTL", entryTTL).toString());
+        }
+        this.entryTTL = entryTTL;
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of responses removed to honour <code>maxEntries</code>
+     */
+    public long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    /**
+     * @return the number of responses found expired when looked up
+     */
+    public long getExpirations()
+    {
+        return expirations.get();
+    }
+
+    /**
+     * @return the number of requests that waited for a concurrent request with the
+     *         same key instead of being processed
+     */
+    public long getCoalescedRequests()
+    {
+        return coalescedRequests.get();
+    }
+
+    public int getSize()
+    {
+        synchronized (storedKeys)
+        {
+            return storedKeys.size();
+        }
+    }
+
+    /**
+     * A response stored in the cache.
+     */
+    public static class CachedResponse implements Serializable
+    {
+
+        private static final long serialVersionUID = -3521392427436129367L;
+
+        private final MuleMessage message;
+        private final boolean serializedPayload;
+        private final long created;
+
+        public CachedResponse(MuleMessage message, boolean serializedPayload)
+        {
+            this.message = message;
+            this.serializedPayload = serializedPayload;
+            this.created = System.currentTimeMillis();
+        }
+
+        public MuleMessage getMessage()
+        {
+            return message;
+        }
+
+        /**
+         * @return true if the payload of the message holds the serialized form of the
+         *         response payload
+         */
+        public boolean isSerializedPayload()
+        {
+            return serializedPayload;
+        }
+
+        public long getCreated()
+        {
+            return created;
+        }
+    }
+
+    private static class Load
+    {
+
+        private final Latch latch = new Latch();
+        private volatile CachedResponse response;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.cache.keygenerator;
+
+import org.mule.api.MuleEvent;
+import org.mule.api.cache.MuleEventKeyGenerator;
+import org.mule.util.StringUtils;
+
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.security.MessageDigest;
+
+/**
+ * Generates the key by calculating a digest, SHA-256 by default, of the message
+ * payload. Streamed payloads are read into memory, the message keeps the read bytes as
+ * its payload so it can still be processed afterwards.
+ */
+public class DigestMuleEventKeyGenerator implements MuleEventKeyGenerator
+{
+
+    private String messageDigestAlgorithm = "SHA-256";
+
+    public Serializable generateKey(MuleEvent event) throws NotSerializableException
+    {
+        try
+        {
+            byte[] bytes = event.getMessageAsBytes();
+            MessageDigest md = MessageDigest.getInstance(messageDigestAlgorithm);
+            return StringUtils.toHexString(md.digest(bytes));
+        }
+        catch (Exception e)
+        {
+            NotSerializableException notSerializable = new NotSerializableException(
+                "Unable to calculate the digest of the payload: " + e.getMessage());
+            notSerializable.initCause(e);
+            throw notSerializable;
+        }
+    }
+
+    public String getMessageDigestAlgorithm()
+    {
+        return messageDigestAlgorithm;
+    }
+
+    public void setMessageDigestAlgorithm(String messageDigestAlgorithm)
+    {
+        this.messageDigestAlgorithm = messageDigestAlgorithm;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.cache.keygenerator;
+
+import org.mule.api.MuleEvent;
+import org.mule.api.cache.MuleEventKeyGenerator;
+
+import java.io.NotSerializableException;
+import java.io.Serializable;
+
+/**
+ * Generates the key by evaluating an expression against the event, for example
+ * <code>#[message.inboundProperties['http.request']]</code>.
+ */
+public class ExpressionMuleEventKeyGenerator implements MuleEventKeyGenerator
+{
+
+    private String expression;
+
+    public ExpressionMuleEventKeyGenerator()
+    {
+    }
+
+    public ExpressionMuleEventKeyGenerator(String expression)
+    {
+        this.expression = expression;
+    }
+
+    public Serializable generateKey(MuleEvent event) throws NotSerializableException
+    {
+        Object key = event.getMuleContext().getExpressionManager().evaluate(expression, event);
+
+        if (!(key instanceof Serializable))
+        {
+            throw new NotSerializableException("Key generated by expression '" + expression + "' is not serializable: " + key);
+        }
+        return (Serializable) key;
+    }
+
+    public String getExpression()
+    {
+        return expression;
+    }
+
+    public void setExpression(String expression)
+    {
+        this.expression = expression;
+    }
+}
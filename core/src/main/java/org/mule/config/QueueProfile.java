@@ -24,12 +24,26 @@ import java.io.Serializable;
 /**
  * <code>QueueProfile</code> determines how an internal queue for a service will
  * behave
+ * <p/>
+ * When the queue is bounded, the message sources feeding it are throttled while its
+ * occupancy, together with the workers consuming it, is above the high watermark, until
+ * it drains below the low watermark. Watermarks are percentages of the capacity, and
+ * default to the {@link #HIGH_WATERMARK_PROPERTY} and {@link #LOW_WATERMARK_PROPERTY}
+ * system properties. A high watermark of 0 disables throttling.
  */
 
 public class QueueProfile
 {
+    public static final String HIGH_WATERMARK_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "queue.highWatermark";
+    public static final String LOW_WATERMARK_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "queue.lowWatermark";
+
+    public static final int DEFAULT_HIGH_WATERMARK = 80;
+    public static final int DEFAULT_LOW_WATERMARK = 50;
+
     private int maxOutstandingMessages = 0;
     private QueueStore<Serializable> objectStore;
+    private int highWatermark = Integer.getInteger(HIGH_WATERMARK_PROPERTY, DEFAULT_HIGH_WATERMARK);
+    private int lowWatermark = Integer.getInteger(LOW_WATERMARK_PROPERTY, DEFAULT_LOW_WATERMARK);
     
     public static QueueProfile newInstancePersistingToDefaultMemoryQueueStore(MuleContext muleContext)
     {
@@ -48,6 +62,8 @@ public class QueueProfile
     {
         this.maxOutstandingMessages = queueProfile.getMaxOutstandingMessages();
         this.objectStore = queueProfile.objectStore;
+        this.highWatermark = queueProfile.getHighWatermark();
+        this.lowWatermark = queueProfile.getLowWatermark();
     }
 
     public QueueProfile(int maxOutstandingMessages, QueueStore<Serializable> objectStore)
@@ -78,6 +94,42 @@ public class QueueProfile
         this.maxOutstandingMessages = maxOutstandingMessages;
     }
 
+    /**
+     * @return the occupancy, as a percentage of the capacity, above which the message
+     *         sources feeding the queue are throttled
+     */
+    public int getHighWatermark()
+    {
+        return highWatermark;
+    }
+
+    public void setHighWatermark(int highWatermark)
+    {
+        this.highWatermark = highWatermark;
+    }
+
+    /**
+     * @return the occupancy, as a percentage of the capacity, below which the message
+     *         sources feeding the queue are no longer throttled
+     */
+    public int getLowWatermark()
+    {
+        return lowWatermark;
+    }
+
+    public void setLowWatermark(int lowWatermark)
+    {
+        this.lowWatermark = lowWatermark;
+    }
+
+    /**
+     * @return true if the queue is bounded and its watermarks enable throttling
+     */
+    public boolean isThrottlingEnabled()
+    {
+        return maxOutstandingMessages > 0 && highWatermark > 0 && lowWatermark <= highWatermark;
+    }
+
     public QueueConfiguration configureQueue(MuleContext context, String component, QueueManager queueManager) throws InitialisationException
     {
         if (objectStore instanceof MuleContextAware)
@@ -107,7 +159,8 @@ public class QueueProfile
     @Override
     public String toString()
     {
-        return "QueueProfile{maxOutstandingMessage=" + maxOutstandingMessages + ", storeType="
-               + objectStore.getClass() + "}";
+        return "QueueProfile{maxOutstandingMessage=" + maxOutstandingMessages + ", highWatermark="
+               + highWatermark + ", lowWatermark=" + lowWatermark + ", storeType=" + objectStore.getClass()
+               + "}";
     }
 }
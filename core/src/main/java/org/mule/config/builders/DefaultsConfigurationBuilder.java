@@ -26,9 +26,11 @@ import org.mule.endpoint.DefaultEndpointFactory;
 import org.mule.execution.MuleMessageProcessingManager;
 import org.mule.management.stats.DefaultProcessingTimeWatcher;
 import org.mule.model.seda.SedaModel;
+import org.mule.retry.async.RetryScheduler;
 import org.mule.retry.policies.NoRetryPolicyTemplate;
 import org.mule.security.MuleSecurityManager;
 import org.mule.util.DefaultStreamCloserService;
+import org.mule.util.buffer.BodyBufferManager;
 import org.mule.util.lock.MuleLockFactory;
 import org.mule.util.lock.SingleServerLockProvider;
 import org.mule.util.queue.QueueManager;
@@ -82,6 +84,7 @@ public class DefaultsConfigurationBuilder extends AbstractConfigurationBuilder
 
         registry.registerObject(MuleProperties.OBJECT_MULE_ENDPOINT_FACTORY, new DefaultEndpointFactory());
         registry.registerObject(MuleProperties.OBJECT_MULE_STREAM_CLOSER_SERVICE, new DefaultStreamCloserService());
+        registry.registerObject(MuleProperties.OBJECT_MULE_BODY_BUFFER_MANAGER, new BodyBufferManager());
 
         registry.registerObject(MuleProperties.OBJECT_LOCK_FACTORY, new MuleLockFactory());
         registry.registerObject(MuleProperties.OBJECT_LOCK_PROVIDER, new SingleServerLockProvider());
@@ -91,6 +94,7 @@ public class DefaultsConfigurationBuilder extends AbstractConfigurationBuilder
         configureThreadingProfiles(registry);
 
         registry.registerObject(MuleProperties.OBJECT_DEFAULT_RETRY_POLICY_TEMPLATE, new NoRetryPolicyTemplate());
+        registry.registerObject(MuleProperties.OBJECT_DEFAULT_RETRY_SCHEDULER, new RetryScheduler(muleContext, "reconnection"));
         registry.registerObject(MuleProperties.OBJECT_CONVERTER_RESOLVER, new DynamicDataTypeConversionResolver(muleContext));
 
         configureSystemModel(registry);
@@ -0,0 +1,468 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.config.pool;
+
+import org.mule.api.config.ThreadingProfile;
+import org.mule.util.StringUtils;
+import org.mule.util.concurrent.ConcurrentHashSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A {@link ThreadPoolExecutor} that owns no threads: tasks run on a shared
+ * {@link Executor}, usually a {@link WorkStealingScheduler}, and the
+ * {@link ThreadingProfile} of the component is applied as a quota on it.
+ * <p/>
+ * At most <code>maxThreadsActive</code> tasks of the component run at the same time.
+ * Further tasks wait in a buffer of <code>maxBufferSize</code> tasks and, once it is
+ * full, the <code>poolExhaustedAction</code> or rejected execution handler of the
+ * profile applies as it would for a dedicated pool. Tasks run with the context class
+ * loader that was current when the executor was created and, while running, the
+ * thread is renamed after the component.
+ */
+public class QuotaThreadPoolExecutor extends ThreadPoolExecutor
+{
+
+    protected transient final Log logger = LogFactory.getLog(QuotaThreadPoolExecutor.class);
+
+    private final String name;
+    private final Executor scheduler;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final BlockingQueue<Runnable> buffer;
+    private final long threadWaitTimeout;
+    private final ClassLoader contextClassLoader;
+    private final Set activeThreads = new ConcurrentHashSet();
+    private final Object terminationLock = new Object();
+
+    private final AtomicInteger activeTasks = new AtomicInteger(0);
+    private final AtomicLong completedTasks = new AtomicLong(0);
+    private final AtomicLong totalQueueWait = new AtomicLong(0);
+    private final AtomicLong maxQueueWait = new AtomicLong(0);
+    private volatile boolean shutdown = false;
+
+    public QuotaThreadPoolExecutor(String name, ThreadingProfile tp, Executor scheduler)
+    {
+        // the superclass is only used for its rejected execution handler, it never
+        // starts a thread as execute is overridden
+        super(1, 1, tp.getThreadTTL(), TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>());
+        this.name = name;
+        this.scheduler = scheduler;
+        this.maxConcurrency = Math.max(1, tp.getMaxThreadsActive());
+        this.permits = new Semaphore(maxConcurrency);
+        if (tp.getMaxBufferSize() > 0 && maxConcurrency > 1)
+        {
+            buffer = new LinkedBlockingDeque<Runnable>(tp.getMaxBufferSize());
+        }
+        else
+        {
+            buffer = new SynchronousQueue<Runnable>();
+        }
+        this.threadWaitTimeout = tp.getThreadWaitTimeout() < 0 ? Long.MAX_VALUE : tp.getThreadWaitTimeout();
+        this.contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+        RejectedExecutionHandler handler = tp.getRejectedExecutionHandler();
+        if (handler == null)
+        {
+            switch (tp.getPoolExhaustedAction())
+            {
+                case ThreadingProfile.WHEN_EXHAUSTED_DISCARD_OLDEST :
+                    handler = new ThreadPoolExecutor.DiscardOldestPolicy();
+                    break;
+                case ThreadingProfile.WHEN_EXHAUSTED_RUN :
+                    handler = new ThreadPoolExecutor.CallerRunsPolicy();
+                    break;
+                case ThreadingProfile.WHEN_EXHAUSTED_ABORT :
+                    handler = new ThreadPoolExecutor.AbortPolicy();
+                    break;
+                case ThreadingProfile.WHEN_EXHAUSTED_DISCARD :
+                    handler = new ThreadPoolExecutor.DiscardPolicy();
+                    break;
+                default :
+                    // WHEN_EXHAUSTED_WAIT, see WaitForPermitPolicy
+                    break;
+            }
+        }
+        if (handler != null)
+        {
+            setRejectedExecutionHandler(handler);
+        }
+        else
+        {
+            setRejectedExecutionHandler(new WaitForPermitPolicy());
+        }
+    }
+
+    @Override
+    public void execute(Runnable command)
+    {
+        if (command == null)
+        {
+            throw new NullPointerException();
+        }
+        if (shutdown)
+        {
+            getRejectedExecutionHandler().rejectedExecution(command, this);
+            return;
+        }
+
+        long submitTime = System.nanoTime();
+        if (permits.tryAcquire())
+        {
+            dispatch(command, submitTime);
+        }
+        else if (buffer.offer(new BufferedTask(command, submitTime)))
+        {
+            // a task may have completed since the permit was requested
+            drainBuffer();
+        }
+        else
+        {
+            getRejectedExecutionHandler().rejectedExecution(command, this);
+            drainBuffer();
+        }
+    }
+
+    private void dispatch(Runnable command, long submitTime)
+    {
+        try
+        {
+            scheduler.execute(new QuotaTask(command, submitTime));
+        }
+        catch (RuntimeException e)
+        {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void dispatchBuffered(Runnable buffered)
+    {
+        if (buffered instanceof BufferedTask)
+        {
+            dispatch(((BufferedTask) buffered).command, ((BufferedTask) buffered).submitTime);
+        }
+        else
+        {
+            // added to the queue by a custom rejected execution handler
+            dispatch(buffered, System.nanoTime());
+        }
+    }
+
+    private void drainBuffer()
+    {
+        while (!buffer.isEmpty() && permits.tryAcquire())
+        {
+            Runnable next = buffer.poll();
+            if (next == null)
+            {
+                permits.release();
+                return;
+            }
+            dispatchBuffered(next);
+        }
+    }
+
+    private void taskCompleted()
+    {
+        Runnable next = buffer.poll();
+        if (next != null)
+        {
+            // hand the permit over to the next buffered task
+            try
+            {
+                dispatchBuffered(next);
+            }
+            catch (RuntimeException e)
+            {
+                logger.warn("Could not dispatch buffered task of " + name + ": " + e.getMessage());
+            }
+        }
+        else
+        {
+            permits.release();
+            drainBuffer();
+        }
+
+        if (shutdown && isTerminated())
+        {
+            synchronized (terminationLock)
+            {
+                terminationLock.notifyAll();
+            }
+        }
+    }
+
+    private void recordQueueWait(long wait)
+    {
+        totalQueueWait.addAndGet(wait);
+        long current = maxQueueWait.get();
+        while (wait > current && !maxQueueWait.compareAndSet(current, wait))
+        {
+            current = maxQueueWait.get();
+        }
+    }
+
+    @Override
+    public void shutdown()
+    {
+        shutdown = true;
+        super.shutdown();
+        if (isTerminated())
+        {
+            synchronized (terminationLock)
+            {
+                terminationLock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow()
+    {
+        shutdown = true;
+        List<Runnable> buffered = new ArrayList<Runnable>();
+        buffer.drainTo(buffered);
+        List<Runnable> outstanding = new ArrayList<Runnable>(buffered.size());
+        for (Runnable runnable : buffered)
+        {
+            outstanding.add(runnable instanceof BufferedTask ? ((BufferedTask) runnable).command : runnable);
+        }
+        for (Object thread : activeThreads.toArray())
+        {
+            ((Thread) thread).interrupt();
+        }
+        super.shutdownNow();
+        return outstanding;
+    }
+
+    @Override
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminating()
+    {
+        return shutdown && !isTerminated();
+    }
+
+    @Override
+    public boolean isTerminated()
+    {
+        return shutdown && permits.availablePermits() == maxConcurrency && buffer.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        synchronized (terminationLock)
+        {
+            while (!isTerminated())
+            {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0)
+                {
+                    return false;
+                }
+                terminationLock.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return the tasks waiting for a permit
+     */
+    @Override
+    public BlockingQueue<Runnable> getQueue()
+    {
+        return buffer;
+    }
+
+    @Override
+    public int getActiveCount()
+    {
+        return activeTasks.get();
+    }
+
+    @Override
+    public int getPoolSize()
+    {
+        return activeTasks.get();
+    }
+
+    @Override
+    public int getMaximumPoolSize()
+    {
+        return maxConcurrency;
+    }
+
+    @Override
+    public long getCompletedTaskCount()
+    {
+        return completedTasks.get();
+    }
+
+    @Override
+    public long getTaskCount()
+    {
+        return completedTasks.get() + (maxConcurrency - permits.availablePermits()) + buffer.size();
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the average time, in milliseconds, tasks waited between being submitted
+     *         and starting
+     */
+    public double getAverageQueueWait()
+    {
+        long completed = completedTasks.get();
+        return completed == 0 ? 0 : (double) totalQueueWait.get() / completed / 1000000;
+    }
+
+    /**
+     * @return the longest time, in milliseconds, a task waited between being submitted
+     *         and starting
+     */
+    public long getMaxQueueWait()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(maxQueueWait.get());
+    }
+
+    private static class BufferedTask implements Runnable
+    {
+        private final Runnable command;
+        private final long submitTime;
+
+        public BufferedTask(Runnable command, long submitTime)
+        {
+            this.command = command;
+            this.submitTime = submitTime;
+        }
+
+        public void run()
+        {
+            command.run();
+        }
+    }
+
+    private class QuotaTask implements Runnable
+    {
+        private final Runnable command;
+        private final long submitTime;
+
+        public QuotaTask(Runnable command, long submitTime)
+        {
+            this.command = command;
+            this.submitTime = submitTime;
+        }
+
+        public void run()
+        {
+            recordQueueWait(System.nanoTime() - submitTime);
+
+            Thread thread = Thread.currentThread();
+            ClassLoader originalClassLoader = thread.getContextClassLoader();
+            String originalName = thread.getName();
+            activeTasks.incrementAndGet();
+            activeThreads.add(thread);
+            try
+            {
+                thread.setContextClassLoader(contextClassLoader);
+                if (StringUtils.isNotBlank(name))
+                {
+                    thread.setName(name);
+                }
+                beforeExecute(thread, command);
+                Throwable thrown = null;
+                try
+                {
+                    command.run();
+                }
+                catch (RuntimeException e)
+                {
+                    thrown = e;
+                    throw e;
+                }
+                catch (Error e)
+                {
+                    thrown = e;
+                    throw e;
+                }
+                finally
+                {
+                    afterExecute(command, thrown);
+                }
+            }
+            finally
+            {
+                activeThreads.remove(thread);
+                thread.setName(originalName);
+                thread.setContextClassLoader(originalClassLoader);
+                activeTasks.decrementAndGet();
+                completedTasks.incrementAndGet();
+                taskCompleted();
+            }
+        }
+    }
+
+    /**
+     * Waits up to <code>threadWaitTimeout</code> for a running task to complete, the
+     * behaviour of {@link ThreadingProfile#WHEN_EXHAUSTED_WAIT}.
+     */
+    private class WaitForPermitPolicy implements RejectedExecutionHandler
+    {
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor)
+        {
+            if (shutdown)
+            {
+                throw new RejectedExecutionException(name + " is already shut down");
+            }
+            try
+            {
+                if (!permits.tryAcquire(threadWaitTimeout, TimeUnit.MILLISECONDS))
+                {
+                    throw new RejectedExecutionException(String.format("%s did not accept within %d ms", name,
+                        threadWaitTimeout));
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException(e);
+            }
+            dispatch(r, System.nanoTime());
+        }
+    }
+}
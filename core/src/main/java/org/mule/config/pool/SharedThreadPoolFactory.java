@@ -0,0 +1,50 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.config.pool;
+
+import org.mule.api.config.ThreadingProfile;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Creates pools that run their tasks on the shared {@link WorkStealingScheduler}
+ * instead of dedicated threads. The settings of each {@link ThreadingProfile} become a
+ * quota on the shared scheduler, see {@link QuotaThreadPoolExecutor}.
+ * <p/>
+ * Profiles with a custom thread factory and scheduled pools still get dedicated
+ * threads, as created by {@link DefaultThreadPoolFactory}.
+ * <p/>
+ * Enable it with the <code>mule.threadPoolFactory</code> system property set to the
+ * name of this class.
+ */
+public class SharedThreadPoolFactory extends DefaultThreadPoolFactory
+{
+
+    @Override
+    public ThreadPoolExecutor createPool(String name, ThreadingProfile tp)
+    {
+        if (tp.getThreadFactory() != null)
+        {
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Threading profile of " + name + " has a custom thread factory, creating a dedicated pool");
+            }
+            return super.createPool(name, tp);
+        }
+
+        return new QuotaThreadPoolExecutor(name, tp, getScheduler());
+    }
+
+    public WorkStealingScheduler getScheduler()
+    {
+        return WorkStealingScheduler.getSharedInstance();
+    }
+}
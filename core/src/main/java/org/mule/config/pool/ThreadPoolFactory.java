@@ -12,10 +12,12 @@ package org.mule.config.pool;
 
 import org.mule.api.MuleContext;
 import org.mule.api.MuleRuntimeException;
+import org.mule.api.config.MuleProperties;
 import org.mule.api.config.ThreadingProfile;
 import org.mule.api.context.MuleContextAware;
 import org.mule.config.PreferredObjectSelector;
 import org.mule.config.i18n.MessageFactory;
+import org.mule.util.ClassUtils;
 
 import java.util.Iterator;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -26,11 +28,18 @@ import javax.imageio.spi.ServiceRegistry;
 /**
  * Uses a standard JDK's
  * <a href="http://java.sun.com/j2se/1.3/docs/guide/jar/jar.html#Service%20Provider">SPI discovery</a>
- * mechanism to locate implementations.
+ * mechanism to locate implementations. The implementation can also be chosen with the
+ * {@link #THREAD_POOL_FACTORY_PROPERTY} system property.
  */
 public abstract class ThreadPoolFactory implements MuleContextAware
 {
 
+    /**
+     * System property holding the class name of the {@link ThreadPoolFactory} to use
+     * instead of the one discovered through SPI.
+     */
+    public static final String THREAD_POOL_FACTORY_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "threadPoolFactory";
+
     protected MuleContext muleContext;
 
     /**
@@ -38,6 +47,21 @@ public abstract class ThreadPoolFactory implements MuleContextAware
      */
     public static ThreadPoolFactory newInstance()
     {
+        String factoryClassName = System.getProperty(THREAD_POOL_FACTORY_PROPERTY);
+        if (factoryClassName != null)
+        {
+            try
+            {
+                return (ThreadPoolFactory) ClassUtils.instanciateClass(factoryClassName, ClassUtils.NO_ARGS,
+                    ThreadPoolFactory.class);
+            }
+            catch (Exception e)
+            {
+                throw new MuleRuntimeException(MessageFactory.createStaticMessage(
+                        "Couldn't create thread pool factory " + factoryClassName), e);
+            }
+        }
+
         /*
            There's a public (at last!) SPI mechanism in Java 6, java.util.ServiceLoader, but
            it's hidden in earlier versions.
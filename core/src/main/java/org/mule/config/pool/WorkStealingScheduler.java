@@ -0,0 +1,651 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.config.pool;
+
+import org.mule.api.config.MuleProperties;
+import org.mule.util.concurrent.DaemonThreadFactory;
+import org.mule.util.concurrent.NamedThreadFactory;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A pool of threads shared by many components, sized from the time tasks wait to be
+ * picked up rather than from a fixed configuration.
+ * <p/>
+ * Each worker thread has its own deque: tasks submitted from a worker are pushed on
+ * that worker's deque and taken back in LIFO order, while tasks submitted from other
+ * threads go to a shared queue. A worker without local work takes from the shared queue
+ * and then steals the oldest task from the other workers.
+ * <p/>
+ * The scheduler starts with <code>minThreads</code> workers. A monitor samples the
+ * queue wait every {@link #SAMPLE_INTERVAL} milliseconds and adds workers, up to
+ * <code>maxThreads</code>, while tasks wait longer than <code>targetLatency</code> or
+ * do not get picked up at all. Workers idle for longer than <code>keepAlive</code>
+ * exit, down to <code>minThreads</code>.
+ * <p/>
+ * Tasks submitted with an affinity key are pinned to one of the
+ * <code>minThreads</code> workers that never exit, selected by the hash of the key,
+ * and are never stolen: tasks with equal keys run on the same thread, one at a time
+ * and in the order they were submitted.
+ */
+public class WorkStealingScheduler implements Executor
+{
+
+    public static final String SYSTEM_PROPERTY_PREFIX = MuleProperties.SYSTEM_PROPERTY_PREFIX + "sharedScheduler.";
+    public static final String MIN_THREADS_PROPERTY = SYSTEM_PROPERTY_PREFIX + "minThreads";
+    public static final String MAX_THREADS_PROPERTY = SYSTEM_PROPERTY_PREFIX + "maxThreads";
+    public static final String TARGET_LATENCY_PROPERTY = SYSTEM_PROPERTY_PREFIX + "targetLatency";
+    public static final String KEEP_ALIVE_PROPERTY = SYSTEM_PROPERTY_PREFIX + "keepAlive";
+
+    public static final int DEFAULT_MAX_THREADS = 512;
+    public static final long DEFAULT_TARGET_LATENCY = 20;
+    public static final long DEFAULT_KEEP_ALIVE = 60000;
+
+    /**
+     * Milliseconds between two samples of the queue wait.
+     */
+    public static final long SAMPLE_INTERVAL = 50;
+
+    private static WorkStealingScheduler sharedInstance;
+
+    protected transient final Log logger = LogFactory.getLog(WorkStealingScheduler.class);
+
+    private final String name;
+    private final int minThreads;
+    private final int maxThreads;
+    private final long targetLatencyNanos;
+    private final long keepAliveNanos;
+    private final int maxQueuedTasks;
+
+    private final NamedThreadFactory threadFactory;
+    private final ScheduledThreadPoolExecutor monitor;
+    private final ThreadLocal<Worker> currentWorker = new ThreadLocal<Worker>();
+    private final Queue<Task> submissionQueue = new ConcurrentLinkedQueue<Task>();
+    private final Worker[] coreWorkers;
+    private final List<Worker> workers = new CopyOnWriteArrayList<Worker>();
+    private final Queue<Worker> idleWorkers = new ConcurrentLinkedQueue<Worker>();
+    private final Semaphore queueSlots;
+    private final Random random = new Random();
+
+    private final AtomicInteger threadCount = new AtomicInteger(0);
+    private final AtomicInteger queuedTasks = new AtomicInteger(0);
+    private final AtomicLong executedTasks = new AtomicLong(0);
+    private final AtomicLong steals = new AtomicLong(0);
+    private final AtomicLong sampleMaxWait = new AtomicLong(0);
+    private final AtomicLong sampleStarted = new AtomicLong(0);
+    private final AtomicLong sampleSteals = new AtomicLong(0);
+    private volatile long stealRate = 0;
+    private volatile boolean started = false;
+    private volatile boolean shutdown = false;
+    private volatile boolean disposed = false;
+
+    /**
+     * @return the scheduler shared by all the pools created by
+     *         {@link SharedThreadPoolFactory}, configured from the
+     *         <code>mule.sharedScheduler.*</code> system properties
+     */
+    public static synchronized WorkStealingScheduler getSharedInstance()
+    {
+        if (sharedInstance == null)
+        {
+            int cpus = Runtime.getRuntime().availableProcessors();
+            sharedInstance = new WorkStealingScheduler("mule.shared",
+                Integer.getInteger(MIN_THREADS_PROPERTY, cpus),
+                Integer.getInteger(MAX_THREADS_PROPERTY, DEFAULT_MAX_THREADS),
+                Long.getLong(TARGET_LATENCY_PROPERTY, DEFAULT_TARGET_LATENCY),
+                Long.getLong(KEEP_ALIVE_PROPERTY, DEFAULT_KEEP_ALIVE));
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Creates an unbounded scheduler and starts its workers.
+     *
+     * @param name prefix of the worker thread names
+     * @param minThreads workers kept alive when idle
+     * @param maxThreads maximum number of workers
+     * @param targetLatency milliseconds a task may wait before more workers are added
+     * @param keepAlive milliseconds an idle worker above <code>minThreads</code> waits
+     *            before exiting
+     */
+    public WorkStealingScheduler(String name, int minThreads, int maxThreads, long targetLatency, long keepAlive)
+    {
+        this(name, minThreads, maxThreads, targetLatency, keepAlive, 0, WorkStealingScheduler.class.getClassLoader());
+        start();
+    }
+
+    /**
+     * Creates a scheduler whose workers do not run until {@link #start()} is called.
+     * Tasks submitted before that are queued.
+     *
+     * @param maxQueuedTasks tasks that can wait to be started before new ones are
+     *            rejected, or 0 for no limit
+     * @param classLoader context classloader of the worker threads
+     * @see #WorkStealingScheduler(String, int, int, long, long)
+     */
+    public WorkStealingScheduler(String name,
+                                 int minThreads,
+                                 int maxThreads,
+                                 long targetLatency,
+                                 long keepAlive,
+                                 int maxQueuedTasks,
+                                 ClassLoader classLoader)
+    {
+        this.name = name;
+        this.minThreads = Math.max(1, minThreads);
+        this.maxThreads = Math.max(this.minThreads, maxThreads);
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatency);
+        this.keepAliveNanos = TimeUnit.MILLISECONDS.toNanos(keepAlive);
+        this.maxQueuedTasks = Math.max(0, maxQueuedTasks);
+        this.queueSlots = this.maxQueuedTasks > 0 ? new Semaphore(this.maxQueuedTasks) : null;
+
+        this.threadFactory = new DaemonThreadFactory(name, classLoader);
+        this.monitor = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory(name + ".monitor", classLoader));
+        this.coreWorkers = new Worker[this.minThreads];
+        for (int i = 0; i < coreWorkers.length; i++)
+        {
+            coreWorkers[i] = new Worker(true);
+        }
+    }
+
+    /**
+     * Starts the <code>minThreads</code> workers and the monitor. Does nothing if the
+     * scheduler is already started.
+     */
+    public synchronized void start()
+    {
+        if (started)
+        {
+            return;
+        }
+        if (shutdown)
+        {
+            throw new IllegalStateException("Scheduler " + name + " has been disposed");
+        }
+        threadCount.addAndGet(coreWorkers.length);
+        for (Worker worker : coreWorkers)
+        {
+            startWorker(worker);
+        }
+        monitor.scheduleWithFixedDelay(new Runnable()
+        {
+            public void run()
+            {
+                sample();
+            }
+        }, SAMPLE_INTERVAL, SAMPLE_INTERVAL, TimeUnit.MILLISECONDS);
+        started = true;
+    }
+
+    public void execute(Runnable command)
+    {
+        execute(command, null);
+    }
+
+    /**
+     * @param affinityKey tasks with equal keys run on the same worker in submission
+     *            order, or null to let any worker run the task
+     * @throws RejectedExecutionException if the scheduler is disposed or
+     *             <code>maxQueuedTasks</code> tasks are already waiting
+     */
+    public void execute(Runnable command, Object affinityKey)
+    {
+        if (shutdown)
+        {
+            throw new RejectedExecutionException("Scheduler " + name + " has been disposed");
+        }
+        if (queueSlots != null && !queueSlots.tryAcquire())
+        {
+            throw new RejectedExecutionException("Scheduler " + name + " already has " + maxQueuedTasks
+                                                 + " queued tasks");
+        }
+        enqueue(command, affinityKey);
+    }
+
+    /**
+     * Like {@link #execute(Runnable, Object)}, but waits up to <code>timeout</code>
+     * milliseconds for a queued task to start when <code>maxQueuedTasks</code> tasks are
+     * already waiting.
+     */
+    public void execute(Runnable command, Object affinityKey, long timeout)
+    {
+        if (shutdown)
+        {
+            throw new RejectedExecutionException("Scheduler " + name + " has been disposed");
+        }
+        try
+        {
+            if (queueSlots != null && !queueSlots.tryAcquire(timeout, TimeUnit.MILLISECONDS))
+            {
+                throw new RejectedExecutionException(String.format("%s did not accept within %d ms", name,
+                    timeout));
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(e);
+        }
+        enqueue(command, affinityKey);
+    }
+
+    private void enqueue(Runnable command, Object affinityKey)
+    {
+        Task task = new Task(command);
+        queuedTasks.incrementAndGet();
+        if (affinityKey != null)
+        {
+            Worker worker = coreWorkers[(affinityKey.hashCode() & Integer.MAX_VALUE) % coreWorkers.length];
+            worker.pinned.offer(task);
+            // only the owner can run a pinned task
+            Thread thread = worker.thread;
+            if (thread != null)
+            {
+                LockSupport.unpark(thread);
+            }
+            return;
+        }
+
+        Worker worker = currentWorker.get();
+        if (worker != null)
+        {
+            worker.deque.offerFirst(task);
+        }
+        else
+        {
+            submissionQueue.offer(task);
+        }
+
+        Worker idle = idleWorkers.poll();
+        if (idle != null)
+        {
+            LockSupport.unpark(idle.thread);
+        }
+    }
+
+    private boolean addWorker()
+    {
+        while (true)
+        {
+            int current = threadCount.get();
+            if (current >= maxThreads)
+            {
+                return false;
+            }
+            if (threadCount.compareAndSet(current, current + 1))
+            {
+                break;
+            }
+        }
+
+        startWorker(new Worker(false));
+        return true;
+    }
+
+    private void startWorker(Worker worker)
+    {
+        worker.thread = threadFactory.newThread(worker);
+        worker.thread.setName(String.format("%s.%02d", name, threadFactory.getCounter().getAndIncrement()));
+        workers.add(worker);
+        worker.thread.start();
+    }
+
+    private Task findTask(Worker worker)
+    {
+        Task task = worker.pinned.poll();
+        if (task != null)
+        {
+            return task;
+        }
+
+        task = worker.deque.pollFirst();
+        if (task != null)
+        {
+            return task;
+        }
+
+        task = submissionQueue.poll();
+        if (task != null)
+        {
+            return task;
+        }
+
+        Object[] candidates = workers.toArray();
+        if (candidates.length > 1)
+        {
+            int start = random.nextInt(candidates.length);
+            for (int i = 0; i < candidates.length; i++)
+            {
+                Worker victim = (Worker) candidates[(start + i) % candidates.length];
+                if (victim != worker)
+                {
+                    task = victim.deque.pollLast();
+                    if (task != null)
+                    {
+                        steals.incrementAndGet();
+                        sampleSteals.incrementAndGet();
+                        return task;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void runTask(Task task)
+    {
+        queuedTasks.decrementAndGet();
+        if (queueSlots != null)
+        {
+            queueSlots.release();
+        }
+        long wait = System.nanoTime() - task.submitTime;
+        long current = sampleMaxWait.get();
+        while (wait > current && !sampleMaxWait.compareAndSet(current, wait))
+        {
+            current = sampleMaxWait.get();
+        }
+        sampleStarted.incrementAndGet();
+
+        try
+        {
+            task.command.run();
+        }
+        catch (Throwable t)
+        {
+            logger.error("Uncaught exception running task on scheduler " + name, t);
+        }
+        finally
+        {
+            executedTasks.incrementAndGet();
+            // do not leak an interrupt meant for the task to the next one
+            Thread.interrupted();
+        }
+    }
+
+    private boolean tryRetire()
+    {
+        while (true)
+        {
+            int current = threadCount.get();
+            if (current <= minThreads)
+            {
+                return false;
+            }
+            if (threadCount.compareAndSet(current, current - 1))
+            {
+                return true;
+            }
+        }
+    }
+
+    private void sample()
+    {
+        long maxWait = sampleMaxWait.getAndSet(0);
+        long started = sampleStarted.getAndSet(0);
+        stealRate = sampleSteals.getAndSet(0) * 1000 / SAMPLE_INTERVAL;
+
+        if (queuedTasks.get() == 0 || !idleWorkers.isEmpty())
+        {
+            return;
+        }
+
+        Task oldest = submissionQueue.peek();
+        long oldestWait = oldest == null ? 0 : System.nanoTime() - oldest.submitTime;
+        if (started == 0 || maxWait > targetLatencyNanos || oldestWait > targetLatencyNanos)
+        {
+            // grow by a quarter of the current size so bursts are absorbed quickly
+            int toAdd = Math.max(1, threadCount.get() / 4);
+            for (int i = 0; i < toAdd && addWorker(); i++)
+            {
+                // keep adding
+            }
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Scheduler " + name + " grew to " + threadCount.get() + " threads, queued tasks: "
+                             + queuedTasks.get() + ", max wait: " + TimeUnit.NANOSECONDS.toMillis(maxWait) + " ms");
+            }
+        }
+    }
+
+    /**
+     * Stops the workers once they finish their current task. Tasks that did not start
+     * are discarded.
+     */
+    public void dispose()
+    {
+        shutdown = true;
+        disposed = true;
+        monitor.shutdownNow();
+        for (Worker worker : workers)
+        {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    /**
+     * Rejects new tasks and waits up to <code>timeout</code> milliseconds for the
+     * workers to run the queued ones. Workers still running after that are interrupted
+     * and the tasks that did not start are discarded.
+     */
+    public void dispose(long timeout)
+    {
+        synchronized (this)
+        {
+            shutdown = true;
+        }
+        monitor.shutdownNow();
+        for (Worker worker : workers)
+        {
+            LockSupport.unpark(worker.thread);
+        }
+
+        long deadline = System.currentTimeMillis() + timeout;
+        try
+        {
+            for (Worker worker : workers)
+            {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining > 0)
+                {
+                    worker.thread.join(remaining);
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        dispose();
+        for (Worker worker : workers)
+        {
+            worker.thread.interrupt();
+        }
+        if (queuedTasks.get() > 0 && logger.isWarnEnabled())
+        {
+            logger.warn("Scheduler " + name + " disposed with " + queuedTasks.get() + " tasks not started");
+        }
+    }
+
+    /**
+     * @return true once the scheduler rejects new tasks
+     */
+    public boolean isDisposed()
+    {
+        return shutdown;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int getMinThreads()
+    {
+        return minThreads;
+    }
+
+    public int getMaxThreads()
+    {
+        return maxThreads;
+    }
+
+    /**
+     * @return the number of tasks that can wait to be started, or 0 for no limit
+     */
+    public int getMaxQueuedTasks()
+    {
+        return maxQueuedTasks;
+    }
+
+    /**
+     * @return the number of worker threads
+     */
+    public int getThreadCount()
+    {
+        return threadCount.get();
+    }
+
+    /**
+     * @return the number of worker threads waiting for tasks
+     */
+    public int getIdleThreadCount()
+    {
+        return idleWorkers.size();
+    }
+
+    /**
+     * @return the number of tasks submitted but not started yet
+     */
+    public int getQueuedTaskCount()
+    {
+        return queuedTasks.get();
+    }
+
+    public long getExecutedTaskCount()
+    {
+        return executedTasks.get();
+    }
+
+    /**
+     * @return the number of tasks a worker took from the deque of another worker
+     */
+    public long getStealCount()
+    {
+        return steals.get();
+    }
+
+    /**
+     * @return the number of steals per second over the last sample
+     */
+    public long getStealRate()
+    {
+        return stealRate;
+    }
+
+    private static class Task
+    {
+        private final Runnable command;
+        private final long submitTime = System.nanoTime();
+
+        public Task(Runnable command)
+        {
+            this.command = command;
+        }
+    }
+
+    private class Worker implements Runnable
+    {
+        private final LinkedBlockingDeque<Task> deque = new LinkedBlockingDeque<Task>();
+        private final Queue<Task> pinned = new ConcurrentLinkedQueue<Task>();
+        private final boolean core;
+        private volatile Thread thread;
+
+        public Worker(boolean core)
+        {
+            this.core = core;
+        }
+
+        public void run()
+        {
+            currentWorker.set(this);
+            boolean retired = false;
+            try
+            {
+                while (!disposed)
+                {
+                    Task task = findTask(this);
+                    if (task == null)
+                    {
+                        if (shutdown)
+                        {
+                            // drained, the other workers drain their own pinned tasks
+                            break;
+                        }
+                        idleWorkers.add(this);
+                        // check again, a task may have been submitted before this worker
+                        // was visible as idle
+                        task = findTask(this);
+                        if (task == null)
+                        {
+                            long idleStart = System.nanoTime();
+                            LockSupport.parkNanos(this, keepAliveNanos);
+                            idleWorkers.remove(this);
+                            task = findTask(this);
+                            if (task == null)
+                            {
+                                // workers that may hold pinned tasks never retire
+                                if (!core && System.nanoTime() - idleStart >= keepAliveNanos && tryRetire())
+                                {
+                                    retired = true;
+                                    break;
+                                }
+                                continue;
+                            }
+                        }
+                        else
+                        {
+                            idleWorkers.remove(this);
+                        }
+                    }
+                    runTask(task);
+                }
+            }
+            finally
+            {
+                idleWorkers.remove(this);
+                workers.remove(this);
+                currentWorker.remove();
+                if (!retired)
+                {
+                    threadCount.decrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.mule.construct.flow.DefaultFlowProcessingStrategy;
 import org.mule.context.notification.PipelineMessageNotification;
 import org.mule.exception.ChoiceMessagingExceptionStrategy;
 import org.mule.exception.RollbackMessagingExceptionStrategy;
+import org.mule.management.stats.QueueStatisticsAware;
 import org.mule.processor.AbstractFilteringMessageProcessor;
 import org.mule.processor.AbstractInterceptingMessageProcessor;
 import org.mule.processor.chain.DefaultMessageProcessorChainBuilder;
@@ -191,6 +192,12 @@ public abstract class AbstractPipeline extends AbstractFlowConstruct implements
     {
         super.doInitialise();
 
+        if (processingStrategy instanceof QueueStatisticsAware)
+        {
+            // Queued stages report their occupancy to the flow, whose message sources are
+            // throttled when it crosses the watermarks
+            ((QueueStatisticsAware) processingStrategy).setQueueStatistics(getStatistics());
+        }
         pipeline = createPipeline();
 
         if (messageSource != null)
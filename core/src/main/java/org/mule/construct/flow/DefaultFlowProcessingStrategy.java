@@ -34,6 +34,7 @@ public class DefaultFlowProcessingStrategy extends QueuedAsynchronousProcessingS
         initQueueStore(muleContext);
 
         QueueProfile queueProfile = new QueueProfile(maxQueueSize, queueStore);
+        configureWatermarks(queueProfile);
         ThreadingProfile threadingProfile = createThreadingProfile(muleContext);
         String stageName = nameSource.getName();
         return new LaxSedaStageInterceptingMessageProcessor(getThreadPoolName(stageName, muleContext),
@@ -50,11 +50,29 @@ public class MVELExpressionExecutor implements ExpressionExecutor<MVELExpression
         return MVEL.executeExpression(getCompiledExpression(expression), context);
     }
 
+    /**
+     * Executes an expression compiled with {@link #compile(String)}.
+     */
+    public Object execute(Serializable compiledExpression, MVELExpressionLanguageContext context)
+    {
+        OptimizerFactory.setDefaultOptimizer(OptimizerFactory.SAFE_REFLECTIVE);
+        return MVEL.executeExpression(compiledExpression, context);
+    }
+
     public void validate(String expression) throws InvalidExpressionException
     {
         getCompiledExpression(expression);
     }
 
+    /**
+     * Compiles an expression for callers that keep the compiled expression themselves,
+     * reusing the compilation of {@link #validate(String)} if it is still cached.
+     */
+    public Serializable compile(String expression)
+    {
+        return getCompiledExpression(expression);
+    }
+
     /**
      * Compile an expression. If such expression was compiled before then return the compilation output from a
      * cache.
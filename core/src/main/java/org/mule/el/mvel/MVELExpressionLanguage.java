@@ -27,6 +27,7 @@ import org.mule.transport.NullPayload;
 import org.mule.util.IOUtils;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.HashMap;
@@ -145,6 +146,11 @@ public class MVELExpressionLanguage implements ExpressionLanguage, Initialisable
     @Override
     @SuppressWarnings("unchecked")
     public <T> T evaluate(String expression, MuleEvent event, Map<String, Object> vars)
+    {
+        return (T) evaluateInternal(expression, createEventContext(event, vars));
+    }
+
+    protected MVELExpressionLanguageContext createEventContext(MuleEvent event, Map<String, Object> vars)
     {
         MVELExpressionLanguageContext factory = createExpressionLanguageContext();
         if (vars != null)
@@ -160,7 +166,7 @@ public class MVELExpressionLanguage implements ExpressionLanguage, Initialisable
         }
         factory.addPrivateVariable(MVELExpressionLanguageContext.MULE_MESSAGE_INTERNAL_VARIABLE,
             event.getMessage());
-        return (T) evaluateInternal(expression, factory);
+        return factory;
     }
 
     @Override
@@ -182,6 +188,11 @@ public class MVELExpressionLanguage implements ExpressionLanguage, Initialisable
     @Override
     @Deprecated
     public <T> T evaluate(String expression, MuleMessage message, Map<String, Object> vars)
+    {
+        return (T) evaluateInternal(expression, createMessageContext(message, vars));
+    }
+
+    protected MVELExpressionLanguageContext createMessageContext(MuleMessage message, Map<String, Object> vars)
     {
         MVELExpressionLanguageContext factory = createExpressionLanguageContext();
         if (vars != null)
@@ -196,7 +207,65 @@ public class MVELExpressionLanguage implements ExpressionLanguage, Initialisable
             factory.localFactory.appendFactory(createVariableVariableResolverFactory(message));
         }
         factory.addPrivateVariable(MVELExpressionLanguageContext.MULE_MESSAGE_INTERNAL_VARIABLE, message);
-        return (T) evaluateInternal(expression, factory);
+        return factory;
+    }
+
+    /**
+     * Compiles an expression once, so it can be evaluated many times with
+     * {@link #evaluateCompiled(Serializable, String, MuleEvent)} without looking it up
+     * in the cache of compiled expressions.
+     *
+     * @param expression the expression, with or without the enclosing braces
+     * @throws InvalidExpressionException if the expression cannot be compiled
+     */
+    public Serializable compile(String expression) throws InvalidExpressionException
+    {
+        validate(expression);
+
+        if (expression.startsWith(ExpressionManager.DEFAULT_EXPRESSION_PREFIX))
+        {
+            expression = expression.substring(2, expression.length() - 1);
+        }
+        try
+        {
+            return expressionExecutor.compile(expression);
+        }
+        catch (CompileException e)
+        {
+            throw new InvalidExpressionException(expression, e.getMessage());
+        }
+    }
+
+    /**
+     * Evaluates an expression compiled with {@link #compile(String)}.
+     *
+     * @param compiledExpression the compiled expression
+     * @param expression the expression text, used to report errors
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T evaluateCompiled(Serializable compiledExpression, String expression, MuleEvent event)
+    {
+        return (T) executeCompiled(compiledExpression, expression, createEventContext(event, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T evaluateCompiled(Serializable compiledExpression, String expression, MuleMessage message)
+    {
+        return (T) executeCompiled(compiledExpression, expression, createMessageContext(message, null));
+    }
+
+    protected Object executeCompiled(Serializable compiledExpression,
+                                     String expression,
+                                     MVELExpressionLanguageContext variableResolverFactory)
+    {
+        try
+        {
+            return expressionExecutor.execute(compiledExpression, variableResolverFactory);
+        }
+        catch (Exception e)
+        {
+            throw new ExpressionRuntimeException(CoreMessages.expressionEvaluationFailed(expression), e);
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,300 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.endpoint;
+
+import org.mule.api.DefaultMuleException;
+import org.mule.api.MuleException;
+import org.mule.api.endpoint.OutboundEndpoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the static endpoints resolved by a {@link DynamicOutboundEndpoint}, keyed by
+ * their address.
+ * <p/>
+ * Lookups do not lock, and an endpoint is built once per address even when many
+ * threads miss it at the same time: the first one builds it while the others wait
+ * for the result. Once the cache holds more than <code>maxSize</code> endpoints the
+ * least recently used ones are evicted and, if <code>timeToLive</code> is positive,
+ * endpoints are built again once they are older than it.
+ * <p/>
+ * Evicting an endpoint does not lose its dispatchers: connectors pool dispatchers by
+ * endpoint equality and an endpoint built again for the same address is equal to the
+ * evicted one, so it reuses them.
+ */
+public class DynamicEndpointCache
+{
+
+    public static final String MAX_SIZE_PROPERTY = "mule.dynamicEndpoint.cacheSize";
+    public static final String TIME_TO_LIVE_PROPERTY = "mule.dynamicEndpoint.cacheTimeToLive";
+
+    public static final int DEFAULT_MAX_SIZE = 1024;
+    public static final long DEFAULT_TIME_TO_LIVE = 0;
+
+    /**
+     * Fraction of <code>maxSize</code> evicted at once, so the cache is not scanned on
+     * every miss once it is full.
+     */
+    private static final float EVICTION_FACTOR = 0.1f;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private final int maxSize;
+    private final long timeToLive;
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    /**
+     * Creates a cache configured from the {@link #MAX_SIZE_PROPERTY} and
+     * {@link #TIME_TO_LIVE_PROPERTY} system properties.
+     */
+    public DynamicEndpointCache()
+    {
+        this(Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE),
+            Long.getLong(TIME_TO_LIVE_PROPERTY, DEFAULT_TIME_TO_LIVE));
+    }
+
+    /**
+     * @param maxSize the maximum number of endpoints to keep, unbounded if not positive
+     * @param timeToLive the time in milliseconds an endpoint is kept after being built,
+     *            no limit if not positive
+     */
+    public DynamicEndpointCache(int maxSize, long timeToLive)
+    {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Returns the endpoint cached for the address, building it with the given callable
+     * if there is none. Failures are not cached.
+     */
+    public OutboundEndpoint get(String address, Callable<OutboundEndpoint> factory) throws MuleException
+    {
+        while (true)
+        {
+            long now = System.currentTimeMillis();
+            Entry entry = entries.get(address);
+            if (entry != null && !isExpired(entry, now))
+            {
+                hits.incrementAndGet();
+                entry.lastAccess = now;
+                return entry.getEndpoint();
+            }
+
+            Entry newEntry = new Entry(new FutureTask<OutboundEndpoint>(factory), now);
+            boolean added = entry == null
+                            ? entries.putIfAbsent(address, newEntry) == null
+                            : entries.replace(address, entry, newEntry);
+            if (!added)
+            {
+                // another thread is building it
+                continue;
+            }
+
+            misses.incrementAndGet();
+            newEntry.task.run();
+            try
+            {
+                return newEntry.getEndpoint();
+            }
+            catch (MuleException e)
+            {
+                entries.remove(address, newEntry);
+                throw e;
+            }
+            catch (RuntimeException e)
+            {
+                entries.remove(address, newEntry);
+                throw e;
+            }
+            finally
+            {
+                if (maxSize > 0 && entries.size() > maxSize)
+                {
+                    evict();
+                }
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now)
+    {
+        return timeToLive > 0 && now - entry.created > timeToLive;
+    }
+
+    private void evict()
+    {
+        if (!evicting.compareAndSet(false, true))
+        {
+            // another thread is already evicting
+            return;
+        }
+        try
+        {
+            long now = System.currentTimeMillis();
+            List<Map.Entry<String, Entry>> candidates = new ArrayList<Map.Entry<String, Entry>>();
+            for (Map.Entry<String, Entry> mapEntry : entries.entrySet())
+            {
+                if (isExpired(mapEntry.getValue(), now))
+                {
+                    remove(mapEntry.getKey(), mapEntry.getValue());
+                }
+                else
+                {
+                    candidates.add(mapEntry);
+                }
+            }
+
+            int target = Math.max(0, maxSize - (int) (maxSize * EVICTION_FACTOR));
+            int excess = entries.size() - target;
+            if (excess <= 0)
+            {
+                return;
+            }
+
+            Collections.sort(candidates, new Comparator<Map.Entry<String, Entry>>()
+            {
+                public int compare(Map.Entry<String, Entry> e1, Map.Entry<String, Entry> e2)
+                {
+                    long a1 = e1.getValue().lastAccess;
+                    long a2 = e2.getValue().lastAccess;
+                    return a1 < a2 ? -1 : (a1 == a2 ? 0 : 1);
+                }
+            });
+            for (int i = 0; i < excess && i < candidates.size(); i++)
+            {
+                remove(candidates.get(i).getKey(), candidates.get(i).getValue());
+            }
+        }
+        finally
+        {
+            evicting.set(false);
+        }
+    }
+
+    private void remove(String address, Entry entry)
+    {
+        if (entries.remove(address, entry))
+        {
+            evictions.incrementAndGet();
+        }
+    }
+
+    public void clear()
+    {
+        entries.clear();
+    }
+
+    public int getSize()
+    {
+        return entries.size();
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public long getTimeToLive()
+    {
+        return timeToLive;
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    /**
+     * @return the fraction of lookups that found a cached endpoint, between 0 and 1
+     */
+    public double getHitRate()
+    {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("DynamicEndpointCache{size=%d, maxSize=%d, hits=%d, misses=%d, evictions=%d}",
+            getSize(), maxSize, getHits(), getMisses(), getEvictions());
+    }
+
+    private static class Entry
+    {
+        private final FutureTask<OutboundEndpoint> task;
+        private final long created;
+        private volatile long lastAccess;
+
+        public Entry(FutureTask<OutboundEndpoint> task, long created)
+        {
+            this.task = task;
+            this.created = created;
+            this.lastAccess = created;
+        }
+
+        public OutboundEndpoint getEndpoint() throws MuleException
+        {
+            try
+            {
+                return task.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new DefaultMuleException(e);
+            }
+            catch (ExecutionException e)
+            {
+                Throwable cause = e.getCause();
+                if (cause instanceof MuleException)
+                {
+                    throw (MuleException) cause;
+                }
+                else if (cause instanceof RuntimeException)
+                {
+                    throw (RuntimeException) cause;
+                }
+                else if (cause instanceof Error)
+                {
+                    throw (Error) cause;
+                }
+                throw new DefaultMuleException(cause);
+            }
+        }
+    }
+}
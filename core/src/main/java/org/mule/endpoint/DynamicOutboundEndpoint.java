@@ -37,11 +37,10 @@ import org.mule.api.transport.DispatchException;
 import org.mule.config.i18n.CoreMessages;
 import org.mule.processor.AbstractRedeliveryPolicy;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
-import org.apache.commons.collections.map.LRUMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -73,7 +72,7 @@ public class DynamicOutboundEndpoint implements OutboundEndpoint
     private final OutboundEndpoint prototypeEndpoint;
 
     // Caches resolved static endpoints to improve performance
-    private Map<String, OutboundEndpoint> staticEndpoints = Collections.synchronizedMap(new LRUMap(64));
+    private volatile DynamicEndpointCache staticEndpoints = new DynamicEndpointCache();
 
     public DynamicOutboundEndpoint(EndpointBuilder builder, String uriTemplate) throws MalformedEndpointException
     {
@@ -146,17 +145,15 @@ public class DynamicOutboundEndpoint implements OutboundEndpoint
         return getStaticEndpointFor(endpointURIForMessage).process(event);
     }
 
-    private OutboundEndpoint getStaticEndpointFor(EndpointURI uri) throws EndpointException, InitialisationException
+    private OutboundEndpoint getStaticEndpointFor(final EndpointURI uri) throws MuleException
     {
-        OutboundEndpoint outboundEndpoint = staticEndpoints.get(uri.getAddress());
-
-        if (outboundEndpoint == null)
+        return staticEndpoints.get(uri.getAddress(), new Callable<OutboundEndpoint>()
         {
-            outboundEndpoint = createStaticEndpoint(uri);
-            staticEndpoints.put(uri.getAddress(), outboundEndpoint);
-        }
-
-        return outboundEndpoint;
+            public OutboundEndpoint call() throws Exception
+            {
+                return createStaticEndpoint(uri);
+            }
+        });
     }
 
     private OutboundEndpoint createStaticEndpoint(EndpointURI uri) throws EndpointException, InitialisationException
@@ -174,6 +171,32 @@ public class DynamicOutboundEndpoint implements OutboundEndpoint
         }
     }
 
+    /**
+     * Sets the maximum number of resolved endpoints to keep, unbounded if not positive.
+     * The endpoints resolved so far are discarded.
+     */
+    public void setCacheMaxSize(int maxSize)
+    {
+        staticEndpoints = new DynamicEndpointCache(maxSize, staticEndpoints.getTimeToLive());
+    }
+
+    /**
+     * Sets the time in milliseconds a resolved endpoint is kept before being built
+     * again, no limit if not positive. The endpoints resolved so far are discarded.
+     */
+    public void setCacheTimeToLive(long timeToLive)
+    {
+        staticEndpoints = new DynamicEndpointCache(staticEndpoints.getMaxSize(), timeToLive);
+    }
+
+    /**
+     * @return the cache of resolved endpoints, which holds its hit rate statistics
+     */
+    public DynamicEndpointCache getStaticEndpointCache()
+    {
+        return staticEndpoints;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -15,6 +15,7 @@ import org.mule.api.MuleEvent;
 import org.mule.api.MuleException;
 import org.mule.api.execution.ExecutionCallback;
 import org.mule.execution.TransactionalErrorHandlingExecutionTemplate;
+import org.mule.management.stats.ProcessingTimeScope;
 import org.mule.transaction.MuleTransactionConfig;
 
 import javax.resource.spi.work.Work;
@@ -27,6 +28,9 @@ import org.apache.commons.logging.LogFactory;
  * This phase routes the message through the flow.
  *
  * To participate of this phase, {@link MessageProcessTemplate} must implement {@link FlowProcessingPhaseTemplate}
+ *
+ * The processing times of the events created while routing are completed once this phase and the
+ * phases it notifies have finished, unless the event continues being processed asynchronously.
  */
 public class FlowProcessingPhase implements MessageProcessPhase<FlowProcessingPhaseTemplate>, Comparable<MessageProcessPhase>
 {
@@ -52,6 +56,7 @@ public class FlowProcessingPhase implements MessageProcessPhase<FlowProcessingPh
             @Override
             public void run()
             {
+                final ProcessingTimeScope processingTimeScope = ProcessingTimeScope.open();
                 try
                 {
                     try
@@ -71,6 +76,10 @@ public class FlowProcessingPhase implements MessageProcessPhase<FlowProcessingPh
                                     return null;
                                 }
                                 MuleEvent muleEvent = flowProcessingPhaseTemplate.getMuleEvent();
+                                if (muleEvent != null)
+                                {
+                                    processingTimeScope.setAsynchronous(!muleEvent.isSynchronous());
+                                }
                                 muleEvent = flowProcessingPhaseTemplate.beforeRouteEvent(muleEvent);
                                 muleEvent = flowProcessingPhaseTemplate.routeEvent(muleEvent);
                                 muleEvent = flowProcessingPhaseTemplate.afterRouteEvent(muleEvent);
@@ -106,6 +115,10 @@ public class FlowProcessingPhase implements MessageProcessPhase<FlowProcessingPh
                     }
                     phaseResultNotifier.phaseFailure(e);
                 }
+                finally
+                {
+                    processingTimeScope.close();
+                }
             }
         };
         if (messageProcessContext.supportsAsynchronousProcessing())
@@ -19,6 +19,7 @@ import org.mule.api.expression.ExpressionEnricher;
 import org.mule.api.expression.ExpressionEvaluator;
 import org.mule.api.expression.ExpressionManager;
 import org.mule.api.expression.ExpressionRuntimeException;
+import org.mule.api.expression.ExpressionTemplate;
 import org.mule.api.expression.InvalidExpressionException;
 import org.mule.api.expression.RequiredValueException;
 import org.mule.api.lifecycle.Disposable;
@@ -29,14 +30,17 @@ import org.mule.el.mvel.MVELExpressionLanguage;
 import org.mule.util.StringUtils;
 import org.mule.util.TemplateParser;
 
+import java.io.Serializable;
 import java.text.MessageFormat;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
+import org.apache.commons.collections.map.LRUMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -56,9 +60,25 @@ public class DefaultExpressionManager implements ExpressionManager, MuleContextA
 
     private static final String OBJECT_FOR_ENRICHMENT = "__object_for_enrichment";
 
+    /**
+     * Maximum number of templates kept by {@link #compileTemplate(String)}, so templates
+     * built at runtime do not fill the heap. The least recently used ones are evicted.
+     */
+    protected static final int MAX_CACHED_TEMPLATES = 1000;
+
+    /**
+     * Largest buffer kept for reuse by a thread once a template is rendered.
+     */
+    private static final int MAX_REUSED_BUFFER_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> renderBuffers = new ThreadLocal<StringBuilder>();
+
     // default style parser
     private TemplateParser parser = TemplateParser.createMuleStyleParser();
 
+    @SuppressWarnings("unchecked")
+    private final Map<String, ExpressionTemplate> templates = Collections.synchronizedMap(new LRUMap(MAX_CACHED_TEMPLATES));
+
     private ConcurrentMap evaluators = new ConcurrentHashMap(8);
     private ConcurrentMap enrichers = new ConcurrentHashMap(8);
 
@@ -453,42 +473,169 @@ public class DefaultExpressionManager implements ExpressionManager, MuleContextA
     public String parse(final String expression, final MuleMessage message, final boolean failIfNull)
         throws ExpressionRuntimeException
     {
-        return parser.parse(new TemplateParser.TemplateCallback()
+        return parse(compileTemplate(expression), message, failIfNull);
+    }
+
+    @Override
+    public String parse(String expression, final MuleEvent event, final boolean failIfNull)
+        throws ExpressionRuntimeException
+    {
+        return parse(compileTemplate(expression), event, failIfNull);
+    }
+
+    /**
+     * Splits the template into literals and expressions and compiles the expressions
+     * of the expression language, once per template string.
+     */
+    @Override
+    public ExpressionTemplate compileTemplate(String template)
+    {
+        ExpressionTemplate compiled = templates.get(template);
+        if (compiled == null || compiled.getCompiledWith() != expressionLanguage)
         {
-            public Object match(String token)
+            compiled = doCompileTemplate(template);
+            templates.put(template, compiled);
+        }
+        return compiled;
+    }
+
+    protected ExpressionTemplate doCompileTemplate(String template)
+    {
+        String[] segments = parser.split(template);
+        int expressionCount = segments.length / 2;
+        String[] literals = new String[expressionCount + 1];
+        String[] expressions = new String[expressionCount];
+        Serializable[] compiledExpressions = new Serializable[expressionCount];
+        ExpressionLanguage language = expressionLanguage;
+
+        literals[0] = segments[0];
+        for (int i = 0; i < expressionCount; i++)
+        {
+            expressions[i] = segments[2 * i + 1];
+            literals[i + 1] = segments[2 * i + 2];
+            String expression = preProcessExpression(expressions[i]);
+            if (language instanceof MVELExpressionLanguage && !isEvaluatorExpression(expression))
             {
-                Object result = evaluate(token, message, failIfNull);
-                if (result instanceof MuleMessage)
+                try
                 {
-                    return ((MuleMessage) result).getPayload();
+                    compiledExpressions[i] = ((MVELExpressionLanguage) language).compile(expression);
+                }
+                catch (InvalidExpressionException e)
+                {
+                    // left to fail when evaluated, as it did before templates were compiled
+                    if (logger.isDebugEnabled())
+                    {
+                        logger.debug("Could not compile expression " + expression + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        return new ExpressionTemplate(template, literals, expressions, compiledExpressions, language);
+    }
+
+    @Override
+    public String parse(ExpressionTemplate template, MuleMessage message, boolean failIfNull)
+        throws ExpressionRuntimeException
+    {
+        if (template.isLiteral())
+        {
+            return template.getTemplate();
+        }
+
+        StringBuilder buffer = acquireRenderBuffer(template);
+        try
+        {
+            for (int i = 0; i < template.getExpressionCount(); i++)
+            {
+                buffer.append(template.getLiteral(i));
+                Object result;
+                Serializable compiled = template.getCompiledExpression(i);
+                if (compiled != null && template.getCompiledWith() == expressionLanguage)
+                {
+                    result = ((MVELExpressionLanguage) expressionLanguage).evaluateCompiled(compiled,
+                        template.getExpression(i), message);
                 }
                 else
                 {
-                    return result;
+                    result = evaluate(template.getExpression(i), message, failIfNull);
                 }
+                appendResult(buffer, result);
             }
-        }, expression);
+            buffer.append(template.getLiteral(template.getExpressionCount()));
+            return buffer.toString();
+        }
+        finally
+        {
+            releaseRenderBuffer(buffer);
+        }
     }
 
     @Override
-    public String parse(String expression, final MuleEvent event, final boolean failIfNull)
+    public String parse(ExpressionTemplate template, MuleEvent event, boolean failIfNull)
         throws ExpressionRuntimeException
     {
-        return parser.parse(new TemplateParser.TemplateCallback()
+        if (template.isLiteral())
         {
-            public Object match(String token)
+            return template.getTemplate();
+        }
+
+        StringBuilder buffer = acquireRenderBuffer(template);
+        try
+        {
+            for (int i = 0; i < template.getExpressionCount(); i++)
             {
-                Object result = evaluate(token, event, failIfNull);
-                if (result instanceof MuleMessage)
+                buffer.append(template.getLiteral(i));
+                Object result;
+                Serializable compiled = template.getCompiledExpression(i);
+                if (compiled != null && template.getCompiledWith() == expressionLanguage)
                 {
-                    return ((MuleMessage) result).getPayload();
+                    result = ((MVELExpressionLanguage) expressionLanguage).evaluateCompiled(compiled,
+                        template.getExpression(i), event);
                 }
                 else
                 {
-                    return result;
+                    result = evaluate(template.getExpression(i), event, failIfNull);
                 }
+                appendResult(buffer, result);
             }
-        }, expression);
+            buffer.append(template.getLiteral(template.getExpressionCount()));
+            return buffer.toString();
+        }
+        finally
+        {
+            releaseRenderBuffer(buffer);
+        }
+    }
+
+    private void appendResult(StringBuilder buffer, Object result)
+    {
+        if (result instanceof MuleMessage)
+        {
+            result = ((MuleMessage) result).getPayload();
+        }
+        buffer.append(result);
+    }
+
+    private StringBuilder acquireRenderBuffer(ExpressionTemplate template)
+    {
+        StringBuilder buffer = renderBuffers.get();
+        if (buffer == null)
+        {
+            // either the first render on this thread, or an expression being evaluated
+            // renders another template
+            return new StringBuilder(template.getLiteralLength() + 16 * template.getExpressionCount());
+        }
+        renderBuffers.set(null);
+        return buffer;
+    }
+
+    private void releaseRenderBuffer(StringBuilder buffer)
+    {
+        if (buffer.capacity() <= MAX_REUSED_BUFFER_CAPACITY)
+        {
+            buffer.setLength(0);
+            renderBuffers.set(buffer);
+        }
     }
 
     /**
@@ -79,7 +79,7 @@ public class MessagePayloadExpressionEvaluator implements ExpressionEvaluator, M
                 }
                 else
                 {
-                    return message.getPayload(DataTypeFactory.create(ClassUtils.loadClass(expression, getClass())));
+                    return message.getPayload(DataTypeFactory.intern(ClassUtils.loadClass(expression, getClass())));
                 }
             }
             catch (TransformerException e)
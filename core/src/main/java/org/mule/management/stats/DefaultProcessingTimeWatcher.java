@@ -19,11 +19,19 @@ import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+/**
+ * Reports the complete time of {@link ProcessingTime} instances that were not
+ * completed explicitly, once they are garbage collected. Instances created while a
+ * message is synchronously processed by the
+ * {@link org.mule.execution.FlowProcessingPhase} are completed by their
+ * {@link ProcessingTimeScope} and never reach this watcher.
+ */
 public class DefaultProcessingTimeWatcher implements ProcessingTimeWatcher, MuleContextAware
 {
 
@@ -37,6 +45,10 @@ public class DefaultProcessingTimeWatcher implements ProcessingTimeWatcher, Mule
     @Override
     public void addProcessingTime(ProcessingTime processingTime)
     {
+        if (processingTime.isCompleted())
+        {
+            return;
+        }
         refs.put(new ProcessingTimeReference(processingTime, queue), refs);
     }
 
@@ -81,7 +93,7 @@ public class DefaultProcessingTimeWatcher implements ProcessingTimeWatcher, Mule
                     refs.remove(ref);
 
                     FlowConstructStatistics stats = ref.getStatistics();
-                    if (stats.isEnabled())
+                    if (stats.isEnabled() && ref.getCompleted().compareAndSet(false, true))
                     {
                         stats.addCompleteFlowExecutionTime(ref.getAccumulator().longValue());
                     }
@@ -108,12 +120,14 @@ public class DefaultProcessingTimeWatcher implements ProcessingTimeWatcher, Mule
 
         private FlowConstructStatistics statistics;
         private AtomicLong accumulator;
+        private AtomicBoolean completed;
 
         ProcessingTimeReference(ProcessingTime time, ReferenceQueue<ProcessingTime> queue)
         {
             super(time, queue);
             this.statistics = time.getStatistics();
             this.accumulator = time.getAccumulator();
+            this.completed = time.getCompleted();
         }
 
         public AtomicLong getAccumulator()
@@ -125,5 +139,10 @@ public class DefaultProcessingTimeWatcher implements ProcessingTimeWatcher, Mule
         {
             return statistics;
         }
+
+        public AtomicBoolean getCompleted()
+        {
+            return completed;
+        }
     }
 }
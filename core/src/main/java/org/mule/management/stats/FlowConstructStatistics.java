@@ -13,6 +13,7 @@ package org.mule.management.stats;
 import org.mule.api.processor.ProcessingStrategy;
 import org.mule.processor.strategy.AsynchronousProcessingStrategy;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class FlowConstructStatistics extends AbstractFlowConstructStatistics implements QueueStatistics
@@ -30,6 +31,12 @@ public class FlowConstructStatistics extends AbstractFlowConstructStatistics imp
     private long averageQueueSize = 0;
     private long totalQueuedEvent = 0;
 
+    // back-pressure state is kept even when statistics are disabled
+    private volatile int queueOccupancy = 0;
+    private final AtomicBoolean throttling = new AtomicBoolean(false);
+    private final AtomicLong throttleCount = new AtomicLong(0);
+    private final AtomicLong sourcePauses = new AtomicLong(0);
+
 
     public FlowConstructStatistics(String flowConstructType, String name, ProcessingStrategy processingStrategy)
     {
@@ -94,6 +101,8 @@ public class FlowConstructStatistics extends AbstractFlowConstructStatistics imp
 
         executionError.set(0);
         fatalError.set(0);        
+        throttleCount.set(0);
+        sourcePauses.set(0);
         if (flowStatistics != null)
         {
             flowStatistics.clear();
@@ -171,4 +180,49 @@ public class FlowConstructStatistics extends AbstractFlowConstructStatistics imp
         return averageQueueSize;
     }
 
+    /**
+     * Called on every enqueue and dequeue of the stage, so it doesn't lock: only the
+     * thread that flips the throttling state counts the transition.
+     */
+    public void updateQueueOccupancy(int occupancy, int highWatermark, int lowWatermark)
+    {
+        queueOccupancy = occupancy;
+        if (occupancy >= highWatermark)
+        {
+            if (!throttling.get() && throttling.compareAndSet(false, true))
+            {
+                throttleCount.incrementAndGet();
+            }
+        }
+        else if (occupancy <= lowWatermark && throttling.get())
+        {
+            throttling.compareAndSet(true, false);
+        }
+    }
+
+    public int getQueueOccupancy()
+    {
+        return queueOccupancy;
+    }
+
+    public boolean isThrottling()
+    {
+        return throttling.get();
+    }
+
+    public long getThrottleCount()
+    {
+        return throttleCount.get();
+    }
+
+    public void incSourcePause()
+    {
+        sourcePauses.incrementAndGet();
+    }
+
+    public long getSourcePauses()
+    {
+        return sourcePauses.get();
+    }
+
 }
\ No newline at end of file
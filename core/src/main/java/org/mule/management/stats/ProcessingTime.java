@@ -10,15 +10,18 @@
 
 package org.mule.management.stats;
 
-import org.mule.api.MuleContext;
 import org.mule.api.MuleEvent;
 import org.mule.api.construct.FlowConstruct;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Accumulates the processing time for all branches of a flow
+ * Accumulates the processing time for all branches of a flow. The complete time is
+ * reported once, either explicitly by the {@link ProcessingTimeScope} the instance was
+ * created in, or by the {@link ProcessingTimeWatcher} when the instance is no longer
+ * reachable.
  */
 public class ProcessingTime implements Serializable
 {
@@ -29,6 +32,7 @@ public class ProcessingTime implements Serializable
     private static final long serialVersionUID = 1L;
 
     private AtomicLong accumulator = new AtomicLong();
+    private AtomicBoolean completed = new AtomicBoolean(false);
     private FlowConstructStatistics statistics;
 
     /**
@@ -46,7 +50,17 @@ public class ProcessingTime implements Serializable
                 FlowConstructStatistics stats = fc.getStatistics();
                 if (stats != null && fc.getStatistics().isEnabled())
                 {
-                    return new ProcessingTime(stats, event.getMuleContext());
+                    ProcessingTime processingTime = new ProcessingTime(stats);
+                    ProcessingTimeScope scope = ProcessingTimeScope.getCurrentScope();
+                    if (scope != null)
+                    {
+                        scope.add(processingTime, event.getMuleContext());
+                    }
+                    else
+                    {
+                        event.getMuleContext().getProcessorTimeWatcher().addProcessingTime(processingTime);
+                    }
+                    return processingTime;
                 }
             }
         }
@@ -57,13 +71,10 @@ public class ProcessingTime implements Serializable
      * Create a Processing Time
      *
      * @param stats       never null
-     * @param muleContext
      */
-    private ProcessingTime(FlowConstructStatistics stats, MuleContext muleContext)
+    private ProcessingTime(FlowConstructStatistics stats)
     {
         this.statistics = stats;
-        ProcessingTimeWatcher processorTimeWatcher = muleContext.getProcessorTimeWatcher();
-        processorTimeWatcher.addProcessingTime(this);
     }
 
     /**
@@ -80,6 +91,30 @@ public class ProcessingTime implements Serializable
         }
     }
 
+    /**
+     * Add the accumulated time of all branches as the complete execution time of the
+     * flow, unless it was already added.
+     *
+     * @return true if this call added the complete time
+     */
+    public boolean complete()
+    {
+        if (completed.compareAndSet(false, true))
+        {
+            if (statistics.isEnabled())
+            {
+                statistics.addCompleteFlowExecutionTime(accumulator.get());
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isCompleted()
+    {
+        return completed.get();
+    }
+
     /**
      * Convert processing time to effective processing time.  If processing took less than a tick, we consider
      * it to have been one millisecond
@@ -98,4 +133,9 @@ public class ProcessingTime implements Serializable
     {
         return accumulator;
     }
+
+    public AtomicBoolean getCompleted()
+    {
+        return completed;
+    }
 }
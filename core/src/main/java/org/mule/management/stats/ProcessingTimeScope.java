@@ -0,0 +1,118 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.management.stats;
+
+import org.mule.api.MuleContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the {@link ProcessingTime} instances created by the current thread while a
+ * message is processed, so they are completed when the processing ends instead of
+ * being watched until they are garbage collected. When the processing continues in
+ * other threads the scope is marked as asynchronous and its instances are handed to
+ * the {@link ProcessingTimeWatcher} on close.
+ * <p/>
+ * Scopes are bound to the thread that opens them and can be nested, a scope must be
+ * closed by the same thread.
+ */
+public final class ProcessingTimeScope
+{
+
+    private static final ThreadLocal<ProcessingTimeScope> currentScope = new ThreadLocal<ProcessingTimeScope>();
+
+    private final ProcessingTimeScope parent;
+    private final List<ProcessingTime> processingTimes = new ArrayList<ProcessingTime>(1);
+    private MuleContext muleContext;
+    private boolean asynchronous = false;
+    private boolean closed = false;
+
+    private ProcessingTimeScope(ProcessingTimeScope parent)
+    {
+        this.parent = parent;
+    }
+
+    /**
+     * Opens a scope in the current thread, nested in the current scope if there is one.
+     */
+    public static ProcessingTimeScope open()
+    {
+        ProcessingTimeScope scope = new ProcessingTimeScope(currentScope.get());
+        currentScope.set(scope);
+        return scope;
+    }
+
+    /**
+     * @return the innermost open scope of the current thread, or null
+     */
+    public static ProcessingTimeScope getCurrentScope()
+    {
+        return currentScope.get();
+    }
+
+    void add(ProcessingTime processingTime, MuleContext muleContext)
+    {
+        if (this.muleContext == null)
+        {
+            this.muleContext = muleContext;
+        }
+        processingTimes.add(processingTime);
+    }
+
+    /**
+     * Marks the processing as continuing in other threads once the scope is closed.
+     */
+    public void setAsynchronous(boolean asynchronous)
+    {
+        this.asynchronous = asynchronous;
+    }
+
+    public boolean isAsynchronous()
+    {
+        return asynchronous;
+    }
+
+    /**
+     * Completes the collected instances, or hands them to the
+     * {@link ProcessingTimeWatcher} if the processing is asynchronous, and restores the
+     * enclosing scope.
+     */
+    public void close()
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        if (parent == null)
+        {
+            currentScope.remove();
+        }
+        else
+        {
+            currentScope.set(parent);
+        }
+
+        for (ProcessingTime processingTime : processingTimes)
+        {
+            if (asynchronous)
+            {
+                muleContext.getProcessorTimeWatcher().addProcessingTime(processingTime);
+            }
+            else
+            {
+                processingTime.complete();
+            }
+        }
+        processingTimes.clear();
+    }
+}
@@ -20,4 +20,31 @@ public interface QueueStatistics extends Statistics
     void incQueuedEvent();
 
     void decQueuedEvent();
+
+    /**
+     * Records the occupancy of the queue and of the workers consuming it, as a
+     * percentage of their capacity. Throttling starts when the occupancy reaches the
+     * high watermark and stops when it falls to the low watermark. This is updated
+     * even when statistics are disabled, since message sources rely on it.
+     */
+    void updateQueueOccupancy(int occupancy, int highWatermark, int lowWatermark);
+
+    int getQueueOccupancy();
+
+    /**
+     * @return true while the message sources feeding the queue should pause
+     */
+    boolean isThrottling();
+
+    /**
+     * @return the number of times the queue reached its high watermark
+     */
+    long getThrottleCount();
+
+    /**
+     * Records that a message source paused receiving or polling because of throttling.
+     */
+    void incSourcePause();
+
+    long getSourcePauses();
 }
@@ -0,0 +1,342 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.message;
+
+import org.mule.api.transformer.DataType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.w3c.dom.Node;
+
+/**
+ * Keeps the representations a message payload was converted to, keyed by the
+ * requested {@link DataType} and encoding, so reading the payload again in the same
+ * form, e.g. as a string or a DOM document, does not run the transformer again. The
+ * cache belongs to a single message and is cleared whenever its payload or datatype
+ * changes.
+ * <p/>
+ * Only representations of string and byte array payloads are cached, see
+ * {@link #isCacheable(Object, Object)}. Each representation remembers the payload
+ * instance and the source datatype it was converted from, and is ignored if either
+ * one changed, e.g. after the content type or encoding properties were set. A byte
+ * array can also be changed in place, so its hash is checked as well.
+ * <p/>
+ * Representations are mutable unless they are strings, so they are only cached when a
+ * {@link Copier} is registered for their type, and every reader gets its own copy.
+ * Strings are shared, byte arrays and DOM nodes are copied out of the box, modules can
+ * add their own types with {@link #registerCopier(Class, Copier)}.
+ * <p/>
+ * The memory used by a message cache is limited by the {@link #MAX_SIZE_PROPERTY}
+ * system property, in bytes. The size of a representation that is not a string or a
+ * byte array is approximated by the size of the payload it was converted from. When a
+ * representation doesn't fit the oldest ones are evicted, a representation larger
+ * than the whole budget is not cached.
+ */
+public class PayloadRepresentationCache
+{
+
+    public static final String MAX_SIZE_PROPERTY = "mule.message.representationCacheSize";
+
+    public static final long DEFAULT_MAX_SIZE = 4 * 1024 * 1024;
+
+    private static final long maxSize = Long.getLong(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+
+    private static final AtomicLong hits = new AtomicLong(0);
+    private static final AtomicLong misses = new AtomicLong(0);
+    private static final AtomicLong rejections = new AtomicLong(0);
+    private static final AtomicLong evictions = new AtomicLong(0);
+    private static final AtomicLong invalidations = new AtomicLong(0);
+
+    private static final List<TypeCopier> copiers = new CopyOnWriteArrayList<TypeCopier>();
+
+    static
+    {
+        registerCopier(String.class, new Copier()
+        {
+            public Object copy(Object representation)
+            {
+                return representation;
+            }
+        });
+        registerCopier(byte[].class, new Copier()
+        {
+            public Object copy(Object representation)
+            {
+                return ((byte[]) representation).clone();
+            }
+        });
+        registerCopier(Node.class, new Copier()
+        {
+            public Object copy(Object representation)
+            {
+                return ((Node) representation).cloneNode(true);
+            }
+        });
+    }
+
+    private final List<Entry> entries = new ArrayList<Entry>(2);
+    private long size = 0;
+
+    /**
+     * @return false if the {@link #MAX_SIZE_PROPERTY} system property disables caching
+     */
+    public static boolean isEnabled()
+    {
+        return maxSize > 0;
+    }
+
+    /**
+     * Allows caching the representations of a type, they are copied before being handed
+     * to a reader so the cached one is never changed. A copier registered later takes
+     * precedence over the ones of its supertypes registered before.
+     */
+    public static void registerCopier(Class<?> type, Copier copier)
+    {
+        copiers.add(0, new TypeCopier(type, copier));
+    }
+
+    /**
+     * @return true if changes to the payload can be detected and the representation can
+     *         be copied, so it can be handed to every reader of the message
+     */
+    public static boolean isCacheable(Object payload, Object value)
+    {
+        return (payload instanceof String || payload instanceof byte[]) && getCopier(value) != null;
+    }
+
+    private static Copier getCopier(Object value)
+    {
+        if (value != null)
+        {
+            for (TypeCopier copier : copiers)
+            {
+                if (copier.type.isInstance(value))
+                {
+                    return copier.copier;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int fingerprint(Object payload)
+    {
+        return payload instanceof byte[] ? Arrays.hashCode((byte[]) payload) : 0;
+    }
+
+    /**
+     * @param payload the current payload of the message
+     * @param sourceType the current datatype of the message, or null if the conversion
+     *            doesn't depend on it
+     * @return a copy of the cached representation, or null
+     */
+    public synchronized Object get(DataType<?> dataType, String encoding, Object payload, DataType<?> sourceType)
+    {
+        int fingerprint = entries.isEmpty() ? 0 : fingerprint(payload);
+        for (Entry entry : entries)
+        {
+            if (entry.matches(dataType, encoding) && entry.payload == payload && entry.sourceType == sourceType
+                && entry.fingerprint == fingerprint)
+            {
+                hits.incrementAndGet();
+                return entry.copier.copy(entry.value);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches a copy of a representation of the payload, evicting older ones if needed.
+     *
+     * @param payload the payload the representation was converted from
+     * @param sourceType the datatype of the message when it was converted, or null if
+     *            the conversion doesn't depend on it
+     * @return false if the representation can't be cached or is too large
+     */
+    public synchronized boolean put(DataType<?> dataType, String encoding, Object payload, DataType<?> sourceType,
+                                    Object value)
+    {
+        Copier copier = isCacheable(payload, value) ? getCopier(value) : null;
+        if (copier == null)
+        {
+            return false;
+        }
+        long valueSize = sizeOf(value instanceof String || value instanceof byte[] ? value : payload);
+        if (valueSize > maxSize)
+        {
+            rejections.incrementAndGet();
+            return false;
+        }
+
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext())
+        {
+            Entry entry = iterator.next();
+            if (entry.matches(dataType, encoding))
+            {
+                size -= entry.size;
+                iterator.remove();
+            }
+        }
+        while (size + valueSize > maxSize && !entries.isEmpty())
+        {
+            size -= entries.remove(0).size;
+            evictions.incrementAndGet();
+        }
+        entries.add(new Entry(dataType, encoding, payload, fingerprint(payload), sourceType, copier,
+            copier.copy(value), valueSize));
+        size += valueSize;
+        return true;
+    }
+
+    private static long sizeOf(Object value)
+    {
+        return value instanceof String ? 2L * ((String) value).length() : ((byte[]) value).length;
+    }
+
+    /**
+     * Discards every representation, the payload they were converted from changed.
+     */
+    public synchronized void clear()
+    {
+        if (!entries.isEmpty())
+        {
+            invalidations.incrementAndGet();
+            entries.clear();
+            size = 0;
+        }
+    }
+
+    /**
+     * @return the memory used by the representations, in bytes
+     */
+    public synchronized long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * @return the number of conversions avoided by all the message caches
+     */
+    public static long getHits()
+    {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of reads that had to convert the payload
+     */
+    public static long getMisses()
+    {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of representations larger than the budget of a message
+     */
+    public static long getRejections()
+    {
+        return rejections.get();
+    }
+
+    /**
+     * @return the number of representations evicted to fit newer ones
+     */
+    public static long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    /**
+     * @return the number of caches cleared because their payload changed
+     */
+    public static long getInvalidations()
+    {
+        return invalidations.get();
+    }
+
+    public static void clearStatistics()
+    {
+        hits.set(0);
+        misses.set(0);
+        rejections.set(0);
+        evictions.set(0);
+        invalidations.set(0);
+    }
+
+    /**
+     * Copies the representations of a type handed out by the cache.
+     */
+    public interface Copier
+    {
+
+        /**
+         * @return a representation that can be changed without affecting the given one,
+         *         or the same one if it is immutable
+         */
+        Object copy(Object representation);
+    }
+
+    private static class TypeCopier
+    {
+        private final Class<?> type;
+        private final Copier copier;
+
+        TypeCopier(Class<?> type, Copier copier)
+        {
+            this.type = type;
+            this.copier = copier;
+        }
+    }
+
+    private static class Entry
+    {
+        private final DataType<?> dataType;
+        private final String encoding;
+        private final Object payload;
+        private final int fingerprint;
+        private final DataType<?> sourceType;
+        private final Copier copier;
+        private final Object value;
+        private final long size;
+
+        Entry(DataType<?> dataType, String encoding, Object payload, int fingerprint, DataType<?> sourceType,
+              Copier copier, Object value, long size)
+        {
+            this.dataType = dataType;
+            this.encoding = encoding;
+            this.payload = payload;
+            this.fingerprint = fingerprint;
+            this.sourceType = sourceType;
+            this.copier = copier;
+            this.value = value;
+            this.size = size;
+        }
+
+        boolean matches(DataType<?> other, String otherEncoding)
+        {
+            return dataType.getType() == other.getType()
+                   && equal(dataType.getMimeType(), other.getMimeType())
+                   && equal(encoding, otherEncoding);
+        }
+
+        private static boolean equal(String a, String b)
+        {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+}
@@ -29,7 +29,8 @@ import org.apache.commons.logging.LogFactory;
  * A Base class for {@link org.mule.api.model.EntryPointResolver}. It provides parameters for
  * detemining if the payload of the message should be transformed first and whether void methods are
  * acceptible. It also provides a method cashe for those resolvers that use reflection to discover methods
- * on the service.
+ * on the service, and calls the methods it resolved through the {@link MethodInvoker} created for them by
+ * the {@link MethodInvokerFactory}.
  */
 public abstract class AbstractEntryPointResolver implements EntryPointResolver
 {
@@ -43,6 +44,10 @@ public abstract class AbstractEntryPointResolver implements EntryPointResolver
     private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Method>> methodCache =
         new ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Method>>(4);
 
+    private final ConcurrentHashMap<Method, MethodInvoker> invokerCache = new ConcurrentHashMap<Method, MethodInvoker>(4);
+
+    private MethodInvokerFactory invokerFactory = new MethodInvokerFactory();
+
     public boolean isAcceptVoidMethods()
     {
         return acceptVoidMethods;
@@ -108,6 +113,21 @@ public abstract class AbstractEntryPointResolver implements EntryPointResolver
     }
 
 
+    protected MethodInvoker getMethodInvoker(Method method)
+    {
+        MethodInvoker invoker = invokerCache.get(method);
+        if (invoker == null)
+        {
+            invoker = invokerFactory.createInvoker(method);
+            MethodInvoker previousInvoker = invokerCache.putIfAbsent(method, invoker);
+            if (previousInvoker != null)
+            {
+                invoker = previousInvoker;
+            }
+        }
+        return invoker;
+    }
+
     protected Object[] getPayloadFromMessage(MuleEventContext context) throws TransformerException
     {
         Object temp = context.getMessage().getPayload();
@@ -138,17 +158,18 @@ public abstract class AbstractEntryPointResolver implements EntryPointResolver
         }
 
         Object result;
+        MethodInvoker invoker = getMethodInvoker(method);
 
         if(isSynchronizeCall())
         {
             synchronized (component)
             {
-                result = method.invoke(component, arguments);
+                result = invoker.invoke(component, arguments);
             }
         }
         else
         {
-            result = method.invoke(component, arguments);
+            result = invoker.invoke(component, arguments);
         }
 
         if (method.getReturnType().equals(Void.TYPE))
@@ -164,6 +185,17 @@ public abstract class AbstractEntryPointResolver implements EntryPointResolver
         return new InvocationResult(this, result, method);
     }
 
+    public MethodInvokerFactory getInvokerFactory()
+    {
+        return invokerFactory;
+    }
+
+    public void setInvokerFactory(MethodInvokerFactory invokerFactory)
+    {
+        this.invokerFactory = invokerFactory;
+        invokerCache.clear();
+    }
+
     public boolean isSynchronizeCall()
     {
         return synchronizeCall;
@@ -15,9 +15,13 @@ import org.mule.api.model.EntryPointResolverSet;
 import org.mule.api.model.InvocationResult;
 import org.mule.util.CollectionUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides the default implementation of an {@link org.mule.api.model.EntryPointResolverSet}
@@ -25,24 +29,70 @@ import java.util.Set;
  * This object maintains a set of Resolvers that will be used in order to resolve
  * an entrypoint on a service object until one is found or until the set is
  * exhausted.
+ * <p/>
+ * Once a message has been resolved, the resolvers tried for it are remembered as a
+ * plan for the shape of the message: the class of the component and the types of the
+ * payload. Resolvers whose outcome only depends on that shape and that did not
+ * resolve the message are left out of the plan, so the next messages of the same
+ * shape go straight to the resolver that succeeded. Resolvers that depend on anything
+ * else, such as message properties, stay in the plan in their original order. If no
+ * resolver of the plan succeeds every resolver is tried again.
  */
 public class DefaultEntryPointResolverSet implements EntryPointResolverSet
 {
+
+    /**
+     * Resolvers that always give the same outcome for the same shape of message. Only
+     * these exact classes, as subclasses may look at the message.
+     */
+    private static final Set<Class<?>> SHAPE_RESOLVERS = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+        CallableEntryPointResolver.class, ReflectionEntryPointResolver.class, ArrayEntryPointResolver.class,
+        NoArgumentsEntryPointResolver.class, ExplicitMethodEntryPointResolver.class));
+
+    /**
+     * Plans are dropped once there are more shapes than this, to bound the memory used
+     * by payloads of many different types
+     */
+    private static final int MAX_PLANS = 256;
+
     private final Set<EntryPointResolver> entryPointResolvers = new LinkedHashSet<EntryPointResolver>(4);
 
+    private final ConcurrentHashMap<Shape, EntryPointResolver[]> plans = new ConcurrentHashMap<Shape, EntryPointResolver[]>(4);
+
     public Object invoke(Object component, MuleEventContext context) throws Exception
     {
+        Shape shape = new Shape(component, context.getMessage().getPayload());
+        EntryPointResolver[] plan = plans.get(shape);
+        if (plan != null)
+        {
+            for (EntryPointResolver resolver : plan)
+            {
+                InvocationResult result = resolver.invoke(component, context);
+                if (result.getState() == InvocationResult.State.SUCCESSFUL)
+                {
+                    return result.getResult();
+                }
+            }
+        }
+
         Set<String> exceptions = new HashSet<String>();
+        List<EntryPointResolver> newPlan = new ArrayList<EntryPointResolver>(entryPointResolvers.size());
 
         for (EntryPointResolver resolver : entryPointResolvers)
         {
             InvocationResult result = resolver.invoke(component, context);
             if (result.getState() == InvocationResult.State.SUCCESSFUL)
             {
+                newPlan.add(resolver);
+                addPlan(shape, newPlan);
                 return result.getResult();
             }
             else
             {
+                if (!SHAPE_RESOLVERS.contains(resolver.getClass()))
+                {
+                    newPlan.add(resolver);
+                }
                 if (result.hasError())
                 {
                     exceptions.add(result.getErrorMessage());
@@ -52,6 +102,23 @@ public class DefaultEntryPointResolverSet implements EntryPointResolverSet
         throw new EntryPointNotFoundException(CollectionUtils.toString(exceptions, true));
     }
 
+    private void addPlan(Shape shape, List<EntryPointResolver> plan)
+    {
+        if (plans.size() >= MAX_PLANS)
+        {
+            plans.clear();
+        }
+        plans.put(shape, plan.toArray(new EntryPointResolver[plan.size()]));
+    }
+
+    /**
+     * @return the number of message shapes with a resolution plan
+     */
+    public int getPlanCount()
+    {
+        return plans.size();
+    }
+
     /**
      * @return the entry point resolves configured in this resolver set. Note that access to the
      * set is not thread safe. Client code must take proper precautions to synchronize.
@@ -67,6 +134,7 @@ public class DefaultEntryPointResolverSet implements EntryPointResolverSet
         {
             this.entryPointResolvers.clear();
             this.entryPointResolvers.addAll(entryPointResolvers);
+            plans.clear();
         }
     }
 
@@ -75,6 +143,7 @@ public class DefaultEntryPointResolverSet implements EntryPointResolverSet
         synchronized (entryPointResolvers)
         {
             this.entryPointResolvers.add(resolver);
+            plans.clear();
         }
     }
 
@@ -82,7 +151,50 @@ public class DefaultEntryPointResolverSet implements EntryPointResolverSet
     {
         synchronized (entryPointResolvers)
         {
+            plans.clear();
             return this.entryPointResolvers.remove(resolver);
         }
     }
+
+    /**
+     * The class of a component and the types of a payload, including the types of the
+     * elements of an array payload.
+     */
+    private static final class Shape
+    {
+        private final Class<?>[] types;
+        private final int hashCode;
+
+        Shape(Object component, Object payload)
+        {
+            if (payload instanceof Object[])
+            {
+                Object[] elements = (Object[]) payload;
+                types = new Class<?>[elements.length + 2];
+                for (int i = 0; i < elements.length; i++)
+                {
+                    types[i + 2] = elements[i] == null ? null : elements[i].getClass();
+                }
+            }
+            else
+            {
+                types = new Class<?>[2];
+            }
+            types[0] = component.getClass();
+            types[1] = payload == null ? null : payload.getClass();
+            hashCode = Arrays.hashCode(types);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof Shape && Arrays.equals(types, ((Shape) o).types);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
 }
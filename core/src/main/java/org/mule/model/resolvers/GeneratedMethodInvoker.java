@@ -0,0 +1,142 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.model.resolvers;
+
+import org.mule.util.ClassUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Base class of the invokers generated by the {@link MethodInvokerFactory}. Subclasses
+ * call the method directly from their bytecode. This class checks the target and the
+ * arguments first, rejecting what {@link Method#invoke(Object, Object...)} rejects
+ * with the same exceptions, so only what the method throws is wrapped in an
+ * {@link InvocationTargetException}.
+ */
+public abstract class GeneratedMethodInvoker implements MethodInvoker
+{
+
+    // the primitive types a primitive value can be widened to when passed to a method
+    private static final Map<Class<?>, Set<Class<?>>> widenings = new HashMap<Class<?>, Set<Class<?>>>();
+
+    static
+    {
+        widenings.put(Byte.TYPE, types(Short.TYPE, Integer.TYPE, Long.TYPE, Float.TYPE, Double.TYPE));
+        widenings.put(Short.TYPE, types(Integer.TYPE, Long.TYPE, Float.TYPE, Double.TYPE));
+        widenings.put(Character.TYPE, types(Integer.TYPE, Long.TYPE, Float.TYPE, Double.TYPE));
+        widenings.put(Integer.TYPE, types(Long.TYPE, Float.TYPE, Double.TYPE));
+        widenings.put(Long.TYPE, types(Float.TYPE, Double.TYPE));
+        widenings.put(Float.TYPE, types(Double.TYPE));
+    }
+
+    private Class<?> declaringClass;
+    private boolean isStatic;
+    private Class<?>[] parameterTypes;
+
+    void setMethod(Method method)
+    {
+        this.declaringClass = method.getDeclaringClass();
+        this.isStatic = Modifier.isStatic(method.getModifiers());
+        this.parameterTypes = method.getParameterTypes();
+    }
+
+    public final Object invoke(Object target, Object[] arguments) throws InvocationTargetException
+    {
+        Object[] checkedArguments = checkArguments(target, arguments);
+        try
+        {
+            return doInvoke(target, checkedArguments);
+        }
+        catch (Throwable t)
+        {
+            // the target and the arguments were checked, so the method threw it
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * @return the arguments, with characters passed to numeric parameters converted to
+     *         integers, since the generated code unboxes numeric parameters as numbers
+     * @throws NullPointerException if the target of an instance method is null
+     * @throws IllegalArgumentException if the target is not an instance of the class
+     *             of the method, or the arguments don't match the parameters, including
+     *             primitive values that would have to be narrowed
+     */
+    private Object[] checkArguments(Object target, Object[] arguments)
+    {
+        if (!isStatic)
+        {
+            if (target == null)
+            {
+                throw new NullPointerException();
+            }
+            if (!declaringClass.isInstance(target))
+            {
+                throw new IllegalArgumentException("object is not an instance of declaring class");
+            }
+        }
+        int argumentCount = arguments == null ? 0 : arguments.length;
+        if (argumentCount != parameterTypes.length)
+        {
+            throw new IllegalArgumentException("wrong number of arguments");
+        }
+
+        Object[] checkedArguments = arguments;
+        for (int i = 0; i < argumentCount; i++)
+        {
+            Class<?> parameterType = parameterTypes[i];
+            Object argument = arguments[i];
+            if (!parameterType.isPrimitive())
+            {
+                if (argument != null && !parameterType.isInstance(argument))
+                {
+                    throw new IllegalArgumentException("argument type mismatch");
+                }
+                continue;
+            }
+
+            Class<?> argumentType = argument == null ? null : ClassUtils.wrapperToPrimitive(argument.getClass());
+            if (argumentType != parameterType && !isWidening(argumentType, parameterType))
+            {
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+            if (argumentType == Character.TYPE && parameterType != Character.TYPE)
+            {
+                if (checkedArguments == arguments)
+                {
+                    checkedArguments = Arrays.copyOf(arguments, argumentCount);
+                }
+                checkedArguments[i] = Integer.valueOf((Character) argument);
+            }
+        }
+        return checkedArguments;
+    }
+
+    private static boolean isWidening(Class<?> from, Class<?> to)
+    {
+        Set<Class<?>> types = from == null ? null : widenings.get(from);
+        return types != null && types.contains(to);
+    }
+
+    private static Set<Class<?>> types(Class<?>... types)
+    {
+        return new HashSet<Class<?>>(Arrays.asList(types));
+    }
+
+    protected abstract Object doInvoke(Object target, Object[] arguments) throws Throwable;
+}
@@ -0,0 +1,31 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.model.resolvers;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Invokes a single method resolved as the entry point of a component. Implementations
+ * are created by the {@link MethodInvokerFactory}.
+ */
+public interface MethodInvoker
+{
+
+    /**
+     * Invokes the method, with the same semantics as
+     * {@link java.lang.reflect.Method#invoke(Object, Object...)}.
+     *
+     * @param target the component, ignored for static methods
+     * @return the result of the method, null for void methods
+     * @throws InvocationTargetException wrapping anything thrown by the method
+     */
+    Object invoke(Object target, Object[] arguments) throws InvocationTargetException, IllegalAccessException;
+}
@@ -0,0 +1,223 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.model.resolvers;
+
+import org.mule.api.config.MuleProperties;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.commons.GeneratorAdapter;
+
+/**
+ * Creates the {@link MethodInvoker} of an entry point. Public methods of public classes
+ * are called through a class generated with ASM, which calls the method directly
+ * instead of going through {@link Method#invoke(Object, Object...)}. Other methods, or
+ * all of them if the {@link #GENERATED_INVOKERS_PROPERTY} system property is false,
+ * are called through reflection.
+ * <p/>
+ * Each generated class is defined in its own class loader, child of the class loader
+ * of the method, so it is unloaded together with the application that owns the
+ * component.
+ */
+public class MethodInvokerFactory
+{
+
+    public static final String GENERATED_INVOKERS_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "entryPoint.generatedInvokers";
+
+    private static final Log logger = LogFactory.getLog(MethodInvokerFactory.class);
+
+    private static final String INVOKER_CLASS_PREFIX = GeneratedMethodInvoker.class.getName() + "$";
+    private static final Type INVOKER_TYPE = Type.getType(GeneratedMethodInvoker.class);
+    private static final org.objectweb.asm.commons.Method CONSTRUCTOR = org.objectweb.asm.commons.Method.getMethod("void <init>()");
+    private static final org.objectweb.asm.commons.Method DO_INVOKE = org.objectweb.asm.commons.Method.getMethod("Object doInvoke(Object, Object[])");
+    private static final Type[] DO_INVOKE_EXCEPTIONS = new Type[]{Type.getType(Throwable.class)};
+
+    private static final AtomicInteger invokerCount = new AtomicInteger(0);
+
+    private final boolean generateInvokers;
+
+    public MethodInvokerFactory()
+    {
+        this(Boolean.valueOf(System.getProperty(GENERATED_INVOKERS_PROPERTY, "true")));
+    }
+
+    public MethodInvokerFactory(boolean generateInvokers)
+    {
+        this.generateInvokers = generateInvokers;
+    }
+
+    public MethodInvoker createInvoker(Method method)
+    {
+        if (generateInvokers && isGeneratable(method))
+        {
+            try
+            {
+                return generateInvoker(method);
+            }
+            catch (Throwable t)
+            {
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug("Could not generate an invoker for " + method + ", using reflection", t);
+                }
+            }
+        }
+        return new ReflectiveMethodInvoker(method);
+    }
+
+    protected boolean isGeneratable(Method method)
+    {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!Modifier.isPublic(method.getModifiers()) || !isPublic(declaringClass))
+        {
+            return false;
+        }
+        ClassLoader classLoader = declaringClass.getClassLoader();
+        if (classLoader == null)
+        {
+            return false;
+        }
+        try
+        {
+            // the invoker has to extend the same base class seen by this factory
+            return Class.forName(GeneratedMethodInvoker.class.getName(), false, classLoader) == GeneratedMethodInvoker.class;
+        }
+        catch (ClassNotFoundException e)
+        {
+            return false;
+        }
+    }
+
+    private boolean isPublic(Class<?> type)
+    {
+        for (Class<?> current = type; current != null; current = current.getDeclaringClass())
+        {
+            if (!Modifier.isPublic(current.getModifiers()))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected MethodInvoker generateInvoker(Method method) throws Exception
+    {
+        String className = INVOKER_CLASS_PREFIX + invokerCount.incrementAndGet();
+        byte[] bytecode = generateBytecode(className.replace('.', '/'), method);
+        InvokerClassLoader classLoader = new InvokerClassLoader(method.getDeclaringClass().getClassLoader());
+        Class<?> invokerClass = classLoader.define(className, bytecode);
+        GeneratedMethodInvoker invoker = (GeneratedMethodInvoker) invokerClass.newInstance();
+        invoker.setMethod(method);
+        return invoker;
+    }
+
+    private byte[] generateBytecode(String internalName, Method method)
+    {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC + Opcodes.ACC_FINAL + Opcodes.ACC_SUPER, internalName, null,
+            INVOKER_TYPE.getInternalName(), null);
+
+        GeneratorAdapter constructor = new GeneratorAdapter(Opcodes.ACC_PUBLIC, CONSTRUCTOR, null, null, writer);
+        constructor.loadThis();
+        constructor.invokeConstructor(INVOKER_TYPE, CONSTRUCTOR);
+        constructor.returnValue();
+        constructor.endMethod();
+
+        GeneratorAdapter doInvoke = new GeneratorAdapter(Opcodes.ACC_PROTECTED, DO_INVOKE, null,
+            DO_INVOKE_EXCEPTIONS, writer);
+        Class<?> declaringClass = method.getDeclaringClass();
+        Type owner = Type.getType(declaringClass);
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        if (!isStatic)
+        {
+            doInvoke.loadArg(0);
+            doInvoke.checkCast(owner);
+        }
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++)
+        {
+            doInvoke.loadArg(1);
+            doInvoke.push(i);
+            doInvoke.arrayLoad(Type.getType(Object.class));
+            doInvoke.unbox(Type.getType(parameterTypes[i]));
+        }
+
+        org.objectweb.asm.commons.Method target = org.objectweb.asm.commons.Method.getMethod(method);
+        if (isStatic)
+        {
+            doInvoke.invokeStatic(owner, target);
+        }
+        else if (declaringClass.isInterface())
+        {
+            doInvoke.invokeInterface(owner, target);
+        }
+        else
+        {
+            doInvoke.invokeVirtual(owner, target);
+        }
+
+        Type returnType = Type.getType(method.getReturnType());
+        if (returnType.getSort() == Type.VOID)
+        {
+            doInvoke.visitInsn(Opcodes.ACONST_NULL);
+        }
+        else
+        {
+            doInvoke.box(returnType);
+        }
+        doInvoke.returnValue();
+        doInvoke.endMethod();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static class InvokerClassLoader extends ClassLoader
+    {
+
+        InvokerClassLoader(ClassLoader parent)
+        {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytecode)
+        {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+
+    /**
+     * Calls the method through reflection, used when an invoker can't be generated.
+     */
+    static class ReflectiveMethodInvoker implements MethodInvoker
+    {
+
+        private final Method method;
+
+        ReflectiveMethodInvoker(Method method)
+        {
+            this.method = method;
+        }
+
+        public Object invoke(Object target, Object[] arguments) throws InvocationTargetException, IllegalAccessException
+        {
+            return method.invoke(target, arguments);
+        }
+    }
+}
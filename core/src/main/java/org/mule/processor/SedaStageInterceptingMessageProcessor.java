@@ -41,13 +41,21 @@ import org.mule.util.queue.QueueSession;
 import org.mule.work.MuleWorkManager;
 
 import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkEvent;
 import javax.resource.spi.work.WorkException;
 
 /**
  * Processes {@link MuleEvent}'s asynchronously using a {@link MuleWorkManager} to schedule asynchronous
  * processing of the next {@link MessageProcessor}.
+ * <p/>
+ * When the queue is bounded, the occupancy of the queue and of the workers processing
+ * its events is reported to the {@link QueueStatistics}, which signal the message
+ * sources feeding the stage to pause when it crosses the watermarks of the
+ * {@link QueueProfile}.
  */
 public class SedaStageInterceptingMessageProcessor extends AsyncInterceptingMessageProcessor
     implements Work, Lifecycle, Pausable, Resumable
@@ -62,6 +70,8 @@ public class SedaStageInterceptingMessageProcessor extends AsyncInterceptingMess
     protected QueueConfiguration queueConfiguration;
     private WaitableBoolean running = new WaitableBoolean(false);
     protected SedaStageLifecycleManager lifecycleManager;
+    private final int maxThreadsActive;
+    private final AtomicInteger activeWorks = new AtomicInteger(0);
 
     public SedaStageInterceptingMessageProcessor(String threadName,
                                                  String queueName,
@@ -77,6 +87,7 @@ public class SedaStageInterceptingMessageProcessor extends AsyncInterceptingMess
         this.queueTimeout = queueTimeout;
         this.queueStatistics = queueStatistics;
         this.muleContext = muleContext;
+        this.maxThreadsActive = threadingProfile.isDoThreading() ? threadingProfile.getMaxThreadsActive() : 0;
         lifecycleManager = new SedaStageLifecycleManager(queueName, this);
     }
 
@@ -96,6 +107,7 @@ public class SedaStageInterceptingMessageProcessor extends AsyncInterceptingMess
             throw new FailedToQueueEventException(
                 CoreMessages.interruptedQueuingEventFor(getStageDescription()), event, e);
         }
+        updateQueueOccupancy();
 
         if (logger.isTraceEnabled())
         {
@@ -108,6 +120,22 @@ public class SedaStageInterceptingMessageProcessor extends AsyncInterceptingMess
         return queueStatistics != null && queueStatistics.isEnabled();
     }
 
+    /**
+     * Reports the number of queued events and of events being processed by workers, as
+     * a percentage of the queue size plus the maximum number of workers.
+     */
+    protected void updateQueueOccupancy()
+    {
+        if (queueStatistics == null || queue == null || !queueProfile.isThrottlingEnabled())
+        {
+            return;
+        }
+        int capacity = queueProfile.getMaxOutstandingMessages() + maxThreadsActive;
+        int occupancy = (int) Math.min(100, (queue.size() + activeWorks.get()) * 100L / capacity);
+        queueStatistics.updateQueueOccupancy(occupancy, queueProfile.getHighWatermark(),
+            queueProfile.getLowWatermark());
+    }
+
     protected void enqueue(MuleEvent event) throws Exception
     {
         if (logger.isDebugEnabled())
@@ -238,14 +266,16 @@ public class SedaStageInterceptingMessageProcessor extends AsyncInterceptingMess
                                 getStageDescription(), getQueueName()));
                         }
                         AsyncMessageProcessorWorker work = new AsyncMessageProcessorWorker(eventToProcess);
+                        OccupancyWorkListener workListener = new OccupancyWorkListener(next);
                         try
                         {
                             // TODO Remove this thread handoff to ensure Zero Message Loss
                             workManagerSource.getWorkManager().scheduleWork(work, WorkManager.INDEFINITE,
-                                null, new AsyncWorkListener(next));
+                                null, workListener);
                         }
                         catch (Exception e)
                         {
+                            workListener.workDone();
                             // because dequeued event may still be owned by a previuos
                             // thread we need to use the copy created in AsyncMessageProcessorWorker
                             // constructor.
@@ -415,6 +445,44 @@ public class SedaStageInterceptingMessageProcessor extends AsyncInterceptingMess
         });
     }
 
+    /**
+     * Counts the events being processed by workers in the occupancy of the stage.
+     */
+    class OccupancyWorkListener extends AsyncWorkListener
+    {
+        private final AtomicBoolean done = new AtomicBoolean(false);
+
+        OccupancyWorkListener(MessageProcessor target)
+        {
+            super(target);
+            activeWorks.incrementAndGet();
+            updateQueueOccupancy();
+        }
+
+        @Override
+        public void workRejected(WorkEvent event)
+        {
+            workDone();
+            super.workRejected(event);
+        }
+
+        @Override
+        public void workCompleted(WorkEvent event)
+        {
+            workDone();
+            super.workCompleted(event);
+        }
+
+        void workDone()
+        {
+            if (done.compareAndSet(false, true))
+            {
+                activeWorks.decrementAndGet();
+                updateQueueOccupancy();
+            }
+        }
+    }
+
     public void pause() throws MuleException
     {
         lifecycleManager.firePausePhase(new EmptyLifecycleCallback<SedaStageInterceptingMessageProcessor>());
@@ -0,0 +1,163 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.processor;
+
+import org.mule.api.MessagingException;
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.config.ThreadingProfile;
+import org.mule.api.context.WorkManagerSource;
+import org.mule.config.i18n.CoreMessages;
+import org.mule.config.pool.WorkStealingScheduler;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Processes {@link MuleEvent}'s asynchronously on a {@link WorkStealingScheduler}
+ * rather than a {@link org.mule.api.context.WorkManager}, so the workers don't
+ * contend on a single queue and each one keeps processing the events it was handed
+ * while it can. The scheduler has <code>maxThreadsActive</code> workers and queues up
+ * to <code>maxBufferSize</code> events.
+ * <p/>
+ * With correlation affinity, events with the same correlation id are processed by the
+ * same worker, one at a time and in the order they were received. Events without a
+ * correlation id are processed by any worker.
+ * <p/>
+ * When the queue is full the <code>poolExhaustedAction</code> of the threading profile
+ * applies as it does for a work manager, except that
+ * {@link ThreadingProfile#WHEN_EXHAUSTED_DISCARD_OLDEST} discards the new event: the
+ * queued events are spread over the worker deques, so there is no single oldest one.
+ */
+public class WorkStealingInterceptingMessageProcessor extends AsyncInterceptingMessageProcessor
+{
+
+    private final ThreadingProfile threadingProfile;
+    private final String name;
+    private final int shutdownTimeout;
+    private final boolean correlationAffinity;
+    private WorkStealingScheduler scheduler;
+
+    public WorkStealingInterceptingMessageProcessor(ThreadingProfile threadingProfile,
+                                                    String name,
+                                                    int shutdownTimeout,
+                                                    boolean correlationAffinity)
+    {
+        super((WorkManagerSource) null);
+        this.doThreading = threadingProfile.isDoThreading();
+        this.threadingProfile = threadingProfile;
+        this.name = name;
+        this.shutdownTimeout = shutdownTimeout;
+        this.correlationAffinity = correlationAffinity;
+    }
+
+    @Override
+    public synchronized void start() throws MuleException
+    {
+        super.start();
+        if (scheduler == null)
+        {
+            int threads = threadingProfile.getMaxThreadsActive();
+            scheduler = new WorkStealingScheduler(name, threads, threads,
+                WorkStealingScheduler.DEFAULT_TARGET_LATENCY, threadingProfile.getThreadTTL(),
+                threadingProfile.getMaxBufferSize(), muleContext.getExecutionClassLoader());
+            scheduler.start();
+        }
+    }
+
+    @Override
+    public synchronized void stop() throws MuleException
+    {
+        if (scheduler != null)
+        {
+            scheduler.dispose(shutdownTimeout);
+            scheduler = null;
+        }
+        super.stop();
+    }
+
+    @Override
+    protected void processNextAsync(MuleEvent event) throws MuleException
+    {
+        WorkStealingScheduler current = scheduler;
+        if (current == null)
+        {
+            throw new MessagingException(CoreMessages.errorSchedulingMessageProcessorForAsyncInvocation(next),
+                event, this);
+        }
+        AsyncMessageProcessorWorker worker = new AsyncMessageProcessorWorker(event);
+        try
+        {
+            schedule(current, worker, getAffinityKey(event));
+        }
+        catch (RejectedExecutionException e)
+        {
+            if (current.isDisposed())
+            {
+                throw new MessagingException(CoreMessages.errorSchedulingMessageProcessorForAsyncInvocation(next),
+                    event, e, this);
+            }
+            switch (threadingProfile.getPoolExhaustedAction())
+            {
+                case ThreadingProfile.WHEN_EXHAUSTED_RUN :
+                    worker.run();
+                    return;
+                case ThreadingProfile.WHEN_EXHAUSTED_DISCARD :
+                case ThreadingProfile.WHEN_EXHAUSTED_DISCARD_OLDEST :
+                    if (logger.isDebugEnabled())
+                    {
+                        logger.debug("Discarding event " + event.getId() + ", " + e.getMessage());
+                    }
+                    return;
+                default :
+                    // WHEN_EXHAUSTED_ABORT, or WHEN_EXHAUSTED_WAIT timed out
+                    throw new MessagingException(
+                        CoreMessages.errorSchedulingMessageProcessorForAsyncInvocation(next), event, e, this);
+            }
+        }
+        fireAsyncScheduledNotification(event);
+    }
+
+    private void schedule(WorkStealingScheduler current, Runnable worker, Object affinityKey)
+    {
+        if (threadingProfile.getPoolExhaustedAction() == ThreadingProfile.WHEN_EXHAUSTED_WAIT)
+        {
+            long timeout = threadingProfile.getThreadWaitTimeout();
+            current.execute(worker, affinityKey, timeout < 0 ? Long.MAX_VALUE : timeout);
+        }
+        else
+        {
+            current.execute(worker, affinityKey);
+        }
+    }
+
+    /**
+     * @return the correlation id of the message when correlation affinity is enabled,
+     *         otherwise null
+     */
+    protected Object getAffinityKey(MuleEvent event)
+    {
+        return correlationAffinity ? event.getMessage().getCorrelationId() : null;
+    }
+
+    public boolean isCorrelationAffinity()
+    {
+        return correlationAffinity;
+    }
+
+    /**
+     * @return the scheduler processing the events, or null if this processor is not
+     *         started
+     */
+    public WorkStealingScheduler getScheduler()
+    {
+        return scheduler;
+    }
+}
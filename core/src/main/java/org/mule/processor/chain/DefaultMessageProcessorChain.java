@@ -18,6 +18,7 @@ import org.mule.api.MuleContext;
 import org.mule.api.MuleEvent;
 import org.mule.api.MuleException;
 import org.mule.api.component.Component;
+import org.mule.api.config.MuleProperties;
 import org.mule.api.construct.FlowConstruct;
 import org.mule.api.construct.Pipeline;
 import org.mule.api.endpoint.OutboundEndpoint;
@@ -26,6 +27,8 @@ import org.mule.api.processor.MessageProcessorChain;
 import org.mule.api.processor.RequestReplyReplierMessageProcessor;
 import org.mule.api.transformer.Transformer;
 import org.mule.construct.Flow;
+import org.mule.context.notification.MessageProcessorNotification;
+import org.mule.context.notification.ServerNotificationManager;
 import org.mule.execution.MessageProcessorExecutionTemplate;
 import org.mule.routing.MessageFilter;
 
@@ -34,10 +37,26 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+/**
+ * Iterates over a list of {@link MessageProcessor}s.
+ * <p/>
+ * Unless the {@link #COMPILED_PROPERTY} system property is set to false, the chain is
+ * compiled the first time it processes an event: the processors are copied to an
+ * array along with the checks that don't depend on the event, and the
+ * {@link MessageProcessorExecutionTemplate} is only used when a
+ * {@link MessageProcessorNotification} has to be fired. Otherwise, processors are
+ * invoked directly and only exceptions are wrapped, which is what the template does
+ * when notifications are disabled.
+ */
 public class DefaultMessageProcessorChain extends AbstractMessageProcessorChain
 {
+    public static final String COMPILED_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "chain.compiled";
+
     protected MessageProcessorExecutionTemplate messageProcessorExecutionTemplate = MessageProcessorExecutionTemplate.createExecutionTemplate();
 
+    protected final boolean compiled = isCompilationEnabled();
+    private volatile CompiledChain compiledChain;
+
     protected DefaultMessageProcessorChain(List<MessageProcessor> processors)
     {
         super(null, processors);
@@ -82,6 +101,11 @@ public class DefaultMessageProcessorChain extends AbstractMessageProcessorChain
         }
         else
         {
+            if (compiled)
+            {
+                return doProcessCompiled(event);
+            }
+
             FlowConstruct flowConstruct = event.getFlowConstruct();
             MuleEvent copy = null;
             for (int i = 0; i < processors.size(); i++)
@@ -115,6 +139,108 @@ public class DefaultMessageProcessorChain extends AbstractMessageProcessorChain
         }
     }
 
+    /**
+     * Same as the iteration of {@link #doProcess(MuleEvent)}, over the compiled chain.
+     */
+    private MuleEvent doProcessCompiled(MuleEvent event) throws MuleException
+    {
+        CompiledChain chain = getCompiledChain();
+        FlowConstruct flowConstruct = event.getFlowConstruct();
+        boolean copyEvents = flowConstruct instanceof Flow;
+        boolean pipeline = flowConstruct instanceof Pipeline;
+        boolean fireNotifications = isNotificationRequired(event);
+        MuleEvent copy = null;
+        for (int i = 0; i < chain.processors.length; i++)
+        {
+            MessageProcessor processor = chain.processors[i];
+            if (copyEvents && chain.mayReturnNull[i])
+            {
+                copy = OptimizedRequestContext.criticalSetEvent(event);
+            }
+
+            event = execute(processor, event, fireNotifications);
+
+            if (VoidMuleEvent.getInstance().equals(event))
+            {
+                if (pipeline)
+                {
+                    event = copy;
+                }
+                else
+                {
+                    // But in a service we don't do any implicit branching.
+                    return null;
+                }
+            }
+            else if (event == null)
+            {
+                return null;
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Invokes a processor of the chain through the {@link #messageProcessorExecutionTemplate}
+     * when notifications have to be fired, or directly otherwise, wrapping any exception
+     * in a {@link MessagingException} as the template does.
+     */
+    protected MuleEvent execute(MessageProcessor processor, MuleEvent event, boolean fireNotifications)
+        throws MessagingException
+    {
+        if (fireNotifications)
+        {
+            return messageProcessorExecutionTemplate.execute(processor, event);
+        }
+        try
+        {
+            return processor.process(event);
+        }
+        catch (MessagingException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new MessagingException(event, e, processor);
+        }
+    }
+
+    /**
+     * @return true if a {@link MessageProcessorNotification} may be fired for the
+     *         processors invoked with the event, or if the chain is not compiled
+     */
+    protected boolean isNotificationRequired(MuleEvent event)
+    {
+        if (!compiled)
+        {
+            return true;
+        }
+        if (!event.isNotificationsEnabled() || !(event.getFlowConstruct() instanceof Pipeline))
+        {
+            return false;
+        }
+        ServerNotificationManager notificationManager = event.getMuleContext().getNotificationManager();
+        return notificationManager != null
+               && notificationManager.isNotificationEnabled(MessageProcessorNotification.class);
+    }
+
+    private CompiledChain getCompiledChain()
+    {
+        CompiledChain chain = compiledChain;
+        if (chain == null || !chain.isCompiledFrom(processors))
+        {
+            chain = new CompiledChain(processors);
+            compiledChain = chain;
+        }
+        return chain;
+    }
+
+    static boolean isCompilationEnabled()
+    {
+        return Boolean.parseBoolean(System.getProperty(COMPILED_PROPERTY, "true"));
+    }
+
     /*
      * Using old implementation 100% as is.
      */
@@ -215,4 +341,51 @@ public class DefaultMessageProcessorChain extends AbstractMessageProcessorChain
     {
         super.setMuleContext(context);
     }
+
+    @Override
+    public void dispose()
+    {
+        super.dispose();
+        compiledChain = null;
+    }
+
+    /**
+     * The processors of the chain and what can be known of them before processing an
+     * event.
+     */
+    private final class CompiledChain
+    {
+        final MessageProcessor[] processors;
+        final boolean[] mayReturnNull;
+
+        CompiledChain(List<MessageProcessor> processorList)
+        {
+            processors = processorList.toArray(new MessageProcessor[processorList.size()]);
+            mayReturnNull = new boolean[processors.length];
+            for (int i = 0; i < processors.length; i++)
+            {
+                mayReturnNull[i] = processorMayReturnNull(processors[i]);
+            }
+        }
+
+        /**
+         * @return false once a processor was added, removed or replaced in the list
+         */
+        boolean isCompiledFrom(List<MessageProcessor> processorList)
+        {
+            if (processorList.size() != processors.length)
+            {
+                return false;
+            }
+            int i = 0;
+            for (MessageProcessor processor : processorList)
+            {
+                if (processor != processors[i++])
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -10,6 +10,7 @@
 
 package org.mule.processor.chain;
 
+import org.mule.api.MessagingException;
 import org.mule.api.MuleEvent;
 import org.mule.api.MuleException;
 import org.mule.api.processor.MessageProcessor;
@@ -27,6 +28,7 @@ public class InterceptingChainLifecycleWrapper extends AbstractMessageProcessorC
 {
     private MessageProcessorChain chain;
     private MessageProcessorExecutionTemplate messageProcessorExecutionTemplate = MessageProcessorExecutionTemplate.createExecutionTemplate();
+    private final boolean compiled = DefaultMessageProcessorChain.isCompilationEnabled();
 
     public InterceptingChainLifecycleWrapper(MessageProcessorChain chain,
                                              List<MessageProcessor> processors,
@@ -62,6 +64,24 @@ public class InterceptingChainLifecycleWrapper extends AbstractMessageProcessorC
             return null;
         }
 
+        if (compiled)
+        {
+            // The wrapper is not part of the flow's processor paths, so the template
+            // would never fire a notification for it, only wrap exceptions
+            try
+            {
+                return super.process(event);
+            }
+            catch (MessagingException e)
+            {
+                throw e;
+            }
+            catch (Exception e)
+            {
+                throw new MessagingException(event, e, this);
+            }
+        }
+
         return messageProcessorExecutionTemplate.execute(new MessageProcessor()
         {
             @Override
@@ -41,10 +41,11 @@ public class SimpleMessageProcessorChain extends DefaultMessageProcessorChain
 
     protected MuleEvent doProcess(MuleEvent event) throws MuleException
     {
+        boolean fireNotifications = isNotificationRequired(event);
         for (int i = 0; i < processors.size(); i++)
         {
             MessageProcessor processor = processors.get(i);
-            event = messageProcessorExecutionTemplate.execute(processor, event);
+            event = execute(processor, event, fireNotifications);
             if (event == null)
             {
                 return null;
@@ -39,6 +39,8 @@ public class QueuedAsynchronousProcessingStrategy extends AsynchronousProcessing
     protected Integer maxQueueSize = 0;
     protected QueueStore<Serializable> queueStore = null;
     protected QueueStatistics queueStatistics;
+    protected Integer highWatermark;
+    protected Integer lowWatermark;
 
     @Override
     protected AsyncInterceptingMessageProcessor createAsyncMessageProcessor(StageNameSource nameSource,
@@ -50,12 +52,25 @@ public class QueuedAsynchronousProcessingStrategy extends AsynchronousProcessing
         initQueueStore(muleContext);
 
         QueueProfile queueProfile = new QueueProfile(maxQueueSize, queueStore);
+        configureWatermarks(queueProfile);
         ThreadingProfile threadingProfile = createThreadingProfile(muleContext);
         String stageName = nameSource.getName();
         return new SedaStageInterceptingMessageProcessor(ThreadNameHelper.flow(muleContext, stageName),
             stageName, queueProfile, timeout, threadingProfile, queueStatistics, muleContext);
     }
 
+    protected void configureWatermarks(QueueProfile queueProfile)
+    {
+        if (highWatermark != null)
+        {
+            queueProfile.setHighWatermark(highWatermark);
+        }
+        if (lowWatermark != null)
+        {
+            queueProfile.setLowWatermark(lowWatermark);
+        }
+    }
+
     protected void initQueueStore(MuleContext muleContext)
     {
         queueStore = muleContext.getRegistry().lookupObject(MuleProperties.QUEUE_STORE_DEFAULT_IN_MEMORY_NAME);
@@ -91,6 +106,26 @@ public class QueuedAsynchronousProcessingStrategy extends AsynchronousProcessing
         this.queueStore = queueStore;
     }
 
+    public Integer getHighWatermark()
+    {
+        return highWatermark;
+    }
+
+    public void setHighWatermark(Integer highWatermark)
+    {
+        this.highWatermark = highWatermark;
+    }
+
+    public Integer getLowWatermark()
+    {
+        return lowWatermark;
+    }
+
+    public void setLowWatermark(Integer lowWatermark)
+    {
+        this.lowWatermark = lowWatermark;
+    }
+
     public QueueStatistics getQueueStatistics()
     {
         return queueStatistics;
@@ -0,0 +1,50 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.processor.strategy;
+
+import org.mule.api.MuleContext;
+import org.mule.config.pool.WorkStealingScheduler;
+import org.mule.processor.AsyncInterceptingMessageProcessor;
+import org.mule.processor.WorkStealingInterceptingMessageProcessor;
+
+/**
+ * This strategy uses a {@link WorkStealingScheduler}, with a deque for each of the
+ * <code>maxThreads</code> workers, to schedule the processing of the pipeline of
+ * message processors in a single worker thread. Idle workers steal events from busy
+ * ones instead of all of them taking events from a single queue.
+ * <p/>
+ * When <code>correlationAffinity</code> is enabled, events with the same correlation id
+ * are always processed by the same worker, in the order they were received.
+ */
+public class WorkStealingProcessingStrategy extends AsynchronousProcessingStrategy
+{
+
+    protected boolean correlationAffinity = false;
+
+    @Override
+    protected AsyncInterceptingMessageProcessor createAsyncMessageProcessor(StageNameSource nameSource,
+                                                                            MuleContext muleContext)
+    {
+        return new WorkStealingInterceptingMessageProcessor(createThreadingProfile(muleContext),
+            getThreadPoolName(nameSource.getName(), muleContext), muleContext.getConfiguration()
+                .getShutdownTimeout(), correlationAffinity);
+    }
+
+    public boolean isCorrelationAffinity()
+    {
+        return correlationAffinity;
+    }
+
+    public void setCorrelationAffinity(boolean correlationAffinity)
+    {
+        this.correlationAffinity = correlationAffinity;
+    }
+}
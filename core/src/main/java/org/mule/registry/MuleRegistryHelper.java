@@ -40,6 +40,7 @@ import org.mule.api.transformer.Transformer;
 import org.mule.api.transformer.TransformerException;
 import org.mule.api.transport.Connector;
 import org.mule.config.i18n.CoreMessages;
+import org.mule.transformer.types.DataTypePairTable;
 import org.mule.transformer.types.SimpleDataType;
 import org.mule.util.SpiUtils;
 import org.mule.util.StringUtils;
@@ -76,6 +77,9 @@ public class MuleRegistryHelper implements MuleRegistry
      */
     protected ConcurrentHashMap/*<String, Transformer>*/ exactTransformerCache = new ConcurrentHashMap/*<String, Transformer>*/(8);
     protected ConcurrentHashMap/*Map<String, List<Transformer>>*/ transformerListCache = new ConcurrentHashMap/*<String, List<Transformer>>*/(8);
+    // same as the caches above for interned datatypes, keyed by identity
+    protected DataTypePairTable<Transformer> resolvedTransformers = new DataTypePairTable<Transformer>();
+    protected DataTypePairTable<List<Transformer>> resolvedTransformerLists = new DataTypePairTable<List<Transformer>>();
 
     private MuleContext muleContext;
 
@@ -103,6 +107,8 @@ public class MuleRegistryHelper implements MuleRegistry
     {
         transformerListCache.clear();
         exactTransformerCache.clear();
+        resolvedTransformerLists.clear();
+        resolvedTransformers.clear();
     }
 
     public void fireLifecycle(String phase) throws LifecycleException
@@ -225,8 +231,12 @@ public class MuleRegistryHelper implements MuleRegistry
      */
     public Transformer lookupTransformer(DataType source, DataType result) throws TransformerException
     {
-        final String dataTypePairHash = getDataTypeSourceResultPairHash(source, result);
-        Transformer cachedTransformer = (Transformer) exactTransformerCache.get(dataTypePairHash);
+        // interned datatypes are looked up by identity, without building a key
+        final boolean interned = resolvedTransformers.accepts(source, result);
+        final String dataTypePairHash = interned ? null : getDataTypeSourceResultPairHash(source, result);
+        Transformer cachedTransformer = interned
+                                        ? resolvedTransformers.get(source, result)
+                                        : (Transformer) exactTransformerCache.get(dataTypePairHash);
         if (cachedTransformer != null)
         {
             return cachedTransformer;
@@ -236,6 +246,10 @@ public class MuleRegistryHelper implements MuleRegistry
 
         if (trans != null)
         {
+            if (interned)
+            {
+                return resolvedTransformers.putIfAbsent(source, result, trans);
+            }
             Transformer concurrentlyAddedTransformer = (Transformer) exactTransformerCache.putIfAbsent(
                 dataTypePairHash, trans);
             if (concurrentlyAddedTransformer != null)
@@ -281,9 +295,12 @@ public class MuleRegistryHelper implements MuleRegistry
      */
     public List<Transformer> lookupTransformers(DataType source, DataType result)
     {
-        final String dataTypePairHash = getDataTypeSourceResultPairHash(source, result);
+        final boolean interned = resolvedTransformerLists.accepts(source, result);
+        final String dataTypePairHash = interned ? null : getDataTypeSourceResultPairHash(source, result);
 
-        List<Transformer> results = (List<Transformer>) transformerListCache.get(dataTypePairHash);
+        List<Transformer> results = interned
+                                    ? resolvedTransformerLists.get(source, result)
+                                    : (List<Transformer>) transformerListCache.get(dataTypePairHash);
         if (results != null)
         {
             return results;
@@ -307,6 +324,10 @@ public class MuleRegistryHelper implements MuleRegistry
             }
         }
 
+        if (interned)
+        {
+            return resolvedTransformerLists.putIfAbsent(source, result, results);
+        }
         List<Transformer> concurrentlyAddedTransformers = (List<Transformer>) transformerListCache.putIfAbsent(
             dataTypePairHash, results);
         if (concurrentlyAddedTransformers != null)
@@ -458,6 +479,8 @@ public class MuleRegistryHelper implements MuleRegistry
             }
             transformerListCache.clear();
             exactTransformerCache.clear();
+            resolvedTransformerLists.clear();
+            resolvedTransformers.clear();
         }
     }
 
@@ -27,6 +27,7 @@ import org.mule.transformer.TransformerWeighting;
 import org.mule.transformer.graph.GraphTransformerResolver;
 import org.mule.transformer.simple.ObjectToByteArray;
 import org.mule.transformer.simple.ObjectToString;
+import org.mule.transformer.types.DataTypePairTable;
 import org.mule.transformer.types.SimpleDataType;
 
 import java.util.LinkedList;
@@ -55,6 +56,8 @@ public class TypeBasedTransformerResolver implements TransformerResolver, MuleCo
     private MuleContext muleContext;
 
     protected Map<String, Transformer> exactTransformerCache = new ConcurrentHashMap/*<String, Transformer>*/(8);
+    // same as above for interned datatypes, keyed by identity
+    protected DataTypePairTable<Transformer> resolvedTransformers = new DataTypePairTable<Transformer>();
 
     protected TransformerResolver graphTransformerResolver = new GraphTransformerResolver();
 
@@ -80,7 +83,10 @@ public class TypeBasedTransformerResolver implements TransformerResolver, MuleCo
 
     public Transformer resolve(DataType source, DataType result) throws ResolverException
     {
-        Transformer transformer = exactTransformerCache.get(source.toString() + result.toString());
+        final boolean interned = resolvedTransformers.accepts(source, result);
+        Transformer transformer = interned
+                                  ? resolvedTransformers.get(source, result)
+                                  : exactTransformerCache.get(source.toString() + result.toString());
         if (transformer != null)
         {
             return transformer;
@@ -140,7 +146,14 @@ public class TypeBasedTransformerResolver implements TransformerResolver, MuleCo
 
         if (transformer != null)
         {
-            exactTransformerCache.put(source.toString() + result.toString(), transformer);
+            if (interned)
+            {
+                resolvedTransformers.putIfAbsent(source, result, transformer);
+            }
+            else
+            {
+                exactTransformerCache.put(source.toString() + result.toString(), transformer);
+            }
         }
         return transformer;
     }
@@ -194,6 +207,7 @@ public class TypeBasedTransformerResolver implements TransformerResolver, MuleCo
     public void dispose()
     {
         exactTransformerCache.clear();
+        resolvedTransformers.clear();
     }
 
     public void transformerChange(Transformer transformer, RegistryAction registryAction)
@@ -202,6 +216,7 @@ public class TypeBasedTransformerResolver implements TransformerResolver, MuleCo
         {
             graphTransformerResolver.transformerChange(transformer, registryAction);
             exactTransformerCache.clear();
+            resolvedTransformers.clear();
         }
     }
 }
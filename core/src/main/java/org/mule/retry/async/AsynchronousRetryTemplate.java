@@ -14,6 +14,9 @@ import java.util.Map;
 
 import javax.resource.spi.work.WorkException;
 
+import org.mule.api.MuleContext;
+import org.mule.api.config.MuleProperties;
+import org.mule.api.context.MuleContextAware;
 import org.mule.api.context.WorkManager;
 import org.mule.api.retry.RetryCallback;
 import org.mule.api.retry.RetryContext;
@@ -21,17 +24,25 @@ import org.mule.api.retry.RetryNotifier;
 import org.mule.api.retry.RetryPolicy;
 import org.mule.api.retry.RetryPolicyTemplate;
 import org.mule.retry.RetryPolicyExhaustedException;
+import org.mule.retry.policies.AbstractPolicyTemplate;
 import org.mule.util.concurrent.Latch;
 
 /**
  * This class is a wrapper for a {@link RetryPolicyTemplate} and will execute any retry work within a separate thread.
  * An optional {@link Latch} can be passed into this template, in which case execution will only occur once the latch is
  * released.
+ * <p/>
+ * When no start latch is used, the attempts are scheduled through a {@link RetryScheduler} instead, so no thread is
+ * held while waiting between them. The scheduler set on this template is used if there is one, otherwise the one of
+ * the Mule context is used for the policies extending {@link AbstractPolicyTemplate}, whose execution the scheduler
+ * reproduces. Other templates keep running in a worker thread.
  */
-public class AsynchronousRetryTemplate implements RetryPolicyTemplate
+public class AsynchronousRetryTemplate implements RetryPolicyTemplate, MuleContextAware
 {
     private final RetryPolicyTemplate delegate;
     private Latch startLatch;
+    private RetryScheduler retryScheduler;
+    private MuleContext muleContext;
 
     public AsynchronousRetryTemplate(RetryPolicyTemplate delegate)
     {
@@ -46,6 +57,12 @@ public class AsynchronousRetryTemplate implements RetryPolicyTemplate
                 "Cannot schedule a work till the workManager is initialized. Probably the connector hasn't been initialized yet");
         }
 
+        RetryScheduler scheduler = startLatch == null ? getEffectiveRetryScheduler() : null;
+        if (scheduler != null)
+        {
+            return scheduler.schedule(delegate, callback, workManager, 0);
+        }
+
         RetryWorker worker = new RetryWorker(delegate, callback, workManager, startLatch);
         FutureRetryContext context = worker.getRetryContext();
 
@@ -60,6 +77,24 @@ public class AsynchronousRetryTemplate implements RetryPolicyTemplate
         return context;
     }
 
+    private RetryScheduler getEffectiveRetryScheduler()
+    {
+        if (retryScheduler != null)
+        {
+            return retryScheduler;
+        }
+        if (muleContext != null && delegate instanceof AbstractPolicyTemplate)
+        {
+            RetryScheduler defaultScheduler = muleContext.getRegistry().lookupObject(
+                MuleProperties.OBJECT_DEFAULT_RETRY_SCHEDULER);
+            if (defaultScheduler != null && !defaultScheduler.isDisposed())
+            {
+                return defaultScheduler;
+            }
+        }
+        return null;
+    }
+
     public RetryPolicy createRetryInstance()
     {
         return delegate.createRetryInstance();
@@ -94,4 +129,19 @@ public class AsynchronousRetryTemplate implements RetryPolicyTemplate
     {
         this.startLatch = latch;
     }
+
+    public RetryScheduler getRetryScheduler()
+    {
+        return retryScheduler;
+    }
+
+    public void setRetryScheduler(RetryScheduler retryScheduler)
+    {
+        this.retryScheduler = retryScheduler;
+    }
+
+    public void setMuleContext(MuleContext context)
+    {
+        this.muleContext = context;
+    }
 }
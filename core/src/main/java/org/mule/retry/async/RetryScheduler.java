@@ -0,0 +1,392 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.retry.async;
+
+import org.mule.api.MuleContext;
+import org.mule.api.context.WorkManager;
+import org.mule.api.lifecycle.Disposable;
+import org.mule.api.retry.DelayedRetryPolicy;
+import org.mule.api.retry.RetryCallback;
+import org.mule.api.retry.RetryNotifier;
+import org.mule.api.retry.RetryPolicy;
+import org.mule.api.retry.RetryPolicyTemplate;
+import org.mule.retry.DefaultRetryContext;
+import org.mule.retry.PolicyStatus;
+import org.mule.util.concurrent.DaemonThreadFactory;
+
+import java.io.InterruptedIOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Executes {@link RetryPolicyTemplate}s without holding a thread while waiting between
+ * attempts. Each attempt runs as a {@link Work} on the given {@link WorkManager}; when it
+ * fails, the delay before the next attempt is taken from the {@link DelayedRetryPolicy}
+ * and the attempt is handed to a single timer thread, which only moves due attempts back
+ * to the work manager. Policies that are not a {@link DelayedRetryPolicy} are applied on
+ * the worker thread as before.
+ * <p/>
+ * The number of attempts running at the same time can be capped with
+ * {@link #setMaxInFlightRetries(int)}: due attempts then wait in a queue, without a
+ * thread, until a running one completes. The scheduler exposes the number of pending
+ * (waiting for their delay), overdue (due but not started yet) and in flight retries.
+ */
+public class RetryScheduler implements Disposable
+{
+
+    /**
+     * Delay before submitting again an attempt rejected by the work manager.
+     */
+    public static final long REJECTED_RETRY_DELAY = 1000;
+
+    protected transient final Log logger = LogFactory.getLog(RetryScheduler.class);
+
+    private final MuleContext muleContext;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Queue<ScheduledRetry> ready = new ConcurrentLinkedQueue<ScheduledRetry>();
+
+    private volatile int maxInFlightRetries = 0;
+    private volatile boolean disposed = false;
+
+    private final AtomicInteger pendingRetries = new AtomicInteger(0);
+    private final AtomicInteger overdueRetries = new AtomicInteger(0);
+    private final AtomicInteger inFlightRetries = new AtomicInteger(0);
+    private final AtomicLong executedAttempts = new AtomicLong(0);
+    private final AtomicLong succeededRetries = new AtomicLong(0);
+    private final AtomicLong exhaustedRetries = new AtomicLong(0);
+    private final AtomicLong maxLateness = new AtomicLong(0);
+
+    public RetryScheduler(MuleContext muleContext, String name)
+    {
+        this.muleContext = muleContext;
+        ClassLoader classLoader = muleContext != null
+                                  ? muleContext.getExecutionClassLoader()
+                                  : Thread.currentThread().getContextClassLoader();
+        this.timer = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory(name + ".retry.scheduler", classLoader));
+    }
+
+    /**
+     * Schedules the first attempt of the given callback.
+     *
+     * @param template provides the retry policy, notifier and meta info
+     * @param callback the work to retry
+     * @param workManager runs the attempts
+     * @param delay milliseconds to wait before the first attempt
+     * @return a context that becomes ready once the callback succeeds or the policy is
+     *         exhausted
+     */
+    public FutureRetryContext schedule(RetryPolicyTemplate template,
+                                       RetryCallback callback,
+                                       WorkManager workManager,
+                                       long delay)
+    {
+        if (disposed)
+        {
+            throw new IllegalStateException("Cannot schedule retries once the scheduler has been disposed");
+        }
+
+        DefaultRetryContext context = new DefaultRetryContext(callback.getWorkDescription(), template.getMetaInfo());
+        context.setMuleContext(muleContext);
+
+        ScheduledRetry retry = new ScheduledRetry(template.createRetryInstance(), template.getNotifier(),
+            callback, workManager, context);
+        schedule(retry, delay);
+        return retry.future;
+    }
+
+    private void schedule(final ScheduledRetry retry, long delay)
+    {
+        if (disposed)
+        {
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Retry scheduler disposed, dropping: " + retry.callback.getWorkDescription());
+            }
+            return;
+        }
+
+        retry.dueTime = System.currentTimeMillis() + delay;
+        pendingRetries.incrementAndGet();
+        try
+        {
+            timer.schedule(new Runnable()
+            {
+                public void run()
+                {
+                    pendingRetries.decrementAndGet();
+                    overdueRetries.incrementAndGet();
+                    ready.add(retry);
+                    dispatchReady();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            pendingRetries.decrementAndGet();
+            if (!disposed)
+            {
+                throw e;
+            }
+        }
+    }
+
+    private void dispatchReady()
+    {
+        while (!ready.isEmpty() && acquireSlot())
+        {
+            ScheduledRetry retry = ready.poll();
+            if (retry == null)
+            {
+                inFlightRetries.decrementAndGet();
+                continue;
+            }
+
+            try
+            {
+                retry.workManager.scheduleWork(retry);
+            }
+            catch (WorkException e)
+            {
+                inFlightRetries.decrementAndGet();
+                overdueRetries.decrementAndGet();
+                logger.warn("Work manager rejected retry of " + retry.callback.getWorkDescription()
+                            + ", trying again in " + REJECTED_RETRY_DELAY + " ms");
+                schedule(retry, REJECTED_RETRY_DELAY);
+            }
+        }
+    }
+
+    private boolean acquireSlot()
+    {
+        while (true)
+        {
+            int current = inFlightRetries.get();
+            if (maxInFlightRetries > 0 && current >= maxInFlightRetries)
+            {
+                return false;
+            }
+            if (inFlightRetries.compareAndSet(current, current + 1))
+            {
+                return true;
+            }
+        }
+    }
+
+    private void releaseSlot()
+    {
+        inFlightRetries.decrementAndGet();
+        dispatchReady();
+    }
+
+    private void updateMaxLateness(long lateness)
+    {
+        long current = maxLateness.get();
+        while (lateness > current && !maxLateness.compareAndSet(current, lateness))
+        {
+            current = maxLateness.get();
+        }
+    }
+
+    /**
+     * Cancels all the retries that are waiting. Attempts already running complete but
+     * are not retried again.
+     */
+    public void dispose()
+    {
+        disposed = true;
+        timer.shutdownNow();
+        ready.clear();
+        pendingRetries.set(0);
+        overdueRetries.set(0);
+    }
+
+    public boolean isDisposed()
+    {
+        return disposed;
+    }
+
+    public int getMaxInFlightRetries()
+    {
+        return maxInFlightRetries;
+    }
+
+    /**
+     * Sets the maximum number of attempts that can run at the same time, 0 (the
+     * default) for no limit.
+     */
+    public void setMaxInFlightRetries(int maxInFlightRetries)
+    {
+        this.maxInFlightRetries = maxInFlightRetries;
+    }
+
+    /**
+     * @return the number of retries waiting for their delay to elapse
+     */
+    public int getPendingRetries()
+    {
+        return pendingRetries.get();
+    }
+
+    /**
+     * @return the number of retries whose delay has elapsed but that are still waiting
+     *         for a free slot or for a thread of the work manager
+     */
+    public int getOverdueRetries()
+    {
+        return overdueRetries.get();
+    }
+
+    /**
+     * @return the number of attempts currently running
+     */
+    public int getInFlightRetries()
+    {
+        return inFlightRetries.get();
+    }
+
+    /**
+     * @return the number of attempts executed so far
+     */
+    public long getExecutedAttempts()
+    {
+        return executedAttempts.get();
+    }
+
+    public long getSucceededRetries()
+    {
+        return succeededRetries.get();
+    }
+
+    public long getExhaustedRetries()
+    {
+        return exhaustedRetries.get();
+    }
+
+    /**
+     * @return the longest time, in milliseconds, an attempt started after it was due
+     */
+    public long getMaxLateness()
+    {
+        return maxLateness.get();
+    }
+
+    private class ScheduledRetry implements Work
+    {
+
+        private final RetryPolicy policy;
+        private final RetryNotifier notifier;
+        private final RetryCallback callback;
+        private final WorkManager workManager;
+        private final DefaultRetryContext context;
+        private final FutureRetryContext future = new FutureRetryContext();
+
+        private volatile long dueTime;
+
+        public ScheduledRetry(RetryPolicy policy,
+                              RetryNotifier notifier,
+                              RetryCallback callback,
+                              WorkManager workManager,
+                              DefaultRetryContext context)
+        {
+            this.policy = policy;
+            this.notifier = notifier;
+            this.callback = callback;
+            this.workManager = workManager;
+            this.context = context;
+        }
+
+        public void run()
+        {
+            overdueRetries.decrementAndGet();
+            updateMaxLateness(System.currentTimeMillis() - dueTime);
+            executedAttempts.incrementAndGet();
+            try
+            {
+                attempt();
+            }
+            finally
+            {
+                releaseSlot();
+            }
+        }
+
+        private void attempt()
+        {
+            Exception cause;
+            try
+            {
+                callback.doWork(context);
+                if (notifier != null)
+                {
+                    notifier.onSuccess(context);
+                }
+                succeededRetries.incrementAndGet();
+                future.setDelegateContext(context);
+                return;
+            }
+            catch (Exception e)
+            {
+                cause = e;
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug(cause);
+                }
+                if (notifier != null)
+                {
+                    notifier.onFailure(context, cause);
+                }
+            }
+
+            long delay = DelayedRetryPolicy.POLICY_EXHAUSTED;
+            if (cause instanceof InterruptedException || cause instanceof InterruptedIOException)
+            {
+                logger.error("Process was interrupted (InterruptedException), ceasing process");
+            }
+            else if (policy instanceof DelayedRetryPolicy)
+            {
+                delay = ((DelayedRetryPolicy) policy).nextRetryDelay(cause);
+            }
+            else
+            {
+                PolicyStatus status = policy.applyPolicy(cause);
+                delay = status.isOk() ? 0 : DelayedRetryPolicy.POLICY_EXHAUSTED;
+            }
+
+            if (delay >= 0)
+            {
+                schedule(this, delay);
+            }
+            else
+            {
+                exhaustedRetries.incrementAndGet();
+                context.setFailed(cause);
+                future.setDelegateContext(context);
+                logger.warn("Retry policy exhausted for: " + callback.getWorkDescription());
+            }
+        }
+
+        public void release()
+        {
+            // nothing to release
+        }
+    }
+}
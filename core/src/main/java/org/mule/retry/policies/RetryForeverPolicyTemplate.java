@@ -30,7 +30,7 @@ public class RetryForeverPolicyTemplate extends SimpleRetryPolicyTemplate
     @Override
     public RetryPolicy createRetryInstance()
     {
-        return new SimpleRetryPolicy(frequency, RETRY_COUNT_FOREVER);
+        return new SimpleRetryPolicy(frequency, RETRY_COUNT_FOREVER, multiplier, maxFrequency, jitter);
     }
 
     @Override
@@ -10,29 +10,54 @@
 
 package org.mule.retry.policies;
 
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.mule.api.retry.RetryPolicy;
+import org.mule.api.retry.DelayedRetryPolicy;
 import org.mule.retry.PolicyStatus;
 
 /**
  * Allows to configure how many times a retry should be attempted and how long to wait between retries.
+ * The wait can optionally grow exponentially with each attempt, up to a maximum, and be randomized
+ * by a jitter factor so that many retries failing together do not all fire again at the same time.
  */
-public class SimpleRetryPolicy implements RetryPolicy
+public class SimpleRetryPolicy implements DelayedRetryPolicy
 {
     protected static final Log logger = LogFactory.getLog(SimpleRetryPolicy.class);
 
+    private static final Random jitterRandom = new Random();
+
     protected RetryCounter retryCounter;
 
     private volatile int count = SimpleRetryPolicyTemplate.DEFAULT_RETRY_COUNT;
     private volatile long frequency = SimpleRetryPolicyTemplate.DEFAULT_FREQUENCY;
+    private volatile double multiplier = 1;
+    private volatile long maxFrequency = 0;
+    private volatile double jitter = 0;
+
+    private final AtomicInteger scheduledRetries = new AtomicInteger(0);
 
     public SimpleRetryPolicy(long frequency, int retryCount)
+    {
+        this(frequency, retryCount, 1, 0, 0);
+    }
+
+    /**
+     * @param frequency time to wait before the first retry
+     * @param retryCount number of retries, or {@link SimpleRetryPolicyTemplate#RETRY_COUNT_FOREVER}
+     * @param multiplier factor applied to the wait after each retry, 1 for a constant wait
+     * @param maxFrequency upper bound for the wait, 0 for no bound
+     * @param jitter fraction of the wait, between 0 and 1, by which it is randomly shortened or extended
+     */
+    public SimpleRetryPolicy(long frequency, int retryCount, double multiplier, long maxFrequency, double jitter)
     {
         this.frequency = frequency;
         this.count = retryCount;
+        this.multiplier = multiplier;
+        this.maxFrequency = maxFrequency;
+        this.jitter = jitter;
         retryCounter = new RetryCounter();
     }
 
@@ -45,22 +70,13 @@ public class SimpleRetryPolicy implements RetryPolicy
         }
         else
         {
-            if (logger.isInfoEnabled())
-            {
-                logger.info("Waiting for "
-                            + frequency
-                            + "ms before reconnecting. Failed attempt "
-                            + (retryCounter.current().get() + 1)
-                            + " of "
-                            + (count != SimpleRetryPolicyTemplate.RETRY_COUNT_FOREVER
-                                                                                     ? String.valueOf(count)
-                                                                                     : "unlimited"));
-            }
+            long delay = getDelay(retryCounter.current().get());
+            logRetry(delay, retryCounter.current().get() + 1);
 
             try
             {
                 retryCounter.current().getAndIncrement();
-                Thread.sleep(frequency);
+                Thread.sleep(delay);
                 return PolicyStatus.policyOk();
             }
             catch (InterruptedException e)
@@ -71,6 +87,60 @@ public class SimpleRetryPolicy implements RetryPolicy
         }
     }
 
+    public long nextRetryDelay(Throwable cause)
+    {
+        int retries = scheduledRetries.get();
+        if ((count != SimpleRetryPolicyTemplate.RETRY_COUNT_FOREVER && retries >= count) || !isApplicableTo(cause))
+        {
+            return POLICY_EXHAUSTED;
+        }
+
+        long delay = getDelay(retries);
+        logRetry(delay, retries + 1);
+        scheduledRetries.incrementAndGet();
+        return delay;
+    }
+
+    /**
+     * Computes the time to wait before a retry, applying the backoff multiplier, the
+     * maximum frequency and the jitter to the configured frequency.
+     *
+     * @param retries number of retries already performed
+     */
+    protected long getDelay(int retries)
+    {
+        double delay = frequency;
+        if (multiplier != 1)
+        {
+            delay = frequency * Math.pow(multiplier, retries);
+        }
+        if (maxFrequency > 0 && delay > maxFrequency)
+        {
+            delay = maxFrequency;
+        }
+        if (jitter > 0)
+        {
+            double spread = delay * Math.min(jitter, 1);
+            delay = delay - spread + jitterRandom.nextDouble() * 2 * spread;
+        }
+        return Math.max(0, Math.round(delay));
+    }
+
+    private void logRetry(long delay, int attempt)
+    {
+        if (logger.isInfoEnabled())
+        {
+            logger.info("Waiting for "
+                        + delay
+                        + "ms before reconnecting. Failed attempt "
+                        + attempt
+                        + " of "
+                        + (count != SimpleRetryPolicyTemplate.RETRY_COUNT_FOREVER
+                                                                                 ? String.valueOf(count)
+                                                                                 : "unlimited"));
+        }
+    }
+
     /**
      * Indicates if the policy is applicable for the cause that caused the policy invocation. Subclasses can override
      * this method in order to filter the type of exceptions that does not deserve a retry.
@@ -32,6 +32,9 @@ public class SimpleRetryPolicyTemplate extends AbstractPolicyTemplate
 
     protected volatile int count = DEFAULT_RETRY_COUNT;
     protected volatile long frequency = DEFAULT_FREQUENCY;
+    protected volatile double multiplier = 1;
+    protected volatile long maxFrequency = 0;
+    protected volatile double jitter = 0;
 
     public SimpleRetryPolicyTemplate()
     {
@@ -64,9 +67,51 @@ public class SimpleRetryPolicyTemplate extends AbstractPolicyTemplate
         this.count = count;
     }
 
+    public double getMultiplier()
+    {
+        return multiplier;
+    }
+
+    /**
+     * Sets the factor applied to the frequency after each retry, so that the waits grow
+     * exponentially. Defaults to 1, a constant frequency.
+     */
+    public void setMultiplier(double multiplier)
+    {
+        this.multiplier = multiplier;
+    }
+
+    public long getMaxFrequency()
+    {
+        return maxFrequency;
+    }
+
+    /**
+     * Sets the upper bound for the wait between retries when a multiplier is used, 0
+     * (the default) for no bound.
+     */
+    public void setMaxFrequency(long maxFrequency)
+    {
+        this.maxFrequency = maxFrequency;
+    }
+
+    public double getJitter()
+    {
+        return jitter;
+    }
+
+    /**
+     * Sets the fraction of the wait, between 0 and 1, by which each wait is randomly
+     * shortened or extended. Defaults to 0.
+     */
+    public void setJitter(double jitter)
+    {
+        this.jitter = jitter;
+    }
+
     public RetryPolicy createRetryInstance()
     {
-        return new SimpleRetryPolicy(frequency, count);
+        return new SimpleRetryPolicy(frequency, count, multiplier, maxFrequency, jitter);
     }
 
     @Override
@@ -76,6 +121,15 @@ public class SimpleRetryPolicyTemplate extends AbstractPolicyTemplate
         sb.append("SimpleRetryPolicy");
         sb.append("{frequency=").append(frequency);
         sb.append(", retryCount=").append(count);
+        if (multiplier != 1)
+        {
+            sb.append(", multiplier=").append(multiplier);
+            sb.append(", maxFrequency=").append(maxFrequency);
+        }
+        if (jitter > 0)
+        {
+            sb.append(", jitter=").append(jitter);
+        }
         sb.append('}');
 
         return sb.toString();
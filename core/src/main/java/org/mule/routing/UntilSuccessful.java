@@ -25,13 +25,13 @@ import org.mule.api.processor.MessageProcessor;
 import org.mule.api.retry.RetryCallback;
 import org.mule.api.retry.RetryContext;
 import org.mule.api.retry.RetryNotifier;
-import org.mule.api.retry.RetryPolicyTemplate;
 import org.mule.api.store.ListableObjectStore;
 import org.mule.api.store.ObjectStoreException;
 import org.mule.config.i18n.CoreMessages;
 import org.mule.config.i18n.MessageFactory;
 import org.mule.retry.RetryPolicyExhaustedException;
 import org.mule.retry.async.AsynchronousRetryTemplate;
+import org.mule.retry.async.RetryScheduler;
 import org.mule.retry.policies.SimpleRetryPolicyTemplate;
 import org.mule.routing.filters.ExpressionFilter;
 import org.mule.routing.outbound.AbstractOutboundRouter;
@@ -47,6 +47,10 @@ import java.util.concurrent.TimeUnit;
  * UntilSuccessful can optionally be configured to synchronously return an acknowledgment message when it has scheduled
  * the event for processing. UntilSuccessful is backed by a {@link ListableObjectStore} for storing the events that are
  * pending (re)processing.
+ * <p/>
+ * Retries are scheduled with a {@link RetryScheduler}, so events waiting for their next attempt don't hold any thread.
+ * The wait between attempts can grow exponentially and be randomized, and the number of attempts running at the same
+ * time can be capped.
  */
 public class UntilSuccessful extends AbstractOutboundRouter
 {
@@ -58,12 +62,17 @@ public class UntilSuccessful extends AbstractOutboundRouter
     private ListableObjectStore<MuleEvent> objectStore;
     private int maxRetries = 5;
     private long secondsBetweenRetries = 60L;
+    private double backoffMultiplier = 1;
+    private long maxSecondsBetweenRetries = 0;
+    private double retryJitter = 0;
+    private int maxInFlightRetries = 0;
     private String failureExpression;
     private String ackExpression;
     private ExpressionFilter failureExpressionFilter;
     private String eventKeyPrefix;
     private Object deadLetterQueue;
     private MessageProcessor dlqMP;
+    private volatile RetryScheduler retryScheduler;
 
     @Override
     public void initialise() throws InitialisationException
@@ -145,9 +154,22 @@ public class UntilSuccessful extends AbstractOutboundRouter
     public void start() throws MuleException
     {
         super.start();
+        retryScheduler = new RetryScheduler(muleContext, flowConstruct.getName() + ".until-successful");
+        retryScheduler.setMaxInFlightRetries(maxInFlightRetries);
         scheduleAllPendingEventsForProcessing();
     }
 
+    @Override
+    public void stop() throws MuleException
+    {
+        // events waiting for a retry stay in the object store and are scheduled again on start
+        if (retryScheduler != null)
+        {
+            retryScheduler.dispose();
+        }
+        super.stop();
+    }
+
     @Override
     public boolean isMatch(final MuleMessage message) throws MuleException
     {
@@ -226,9 +248,13 @@ public class UntilSuccessful extends AbstractOutboundRouter
 
         final SimpleRetryPolicyTemplate simpleRetryPolicyTemplate = new SimpleRetryPolicyTemplate(
             TimeUnit.SECONDS.toMillis(secondsBetweenRetries), maxRetries);
+        simpleRetryPolicyTemplate.setMultiplier(backoffMultiplier);
+        simpleRetryPolicyTemplate.setMaxFrequency(TimeUnit.SECONDS.toMillis(maxSecondsBetweenRetries));
+        simpleRetryPolicyTemplate.setJitter(retryJitter);
 
-        final RetryPolicyTemplate retryPolicyTemplate = new AsynchronousRetryTemplate(
+        final AsynchronousRetryTemplate retryPolicyTemplate = new AsynchronousRetryTemplate(
             simpleRetryPolicyTemplate);
+        retryPolicyTemplate.setRetryScheduler(retryScheduler);
         retryPolicyTemplate.setNotifier(new RetryNotifier()
         {
             @Override
@@ -438,6 +464,54 @@ public class UntilSuccessful extends AbstractOutboundRouter
         this.secondsBetweenRetries = secondsBetweenRetries;
     }
 
+    public double getBackoffMultiplier()
+    {
+        return backoffMultiplier;
+    }
+
+    public void setBackoffMultiplier(final double backoffMultiplier)
+    {
+        this.backoffMultiplier = backoffMultiplier;
+    }
+
+    public long getMaxSecondsBetweenRetries()
+    {
+        return maxSecondsBetweenRetries;
+    }
+
+    public void setMaxSecondsBetweenRetries(final long maxSecondsBetweenRetries)
+    {
+        this.maxSecondsBetweenRetries = maxSecondsBetweenRetries;
+    }
+
+    public double getRetryJitter()
+    {
+        return retryJitter;
+    }
+
+    public void setRetryJitter(final double retryJitter)
+    {
+        this.retryJitter = retryJitter;
+    }
+
+    public int getMaxInFlightRetries()
+    {
+        return maxInFlightRetries;
+    }
+
+    public void setMaxInFlightRetries(final int maxInFlightRetries)
+    {
+        this.maxInFlightRetries = maxInFlightRetries;
+    }
+
+    /**
+     * @return the scheduler running the retries, available once started
+     */
+    public RetryScheduler getRetryScheduler()
+    {
+        return retryScheduler;
+    }
+
     public String getFailureExpression()
     {
         return failureExpression;
@@ -17,6 +17,7 @@ import org.mule.api.security.SecurityContext;
 import org.mule.config.i18n.CoreMessages;
 import org.mule.util.CaseInsensitiveHashMap;
 import org.mule.util.UUID;
+import org.mule.util.id.UniqueId;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
@@ -54,6 +55,11 @@ public final class DefaultMuleSession implements MuleSession
 
     private String id;
 
+    /**
+     * The id until it is read, most sessions never have their id read
+     */
+    private transient UniqueId generatedId;
+
     /**
      * The security context associated with the session. Note that this context will only be serialized if the
      * SecurityContext object is Serializable.
@@ -67,7 +73,7 @@ public final class DefaultMuleSession implements MuleSession
 
     public DefaultMuleSession()
     {
-        id = UUID.getUUID();
+        generatedId = UUID.getUniqueId();
         properties = Collections.synchronizedMap(new CaseInsensitiveHashMap/* <String, Object> */());
     }
 
@@ -115,6 +121,10 @@ public final class DefaultMuleSession implements MuleSession
     @Override
     public String getId()
     {
+        if (id == null)
+        {
+            id = generatedId.toString();
+        }
         return id;
     }
 
@@ -282,6 +292,7 @@ public final class DefaultMuleSession implements MuleSession
     {
         DefaultMuleSession copy = new DefaultMuleSession(this);
         copy.removeNonSerializableProperties();
+        getId();
         out.defaultWriteObject();
         out.writeObject(copy.properties);
     }
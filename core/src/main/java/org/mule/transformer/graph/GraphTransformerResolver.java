@@ -16,6 +16,7 @@ import org.mule.api.transformer.Converter;
 import org.mule.api.transformer.DataType;
 import org.mule.api.transformer.Transformer;
 import org.mule.config.i18n.CoreMessages;
+import org.mule.transformer.types.DataTypePairTable;
 
 import java.util.List;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -25,10 +26,15 @@ import org.apache.commons.collections.map.LRUMap;
 public class GraphTransformerResolver implements TransformerResolver
 {
 
+    // cached when no converter resolves a pair
+    private static final Object NO_CONVERTER = new Object();
+
     private ReentrantReadWriteLock readWriteLock;
     private TransformationGraph graph;
     private CompositeConverterFilter converterFilter;
     private LRUMap cache;
+    // same as the cache for interned datatypes, keyed by identity
+    private DataTypePairTable<Object> resolvedConverters = new DataTypePairTable<Object>();
     private TransformationGraphLookupStrategy lookupStrategyTransformation;
 
     public GraphTransformerResolver()
@@ -43,19 +49,33 @@ public class GraphTransformerResolver implements TransformerResolver
     @Override
     public Transformer resolve(DataType<?> source, DataType<?> result) throws ResolverException
     {
-        String cacheKey = getDataTypeSourceResultPairHash(source, result);
-
-        readWriteLock.readLock().lock();
-        try
+        // interned datatypes are looked up by identity, without building a key or locking
+        final boolean interned = resolvedConverters.accepts(source, result);
+        String cacheKey = null;
+        if (interned)
         {
-            if (cache.containsKey(cacheKey))
+            Object resolved = resolvedConverters.get(source, result);
+            if (resolved != null)
             {
-                return (Converter) cache.get(cacheKey);
+                return resolved == NO_CONVERTER ? null : (Transformer) resolved;
             }
         }
-        finally
+        else
         {
-            readWriteLock.readLock().unlock();
+            cacheKey = getDataTypeSourceResultPairHash(source, result);
+
+            readWriteLock.readLock().lock();
+            try
+            {
+                if (cache.containsKey(cacheKey))
+                {
+                    return (Converter) cache.get(cacheKey);
+                }
+            }
+            finally
+            {
+                readWriteLock.readLock().unlock();
+            }
         }
 
         List<Converter> converters = converterFilter.filter(lookupStrategyTransformation.lookupConverters(source, result), source, result);
@@ -67,6 +87,11 @@ public class GraphTransformerResolver implements TransformerResolver
 
         Transformer converter = (converters.size() == 0) ? null : converters.get(0);
 
+        if (interned)
+        {
+            resolvedConverters.putIfAbsent(source, result, converter == null ? NO_CONVERTER : converter);
+            return converter;
+        }
 
         readWriteLock.writeLock().lock();
         try
@@ -106,6 +131,7 @@ public class GraphTransformerResolver implements TransformerResolver
             }
 
             cache.clear();
+            resolvedConverters.clear();
 
             if (registryAction == RegistryAction.ADDED)
             {
@@ -44,6 +44,6 @@ public class AutoTransformer extends AbstractMessageTransformer
     @Override
     public Object transformMessage(MuleMessage message, String outputEncoding) throws TransformerException
     {
-        return message.getPayload(DataTypeFactory.create(getReturnClass()));
+        return message.getPayload(DataTypeFactory.intern(getReturnClass()));
     }
 }
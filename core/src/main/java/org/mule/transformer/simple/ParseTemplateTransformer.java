@@ -11,6 +11,7 @@
 package org.mule.transformer.simple;
 
 import org.mule.api.MuleMessage;
+import org.mule.api.expression.ExpressionTemplate;
 import org.mule.api.lifecycle.InitialisationException;
 import org.mule.api.transformer.TransformerException;
 import org.mule.transformer.AbstractMessageTransformer;
@@ -25,6 +26,7 @@ public class ParseTemplateTransformer extends AbstractMessageTransformer
 {
     private String location;
     private String template;
+    private ExpressionTemplate compiledTemplate;
 
     public ParseTemplateTransformer()
     {
@@ -48,7 +50,10 @@ public class ParseTemplateTransformer extends AbstractMessageTransformer
                 throw new IllegalArgumentException("Location cannot be null");
             }
             template = IOUtils.getResourceAsString(location, this.getClass());
-
+            if (template != null)
+            {
+                compiledTemplate = muleContext.getExpressionManager().compileTemplate(template);
+            }
         }
         catch(Exception e)
         {
@@ -65,6 +70,10 @@ public class ParseTemplateTransformer extends AbstractMessageTransformer
             throw new IllegalArgumentException("Template cannot be null");
         }
 
+        if (compiledTemplate != null)
+        {
+            return muleContext.getExpressionManager().parse(compiledTemplate, message, false);
+        }
         return muleContext.getExpressionManager().parse(template, message);
     }
 
@@ -48,6 +48,11 @@ public class DataTypeFactory
     public static final DataType<String> INPUT_STREAM = new SimpleDataType<String>(InputStream.class);
     public static final DataType<String> MULE_MESSAGE = new SimpleDataType<String>(MuleMessage.class);
 
+    private static final int MAX_INTERNED_MIME_TYPES = 32;
+
+    private static final ConcurrentHashMap<Class<?>, DataType<?>> internedTypes = new ConcurrentHashMap<Class<?>, DataType<?>>();
+    private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, DataType<?>>> internedMimeTypes = new ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, DataType<?>>>();
+
     public static <T> DataType<T> create(Class<T> type)
     {
         return create(type, MimeTypes.ANY);
@@ -112,16 +117,41 @@ public class DataTypeFactory
      */
     public static DataType<?> createFromObject(Object o)
     {
-        Class<?> type = o.getClass();
-        String mime = null;
         if (o instanceof DataType)
         {
             return (DataType<?>)o;
         }
-        else if (o instanceof MuleMessage)
+        return create(getType(o), getMimeType(o));
+    }
+
+    /**
+     * Same as {@link #createFromObject(Object)}, but returns the interned datatype, see
+     * {@link #intern(Class, String)}.
+     */
+    public static DataType<?> internFromObject(Object o)
+    {
+        if (o instanceof DataType)
+        {
+            return (DataType<?>)o;
+        }
+        return intern(getType(o), getMimeType(o));
+    }
+
+    private static Class<?> getType(Object o)
+    {
+        if (o instanceof MuleMessage)
+        {
+            return ((MuleMessage) o).getPayload().getClass();
+        }
+        return o.getClass();
+    }
+
+    private static String getMimeType(Object o)
+    {
+        String mime = null;
+        if (o instanceof MuleMessage)
         {
             MuleMessage mm = (MuleMessage) o;
-            type = mm.getPayload().getClass();
             //TODO better mime handling, see MULE-4639
             //case insensitive
             mime = mm.getInboundProperty(MuleProperties.CONTENT_TYPE_PROPERTY);
@@ -150,8 +180,106 @@ public class DataTypeFactory
         {
             mime = MimeTypes.ANY;
         }
+        return mime;
+    }
 
-        return create(type, mime);
+    /**
+     * Returns the canonical immutable datatype of a type, there is a single instance
+     * for each type and mime type so looking it up again doesn't create any object.
+     * Only types of the container are interned, so applications can be unloaded, and
+     * a bounded number of mime types per type. Other types, including collections,
+     * get a new datatype from {@link #create(Class, String)}.
+     *
+     * @see #isInterned(DataType)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> DataType<T> intern(Class<T> type, String mimeType)
+    {
+        if (mimeType == null)
+        {
+            mimeType = MimeTypes.ANY;
+        }
+        boolean anyMimeType = MimeTypes.ANY.equals(mimeType);
+        ConcurrentHashMap<String, DataType<?>> mimeTypes = null;
+        if (anyMimeType)
+        {
+            DataType<T> interned = (DataType<T>) internedTypes.get(type);
+            if (interned != null)
+            {
+                return interned;
+            }
+        }
+        else
+        {
+            mimeTypes = internedMimeTypes.get(type);
+            if (mimeTypes != null)
+            {
+                DataType<T> interned = (DataType<T>) mimeTypes.get(mimeType);
+                if (interned != null)
+                {
+                    return interned;
+                }
+            }
+        }
+
+        if (Collection.class.isAssignableFrom(type) || !isContainerClass(type))
+        {
+            return create(type, mimeType);
+        }
+
+        DataType<T> interned = new InternedDataType<T>(create(type, mimeType));
+        if (anyMimeType)
+        {
+            DataType<T> previous = (DataType<T>) internedTypes.putIfAbsent(type, interned);
+            return previous == null ? interned : previous;
+        }
+
+        if (mimeTypes == null)
+        {
+            mimeTypes = new ConcurrentHashMap<String, DataType<?>>(4);
+            ConcurrentHashMap<String, DataType<?>> previous = internedMimeTypes.putIfAbsent(type, mimeTypes);
+            if (previous != null)
+            {
+                mimeTypes = previous;
+            }
+        }
+        if (mimeTypes.size() >= MAX_INTERNED_MIME_TYPES)
+        {
+            // mime types come from messages, don't let them grow without limit
+            return create(type, mimeType);
+        }
+        DataType<T> previous = (DataType<T>) mimeTypes.putIfAbsent(mimeType, interned);
+        return previous == null ? interned : previous;
+    }
+
+    public static <T> DataType<T> intern(Class<T> type)
+    {
+        return intern(type, MimeTypes.ANY);
+    }
+
+    /**
+     * @return true if the datatype is the canonical one returned by
+     *         {@link #intern(Class, String)}, so it can be compared by identity
+     */
+    public static boolean isInterned(DataType<?> dataType)
+    {
+        return dataType instanceof InternedDataType;
+    }
+
+    private static boolean isContainerClass(Class<?> type)
+    {
+        ClassLoader classLoader = type.getClassLoader();
+        for (ClassLoader containerClassLoader = DataTypeFactory.class.getClassLoader(); ; containerClassLoader = containerClassLoader.getParent())
+        {
+            if (classLoader == containerClassLoader)
+            {
+                return true;
+            }
+            if (containerClassLoader == null)
+            {
+                return false;
+            }
+        }
     }
 
     public static DataType<?> createFromReturnType(Method m)
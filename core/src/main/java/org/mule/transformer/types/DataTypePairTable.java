@@ -0,0 +1,94 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transformer.types;
+
+import org.mule.api.transformer.DataType;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A table of values, such as resolved transformers, by source and result datatype.
+ * Only accepts interned datatypes, see {@link DataTypeFactory#intern(Class, String)},
+ * which are compared by identity, so a lookup doesn't create any key nor call
+ * {@link Object#equals(Object)}. Callers keep using their own cache for the other
+ * datatypes.
+ * <p/>
+ * Values are resolved once per pair, so the table is copied on write and read
+ * without locking.
+ */
+public class DataTypePairTable<V>
+{
+
+    private volatile Map<DataType<?>, Map<DataType<?>, V>> table = new IdentityHashMap<DataType<?>, Map<DataType<?>, V>>();
+
+    /**
+     * @return true if both datatypes are interned and can be used with this table
+     */
+    public boolean accepts(DataType<?> source, DataType<?> result)
+    {
+        return DataTypeFactory.isInterned(source) && DataTypeFactory.isInterned(result);
+    }
+
+    /**
+     * @return the value for the pair, or null
+     */
+    public V get(DataType<?> source, DataType<?> result)
+    {
+        Map<DataType<?>, V> results = table.get(source);
+        return results == null ? null : results.get(result);
+    }
+
+    /**
+     * @return the value already in the table for the pair, or the given one if there
+     *         was none
+     */
+    public synchronized V putIfAbsent(DataType<?> source, DataType<?> result, V value)
+    {
+        if (!accepts(source, result))
+        {
+            throw new IllegalArgumentException("Only interned datatypes can be used as keys");
+        }
+        Map<DataType<?>, V> results = table.get(source);
+        V previous = results == null ? null : results.get(result);
+        if (previous != null)
+        {
+            return previous;
+        }
+
+        Map<DataType<?>, V> newResults = results == null
+                                         ? new IdentityHashMap<DataType<?>, V>(4)
+                                         : new IdentityHashMap<DataType<?>, V>(results);
+        newResults.put(result, value);
+        Map<DataType<?>, Map<DataType<?>, V>> newTable = new IdentityHashMap<DataType<?>, Map<DataType<?>, V>>(table);
+        newTable.put(source, newResults);
+        table = newTable;
+        return value;
+    }
+
+    public synchronized void clear()
+    {
+        table = new IdentityHashMap<DataType<?>, Map<DataType<?>, V>>();
+    }
+
+    /**
+     * @return the number of pairs in the table
+     */
+    public int size()
+    {
+        int size = 0;
+        for (Map<DataType<?>, V> results : table.values())
+        {
+            size += results.size();
+        }
+        return size;
+    }
+}
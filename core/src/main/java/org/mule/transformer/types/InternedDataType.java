@@ -0,0 +1,65 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transformer.types;
+
+import org.mule.api.transformer.DataType;
+
+import java.io.ObjectStreamException;
+
+/**
+ * The canonical instance of an immutable datatype, created by
+ * {@link DataTypeFactory#intern(Class, String)}. There is a single instance for each
+ * type and mime type, so they can be compared and used as keys by identity.
+ */
+class InternedDataType<T> extends ImmutableDataType<T>
+{
+
+    private final int hashCode;
+
+    InternedDataType(DataType<T> theDataType)
+    {
+        super(theDataType);
+        this.hashCode = theDataType.hashCode();
+    }
+
+    /**
+     * Equal to the datatype it wraps, so it can be found among mutable datatypes, e.g.
+     * the vertices of the transformation graph.
+     */
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+        if (o instanceof ImmutableDataType)
+        {
+            o = ((ImmutableDataType<?>) o).getWrappedDataType();
+        }
+        return getWrappedDataType().equals(o);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hashCode;
+    }
+
+    /**
+     * Replaces a deserialized copy with the canonical instance, otherwise it would miss
+     * every lookup by identity.
+     */
+    private Object readResolve() throws ObjectStreamException
+    {
+        return DataTypeFactory.intern(getType(), getMimeType());
+    }
+}
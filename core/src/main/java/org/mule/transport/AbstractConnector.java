@@ -21,6 +21,7 @@ import org.mule.api.MuleRuntimeException;
 import org.mule.api.config.MuleProperties;
 import org.mule.api.config.ThreadingProfile;
 import org.mule.api.construct.FlowConstruct;
+import org.mule.api.context.MuleContextAware;
 import org.mule.api.context.WorkManager;
 import org.mule.api.context.WorkManagerSource;
 import org.mule.api.context.notification.ServerNotification;
@@ -365,6 +366,10 @@ public abstract class AbstractConnector implements Connector, WorkListener
                         retryPolicyTemplate = (RetryPolicyTemplate) muleContext.getRegistry().lookupObject(
                                 MuleProperties.OBJECT_DEFAULT_RETRY_POLICY_TEMPLATE);
                     }
+                    if (retryPolicyTemplate instanceof MuleContextAware)
+                    {
+                        ((MuleContextAware) retryPolicyTemplate).setMuleContext(muleContext);
+                    }
 
                     if (dispatcherPoolFactory == null) {
                         dispatcherPoolFactory = new DefaultConfigurableKeyedObjectPoolFactory();
@@ -21,6 +21,7 @@ import org.mule.api.MuleMessage;
 import org.mule.api.MuleSession;
 import org.mule.api.config.MuleProperties;
 import org.mule.api.construct.FlowConstruct;
+import org.mule.api.construct.Pipeline;
 import org.mule.api.context.WorkManager;
 import org.mule.api.endpoint.EndpointURI;
 import org.mule.api.endpoint.InboundEndpoint;
@@ -30,6 +31,8 @@ import org.mule.api.lifecycle.InitialisationException;
 import org.mule.api.lifecycle.Startable;
 import org.mule.api.processor.MessageProcessor;
 import org.mule.api.routing.filter.FilterUnacceptedException;
+import org.mule.api.service.Service;
+import org.mule.api.source.MessageSource;
 import org.mule.api.transaction.Transaction;
 import org.mule.api.transformer.Transformer;
 import org.mule.api.transport.Connector;
@@ -39,17 +42,22 @@ import org.mule.api.transport.ReplyToHandler;
 import org.mule.context.notification.EndpointMessageNotification;
 import org.mule.execution.TransactionalErrorHandlingExecutionTemplate;
 import org.mule.lifecycle.PrimaryNodeLifecycleNotificationListener;
+import org.mule.management.stats.QueueStatistics;
 import org.mule.execution.MessageProcessContext;
 import org.mule.execution.MessageProcessTemplate;
 import org.mule.execution.MessageProcessingManager;
 import org.mule.session.DefaultMuleSession;
 import org.mule.session.LegacySessionHandler;
+import org.mule.source.StartableCompositeMessageSource;
 import org.mule.transaction.TransactionCoordination;
 import org.mule.util.ClassUtils;
 import org.mule.util.ObjectUtils;
 
 import java.io.OutputStream;
 import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.lang.SerializationException;
 
@@ -60,6 +68,12 @@ import org.apache.commons.lang.SerializationException;
  */
 public abstract class AbstractMessageReceiver extends AbstractTransportMessageHandler implements MessageReceiver
 {
+    /**
+     * How often a receiver paused by throttling checks whether it can resume, in
+     * milliseconds.
+     */
+    protected static final long THROTTLE_CHECK_INTERVAL = 50;
+
     /**
      * The Service with which this receiver is associated with
      */
@@ -95,6 +109,9 @@ public abstract class AbstractMessageReceiver extends AbstractTransportMessageHa
 
     private WorkManager messageReceiverWorkManager;
 
+    private final AtomicBoolean pausedByThrottling = new AtomicBoolean(false);
+    private volatile Boolean flowConstructSource;
+
     /**
      * Creates the Message Receiver
      *
@@ -505,6 +522,8 @@ public abstract class AbstractMessageReceiver extends AbstractTransportMessageHa
 
     public MuleEvent routeEvent(MuleEvent muleEvent) throws MuleException
     {
+        applyBackPressure();
+
         MuleEvent resultEvent = listener.process(muleEvent);
         if (resultEvent != null
             && !VoidMuleEvent.getInstance().equals(resultEvent)
@@ -542,6 +561,157 @@ public abstract class AbstractMessageReceiver extends AbstractTransportMessageHa
         }
     }
 
+    /**
+     * @return true if the flow construct asks its one-way message sources to pause,
+     *         because its queue is above the high watermark. Receivers that are not a
+     *         message source of the flow construct, such as the reply source of a
+     *         request-reply, are never throttled, the flow is waiting for them.
+     * @see org.mule.config.QueueProfile
+     */
+    protected boolean isThrottled()
+    {
+        QueueStatistics statistics = flowConstruct.getStatistics();
+        return statistics != null && statistics.isThrottling()
+               && !endpoint.getExchangePattern().hasResponse() && isFlowConstructSource();
+    }
+
+    private boolean isFlowConstructSource()
+    {
+        Boolean source = flowConstructSource;
+        if (source == null)
+        {
+            MessageSource messageSource = null;
+            if (flowConstruct instanceof Pipeline)
+            {
+                messageSource = ((Pipeline) flowConstruct).getMessageSource();
+            }
+            else if (flowConstruct instanceof Service)
+            {
+                messageSource = ((Service) flowConstruct).getMessageSource();
+            }
+            source = isSourceEndpoint(messageSource);
+            flowConstructSource = source;
+        }
+        return source;
+    }
+
+    private boolean isSourceEndpoint(MessageSource messageSource)
+    {
+        if (messageSource instanceof InboundEndpoint)
+        {
+            return messageSource == endpoint || messageSource.equals(endpoint);
+        }
+        else if (messageSource instanceof StartableCompositeMessageSource)
+        {
+            for (MessageSource source : ((StartableCompositeMessageSource) messageSource).getSources())
+            {
+                if (isSourceEndpoint(source))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called once for each message received. When the flow construct is throttled,
+     * pauses this receiver with {@link #pauseReceiving()}, unless it is already paused.
+     */
+    protected void applyBackPressure()
+    {
+        if (isThrottled() && pausedByThrottling.compareAndSet(false, true))
+        {
+            flowConstruct.getStatistics().incSourcePause();
+            if (logger.isDebugEnabled())
+            {
+                logger.debug(getConnectionDescription() + " paused until " + flowConstruct.getName()
+                             + " drains its queue");
+            }
+            pauseReceiving();
+        }
+    }
+
+    /**
+     * Stops this receiver, so the transport stops consuming, and starts it again once
+     * the flow construct is no longer throttled. Both happen on the connector
+     * scheduler, never on the thread processing a message, which may hold a
+     * transaction or a connection.
+     */
+    protected void pauseReceiving()
+    {
+        try
+        {
+            ThrottlingMonitor monitor = new ThrottlingMonitor();
+            monitor.future = connector.getScheduler().scheduleWithFixedDelay(monitor, 0,
+                THROTTLE_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+            if (monitor.done)
+            {
+                monitor.future.cancel(false);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            // the connector is stopping
+            pausedByThrottling.set(false);
+        }
+    }
+
+    private class ThrottlingMonitor implements Runnable
+    {
+        private volatile ScheduledFuture<?> future;
+        private volatile boolean done = false;
+        private boolean stopped = false;
+
+        public void run()
+        {
+            if (done)
+            {
+                return;
+            }
+            try
+            {
+                if (!stopped)
+                {
+                    if (!isStarted() || isStopping())
+                    {
+                        finish();
+                        return;
+                    }
+                    stop();
+                    stopped = true;
+                }
+                else if (!connector.isStarted() || connector.isStopping())
+                {
+                    // the connector starts its receivers again, if it is restarted
+                    finish();
+                }
+                else if (!isThrottled())
+                {
+                    start();
+                    finish();
+                }
+            }
+            catch (Exception e)
+            {
+                logger.warn("Could not apply back-pressure to " + getConnectionDescription(), e);
+                finish();
+            }
+        }
+
+        private void finish()
+        {
+            done = true;
+            pausedByThrottling.set(false);
+            // null if this runs before pauseReceiving() gets the future, it cancels it then
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null)
+            {
+                scheduled.cancel(false);
+            }
+        }
+    }
+
     protected void processMessage(final MessageProcessTemplate messageProcessTemplate, final MessageProcessContext messageProcessContext)
     {
         messageProcessingManager.processMessage(messageProcessTemplate,messageProcessContext);
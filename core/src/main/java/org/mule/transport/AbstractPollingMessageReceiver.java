@@ -42,6 +42,7 @@ public abstract class AbstractPollingMessageReceiver extends AbstractMessageRece
 
     private long frequency = DEFAULT_POLL_FREQUENCY;
     private TimeUnit timeUnit = DEFAULT_POLL_TIMEUNIT;
+    private volatile boolean pollsPaused = false;
 
     // @GuardedBy(itself)
     protected final Map<ScheduledFuture, PollingReceiverWorker> schedules = new HashMap<ScheduledFuture, PollingReceiverWorker>();
@@ -211,16 +212,42 @@ public abstract class AbstractPollingMessageReceiver extends AbstractMessageRece
     }
 
     /**
-     * Check whether polling should take place on this instance.
+     * Check whether polling should take place on this instance. Polls are skipped while
+     * the flow construct is throttled, see {@link #isThrottled()}.
      */
     public final void performPoll() throws Exception
     {
+        if (isThrottled())
+        {
+            if (!pollsPaused)
+            {
+                pollsPaused = true;
+                flowConstruct.getStatistics().incSourcePause();
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug(ObjectUtils.identityToShortString(this) + " skips polls until "
+                                 + flowConstruct.getName() + " drains its queue");
+                }
+            }
+            return;
+        }
+        pollsPaused = false;
         if (!pollOnPrimaryInstanceOnly() || flowConstruct.getMuleContext().isPrimaryPollingInstance())
         {
             poll();   
         }
     }
 
+    /**
+     * Polling receivers skip their polls while the flow construct is throttled, see
+     * {@link #performPoll()}, rather than being stopped.
+     */
+    @Override
+    protected void applyBackPressure()
+    {
+        // nothing to do, the next poll is skipped
+    }
+
     /**
      * If this returns true for a transport, polling for that transport takes place only on the primary instance.
      */
@@ -12,6 +12,7 @@ package org.mule.util;
 
 import org.mule.api.MuleMessage;
 import org.mule.api.expression.ExpressionManager;
+import org.mule.api.expression.ExpressionTemplate;
 
 import java.util.regex.Pattern;
 
@@ -31,6 +32,7 @@ public class AttributeEvaluator
     private final String attributeValue;
     private ExpressionManager expressionManager;
     private AttributeType attributeType;
+    private ExpressionTemplate template;
 
     public AttributeEvaluator(String attributeValue)
     {
@@ -52,6 +54,10 @@ public class AttributeEvaluator
         else
         {
             this.attributeType = AttributeType.STRING;
+            if (attributeValue != null)
+            {
+                this.template = expressionManager.compileTemplate(attributeValue);
+            }
         }
     }
 
@@ -76,6 +82,10 @@ public class AttributeEvaluator
         {
             return expressionManager.evaluate(attributeValue, message);
         }
+        else if (template != null)
+        {
+            return expressionManager.parse(template, message, false);
+        }
         else
         {
             return expressionManager.parse(attributeValue, message);
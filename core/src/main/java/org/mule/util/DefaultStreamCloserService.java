@@ -13,6 +13,7 @@ package org.mule.util;
 import org.mule.api.MuleContext;
 import org.mule.api.util.StreamCloser;
 import org.mule.api.util.StreamCloserService;
+import org.mule.util.buffer.SpillableBuffer;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -81,6 +82,7 @@ public class DefaultStreamCloserService implements StreamCloserService
         public boolean canClose(Class streamType)
         {
             return InputStream.class.isAssignableFrom(streamType)
+                   || SpillableBuffer.class.isAssignableFrom(streamType)
                    || InputSource.class.isAssignableFrom(streamType)
                    || StreamSource.class.isAssignableFrom(streamType)
                    || (SAXSource.class.isAssignableFrom(streamType) && !streamType.getName().endsWith(
@@ -100,6 +102,11 @@ public class DefaultStreamCloserService implements StreamCloserService
                     // no-op
                 }
             }
+            else if (stream instanceof SpillableBuffer)
+            {
+                // deletes a spilled body even if no stream was opened on it
+                ((SpillableBuffer) stream).release();
+            }
             else if (stream instanceof InputSource)
             {
                 closeInputSourceStream((InputSource) stream);
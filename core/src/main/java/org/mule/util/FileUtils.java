@@ -29,8 +29,10 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLDecoder;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Enumeration;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -757,7 +759,7 @@ public class FileUtils extends org.apache.commons.io.FileUtils
                 fos = new FileOutputStream(destinationFile);
                 FileChannel srcChannel = fis.getChannel();
                 FileChannel dstChannel = fos.getChannel();
-                dstChannel.transferFrom(srcChannel, 0, srcChannel.size());
+                transfer(srcChannel, 0, srcChannel.size(), dstChannel);
                 srcChannel.close();
                 dstChannel.close();
                 success = sourceFile.delete();
@@ -902,7 +904,7 @@ public class FileUtils extends org.apache.commons.io.FileUtils
             FileChannel output = new FileOutputStream(destFile).getChannel();
             try
             {
-                output.transferFrom(input, 0, input.size());
+                transfer(input, 0, input.size(), output);
             }
             finally
             {
@@ -924,6 +926,122 @@ public class FileUtils extends org.apache.commons.io.FileUtils
         }
     }
 
+    /**
+     * Moves a file, renaming it when source and destination are on the same file
+     * system and otherwise falling back to a channel based copy followed by a delete
+     * of the source. Unlike the commons-io <code>moveFile</code> the fallback copy
+     * never moves the bytes through the Java heap.
+     *
+     * @param srcFile the file to be moved
+     * @param destFile the destination file, must not exist
+     * @throws IOException if source or destination is invalid, the destination
+     *             already exists or an IO error occurs while moving the file
+     */
+    public static void moveFileWithChannelCopy(File srcFile, File destFile) throws IOException
+    {
+        if (srcFile == null)
+        {
+            throw new NullPointerException("Source must not be null");
+        }
+        if (destFile == null)
+        {
+            throw new NullPointerException("Destination must not be null");
+        }
+        if (!srcFile.exists())
+        {
+            throw new FileNotFoundException("Source '" + srcFile + "' does not exist");
+        }
+        if (srcFile.isDirectory())
+        {
+            throw new IOException("Source '" + srcFile + "' is a directory");
+        }
+        if (destFile.exists())
+        {
+            throw new IOException("Destination '" + destFile + "' already exists");
+        }
+        if (destFile.isDirectory())
+        {
+            throw new IOException("Destination '" + destFile + "' is a directory");
+        }
+        if (!srcFile.renameTo(destFile))
+        {
+            copyFile(srcFile, destFile, true);
+            if (!srcFile.delete())
+            {
+                deleteQuietly(destFile);
+                throw new IOException("Failed to delete original file '" + srcFile + "' after copy to '"
+                                      + destFile + "'");
+            }
+        }
+    }
+
+    /**
+     * Transfers <code>count</code> bytes of a file, starting at the given position,
+     * into the target channel. The transfer is done with
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)} so the operating
+     * system can move the bytes directly between the file and the target (another
+     * file or a socket) without copying them into the Java heap. A single
+     * <code>transferTo</code> call may move fewer bytes than requested, so this method
+     * loops until all of them have been transferred or the end of the file is reached.
+     * If a call transfers nothing before the end of the file, e.g. because the target
+     * is a full non-blocking channel, the rest is copied through a buffer instead,
+     * which fails if the target doesn't accept any byte.
+     *
+     * @param source the file to read from
+     * @param position the position of the first byte to transfer
+     * @param count the number of bytes to transfer
+     * @param target the channel to write to
+     * @return the number of bytes actually transferred
+     * @throws IOException if an IO error occurs during the transfer
+     */
+    public static long transfer(FileChannel source, long position, long count, WritableByteChannel target)
+        throws IOException
+    {
+        long transferred = 0;
+        while (transferred < count)
+        {
+            long bytes = source.transferTo(position + transferred, count - transferred, target);
+            if (bytes <= 0)
+            {
+                if (position + transferred < source.size())
+                {
+                    transferred += copy(source, position + transferred, count - transferred, target);
+                }
+                break;
+            }
+            transferred += bytes;
+        }
+        return transferred;
+    }
+
+    private static long copy(FileChannel source, long position, long count, WritableByteChannel target)
+        throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(count, 64 * 1024));
+        long copied = 0;
+        while (copied < count)
+        {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), count - copied));
+            int read = source.read(buffer, position + copied);
+            if (read < 0)
+            {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining())
+            {
+                if (target.write(buffer) == 0)
+                {
+                    throw new IOException("Target channel accepted no bytes after " + copied
+                                          + " bytes were copied, it may be a non-blocking channel");
+                }
+            }
+            copied += read;
+        }
+        return copied;
+    }
+
     /**
      * Unconditionally close a <code>Channel</code>.
      * <p>
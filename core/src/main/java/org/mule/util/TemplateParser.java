@@ -255,6 +255,30 @@ public final class TemplateParser
         return map;
     }
 
+    /**
+     * Splits a template into the literal text and the tokens found in it, so it can be
+     * rendered many times without scanning it again.
+     *
+     * @param template the string containing the template place holders
+     * @return an array of odd length alternating literal text, at even indexes, and
+     *         token names, at odd indexes. Literals may be empty.
+     */
+    public String[] split(String template)
+    {
+        List<String> segments = new ArrayList<String>();
+        Matcher m = pattern.matcher(template);
+        int literalStart = 0;
+        while (m.find())
+        {
+            segments.add(template.substring(literalStart, m.start()));
+            String match = m.group();
+            segments.add(match.substring(pre, match.length() - post));
+            literalStart = m.end();
+        }
+        segments.add(template.substring(literalStart));
+        return segments.toArray(new String[segments.size()]);
+    }
+
     public PatternInfo getStyle()
     {
         return style;
@@ -10,17 +10,33 @@
 
 package org.mule.util;
 
-import org.safehaus.uuid.UUIDGenerator;
+import org.mule.api.config.MuleProperties;
+import org.mule.util.id.IdGenerator;
+import org.mule.util.id.TimeOrderedIdGenerator;
+import org.mule.util.id.UniqueId;
+import org.mule.util.id.UuidIdGenerator;
 
 /**
- * <code>UUID</code> Generates a UUID using the <a href="http://jug.safehaus.org/">Safehaus UUID generator</a>
- * rather than the built-in version of JDK5. In our performance tests we found the Java version
- * to be blocking much more than the Safehaus one.
+ * <code>UUID</code> Generates the unique ids used by Mule with the {@link IdGenerator}
+ * selected by the <code>mule.idGenerator</code> system property:
+ * <ul>
+ * <li><code>uuid</code> (default): a {@link UuidIdGenerator}, RFC 4122 time based UUIDs
+ * from the <a href="http://jug.safehaus.org/">Safehaus UUID generator</a></li>
+ * <li><code>time-ordered</code>: a {@link TimeOrderedIdGenerator}, where each thread
+ * generates ids on its own, for applications that generate ids from many threads and
+ * don't need standard UUIDs</li>
+ * <li>the class name of another {@link IdGenerator}</li>
+ * </ul>
+ * Both built-in generators give unique ids of 36 characters that are ordered by
+ * creation time.
  */
 // @ThreadSafe
 public final class UUID
 {
-    private static final UUIDGenerator generator = UUIDGenerator.getInstance();
+    public static final String ID_GENERATOR_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "idGenerator";
+
+    private static final IdGenerator generator = createGenerator(System.getProperty(ID_GENERATOR_PROPERTY,
+        UuidIdGenerator.NAME));
 
     private UUID()
     {
@@ -29,6 +45,45 @@ public final class UUID
 
     public static String getUUID()
     {
-        return generator.generateTimeBasedUUID().toString();
+        return generator.generateId().toString();
+    }
+
+    /**
+     * @return a new id that is only rendered as a string when read
+     */
+    public static UniqueId getUniqueId()
+    {
+        return generator.generateId();
+    }
+
+    /**
+     * Passes the id of the cluster node to the generator, if it puts it in the ids.
+     */
+    public static void setClusterNodeId(int clusterNodeId)
+    {
+        if (generator instanceof TimeOrderedIdGenerator)
+        {
+            ((TimeOrderedIdGenerator) generator).setClusterNodeId(clusterNodeId);
+        }
+    }
+
+    static IdGenerator createGenerator(String name)
+    {
+        if (TimeOrderedIdGenerator.NAME.equals(name))
+        {
+            return new TimeOrderedIdGenerator();
+        }
+        else if (UuidIdGenerator.NAME.equals(name))
+        {
+            return new UuidIdGenerator();
+        }
+        try
+        {
+            return (IdGenerator) ClassUtils.instanciateClass(name);
+        }
+        catch (Exception e)
+        {
+            throw new IllegalArgumentException("Cannot create id generator " + name, e);
+        }
     }
 }
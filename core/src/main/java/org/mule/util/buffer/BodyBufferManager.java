@@ -0,0 +1,271 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.util.buffer;
+
+import org.mule.api.MuleContext;
+import org.mule.api.config.MuleProperties;
+import org.mule.api.lifecycle.Disposable;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the {@link SpillableBuffer}s transports use to hold request bodies. Bodies
+ * are kept in fixed size chunks taken from a shared pool until they reach the memory
+ * threshold, then they are moved to a temporary file, so concurrent large requests do
+ * not fill the heap.
+ * <p/>
+ * The defaults can be changed with system properties:
+ * <ul>
+ * <li><code>mule.bodyBuffer.memoryThreshold</code>: bytes kept in memory per body,
+ * 256 KB by default</li>
+ * <li><code>mule.bodyBuffer.maxPooledBytes</code>: memory kept in the chunk pool,
+ * 16 MB by default</li>
+ * <li><code>mule.bodyBuffer.directory</code>: where bodies are spilled, the temporary
+ * directory by default</li>
+ * <li><code>mule.bodyBuffer.memoryMapped</code>: read spilled bodies through memory
+ * mapped files instead of file reads, false by default</li>
+ * </ul>
+ * Spilled files are deleted when their buffer is released, which happens when the
+ * stream read from it is closed, usually by the consumer or the
+ * {@link org.mule.api.util.StreamCloserService}, and at the latest when Mule stops.
+ */
+public class BodyBufferManager implements Disposable
+{
+
+    public static final String MEMORY_THRESHOLD_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "bodyBuffer.memoryThreshold";
+    public static final String MAX_POOLED_BYTES_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "bodyBuffer.maxPooledBytes";
+    public static final String DIRECTORY_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "bodyBuffer.directory";
+    public static final String MEMORY_MAPPED_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "bodyBuffer.memoryMapped";
+
+    public static final long DEFAULT_MEMORY_THRESHOLD = 256 * 1024;
+    public static final long DEFAULT_MAX_POOLED_BYTES = 16 * 1024 * 1024;
+    public static final int CHUNK_SIZE = 8 * 1024;
+
+    private static BodyBufferManager defaultManager;
+
+    private long memoryThreshold = Long.getLong(MEMORY_THRESHOLD_PROPERTY, DEFAULT_MEMORY_THRESHOLD);
+    private long maxPooledBytes = Long.getLong(MAX_POOLED_BYTES_PROPERTY, DEFAULT_MAX_POOLED_BYTES);
+    private File directory = new File(System.getProperty(DIRECTORY_PROPERTY, System.getProperty("java.io.tmpdir")));
+    private boolean memoryMapped = Boolean.getBoolean(MEMORY_MAPPED_PROPERTY);
+
+    private final Queue<byte[]> chunkPool = new ConcurrentLinkedQueue<byte[]>();
+    private final AtomicInteger pooledChunks = new AtomicInteger(0);
+    private final Set<SpillableBuffer> spilledBuffers = Collections.newSetFromMap(
+        new ConcurrentHashMap<SpillableBuffer, Boolean>());
+
+    private final AtomicLong memoryInUse = new AtomicLong(0);
+    private final AtomicLong peakMemoryInUse = new AtomicLong(0);
+    private final AtomicLong buffersCreated = new AtomicLong(0);
+    private final AtomicLong buffersSpilled = new AtomicLong(0);
+    private final AtomicLong bytesSpilled = new AtomicLong(0);
+    private final AtomicLong chunksReused = new AtomicLong(0);
+    private final AtomicLong chunksAllocated = new AtomicLong(0);
+
+    /**
+     * @return the manager registered in the context, or a manager shared by contexts
+     *         without one
+     */
+    public static BodyBufferManager lookup(MuleContext muleContext)
+    {
+        BodyBufferManager manager = null;
+        if (muleContext != null)
+        {
+            manager = muleContext.getRegistry().lookupObject(MuleProperties.OBJECT_MULE_BODY_BUFFER_MANAGER);
+        }
+        if (manager == null)
+        {
+            synchronized (BodyBufferManager.class)
+            {
+                if (defaultManager == null)
+                {
+                    defaultManager = new BodyBufferManager();
+                }
+                manager = defaultManager;
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * @return a buffer spilling to the configured directory once it holds more than the
+     *         memory threshold
+     */
+    public SpillableBuffer createBuffer()
+    {
+        return createBuffer(memoryThreshold, directory);
+    }
+
+    public SpillableBuffer createBuffer(long memoryThreshold, File directory)
+    {
+        buffersCreated.incrementAndGet();
+        return new SpillableBuffer(this, memoryThreshold, directory);
+    }
+
+    byte[] acquireChunk()
+    {
+        byte[] chunk = chunkPool.poll();
+        if (chunk != null)
+        {
+            pooledChunks.decrementAndGet();
+            chunksReused.incrementAndGet();
+        }
+        else
+        {
+            chunk = new byte[CHUNK_SIZE];
+            chunksAllocated.incrementAndGet();
+        }
+        long inUse = memoryInUse.addAndGet(CHUNK_SIZE);
+        long peak = peakMemoryInUse.get();
+        while (inUse > peak && !peakMemoryInUse.compareAndSet(peak, inUse))
+        {
+            peak = peakMemoryInUse.get();
+        }
+        return chunk;
+    }
+
+    void releaseChunk(byte[] chunk)
+    {
+        memoryInUse.addAndGet(-CHUNK_SIZE);
+        if ((long) (pooledChunks.get() + 1) * CHUNK_SIZE <= maxPooledBytes)
+        {
+            pooledChunks.incrementAndGet();
+            chunkPool.offer(chunk);
+        }
+    }
+
+    void spilled(SpillableBuffer buffer, long bytes)
+    {
+        spilledBuffers.add(buffer);
+        buffersSpilled.incrementAndGet();
+        bytesSpilled.addAndGet(bytes);
+    }
+
+    void spilledBytes(long bytes)
+    {
+        bytesSpilled.addAndGet(bytes);
+    }
+
+    void released(SpillableBuffer buffer)
+    {
+        spilledBuffers.remove(buffer);
+    }
+
+    /**
+     * Deletes the files of the buffers not released yet.
+     */
+    public void dispose()
+    {
+        for (SpillableBuffer buffer : spilledBuffers)
+        {
+            buffer.release();
+        }
+        chunkPool.clear();
+        pooledChunks.set(0);
+    }
+
+    public long getMemoryThreshold()
+    {
+        return memoryThreshold;
+    }
+
+    public void setMemoryThreshold(long memoryThreshold)
+    {
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    public long getMaxPooledBytes()
+    {
+        return maxPooledBytes;
+    }
+
+    public void setMaxPooledBytes(long maxPooledBytes)
+    {
+        this.maxPooledBytes = maxPooledBytes;
+    }
+
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    public void setDirectory(File directory)
+    {
+        this.directory = directory;
+    }
+
+    public boolean isMemoryMapped()
+    {
+        return memoryMapped;
+    }
+
+    public void setMemoryMapped(boolean memoryMapped)
+    {
+        this.memoryMapped = memoryMapped;
+    }
+
+    /**
+     * @return the bytes of the chunks held by buffers
+     */
+    public long getMemoryInUse()
+    {
+        return memoryInUse.get();
+    }
+
+    public long getPeakMemoryInUse()
+    {
+        return peakMemoryInUse.get();
+    }
+
+    public long getPooledBytes()
+    {
+        return (long) pooledChunks.get() * CHUNK_SIZE;
+    }
+
+    public long getBuffersCreated()
+    {
+        return buffersCreated.get();
+    }
+
+    public long getBuffersSpilled()
+    {
+        return buffersSpilled.get();
+    }
+
+    public long getBytesSpilled()
+    {
+        return bytesSpilled.get();
+    }
+
+    /**
+     * @return the number of spilled buffers whose file has not been deleted yet
+     */
+    public int getOpenSpillFiles()
+    {
+        return spilledBuffers.size();
+    }
+
+    public long getChunksReused()
+    {
+        return chunksReused.get();
+    }
+
+    public long getChunksAllocated()
+    {
+        return chunksAllocated.get();
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.util.buffer;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds a body written once and read any number of times. Bytes are kept in chunks
+ * from the pool of the {@link BodyBufferManager} until the memory threshold is
+ * exceeded, then all of them are moved to a temporary file.
+ * <p/>
+ * Writing is not thread safe. Once written, streams opened on the buffer can be read
+ * concurrently. {@link #release()} returns the chunks to the pool and deletes the
+ * file, the buffer can't be read afterwards.
+ */
+public class SpillableBuffer extends OutputStream
+{
+
+    private final BodyBufferManager manager;
+    private final long memoryThreshold;
+    private final File directory;
+
+    private final List<byte[]> chunks = new ArrayList<byte[]>();
+    private long size = 0;
+    private boolean writing = true;
+    private volatile boolean released = false;
+
+    private File file;
+    private OutputStream fileOut;
+    private RandomAccessFile fileIn;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+
+    SpillableBuffer(BodyBufferManager manager, long memoryThreshold, File directory)
+    {
+        this.manager = manager;
+        this.memoryThreshold = memoryThreshold;
+        this.directory = directory;
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        if (writing && !released && file == null && size < memoryThreshold)
+        {
+            // byte by byte writers are common, avoid an array for each of them
+            int position = (int) (size % BodyBufferManager.CHUNK_SIZE);
+            if (position == 0)
+            {
+                chunks.add(manager.acquireChunk());
+            }
+            chunks.get(chunks.size() - 1)[position] = (byte) b;
+            size++;
+        }
+        else
+        {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        if (!writing || released)
+        {
+            throw new IOException("Buffer is already closed");
+        }
+        if (file == null && size + len > memoryThreshold)
+        {
+            spill();
+        }
+        if (file != null)
+        {
+            fileOut.write(b, off, len);
+            manager.spilledBytes(len);
+            size += len;
+            return;
+        }
+
+        while (len > 0)
+        {
+            int position = (int) (size % BodyBufferManager.CHUNK_SIZE);
+            if (position == 0)
+            {
+                chunks.add(manager.acquireChunk());
+            }
+            int count = Math.min(len, BodyBufferManager.CHUNK_SIZE - position);
+            System.arraycopy(b, off, chunks.get(chunks.size() - 1), position, count);
+            off += count;
+            len -= count;
+            size += count;
+        }
+    }
+
+    private void spill() throws IOException
+    {
+        if (!directory.exists())
+        {
+            directory.mkdirs();
+        }
+        file = File.createTempFile("mule-body", ".tmp", directory);
+        fileOut = new BufferedOutputStream(new FileOutputStream(file), BodyBufferManager.CHUNK_SIZE);
+        manager.spilled(this, size);
+        writeChunks(fileOut);
+        releaseChunks();
+    }
+
+    /**
+     * Ends writing. Streams opened afterwards see the whole body.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (writing)
+        {
+            writing = false;
+            if (fileOut != null)
+            {
+                fileOut.close();
+                fileOut = null;
+            }
+        }
+    }
+
+    /**
+     * Closes the buffer for writing and opens a stream on its content.
+     *
+     * @param releaseOnClose whether closing the stream releases the buffer, so the
+     *            body can only be read once
+     */
+    public InputStream openStream(boolean releaseOnClose) throws IOException
+    {
+        close();
+        return new BufferInputStream(releaseOnClose);
+    }
+
+    /**
+     * Copies the content of the buffer to a stream.
+     */
+    public void writeTo(OutputStream out) throws IOException
+    {
+        close();
+        if (file == null)
+        {
+            writeChunks(out);
+        }
+        else
+        {
+            byte[] copy = new byte[BodyBufferManager.CHUNK_SIZE];
+            long position = 0;
+            int read;
+            while ((read = read(position, copy, 0, copy.length)) > 0)
+            {
+                out.write(copy, 0, read);
+                position += read;
+            }
+        }
+    }
+
+    /**
+     * @return the content of the buffer as a single array, only meant for small buffers
+     */
+    public byte[] toByteArray() throws IOException
+    {
+        if (size > Integer.MAX_VALUE)
+        {
+            throw new IOException("Buffer is too large for an array: " + size);
+        }
+        close();
+        byte[] bytes = new byte[(int) size];
+        int copied = 0;
+        while (copied < bytes.length)
+        {
+            copied += read(copied, bytes, copied, bytes.length - copied);
+        }
+        return bytes;
+    }
+
+    private void writeChunks(OutputStream out) throws IOException
+    {
+        long remaining = size;
+        for (byte[] chunk : chunks)
+        {
+            int count = (int) Math.min(remaining, chunk.length);
+            out.write(chunk, 0, count);
+            remaining -= count;
+        }
+    }
+
+    /**
+     * Reads bytes at a position of the buffer.
+     *
+     * @return the number of bytes read, -1 at the end of the buffer
+     */
+    synchronized int read(long position, byte[] b, int off, int len) throws IOException
+    {
+        if (released)
+        {
+            throw new IOException("Buffer was released");
+        }
+        if (position >= size)
+        {
+            return -1;
+        }
+        len = (int) Math.min(len, size - position);
+
+        if (file == null)
+        {
+            byte[] chunk = chunks.get((int) (position / BodyBufferManager.CHUNK_SIZE));
+            int chunkPosition = (int) (position % BodyBufferManager.CHUNK_SIZE);
+            int count = Math.min(len, BodyBufferManager.CHUNK_SIZE - chunkPosition);
+            System.arraycopy(chunk, chunkPosition, b, off, count);
+            return count;
+        }
+
+        if (channel == null)
+        {
+            fileIn = new RandomAccessFile(file, "r");
+            channel = fileIn.getChannel();
+            if (manager.isMemoryMapped() && size <= Integer.MAX_VALUE)
+            {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        }
+        if (mapped != null)
+        {
+            ByteBuffer view = mapped.duplicate();
+            view.position((int) position);
+            view.get(b, off, len);
+            return len;
+        }
+        return channel.read(ByteBuffer.wrap(b, off, len), position);
+    }
+
+    /**
+     * Returns the chunks to the pool and deletes the file. Can be called more than
+     * once.
+     */
+    public synchronized void release()
+    {
+        if (released)
+        {
+            return;
+        }
+        released = true;
+        writing = false;
+        releaseChunks();
+        if (file != null)
+        {
+            closeQuietly(fileOut);
+            closeQuietly(fileIn);
+            mapped = null;
+            file.delete();
+            manager.released(this);
+        }
+    }
+
+    private void releaseChunks()
+    {
+        for (byte[] chunk : chunks)
+        {
+            manager.releaseChunk(chunk);
+        }
+        chunks.clear();
+    }
+
+    private void closeQuietly(Closeable closeable)
+    {
+        if (closeable != null)
+        {
+            try
+            {
+                closeable.close();
+            }
+            catch (IOException e)
+            {
+                // nothing to do, the file is deleted next
+            }
+        }
+    }
+
+    public long size()
+    {
+        return size;
+    }
+
+    /**
+     * @return true if the content was moved to a file
+     */
+    public boolean isSpilled()
+    {
+        return file != null;
+    }
+
+    public boolean isReleased()
+    {
+        return released;
+    }
+
+    private class BufferInputStream extends InputStream
+    {
+        private final boolean releaseOnClose;
+        private final byte[] single = new byte[1];
+        private long position = 0;
+        private long mark = 0;
+
+        public BufferInputStream(boolean releaseOnClose)
+        {
+            this.releaseOnClose = releaseOnClose;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            int read = SpillableBuffer.this.read(position, b, off, len);
+            if (read > 0)
+            {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n)
+        {
+            long skipped = Math.max(0, Math.min(n, size - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available()
+        {
+            return (int) Math.min(Integer.MAX_VALUE, size - position);
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit)
+        {
+            mark = position;
+        }
+
+        @Override
+        public synchronized void reset()
+        {
+            position = mark;
+        }
+
+        @Override
+        public void close()
+        {
+            if (releaseOnClose)
+            {
+                release();
+            }
+        }
+    }
+}
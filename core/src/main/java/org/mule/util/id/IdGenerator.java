@@ -0,0 +1,26 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.util.id;
+
+/**
+ * Generates the unique ids of messages, sessions and events. Implementations are
+ * called for every message so they must be thread safe and should not block.
+ *
+ * @see org.mule.util.UUID
+ */
+public interface IdGenerator
+{
+
+    /**
+     * @return a new id, unique across the cluster
+     */
+    UniqueId generateId();
+}
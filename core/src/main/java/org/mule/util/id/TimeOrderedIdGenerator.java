@@ -0,0 +1,169 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.util.id;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates ids without any shared state between threads. Each thread gets a slot
+ * the first time it generates an id, then keeps its own clock and sequence. Ids are
+ * rendered like UUIDs, 36 characters, and are made of:
+ * <ul>
+ * <li>the milliseconds since the epoch, 44 bits</li>
+ * <li>a sequence within the millisecond of the thread, 20 bits</li>
+ * <li>the cluster node id, 16 bits, see {@link #setClusterNodeId(int)}, so nodes of a
+ * cluster do not overlap</li>
+ * <li>a generation, 24 bits, random when the generator is created so JVMs that are not
+ * clustered hardly ever overlap</li>
+ * <li>the slot of the thread, 24 bits</li>
+ * </ul>
+ * Ids of a thread are strictly increasing, ids of different threads are ordered by
+ * millisecond. A thread generating more than a million ids in a millisecond or a
+ * clock going backwards only move the clock of that thread ahead. Once every slot
+ * was given to a thread the next threads get the slots again in the next generation,
+ * so slots are never shared by two threads.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator
+{
+
+    public static final String NAME = "time-ordered";
+
+    private static final int SEQUENCE_BITS = 20;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int SLOT_BITS = 24;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+    private static final int GENERATION_BITS = 24;
+    private static final long GENERATION_MASK = (1L << GENERATION_BITS) - 1;
+    private static final int CLUSTER_NODE_SHIFT = GENERATION_BITS + SLOT_BITS;
+    private static final long CLUSTER_NODE_MASK = (1L << (64 - CLUSTER_NODE_SHIFT)) - 1;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private volatile long clusterNode;
+    private final long firstGeneration;
+    private final AtomicLong threadCount;
+
+    private final ThreadLocal<ThreadState> threadState = new ThreadLocal<ThreadState>()
+    {
+        @Override
+        protected ThreadState initialValue()
+        {
+            return new ThreadState(nextSlot());
+        }
+    };
+
+    public TimeOrderedIdGenerator()
+    {
+        this(0);
+    }
+
+    /**
+     * @param clusterNodeId identifies this generator among the ones of the cluster,
+     *            only the lower 16 bits are used
+     */
+    public TimeOrderedIdGenerator(int clusterNodeId)
+    {
+        this(clusterNodeId, new SecureRandom().nextInt(), 0);
+    }
+
+    TimeOrderedIdGenerator(int clusterNodeId, int firstGeneration, long threadCount)
+    {
+        setClusterNodeId(clusterNodeId);
+        this.firstGeneration = firstGeneration & GENERATION_MASK;
+        this.threadCount = new AtomicLong(threadCount);
+    }
+
+    /**
+     * Sets the id of the cluster node, only the lower 16 bits are used. Ids generated
+     * from then on use it.
+     */
+    public void setClusterNodeId(int clusterNodeId)
+    {
+        this.clusterNode = (clusterNodeId & CLUSTER_NODE_MASK) << CLUSTER_NODE_SHIFT;
+    }
+
+    public UniqueId generateId()
+    {
+        ThreadState state = threadState.get();
+        long now = System.currentTimeMillis();
+        if (now > state.millis)
+        {
+            state.millis = now;
+            state.sequence = 0;
+        }
+        else if (++state.sequence > SEQUENCE_MASK)
+        {
+            state.millis++;
+            state.sequence = 0;
+        }
+        return new TimeOrderedId((state.millis << SEQUENCE_BITS) | state.sequence, clusterNode | state.slot);
+    }
+
+    /**
+     * @return the generation and slot of a new thread
+     */
+    private long nextSlot()
+    {
+        long thread = threadCount.getAndIncrement();
+        long generation = (firstGeneration + (thread >>> SLOT_BITS)) & GENERATION_MASK;
+        return (generation << SLOT_BITS) | (thread & SLOT_MASK);
+    }
+
+    private static final class ThreadState
+    {
+        private final long slot;
+        private long millis = 0;
+        private long sequence = 0;
+
+        private ThreadState(long slot)
+        {
+            this.slot = slot;
+        }
+    }
+
+    private static final class TimeOrderedId extends UniqueId
+    {
+        private final long high;
+        private final long low;
+
+        private TimeOrderedId(long high, long low)
+        {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        protected String render()
+        {
+            char[] chars = new char[36];
+            hex(high >>> 32, chars, 0, 8);
+            chars[8] = '-';
+            hex(high >>> 16, chars, 9, 4);
+            chars[13] = '-';
+            hex(high, chars, 14, 4);
+            chars[18] = '-';
+            hex(low >>> 48, chars, 19, 4);
+            chars[23] = '-';
+            hex(low, chars, 24, 12);
+            return new String(chars);
+        }
+
+        private static void hex(long value, char[] chars, int offset, int digits)
+        {
+            for (int i = offset + digits - 1; i >= offset; i--)
+            {
+                chars[i] = HEX[(int) (value & 0xf)];
+                value >>>= 4;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.util.id;
+
+/**
+ * An id generated by an {@link IdGenerator}. It is only rendered as a string the first
+ * time {@link #toString()} is called, most ids are never read.
+ */
+public abstract class UniqueId
+{
+
+    private volatile String rendered;
+
+    @Override
+    public final String toString()
+    {
+        String result = rendered;
+        if (result == null)
+        {
+            // rendering twice from concurrent threads gives the same string
+            result = render();
+            rendered = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return whether the id was already rendered as a string
+     */
+    public boolean isRendered()
+    {
+        return rendered != null;
+    }
+
+    protected abstract String render();
+}
@@ -0,0 +1,40 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.util.id;
+
+import org.safehaus.uuid.UUID;
+import org.safehaus.uuid.UUIDGenerator;
+
+/**
+ * Generates RFC 4122 time based UUIDs with the <a href="http://jug.safehaus.org/">Safehaus
+ * UUID generator</a>, the ids Mule has always used. All the threads share the same
+ * generator, use it when ids must be standard UUIDs.
+ */
+public class UuidIdGenerator implements IdGenerator
+{
+
+    public static final String NAME = "uuid";
+
+    private static final UUIDGenerator generator = UUIDGenerator.getInstance();
+
+    public UniqueId generateId()
+    {
+        final UUID uuid = generator.generateTimeBasedUUID();
+        return new UniqueId()
+        {
+            @Override
+            protected String render()
+            {
+                return uuid.toString();
+            }
+        };
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.mule.api.MuleContext;
+import org.mule.api.MuleMessage;
+import org.mule.api.config.MuleProperties;
+import org.mule.api.transformer.DataType;
+import org.mule.api.transformer.Transformer;
+import org.mule.message.PayloadRepresentationCache;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+import org.mule.transformer.types.SimpleDataType;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Answers;
+import org.w3c.dom.Document;
+
+@SmallTest
+public class DefaultMuleMessageRepresentationCacheTestCase extends AbstractMuleTestCase
+{
+
+    private static class A
+    {
+
+    }
+
+    private static class B
+    {
+
+    }
+
+    private static final DataType<B> dataTypeB = new SimpleDataType<B>(B.class);
+    private static final DataType<Document> documentType = new SimpleDataType<Document>(Document.class);
+
+    private MuleContext muleContext = mock(MuleContext.class, Answers.RETURNS_DEEP_STUBS.get());
+    private Transformer transformer = mock(Transformer.class);
+
+    @Before
+    public void setUp() throws Exception
+    {
+        when(muleContext.getRegistry().lookupTransformer(any(DataType.class), any(DataType.class))).thenReturn(transformer);
+        PayloadRepresentationCache.clearStatistics();
+    }
+
+    @Test
+    public void decodesBytesOnce() throws Exception
+    {
+        when(transformer.transform(any(MuleMessage.class), (String) any())).thenReturn("first", "second");
+        DefaultMuleMessage message = new DefaultMuleMessage(new byte[] {1, 2, 3}, muleContext);
+
+        String first = message.getPayload(DataType.STRING_DATA_TYPE);
+        String second = message.getPayload(DataType.STRING_DATA_TYPE);
+
+        assertSame(first, second);
+        verify(transformer, times(1)).transform(any(MuleMessage.class), (String) any());
+        assertEquals(1, PayloadRepresentationCache.getHits());
+        assertEquals(1, PayloadRepresentationCache.getMisses());
+    }
+
+    @Test
+    public void decodesAgainAfterPayloadChanges() throws Exception
+    {
+        when(transformer.transform(any(MuleMessage.class), (String) any())).thenReturn("first", "second");
+        DefaultMuleMessage message = new DefaultMuleMessage(new byte[] {1, 2, 3}, muleContext);
+
+        String first = message.getPayload(DataType.STRING_DATA_TYPE);
+        message.setPayload(new byte[] {4, 5, 6});
+        String second = message.getPayload(DataType.STRING_DATA_TYPE);
+
+        assertEquals("first", first);
+        assertEquals("second", second);
+        verify(transformer, times(2)).transform(any(MuleMessage.class), (String) any());
+        assertEquals(1, PayloadRepresentationCache.getInvalidations());
+    }
+
+    @Test
+    public void decodesAgainAfterContentTypeChanges() throws Exception
+    {
+        when(transformer.transform(any(MuleMessage.class), (String) any())).thenReturn("first", "second");
+        DefaultMuleMessage message = new DefaultMuleMessage(new byte[] {1, 2, 3}, muleContext);
+
+        message.getPayload(DataType.STRING_DATA_TYPE);
+        message.setInboundProperty(MuleProperties.CONTENT_TYPE_PROPERTY, "text/xml");
+
+        assertEquals("second", message.getPayload(DataType.STRING_DATA_TYPE));
+        verify(transformer, times(2)).transform(any(MuleMessage.class), (String) any());
+    }
+
+    @Test
+    public void decodesAgainAfterBytesChangeInPlace() throws Exception
+    {
+        when(transformer.transform(any(MuleMessage.class), (String) any())).thenReturn("first", "second");
+        byte[] payload = new byte[] {1, 2, 3};
+        DefaultMuleMessage message = new DefaultMuleMessage(payload, muleContext);
+
+        message.getPayload(DataType.STRING_DATA_TYPE);
+        payload[0] = 4;
+
+        assertEquals("second", message.getPayload(DataType.STRING_DATA_TYPE));
+        verify(transformer, times(2)).transform(any(MuleMessage.class), (String) any());
+    }
+
+    @Test
+    public void parsesDocumentOnceAndHandsOutCopies() throws Exception
+    {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        document.appendChild(document.createElement("root"));
+        when(transformer.transform(any(MuleMessage.class), (String) any())).thenReturn(document);
+        DefaultMuleMessage message = new DefaultMuleMessage("<root/>", muleContext);
+
+        Document first = message.getPayload(documentType);
+        first.getDocumentElement().appendChild(first.createElement("changed"));
+        Document second = message.getPayload(documentType);
+
+        assertNotSame(first, second);
+        assertEquals(0, second.getDocumentElement().getChildNodes().getLength());
+        verify(transformer, times(1)).transform(any(MuleMessage.class), (String) any());
+        assertEquals(1, PayloadRepresentationCache.getHits());
+    }
+
+    @Test
+    public void convertsMutableRepresentationsEachTime() throws Exception
+    {
+        when(transformer.transform(any(MuleMessage.class), (String) any())).thenReturn(new B(), new B());
+        DefaultMuleMessage message = new DefaultMuleMessage(new A(), muleContext);
+
+        B first = message.getPayload(dataTypeB);
+        B second = message.getPayload(dataTypeB);
+
+        assertNotSame(first, second);
+        verify(transformer, times(2)).transform(any(MuleMessage.class), (String) any());
+        assertEquals(0, PayloadRepresentationCache.getHits());
+    }
+
+    @Test
+    public void doesNotCacheStringsOfMutablePayloads() throws Exception
+    {
+        when(transformer.transform(any(MuleMessage.class), (String) any())).thenReturn("first", "second");
+        DefaultMuleMessage message = new DefaultMuleMessage(new A(), muleContext);
+
+        message.getPayload(DataType.STRING_DATA_TYPE);
+
+        assertEquals("second", message.getPayload(DataType.STRING_DATA_TYPE));
+    }
+
+    @Test
+    public void evictsOldestRepresentationsOverBudget()
+    {
+        PayloadRepresentationCache cache = new PayloadRepresentationCache();
+        DataType<String> xmlType = new SimpleDataType<String>(String.class, "text/xml");
+        byte[] payload = new byte[0];
+        int quarter = (int) PayloadRepresentationCache.DEFAULT_MAX_SIZE / 4;
+
+        assertTrue(cache.put(DataType.STRING_DATA_TYPE, "UTF-8", payload, null, new String(new char[quarter])));
+        assertTrue(cache.put(xmlType, "UTF-8", payload, null, new String(new char[quarter])));
+
+        assertTrue(cache.put(DataType.STRING_DATA_TYPE, "ISO-8859-1", payload, null, "small"));
+
+        assertNull(cache.get(DataType.STRING_DATA_TYPE, "UTF-8", payload, null));
+        assertEquals(1, PayloadRepresentationCache.getEvictions());
+        assertEquals(PayloadRepresentationCache.DEFAULT_MAX_SIZE / 2 + 10, cache.getSize());
+    }
+
+    @Test
+    public void rejectsRepresentationLargerThanBudget()
+    {
+        PayloadRepresentationCache cache = new PayloadRepresentationCache();
+        byte[] payload = new byte[0];
+        String value = new String(new char[(int) PayloadRepresentationCache.DEFAULT_MAX_SIZE / 2 + 1]);
+
+        assertFalse(cache.put(DataType.STRING_DATA_TYPE, null, payload, null, value));
+
+        assertNull(cache.get(DataType.STRING_DATA_TYPE, null, payload, null));
+        assertEquals(1, PayloadRepresentationCache.getRejections());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void keysRepresentationsByEncodingAndSource()
+    {
+        PayloadRepresentationCache cache = new PayloadRepresentationCache();
+        byte[] payload = new byte[0];
+
+        cache.put(DataType.STRING_DATA_TYPE, "UTF-8", payload, null, "utf");
+
+        assertEquals("utf", cache.get(DataType.STRING_DATA_TYPE, "UTF-8", payload, null));
+        assertNull(cache.get(DataType.STRING_DATA_TYPE, "ISO-8859-1", payload, null));
+        assertNull(cache.get(DataType.STRING_DATA_TYPE, "UTF-8", new byte[0], null));
+    }
+}
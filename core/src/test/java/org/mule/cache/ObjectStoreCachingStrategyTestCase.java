@@ -0,0 +1,240 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.mule.DefaultMuleEvent;
+import org.mule.DefaultMuleMessage;
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.processor.MessageProcessor;
+import org.mule.routing.filters.PayloadTypeFilter;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ObjectStoreCachingStrategyTestCase extends AbstractMuleContextTestCase
+{
+
+    private final CountingMessageProcessor backend = new CountingMessageProcessor();
+    private ObjectStoreCachingStrategy cachingStrategy;
+
+    private void createCachingStrategy() throws Exception
+    {
+        cachingStrategy.setMuleContext(muleContext);
+        cachingStrategy.initialise();
+    }
+
+    @After
+    public void disposeCachingStrategy()
+    {
+        if (cachingStrategy != null)
+        {
+            cachingStrategy.dispose();
+        }
+    }
+
+    @Test
+    public void reusesResponseForSamePayload() throws Exception
+    {
+        cachingStrategy = new ObjectStoreCachingStrategy();
+        createCachingStrategy();
+
+        assertEquals("response-1", process("request"));
+        assertEquals("response-1", process("request"));
+        assertEquals("response-2", process("other request"));
+
+        assertEquals(2, backend.count.get());
+        assertEquals(1, cachingStrategy.getHits());
+        assertEquals(2, cachingStrategy.getMisses());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void handsEachHitItsOwnCopyOfMutablePayloads() throws Exception
+    {
+        cachingStrategy = new ObjectStoreCachingStrategy();
+        createCachingStrategy();
+        MessageProcessor listBackend = new MessageProcessor()
+        {
+            public MuleEvent process(MuleEvent event) throws MuleException
+            {
+                List<String> payload = new ArrayList<String>(Collections.singletonList("response"));
+                return new DefaultMuleEvent(new DefaultMuleMessage(payload, muleContext), event);
+            }
+        };
+
+        List<String> miss = (List<String>) cachingStrategy.process(getTestEvent("request"), listBackend)
+            .getMessage().getPayload();
+        miss.add("changed by the miss");
+        List<String> firstHit = (List<String>) cachingStrategy.process(getTestEvent("request"), listBackend)
+            .getMessage().getPayload();
+        firstHit.add("changed by the first hit");
+        List<String> secondHit = (List<String>) cachingStrategy.process(getTestEvent("request"), listBackend)
+            .getMessage().getPayload();
+
+        assertEquals(Collections.singletonList("response"), secondHit);
+        assertEquals(2, cachingStrategy.getHits());
+    }
+
+    @Test
+    public void generatesKeyFromExpression() throws Exception
+    {
+        cachingStrategy = new ObjectStoreCachingStrategy();
+        cachingStrategy.setKeyGenerationExpression("#[payload.substring(0, 3)]");
+        createCachingStrategy();
+
+        assertEquals("response-1", process("abc-1"));
+        assertEquals("response-1", process("abc-2"));
+        assertEquals(1, backend.count.get());
+    }
+
+    @Test
+    public void buffersStreamedPayloads() throws Exception
+    {
+        cachingStrategy = new ObjectStoreCachingStrategy();
+        createCachingStrategy();
+
+        assertEquals("response-1", process(new ByteArrayInputStream("request".getBytes())));
+        assertEquals("response-1", process(new ByteArrayInputStream("request".getBytes())));
+        assertEquals(1, backend.count.get());
+        assertEquals("request", new String((byte[]) backend.lastPayload));
+    }
+
+    @Test
+    public void expiresEntries() throws Exception
+    {
+        cachingStrategy = new ObjectStoreCachingStrategy();
+        cachingStrategy.setEntryTTL(100);
+        createCachingStrategy();
+
+        assertEquals("response-1", process("request"));
+        Thread.sleep(200);
+        assertEquals("response-2", process("request"));
+        assertEquals(1, cachingStrategy.getExpirations());
+    }
+
+    @Test
+    public void evictsOldestEntries() throws Exception
+    {
+        cachingStrategy = new ObjectStoreCachingStrategy();
+        cachingStrategy.setMaxEntries(2);
+        createCachingStrategy();
+
+        process("a");
+        process("b");
+        process("c");
+        assertEquals(1, cachingStrategy.getEvictions());
+        assertEquals(2, cachingStrategy.getSize());
+
+        process("c");
+        assertEquals(3, backend.count.get());
+        process("a");
+        assertEquals(4, backend.count.get());
+    }
+
+    @Test
+    public void bypassesCacheForFilteredRequests() throws Exception
+    {
+        cachingStrategy = new ObjectStoreCachingStrategy();
+        cachingStrategy.setFilter(new PayloadTypeFilter(Integer.class));
+        createCachingStrategy();
+
+        process("request");
+        process("request");
+        assertEquals(2, backend.count.get());
+        assertEquals(0, cachingStrategy.getHits());
+    }
+
+    @Test
+    public void loadsConcurrentMissesOnce() throws Exception
+    {
+        cachingStrategy = new ObjectStoreCachingStrategy();
+        createCachingStrategy();
+        backend.delay = 200;
+
+        final int threads = 5;
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicInteger failures = new AtomicInteger(0);
+        for (int i = 0; i < threads; i++)
+        {
+            new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        if (!"response-1".equals(process("request")))
+                        {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    catch (Exception e)
+                    {
+                        failures.incrementAndGet();
+                    }
+                    finally
+                    {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        assertTrue(done.await(5000, TimeUnit.MILLISECONDS));
+        assertEquals(0, failures.get());
+        assertEquals(1, backend.count.get());
+        assertEquals(threads - 1, cachingStrategy.getHits());
+    }
+
+    private Object process(Object payload) throws Exception
+    {
+        MuleEvent response = cachingStrategy.process(getTestEvent(payload), backend);
+        return response.getMessage().getPayload();
+    }
+
+    private class CountingMessageProcessor implements MessageProcessor
+    {
+
+        private final AtomicInteger count = new AtomicInteger(0);
+        private volatile Object lastPayload;
+        private volatile long delay;
+
+        public MuleEvent process(MuleEvent event) throws MuleException
+        {
+            lastPayload = event.getMessage().getPayload();
+            int invocation = count.incrementAndGet();
+            if (delay > 0)
+            {
+                try
+                {
+                    Thread.sleep(delay);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new DefaultMuleEvent(new DefaultMuleMessage("response-" + invocation, muleContext), event);
+        }
+    }
+}
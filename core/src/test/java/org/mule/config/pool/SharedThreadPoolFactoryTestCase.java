@@ -0,0 +1,299 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.config.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.mule.api.config.ThreadingProfile;
+import org.mule.config.MutableThreadingProfile;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+import org.mule.tck.probe.PollingProber;
+import org.mule.tck.probe.Probe;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SharedThreadPoolFactoryTestCase extends AbstractMuleContextTestCase
+{
+
+    private WorkStealingScheduler scheduler;
+
+    @Before
+    public void createScheduler()
+    {
+        scheduler = new WorkStealingScheduler("test.shared", 2, 8, 10, 1000);
+    }
+
+    @After
+    public void disposeScheduler()
+    {
+        scheduler.dispose();
+    }
+
+    @Test
+    public void limitsConcurrencyToMaxThreadsActive() throws Exception
+    {
+        MutableThreadingProfile tp = createProfile(2, 100, ThreadingProfile.WHEN_EXHAUSTED_WAIT);
+        ThreadPoolExecutor pool = new QuotaThreadPoolExecutor("quota", tp, scheduler);
+
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final CountDownLatch done = new CountDownLatch(20);
+        for (int i = 0; i < 20; i++)
+        {
+            pool.execute(new Runnable()
+            {
+                public void run()
+                {
+                    int current = running.incrementAndGet();
+                    synchronized (maxRunning)
+                    {
+                        maxRunning.set(Math.max(maxRunning.get(), current));
+                    }
+                    sleep(10);
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        assertEquals(20, pool.getCompletedTaskCount());
+    }
+
+    @Test
+    public void appliesExhaustedActionWhenBufferIsFull() throws Exception
+    {
+        MutableThreadingProfile tp = createProfile(2, 1, ThreadingProfile.WHEN_EXHAUSTED_ABORT);
+        ThreadPoolExecutor pool = new QuotaThreadPoolExecutor("quota", tp, scheduler);
+
+        final CountDownLatch release = new CountDownLatch(1);
+        Runnable blocked = new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    release.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        pool.execute(blocked);
+        pool.execute(blocked);
+        pool.execute(blocked);
+        assertEquals(1, pool.getQueue().size());
+        try
+        {
+            pool.execute(blocked);
+            fail("Expected the task to be rejected");
+        }
+        catch (RejectedExecutionException e)
+        {
+            // expected
+        }
+
+        release.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(3, pool.getCompletedTaskCount());
+    }
+
+    @Test
+    public void runsTasksWithComponentNameAndClassLoader() throws Exception
+    {
+        final ClassLoader classLoader = new ClassLoader(getClass().getClassLoader()) {};
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        ThreadPoolExecutor pool;
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try
+        {
+            pool = new QuotaThreadPoolExecutor("component", createProfile(1, 0,
+                ThreadingProfile.WHEN_EXHAUSTED_WAIT), scheduler);
+        }
+        finally
+        {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+
+        final CountDownLatch done = new CountDownLatch(1);
+        final Object[] seen = new Object[2];
+        pool.execute(new Runnable()
+        {
+            public void run()
+            {
+                seen[0] = Thread.currentThread().getName();
+                seen[1] = Thread.currentThread().getContextClassLoader();
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("component", seen[0]);
+        assertTrue(seen[1] == classLoader);
+    }
+
+    @Test
+    public void growsWhenTasksWait() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(6);
+        for (int i = 0; i < 6; i++)
+        {
+            scheduler.execute(new Runnable()
+            {
+                public void run()
+                {
+                    started.countDown();
+                    try
+                    {
+                        release.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+
+        try
+        {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertTrue(scheduler.getThreadCount() >= 6);
+            assertTrue(scheduler.getThreadCount() <= scheduler.getMaxThreads());
+        }
+        finally
+        {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void idleWorkersStealLocalTasks() throws Exception
+    {
+        final int tasks = 50;
+        final CountDownLatch done = new CountDownLatch(tasks);
+        scheduler.execute(new Runnable()
+        {
+            public void run()
+            {
+                // submitted from a worker, so queued on its own deque
+                for (int i = 0; i < tasks; i++)
+                {
+                    scheduler.execute(new Runnable()
+                    {
+                        public void run()
+                        {
+                            sleep(5);
+                            done.countDown();
+                        }
+                    });
+                }
+                sleep(200);
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(scheduler.getStealCount() > 0);
+    }
+
+    @Test
+    public void shutdownNowReturnsBufferedTasks() throws Exception
+    {
+        ThreadPoolExecutor pool = new QuotaThreadPoolExecutor("quota", createProfile(2, 10,
+            ThreadingProfile.WHEN_EXHAUSTED_WAIT), scheduler);
+        final CountDownLatch interrupted = new CountDownLatch(2);
+        Runnable blocking = new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    Thread.sleep(10000);
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted.countDown();
+                }
+            }
+        };
+        for (int i = 0; i < 5; i++)
+        {
+            pool.execute(blocking);
+        }
+
+        new PollingProber(5000, 10).check(new ActiveCountProbe(pool, 2));
+        assertEquals(3, pool.shutdownNow().size());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertFalse(pool.getQueue().iterator().hasNext());
+    }
+
+    private MutableThreadingProfile createProfile(int maxThreadsActive, int maxBufferSize, int exhaustedAction)
+    {
+        MutableThreadingProfile tp = new MutableThreadingProfile(muleContext.getDefaultThreadingProfile());
+        tp.setMaxThreadsActive(maxThreadsActive);
+        tp.setMaxBufferSize(maxBufferSize);
+        tp.setPoolExhaustedAction(exhaustedAction);
+        tp.setThreadWaitTimeout(5000);
+        return tp;
+    }
+
+    private static void sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class ActiveCountProbe implements Probe
+    {
+        private final ThreadPoolExecutor pool;
+        private final int expected;
+
+        public ActiveCountProbe(ThreadPoolExecutor pool, int expected)
+        {
+            this.pool = pool;
+            this.expected = expected;
+        }
+
+        public boolean isSatisfied()
+        {
+            return pool.getActiveCount() == expected;
+        }
+
+        public String describeFailure()
+        {
+            return "Expected " + expected + " active tasks but were " + pool.getActiveCount();
+        }
+    }
+}
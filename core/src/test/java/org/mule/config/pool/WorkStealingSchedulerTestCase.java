@@ -0,0 +1,217 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.config.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+@SmallTest
+public class WorkStealingSchedulerTestCase extends AbstractMuleTestCase
+{
+
+    private WorkStealingScheduler scheduler;
+
+    @After
+    public void disposeScheduler()
+    {
+        if (scheduler != null)
+        {
+            scheduler.dispose(1000);
+        }
+    }
+
+    @Test
+    public void idleWorkersStealTasks() throws Exception
+    {
+        scheduler = createScheduler("test.stealing", 4, 0);
+        scheduler.start();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(8);
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        final Thread[] blocked = new Thread[1];
+        scheduler.execute(new Runnable()
+        {
+            public void run()
+            {
+                blocked[0] = Thread.currentThread();
+                // submitted from a worker, so the tasks go to the deque of a blocked worker
+                for (int i = 0; i < 8; i++)
+                {
+                    scheduler.execute(new Runnable()
+                    {
+                        public void run()
+                        {
+                            threads.add(Thread.currentThread());
+                            done.countDown();
+                        }
+                    });
+                }
+                await(release);
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertTrue(scheduler.getStealCount() >= 8);
+        assertFalse(threads.contains(blocked[0]));
+    }
+
+    @Test
+    public void runsTasksWithSameKeyOnSameWorkerInOrder() throws Exception
+    {
+        scheduler = createScheduler("test.affinity", 4, 0);
+        scheduler.start();
+
+        final StringBuffer order = new StringBuffer();
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        final CountDownLatch done = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++)
+        {
+            final int index = i;
+            scheduler.execute(new Runnable()
+            {
+                public void run()
+                {
+                    threads.add(Thread.currentThread());
+                    order.append(index).append(',');
+                    done.countDown();
+                }
+            }, "correlation");
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, threads.size());
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 50; i++)
+        {
+            expected.append(i).append(',');
+        }
+        assertEquals(expected.toString(), order.toString());
+    }
+
+    @Test
+    public void rejectsTasksWhenQueueIsFull() throws Exception
+    {
+        // not started, so tasks stay queued
+        scheduler = createScheduler("test.bounded", 1, 2);
+        scheduler.execute(new NoOp());
+        scheduler.execute(new NoOp());
+        try
+        {
+            scheduler.execute(new NoOp());
+            fail("Expected the task to be rejected");
+        }
+        catch (RejectedExecutionException e)
+        {
+            // expected
+        }
+        assertEquals(2, scheduler.getQueuedTaskCount());
+    }
+
+    @Test
+    public void waitsForQueuedTaskToStartWhenQueueIsFull() throws Exception
+    {
+        scheduler = createScheduler("test.wait", 1, 1);
+        scheduler.start();
+
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        scheduler.execute(new Runnable()
+        {
+            public void run()
+            {
+                running.countDown();
+                await(release);
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        scheduler.execute(new NoOp());
+        try
+        {
+            scheduler.execute(new NoOp(), null, 50);
+            fail("Expected the task to be rejected");
+        }
+        catch (RejectedExecutionException e)
+        {
+            // expected
+        }
+
+        // accepted once the queued task starts
+        release.countDown();
+        scheduler.execute(new NoOp(), null, 5000);
+    }
+
+    @Test
+    public void disposeRunsQueuedTasks() throws Exception
+    {
+        scheduler = createScheduler("test.dispose", 2, 0);
+        for (int i = 0; i < 10; i++)
+        {
+            scheduler.execute(new NoOp(), i % 2 == 0 ? null : i);
+        }
+        scheduler.start();
+        scheduler.dispose(5000);
+
+        assertEquals(10, scheduler.getExecutedTaskCount());
+        assertEquals(0, scheduler.getQueuedTaskCount());
+        try
+        {
+            scheduler.execute(new NoOp());
+            fail("Expected the task to be rejected");
+        }
+        catch (RejectedExecutionException e)
+        {
+            // expected
+        }
+    }
+
+    private WorkStealingScheduler createScheduler(String name, int threads, int maxQueuedTasks)
+    {
+        return new WorkStealingScheduler(name, threads, threads, WorkStealingScheduler.DEFAULT_TARGET_LATENCY,
+            WorkStealingScheduler.DEFAULT_KEEP_ALIVE, maxQueuedTasks, getClass().getClassLoader());
+    }
+
+    private static void await(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class NoOp implements Runnable
+    {
+        public void run()
+        {
+            // nothing to do
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.endpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import org.mule.api.MuleException;
+import org.mule.api.endpoint.EndpointException;
+import org.mule.api.endpoint.OutboundEndpoint;
+import org.mule.config.i18n.MessageFactory;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+@SmallTest
+public class DynamicEndpointCacheTestCase extends AbstractMuleTestCase
+{
+
+    private static final long TIMEOUT = 5000;
+
+    @Test
+    public void buildsEndpointOncePerAddress() throws Exception
+    {
+        DynamicEndpointCache cache = new DynamicEndpointCache(10, 0);
+        CountingFactory factory = new CountingFactory();
+
+        OutboundEndpoint endpoint = cache.get("test://a", factory);
+        assertSame(endpoint, cache.get("test://a", factory));
+        assertNotSame(endpoint, cache.get("test://b", factory));
+
+        assertEquals(2, factory.builds.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1.0 / 3, cache.getHitRate(), 0.001);
+    }
+
+    @Test
+    public void concurrentMissesBuildOnce() throws Exception
+    {
+        final DynamicEndpointCache cache = new DynamicEndpointCache(10, 0);
+        final CountDownLatch building = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountingFactory factory = new CountingFactory()
+        {
+            @Override
+            public OutboundEndpoint call() throws Exception
+            {
+                building.countDown();
+                release.await(TIMEOUT, TimeUnit.MILLISECONDS);
+                return super.call();
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            Callable<OutboundEndpoint> lookup = new Callable<OutboundEndpoint>()
+            {
+                public OutboundEndpoint call() throws Exception
+                {
+                    return cache.get("test://a", factory);
+                }
+            };
+            Future<OutboundEndpoint> first = executor.submit(lookup);
+            assertTrue(building.await(TIMEOUT, TimeUnit.MILLISECONDS));
+            Future<OutboundEndpoint> second = executor.submit(lookup);
+            Future<OutboundEndpoint> third = executor.submit(lookup);
+            release.countDown();
+
+            assertSame(first.get(), second.get());
+            assertSame(first.get(), third.get());
+            assertEquals(1, factory.builds.get());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception
+    {
+        DynamicEndpointCache cache = new DynamicEndpointCache(10, 0);
+        CountingFactory factory = new CountingFactory();
+
+        for (int i = 0; i < 10; i++)
+        {
+            cache.get("test://" + i, factory);
+            Thread.sleep(2);
+        }
+        OutboundEndpoint recent = cache.get("test://0", factory);
+        Thread.sleep(2);
+        cache.get("test://10", factory);
+
+        assertTrue(cache.getSize() <= 10);
+        assertTrue(cache.getEvictions() > 0);
+        assertSame(recent, cache.get("test://0", factory));
+        int builds = factory.builds.get();
+        cache.get("test://1", factory);
+        assertEquals(builds + 1, factory.builds.get());
+    }
+
+    @Test
+    public void rebuildsExpiredEndpoints() throws Exception
+    {
+        DynamicEndpointCache cache = new DynamicEndpointCache(10, 20);
+        CountingFactory factory = new CountingFactory();
+
+        OutboundEndpoint endpoint = cache.get("test://a", factory);
+        Thread.sleep(50);
+        assertNotSame(endpoint, cache.get("test://a", factory));
+        assertEquals(2, factory.builds.get());
+    }
+
+    @Test
+    public void doesNotCacheFailures() throws Exception
+    {
+        DynamicEndpointCache cache = new DynamicEndpointCache(10, 0);
+        Callable<OutboundEndpoint> failing = new Callable<OutboundEndpoint>()
+        {
+            public OutboundEndpoint call() throws Exception
+            {
+                throw new EndpointException(MessageFactory.createStaticMessage("Invalid address"));
+            }
+        };
+
+        try
+        {
+            cache.get("test://a", failing);
+            fail("Expected the endpoint build to fail");
+        }
+        catch (MuleException e)
+        {
+            assertTrue(e instanceof EndpointException);
+        }
+        assertEquals(0, cache.getSize());
+
+        CountingFactory factory = new CountingFactory();
+        cache.get("test://a", factory);
+        assertEquals(1, factory.builds.get());
+    }
+
+    private static class CountingFactory implements Callable<OutboundEndpoint>
+    {
+        protected final AtomicInteger builds = new AtomicInteger(0);
+
+        public OutboundEndpoint call() throws Exception
+        {
+            builds.incrementAndGet();
+            return mock(OutboundEndpoint.class);
+        }
+    }
+}
@@ -13,7 +13,9 @@ package org.mule.expression;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -21,6 +23,8 @@ import org.mule.DefaultMuleMessage;
 import org.mule.RequestContext;
 import org.mule.api.MuleEvent;
 import org.mule.api.MuleMessage;
+import org.mule.api.expression.ExpressionManager;
+import org.mule.api.expression.ExpressionTemplate;
 import org.mule.tck.junit4.AbstractMuleContextTestCase;
 import org.mule.transformer.simple.StringAppendTransformer;
 
@@ -121,6 +125,59 @@ public class ExpressionManagerTestCase extends AbstractMuleContextTestCase
                 "-#[string:1]-#[process:proc2:#[string:a#[process:proc1]d]]-#[string:2]-", event));
     }
 
+    @Test
+    public void testCompiledTemplate() throws Exception
+    {
+        ExpressionManager expressionManager = muleContext.getExpressionManager();
+        ExpressionTemplate template = expressionManager.compileTemplate(
+            "#[header:user] is #[payload.length()] chars, #[2*2]!");
+        assertEquals(3, template.getExpressionCount());
+        assertSame(template, expressionManager.compileTemplate(template.getTemplate()));
+
+        MuleEvent event = getTestEvent("test");
+        event.getMessage().setOutboundProperty("user", "vasya");
+        assertEquals("vasya is 4 chars, 4!", expressionManager.parse(template, event, false));
+
+        event = getTestEvent("other");
+        event.getMessage().setOutboundProperty("user", "petya");
+        assertEquals("petya is 5 chars, 4!", expressionManager.parse(template, event, false));
+    }
+
+    @Test
+    public void testCompiledTemplatesAreEvictedLeastRecentlyUsedFirst() throws Exception
+    {
+        ExpressionManager expressionManager = muleContext.getExpressionManager();
+        ExpressionTemplate first = expressionManager.compileTemplate("first #[payload]");
+        ExpressionTemplate second = expressionManager.compileTemplate("second #[payload]");
+
+        for (int i = 0; i < DefaultExpressionManager.MAX_CACHED_TEMPLATES - 1; i++)
+        {
+            assertSame(first, expressionManager.compileTemplate("first #[payload]"));
+            expressionManager.compileTemplate("template " + i + " #[payload]");
+        }
+
+        // the cache is full, the template used least recently was evicted
+        assertSame(first, expressionManager.compileTemplate("first #[payload]"));
+        assertNotSame(second, expressionManager.compileTemplate("second #[payload]"));
+    }
+
+    @Test
+    public void testCompiledTemplateWithoutExpressions() throws Exception
+    {
+        ExpressionTemplate template = muleContext.getExpressionManager().compileTemplate("no expressions");
+        assertTrue(template.isLiteral());
+        assertEquals("no expressions", muleContext.getExpressionManager().parse(template, getTestEvent("test"),
+            false));
+    }
+
+    @Test
+    public void testParsingKeepsSpecialCharactersOfValues() throws Exception
+    {
+        MuleEvent event = getTestEvent("a$1\\b");
+        assertEquals("[a$1\\b] [null]", muleContext.getExpressionManager().parse("[#[payload]] [#[null]]",
+            event));
+    }
+
     @Test
     public void testBooleanEvaluation()
     {
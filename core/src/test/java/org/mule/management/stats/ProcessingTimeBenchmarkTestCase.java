@@ -0,0 +1,134 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.management.stats;
+
+import static org.junit.Assert.assertEquals;
+
+import org.mule.DefaultMuleEvent;
+import org.mule.DefaultMuleMessage;
+import org.mule.api.endpoint.InboundEndpoint;
+import org.mule.construct.Flow;
+import org.mule.tck.MuleTestUtils;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+import org.mule.tck.junit4.rule.Benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Compares creating events with statistics enabled when their {@link ProcessingTime}
+ * is watched until garbage collected, and when it is completed by a
+ * {@link ProcessingTimeScope} as the {@link org.mule.execution.FlowProcessingPhase}
+ * does.
+ */
+public class ProcessingTimeBenchmarkTestCase extends AbstractMuleContextTestCase
+{
+
+    private static final int WARM_UP_EVENTS = 200000;
+    private static final int EVENTS = 2000000;
+
+    @Rule
+    public Benchmark benchmark = new Benchmark();
+
+    private Flow flow;
+    private InboundEndpoint endpoint;
+
+    public ProcessingTimeBenchmarkTestCase()
+    {
+        setStartContext(true);
+    }
+
+    @Before
+    public void setUpFlow() throws Exception
+    {
+        flow = MuleTestUtils.getTestFlow(muleContext);
+        flow.getStatistics().setEnabled(true);
+        endpoint = getTestInboundEndpoint("benchmark");
+    }
+
+    @Test
+    public void testWatchedProcessingTime() throws Exception
+    {
+        run("watched", false);
+    }
+
+    @Test
+    public void testScopedProcessingTime() throws Exception
+    {
+        run("scoped", true);
+    }
+
+    private void run(String name, boolean scoped) throws Exception
+    {
+        createEvents(WARM_UP_EVENTS, scoped);
+        System.gc();
+
+        long collections = collectionCount();
+        long collectionTime = collectionTime();
+        long start = System.nanoTime();
+        createEvents(EVENTS, scoped);
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(WARM_UP_EVENTS + EVENTS, flow.getStatistics().getProcessedEvents());
+        logger.info(String.format("%s: %d events in %d ms, %.0f events/s, %d collections taking %d ms",
+            name, EVENTS, elapsed / 1000000, EVENTS * 1e9 / elapsed, collectionCount() - collections,
+            collectionTime() - collectionTime));
+    }
+
+    private void createEvents(int count, boolean scoped) throws Exception
+    {
+        for (int i = 0; i < count; i++)
+        {
+            ProcessingTimeScope scope = scoped ? ProcessingTimeScope.open() : null;
+            ProcessingTime processingTime;
+            try
+            {
+                DefaultMuleEvent event = new DefaultMuleEvent(new DefaultMuleMessage("test", muleContext),
+                    endpoint, flow);
+                processingTime = event.getProcessingTime();
+                processingTime.addFlowExecutionBranchTime(System.currentTimeMillis());
+            }
+            finally
+            {
+                if (scope != null)
+                {
+                    scope.close();
+                }
+            }
+            // a watched processing time is only completed once it is garbage collected
+            assertEquals(scoped, processingTime.isCompleted());
+        }
+    }
+
+    private long collectionCount()
+    {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private long collectionTime()
+    {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.management.stats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.mule.api.MuleContext;
+import org.mule.api.MuleEvent;
+import org.mule.api.construct.FlowConstruct;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SmallTest
+public class ProcessingTimeScopeTestCase extends AbstractMuleTestCase
+{
+
+    private ProcessingTimeWatcher watcher;
+    private FlowConstructStatistics statistics;
+    private MuleEvent event;
+
+    @Before
+    public void setUp()
+    {
+        watcher = mock(ProcessingTimeWatcher.class);
+        MuleContext muleContext = mock(MuleContext.class);
+        when(muleContext.getProcessorTimeWatcher()).thenReturn(watcher);
+
+        statistics = new FlowConstructStatistics("Flow", "test");
+        statistics.setEnabled(true);
+        FlowConstruct flowConstruct = mock(FlowConstruct.class);
+        when(flowConstruct.getStatistics()).thenReturn(statistics);
+
+        event = mock(MuleEvent.class);
+        when(event.getFlowConstruct()).thenReturn(flowConstruct);
+        when(event.getMuleContext()).thenReturn(muleContext);
+    }
+
+    @After
+    public void closeScopes()
+    {
+        while (ProcessingTimeScope.getCurrentScope() != null)
+        {
+            ProcessingTimeScope.getCurrentScope().close();
+        }
+    }
+
+    @Test
+    public void watchesProcessingTimeOutsideScope()
+    {
+        ProcessingTime time = ProcessingTime.newInstance(event);
+
+        verify(watcher).addProcessingTime(time);
+        assertFalse(time.isCompleted());
+    }
+
+    @Test
+    public void completesProcessingTimeOnClose()
+    {
+        ProcessingTimeScope scope = ProcessingTimeScope.open();
+        ProcessingTime time = ProcessingTime.newInstance(event);
+        time.addFlowExecutionBranchTime(System.currentTimeMillis() - 5);
+        assertFalse(time.isCompleted());
+
+        scope.close();
+
+        verify(watcher, never()).addProcessingTime(time);
+        assertTrue(time.isCompleted());
+        assertEquals(time.getAccumulator().get(), statistics.getMinProcessingTime());
+        assertFalse(time.complete());
+    }
+
+    @Test
+    public void watchesProcessingTimeOfAsynchronousScope()
+    {
+        ProcessingTimeScope scope = ProcessingTimeScope.open();
+        ProcessingTime time = ProcessingTime.newInstance(event);
+        scope.setAsynchronous(true);
+
+        scope.close();
+
+        verify(watcher).addProcessingTime(time);
+        assertFalse(time.isCompleted());
+    }
+
+    @Test
+    public void restoresEnclosingScope()
+    {
+        ProcessingTimeScope outer = ProcessingTimeScope.open();
+        ProcessingTimeScope inner = ProcessingTimeScope.open();
+        assertSame(inner, ProcessingTimeScope.getCurrentScope());
+
+        ProcessingTime innerTime = ProcessingTime.newInstance(event);
+        inner.close();
+        assertTrue(innerTime.isCompleted());
+        assertSame(outer, ProcessingTimeScope.getCurrentScope());
+
+        ProcessingTime outerTime = ProcessingTime.newInstance(event);
+        assertFalse(outerTime.isCompleted());
+        outer.close();
+        assertTrue(outerTime.isCompleted());
+        assertNull(ProcessingTimeScope.getCurrentScope());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.model.resolvers;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.mule.api.MuleEventContext;
+import org.mule.api.MuleMessage;
+import org.mule.api.model.EntryPointResolver;
+import org.mule.api.model.InvocationResult;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+@SmallTest
+public class DefaultEntryPointResolverSetTestCase extends AbstractMuleTestCase
+{
+
+    private DefaultEntryPointResolverSet resolverSet = new DefaultEntryPointResolverSet();
+    private CountingResolver countingResolver = new CountingResolver();
+    private MuleMessage message = mock(MuleMessage.class);
+    private MuleEventContext context = mock(MuleEventContext.class);
+
+    @Before
+    public void setUp()
+    {
+        when(context.getMessage()).thenReturn(message);
+
+        ExplicitMethodEntryPointResolver explicitResolver = new ExplicitMethodEntryPointResolver();
+        explicitResolver.addMethod("missing");
+        resolverSet.addEntryPointResolver(explicitResolver);
+        resolverSet.addEntryPointResolver(countingResolver);
+        resolverSet.addEntryPointResolver(new ReflectionEntryPointResolver());
+    }
+
+    @Test
+    public void reusesResolutionPlanForSameShape() throws Exception
+    {
+        when(message.getPayload()).thenReturn("hello");
+
+        assertEquals("hello!", resolverSet.invoke(new Component(), context));
+        assertEquals("hello!", resolverSet.invoke(new Component(), context));
+
+        assertEquals(1, resolverSet.getPlanCount());
+        // resolvers depending on the message are still tried on every message
+        assertEquals(2, countingResolver.invocations);
+    }
+
+    @Test
+    public void resolvesEachShape() throws Exception
+    {
+        when(message.getPayload()).thenReturn("hello");
+        assertEquals("hello!", resolverSet.invoke(new Component(), context));
+
+        when(message.getPayload()).thenReturn(3);
+        assertEquals(4, resolverSet.invoke(new Component(), context));
+
+        assertEquals(2, resolverSet.getPlanCount());
+    }
+
+    @Test
+    public void keepsMessageDependentResolversInPlan() throws Exception
+    {
+        when(message.getPayload()).thenReturn("hello");
+        assertEquals("hello!", resolverSet.invoke(new Component(), context));
+
+        countingResolver.result = "counted";
+        assertEquals("counted", resolverSet.invoke(new Component(), context));
+    }
+
+    @Test
+    public void dropsPlansWhenResolversChange() throws Exception
+    {
+        when(message.getPayload()).thenReturn("hello");
+        resolverSet.invoke(new Component(), context);
+
+        resolverSet.addEntryPointResolver(new CallableEntryPointResolver());
+
+        assertEquals(0, resolverSet.getPlanCount());
+    }
+
+    public static class Component
+    {
+
+        public String exclaim(String value)
+        {
+            return value + "!";
+        }
+
+        public Integer increment(Integer value)
+        {
+            return value + 1;
+        }
+    }
+
+    private static class CountingResolver implements EntryPointResolver
+    {
+
+        private int invocations = 0;
+        private Object result;
+
+        public InvocationResult invoke(Object component, MuleEventContext context) throws Exception
+        {
+            invocations++;
+            if (result == null)
+            {
+                return new InvocationResult(this, InvocationResult.State.NOT_SUPPORTED);
+            }
+            return new InvocationResult(this, result, Object.class.getMethod("toString"));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.model.resolvers;
+
+import static org.junit.Assert.assertEquals;
+
+import org.mule.api.MuleEventContext;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+import org.mule.tck.junit4.rule.Benchmark;
+
+import java.lang.reflect.Method;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Compares calling a component method through reflection and through a generated
+ * {@link MethodInvoker}, alone and as part of the resolution of an entry point by a
+ * {@link DefaultEntryPointResolverSet} configured like the legacy one.
+ */
+public class EntryPointResolverBenchmarkTestCase extends AbstractMuleContextTestCase
+{
+
+    private static final int WARM_UP_CALLS = 200000;
+    private static final int CALLS = 5000000;
+    private static final int RESOLUTIONS = 500000;
+
+    @Rule
+    public Benchmark benchmark = new Benchmark();
+
+    private final Component component = new Component();
+    private Method method;
+
+    @Before
+    public void lookUpMethod() throws Exception
+    {
+        method = Component.class.getMethod("process", String.class);
+    }
+
+    @Test
+    public void testInvokers() throws Exception
+    {
+        run("reflective invoker", new MethodInvokerFactory(false).createInvoker(method));
+        run("generated invoker", new MethodInvokerFactory(true).createInvoker(method));
+    }
+
+    @Test
+    public void testResolverSet() throws Exception
+    {
+        MuleEventContext context = getTestEventContext("payload");
+        resolve("reflective resolution", newResolverSet(false), context);
+        resolve("generated resolution", newResolverSet(true), context);
+    }
+
+    private void run(String name, MethodInvoker invoker) throws Exception
+    {
+        Object[] arguments = new Object[]{"payload"};
+        assertEquals(7, invoker.invoke(component, arguments));
+        for (int i = 0; i < WARM_UP_CALLS; i++)
+        {
+            invoker.invoke(component, arguments);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++)
+        {
+            invoker.invoke(component, arguments);
+        }
+        report(name, CALLS, System.nanoTime() - start);
+    }
+
+    private void resolve(String name, DefaultEntryPointResolverSet resolverSet, MuleEventContext context)
+        throws Exception
+    {
+        assertEquals(7, resolverSet.invoke(component, context));
+        for (int i = 0; i < WARM_UP_CALLS / 10; i++)
+        {
+            resolverSet.invoke(component, context);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RESOLUTIONS; i++)
+        {
+            resolverSet.invoke(component, context);
+        }
+        report(name, RESOLUTIONS, System.nanoTime() - start);
+    }
+
+    private DefaultEntryPointResolverSet newResolverSet(boolean generateInvokers)
+    {
+        ReflectionEntryPointResolver reflectionResolver = new ReflectionEntryPointResolver();
+        reflectionResolver.setInvokerFactory(new MethodInvokerFactory(generateInvokers));
+
+        DefaultEntryPointResolverSet resolverSet = new DefaultEntryPointResolverSet();
+        resolverSet.addEntryPointResolver(new MethodHeaderPropertyEntryPointResolver());
+        resolverSet.addEntryPointResolver(new CallableEntryPointResolver());
+        resolverSet.addEntryPointResolver(reflectionResolver);
+        return resolverSet;
+    }
+
+    private void report(String name, int calls, long elapsed)
+    {
+        logger.info(String.format("%s: %d calls in %d ms, %.1f ns per call", name, calls, elapsed / 1000000,
+            (double) elapsed / calls));
+    }
+
+    public static class Component
+    {
+
+        public Integer process(String payload)
+        {
+            return payload.length();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.model.resolvers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+@SmallTest
+public class MethodInvokerFactoryTestCase extends AbstractMuleTestCase
+{
+
+    private final MethodInvokerFactory factory = new MethodInvokerFactory(true);
+
+    @Test
+    public void invokesObjectMethod() throws Exception
+    {
+        MethodInvoker invoker = generate(Component.class.getMethod("concat", String.class, Object.class));
+
+        assertEquals("a1", invoker.invoke(new Component(), new Object[]{"a", 1}));
+    }
+
+    @Test
+    public void unboxesAndBoxesPrimitives() throws Exception
+    {
+        MethodInvoker invoker = generate(Component.class.getMethod("add", int.class, long.class));
+
+        assertEquals(5L, invoker.invoke(new Component(), new Object[]{2, 3}));
+    }
+
+    @Test
+    public void returnsNullForVoidMethods() throws Exception
+    {
+        Component component = new Component();
+        MethodInvoker invoker = generate(Component.class.getMethod("store", String.class));
+
+        assertNull(invoker.invoke(component, new Object[]{"stored"}));
+        assertEquals("stored", component.stored);
+    }
+
+    @Test
+    public void invokesStaticMethods() throws Exception
+    {
+        MethodInvoker invoker = generate(Component.class.getMethod("twice", String.class));
+
+        assertEquals("bb", invoker.invoke(null, new Object[]{"b"}));
+    }
+
+    @Test
+    public void invokesInterfaceMethods() throws Exception
+    {
+        MethodInvoker invoker = generate(Callable.class.getMethod("call"));
+
+        // interfaces of the JDK are not visible from the bootstrap class loader
+        assertTrue(invoker instanceof MethodInvokerFactory.ReflectiveMethodInvoker);
+        assertEquals("called", invoker.invoke(new Component(), new Object[0]));
+    }
+
+    @Test
+    public void wrapsExceptions() throws Exception
+    {
+        MethodInvoker invoker = generate(Component.class.getMethod("fail"));
+        try
+        {
+            invoker.invoke(new Component(), new Object[0]);
+            fail("Exception expected");
+        }
+        catch (InvocationTargetException e)
+        {
+            assertSame(Component.FAILURE, e.getTargetException());
+        }
+    }
+
+    @Test
+    public void widensPrimitivesAsReflectionDoes() throws Exception
+    {
+        java.lang.reflect.Method add = Component.class.getMethod("add", int.class, long.class);
+        Object[] arguments = new Object[]{'a', (byte) 2};
+
+        assertEquals(99L, generate(add).invoke(new Component(), arguments));
+        assertEquals(99L, new MethodInvokerFactory(false).createInvoker(add).invoke(new Component(), arguments));
+    }
+
+    @Test
+    public void rejectsArgumentsAsReflectionDoes() throws Exception
+    {
+        java.lang.reflect.Method add = Component.class.getMethod("add", int.class, long.class);
+        java.lang.reflect.Method concat = Component.class.getMethod("concat", String.class, Object.class);
+
+        assertRejected(add, new Component(), new Object[]{2L, 3}, IllegalArgumentException.class);
+        assertRejected(add, new Component(), new Object[]{2.5, 3}, IllegalArgumentException.class);
+        assertRejected(add, new Component(), new Object[]{null, 3}, IllegalArgumentException.class);
+        assertRejected(add, new Component(), new Object[]{"2", 3}, IllegalArgumentException.class);
+        assertRejected(add, new Component(), new Object[]{2}, IllegalArgumentException.class);
+        assertRejected(concat, new Component(), new Object[]{1, "a"}, IllegalArgumentException.class);
+        assertRejected(concat, new Object(), new Object[]{"a", "b"}, IllegalArgumentException.class);
+        assertRejected(concat, null, new Object[]{"a", "b"}, NullPointerException.class);
+    }
+
+    @Test
+    public void usesReflectionForNonPublicClasses() throws Exception
+    {
+        MethodInvoker invoker = factory.createInvoker(HiddenComponent.class.getMethod("echo", String.class));
+
+        assertTrue(invoker instanceof MethodInvokerFactory.ReflectiveMethodInvoker);
+    }
+
+    @Test
+    public void usesReflectionWhenDisabled() throws Exception
+    {
+        MethodInvoker invoker = new MethodInvokerFactory(false).createInvoker(Component.class.getMethod("fail"));
+
+        assertTrue(invoker instanceof MethodInvokerFactory.ReflectiveMethodInvoker);
+    }
+
+    private void assertRejected(java.lang.reflect.Method method, Object target, Object[] arguments,
+                                Class<? extends Exception> expected) throws Exception
+    {
+        for (MethodInvoker invoker : new MethodInvoker[]{generate(method),
+            new MethodInvokerFactory(false).createInvoker(method)})
+        {
+            try
+            {
+                invoker.invoke(target, arguments);
+                fail("Exception expected");
+            }
+            catch (Exception e)
+            {
+                assertEquals(expected, e.getClass());
+            }
+        }
+    }
+
+    private MethodInvoker generate(java.lang.reflect.Method method)
+    {
+        MethodInvoker invoker = factory.createInvoker(method);
+        if (method.getDeclaringClass() == Component.class)
+        {
+            assertTrue(invoker instanceof GeneratedMethodInvoker);
+        }
+        return invoker;
+    }
+
+    public static class Component implements Callable<String>
+    {
+
+        static final RuntimeException FAILURE = new IllegalStateException();
+
+        String stored;
+
+        public String concat(String a, Object b)
+        {
+            return a + b;
+        }
+
+        public long add(int a, long b)
+        {
+            return a + b;
+        }
+
+        public void store(String value)
+        {
+            stored = value;
+        }
+
+        public static String twice(String value)
+        {
+            return value + value;
+        }
+
+        public String call()
+        {
+            return "called";
+        }
+
+        public void fail()
+        {
+            throw FAILURE;
+        }
+    }
+
+    static class HiddenComponent
+    {
+
+        public String echo(String value)
+        {
+            return value;
+        }
+    }
+}
@@ -11,6 +11,7 @@
 package org.mule.processor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
@@ -37,9 +38,12 @@ import org.mule.api.processor.MessageProcessor;
 import org.mule.config.ChainedThreadingProfile;
 import org.mule.config.QueueProfile;
 import org.mule.construct.Flow;
+import org.mule.management.stats.FlowConstructStatistics;
 import org.mule.management.stats.QueueStatistics;
 import org.mule.processor.strategy.AsynchronousProcessingStrategy;
 import org.mule.service.Pausable;
+import org.mule.tck.probe.PollingProber;
+import org.mule.tck.probe.Probe;
 import org.mule.util.concurrent.Latch;
 
 import java.beans.ExceptionListener;
@@ -152,6 +156,84 @@ public class SedaStageInterceptingMessageProcessorTestCase extends AsyncIntercep
 
     }
 
+    @Test
+    public void testThrottlesWhenOccupancyCrossesWatermarks() throws Exception
+    {
+        final Latch latch = new Latch();
+        ThreadingProfile threadingProfile = new ChainedThreadingProfile(
+            muleContext.getDefaultThreadingProfile());
+        // 1 thread for polling, 1 to process work
+        threadingProfile.setMaxThreadsActive(2);
+        threadingProfile.setPoolExhaustedAction(ThreadingProfile.WHEN_EXHAUSTED_WAIT);
+        threadingProfile.setMuleContext(muleContext);
+
+        MessageProcessor mockListener = mock(MessageProcessor.class);
+        when(mockListener.process((MuleEvent)any())).thenAnswer(new Answer<MuleEvent>()
+        {
+            public MuleEvent answer(InvocationOnMock invocation) throws Throwable
+            {
+                latch.await();
+                return (MuleEvent)invocation.getArguments()[0];
+            }
+        });
+
+        // capacity is 10 queued events plus 2 workers
+        QueueProfile boundedQueueProfile = new QueueProfile(queueProfile);
+        boundedQueueProfile.setMaxOutstandingMessages(10);
+        boundedQueueProfile.setHighWatermark(80);
+        boundedQueueProfile.setLowWatermark(50);
+        final FlowConstructStatistics statistics = new FlowConstructStatistics("Flow", "testThrottles");
+
+        SedaStageInterceptingMessageProcessor sedaStageInterceptingMessageProcessor = new SedaStageInterceptingMessageProcessor(
+            "testThrottles", "testThrottles", boundedQueueProfile, queueTimeout, threadingProfile, statistics,
+            muleContext);
+        sedaStageInterceptingMessageProcessor.setListener(mockListener);
+        sedaStageInterceptingMessageProcessor.initialise();
+        sedaStageInterceptingMessageProcessor.start();
+
+        Flow flow = mock(Flow.class);
+        when(flow.getExceptionListener()).thenReturn(mock(MessagingExceptionHandler.class));
+        when(flow.getProcessingStrategy()).thenReturn(new AsynchronousProcessingStrategy());
+        MuleEvent event = getTestEvent(TEST_MESSAGE, flow, MessageExchangePattern.ONE_WAY);
+
+        for (int i = 0; i < 9; i++)
+        {
+            sedaStageInterceptingMessageProcessor.process(event);
+        }
+        assertFalse(statistics.isThrottling());
+
+        sedaStageInterceptingMessageProcessor.process(event);
+        new PollingProber(RECEIVE_TIMEOUT, 50).check(new Probe()
+        {
+            public boolean isSatisfied()
+            {
+                return statistics.isThrottling();
+            }
+
+            public String describeFailure()
+            {
+                return "Stage should throttle at " + statistics.getQueueOccupancy() + "% occupancy";
+            }
+        });
+        assertEquals(1, statistics.getThrottleCount());
+
+        latch.release();
+        new PollingProber(RECEIVE_TIMEOUT, 50).check(new Probe()
+        {
+            public boolean isSatisfied()
+            {
+                return !statistics.isThrottling() && statistics.getQueueOccupancy() == 0;
+            }
+
+            public String describeFailure()
+            {
+                return "Stage should stop throttling once drained, occupancy is "
+                       + statistics.getQueueOccupancy() + "%";
+            }
+        });
+        sedaStageInterceptingMessageProcessor.stop();
+    }
+
     @Test
     public void testProcessOneWayWithException() throws Exception
     {
@@ -306,6 +388,42 @@ public class SedaStageInterceptingMessageProcessorTestCase extends AsyncIntercep
         {
             return true;
         }
+
+        @Override
+        public void updateQueueOccupancy(int occupancy, int highWatermark, int lowWatermark)
+        {
+            // not tracked
+        }
+
+        @Override
+        public int getQueueOccupancy()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean isThrottling()
+        {
+            return false;
+        }
+
+        @Override
+        public long getThrottleCount()
+        {
+            return 0;
+        }
+
+        @Override
+        public void incSourcePause()
+        {
+            // not tracked
+        }
+
+        @Override
+        public long getSourcePauses()
+        {
+            return 0;
+        }
     }
 
     class TestLifeCycleState implements LifecycleState, Lifecycle
@@ -0,0 +1,126 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.mule.MessageExchangePattern;
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.config.ThreadingProfile;
+import org.mule.api.processor.MessageProcessor;
+import org.mule.config.ChainedThreadingProfile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class WorkStealingInterceptingMessageProcessorTestCase extends AsyncInterceptingMessageProcessorTestCase
+{
+
+    private static final int EVENTS_PER_CORRELATION_ID = 20;
+
+    private List<WorkStealingInterceptingMessageProcessor> started = new ArrayList<WorkStealingInterceptingMessageProcessor>();
+
+    @Override
+    protected void doTearDown() throws Exception
+    {
+        for (WorkStealingInterceptingMessageProcessor processor : started)
+        {
+            processor.stop();
+        }
+        super.doTearDown();
+    }
+
+    @Test
+    public void testCorrelationAffinity() throws Exception
+    {
+        final String[] correlationIds = {"a", "b", "c"};
+        final CountDownLatch done = new CountDownLatch(correlationIds.length * EVENTS_PER_CORRELATION_ID);
+        final Map<String, Set<Thread>> threads = new HashMap<String, Set<Thread>>();
+        final Map<String, List<String>> payloads = new HashMap<String, List<String>>();
+        for (String correlationId : correlationIds)
+        {
+            threads.put(correlationId, new HashSet<Thread>());
+            payloads.put(correlationId, new ArrayList<String>());
+        }
+
+        MessageProcessor listener = new MessageProcessor()
+        {
+            public MuleEvent process(MuleEvent event) throws MuleException
+            {
+                String correlationId = event.getMessage().getCorrelationId();
+                synchronized (threads)
+                {
+                    threads.get(correlationId).add(Thread.currentThread());
+                    payloads.get(correlationId).add(event.getMessageAsString());
+                }
+                done.countDown();
+                return event;
+            }
+        };
+        WorkStealingInterceptingMessageProcessor processor = createProcessor(listener, true);
+
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < EVENTS_PER_CORRELATION_ID; i++)
+        {
+            expected.add(TEST_MESSAGE + i);
+            for (String correlationId : correlationIds)
+            {
+                MuleEvent event = getTestEvent(TEST_MESSAGE + i,
+                    getTestInboundEndpoint(MessageExchangePattern.ONE_WAY));
+                event.getMessage().setCorrelationId(correlationId);
+                processor.process(event);
+            }
+        }
+
+        assertTrue(done.await(RECEIVE_TIMEOUT, TimeUnit.MILLISECONDS));
+        synchronized (threads)
+        {
+            for (String correlationId : correlationIds)
+            {
+                assertEquals(1, threads.get(correlationId).size());
+                assertEquals(expected, payloads.get(correlationId));
+            }
+        }
+    }
+
+    @Override
+    protected AsyncInterceptingMessageProcessor createAsyncInterceptingMessageProcessor(MessageProcessor listener)
+        throws Exception
+    {
+        return createProcessor(listener, false);
+    }
+
+    private WorkStealingInterceptingMessageProcessor createProcessor(MessageProcessor listener,
+                                                                    boolean correlationAffinity)
+        throws Exception
+    {
+        ThreadingProfile threadingProfile = new ChainedThreadingProfile(muleContext.getDefaultThreadingProfile());
+        threadingProfile.setMaxThreadsActive(4);
+        threadingProfile.setMaxBufferSize(0);
+        WorkStealingInterceptingMessageProcessor mp = new WorkStealingInterceptingMessageProcessor(
+            threadingProfile, "test.workStealing", 1000, correlationAffinity);
+        mp.setMuleContext(muleContext);
+        mp.setListener(listener);
+        mp.start();
+        started.add(mp);
+        return mp;
+    }
+}
@@ -16,12 +16,17 @@ import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import org.mule.DefaultMuleEvent;
 import org.mule.DefaultMuleMessage;
 import org.mule.MessageExchangePattern;
 import org.mule.VoidMuleEvent;
+import org.mule.api.MessagingException;
 import org.mule.api.MuleContext;
 import org.mule.api.MuleEvent;
 import org.mule.api.MuleException;
@@ -36,13 +41,19 @@ import org.mule.api.processor.InterceptingMessageProcessor;
 import org.mule.api.processor.MessageProcessor;
 import org.mule.api.processor.MessageProcessorBuilder;
 import org.mule.api.processor.MessageProcessorChain;
+import org.mule.api.context.notification.ServerNotification;
 import org.mule.construct.Flow;
+import org.mule.context.notification.MessageProcessorNotification;
+import org.mule.context.notification.ServerNotificationManager;
 import org.mule.processor.AbstractInterceptingMessageProcessor;
 import org.mule.tck.junit4.AbstractMuleTestCase;
 import org.mule.tck.size.SmallTest;
 import org.mule.transformer.simple.StringAppendTransformer;
 import org.mule.util.ObjectUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
@@ -634,6 +645,65 @@ public class DefaultMessageProcessorChainTestCase extends AbstractMuleTestCase
             restul.getMessage().getPayload());
     }
 
+    @Test
+    public void testExceptionIsWrappedInMessagingException() throws Exception
+    {
+        final RuntimeException cause = new RuntimeException();
+        MessageProcessor failing = new MessageProcessor()
+        {
+            public MuleEvent process(MuleEvent event) throws MuleException
+            {
+                throw cause;
+            }
+        };
+        AppendingMP mp = new AppendingMP("1");
+        MessageProcessorChain chain = new DefaultMessageProcessorChainBuilder().chain(failing, mp).build();
+        try
+        {
+            chain.process(getTestEventUsingFlow("0"));
+            fail("Exception expected");
+        }
+        catch (MessagingException e)
+        {
+            assertSame(cause, e.getCause());
+            assertSame(failing, e.getFailingMessageProcessor());
+        }
+        assertNull(mp.event);
+    }
+
+    @Test
+    public void testNotificationsFiredForEachProcessorOfPipeline() throws Exception
+    {
+        AppendingMP mp1 = new AppendingMP("1");
+        AppendingMP mp2 = new AppendingMP("2");
+        ServerNotificationManager notificationManager = mock(ServerNotificationManager.class);
+        Mockito.when(notificationManager.isNotificationEnabled(MessageProcessorNotification.class)).thenReturn(true);
+        Mockito.when(muleContext.getNotificationManager()).thenReturn(notificationManager);
+        MuleEvent event = getTestEventUsingFlow("0");
+        Mockito.when(event.isNotificationsEnabled()).thenReturn(true);
+        Flow flow = (Flow) event.getFlowConstruct();
+        Mockito.when(flow.getProcessorPath(mp1)).thenReturn("/flow/processors/0");
+        Mockito.when(flow.getProcessorPath(mp2)).thenReturn("/flow/processors/1");
+
+        MessageProcessorChain chain = new DefaultMessageProcessorChainBuilder().chain(mp1, mp2).build();
+        assertEquals("012", chain.process(event).getMessage().getPayload());
+
+        verify(notificationManager, times(4)).fireNotification(any(ServerNotification.class));
+    }
+
+    @Test
+    public void testCompiledChainSeesReplacedProcessor() throws Exception
+    {
+        List<MessageProcessor> processors = new ArrayList<MessageProcessor>();
+        processors.add(new AppendingMP("1"));
+        processors.add(new AppendingMP("2"));
+        DefaultMessageProcessorChain chain = new DefaultMessageProcessorChain(processors);
+        assertEquals("012", chain.process(getTestEventUsingFlow("0")).getMessage().getPayload());
+
+        processors.set(1, new AppendingMP("3"));
+        assertEquals("013", chain.process(getTestEventUsingFlow("0")).getMessage().getPayload());
+    }
+
     static class TestNonIntercepting implements MessageProcessor
     {
         public MuleEvent process(MuleEvent event) throws MuleException
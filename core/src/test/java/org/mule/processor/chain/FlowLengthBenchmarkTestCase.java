@@ -0,0 +1,123 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.processor.chain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.processor.MessageProcessor;
+import org.mule.api.processor.MessageProcessorChain;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+import org.mule.tck.junit4.rule.Benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Measures the overhead of a chain of trivial processors, such as the variable setters,
+ * loggers and filters of a long flow, with and without compiling the chain.
+ */
+public class FlowLengthBenchmarkTestCase extends AbstractMuleContextTestCase
+{
+
+    private static final int[] FLOW_LENGTHS = {5, 20, 100};
+    private static final int EVENTS = 200000;
+
+    @Rule
+    public Benchmark benchmark = new Benchmark();
+
+    private MuleEvent event;
+    private long processed;
+
+    @Before
+    public void createEvent() throws Exception
+    {
+        event = getTestEventUsingFlow("");
+    }
+
+    @Test
+    public void testFlowLengths() throws Exception
+    {
+        for (int length : FLOW_LENGTHS)
+        {
+            MessageProcessorChain interpreted = buildChain(length, false);
+            MessageProcessorChain compiled = buildChain(length, true);
+
+            // warm up
+            run(interpreted, length);
+            run(compiled, length);
+
+            report("interpreted", length, run(interpreted, length));
+            report("compiled", length, run(compiled, length));
+        }
+    }
+
+    private MessageProcessorChain buildChain(int length, boolean compiled) throws MuleException
+    {
+        List<MessageProcessor> processors = new ArrayList<MessageProcessor>();
+        for (int i = 0; i < length; i++)
+        {
+            processors.add(new MessageProcessor()
+            {
+                public MuleEvent process(MuleEvent event) throws MuleException
+                {
+                    processed++;
+                    return event;
+                }
+            });
+        }
+
+        String previous = System.setProperty(DefaultMessageProcessorChain.COMPILED_PROPERTY, String.valueOf(compiled));
+        try
+        {
+            return new DefaultMessageProcessorChainBuilder().chain(processors).build();
+        }
+        finally
+        {
+            if (previous == null)
+            {
+                System.clearProperty(DefaultMessageProcessorChain.COMPILED_PROPERTY);
+            }
+            else
+            {
+                System.setProperty(DefaultMessageProcessorChain.COMPILED_PROPERTY, previous);
+            }
+        }
+    }
+
+    private long run(MessageProcessorChain chain, int length) throws MuleException
+    {
+        processed = 0;
+        MuleEvent result = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++)
+        {
+            result = chain.process(event);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertSame(event, result);
+        assertEquals((long) EVENTS * length, processed);
+        return elapsed;
+    }
+
+    private void report(String name, int length, long elapsed)
+    {
+        logger.info(String.format("%s chain of %d processors: %.1f ns per event, %.1f ns per processor", name,
+            length, (double) elapsed / EVENTS, (double) elapsed / EVENTS / length));
+    }
+}
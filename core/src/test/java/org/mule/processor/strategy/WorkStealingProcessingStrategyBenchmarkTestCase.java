@@ -0,0 +1,126 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.processor.strategy;
+
+import static org.junit.Assert.assertTrue;
+
+import org.mule.MessageExchangePattern;
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.processor.MessageProcessor;
+import org.mule.api.processor.ProcessingStrategy;
+import org.mule.construct.Flow;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+import org.mule.tck.junit4.rule.Benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Measures the throughput of a flow processing a mixed workload, where one message in
+ * ten is much more expensive than the others, with the queued-asynchronous strategy and
+ * with the work-stealing strategy, with and without correlation affinity.
+ */
+public class WorkStealingProcessingStrategyBenchmarkTestCase extends AbstractMuleContextTestCase
+{
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors() * 2;
+    private static final int EVENTS = 100000;
+    private static final int CORRELATION_GROUPS = 64;
+    private static final int CHEAP_ITERATIONS = 200;
+    private static final int EXPENSIVE_ITERATIONS = 20000;
+
+    private static volatile long sink;
+
+    @Rule
+    public Benchmark benchmark = new Benchmark();
+
+    public WorkStealingProcessingStrategyBenchmarkTestCase()
+    {
+        setStartContext(true);
+    }
+
+    @Test
+    public void testStrategies() throws Exception
+    {
+        QueuedAsynchronousProcessingStrategy queued = new QueuedAsynchronousProcessingStrategy();
+        queued.setMaxThreads(THREADS);
+        WorkStealingProcessingStrategy workStealing = new WorkStealingProcessingStrategy();
+        workStealing.setMaxThreads(THREADS);
+        WorkStealingProcessingStrategy affinity = new WorkStealingProcessingStrategy();
+        affinity.setMaxThreads(THREADS);
+        affinity.setCorrelationAffinity(true);
+
+        // warm up
+        run("warmUpQueued", queued);
+        run("warmUpWorkStealing", workStealing);
+
+        report("queued-asynchronous", run("queued", queued));
+        report("work-stealing", run("workStealing", workStealing));
+        report("work-stealing with correlation affinity", run("affinity", affinity));
+    }
+
+    private long run(String name, ProcessingStrategy processingStrategy) throws Exception
+    {
+        final CountDownLatch done = new CountDownLatch(EVENTS);
+        Flow flow = new Flow(name, muleContext);
+        flow.setProcessingStrategy(processingStrategy);
+        flow.setMessageProcessors(Collections.<MessageProcessor> singletonList(new MessageProcessor()
+        {
+            public MuleEvent process(MuleEvent event) throws MuleException
+            {
+                int index = (Integer) event.getMessage().getPayload();
+                work(index % 10 == 0 ? EXPENSIVE_ITERATIONS : CHEAP_ITERATIONS);
+                done.countDown();
+                return event;
+            }
+        }));
+        flow.initialise();
+        flow.start();
+        try
+        {
+            long start = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++)
+            {
+                MuleEvent event = getTestEvent(i, flow, MessageExchangePattern.ONE_WAY);
+                event.getMessage().setCorrelationId("group" + (i % CORRELATION_GROUPS));
+                flow.process(event);
+            }
+            assertTrue(done.await(5, TimeUnit.MINUTES));
+            return System.nanoTime() - start;
+        }
+        finally
+        {
+            flow.stop();
+            flow.dispose();
+        }
+    }
+
+    private static void work(int iterations)
+    {
+        long value = iterations;
+        for (int i = 0; i < iterations; i++)
+        {
+            value = value * 31 + i;
+        }
+        sink = value;
+    }
+
+    private void report(String name, long elapsed)
+    {
+        logger.info(String.format("%s with %d threads: %d events in %d ms, %.0f events per second", name,
+            THREADS, EVENTS, elapsed / 1000000, EVENTS * 1000000000.0 / elapsed));
+    }
+}
@@ -9,6 +9,7 @@
  */
 package org.mule.registry;
 
+import org.mule.api.transformer.DataType;
 import org.mule.api.transformer.DiscoverableTransformer;
 import org.mule.api.transformer.Transformer;
 import org.mule.api.transformer.TransformerException;
@@ -23,6 +24,7 @@ import java.io.FilterInputStream;
 import org.junit.Test;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class TransformerCachingTestCase extends AbstractMuleContextTestCase
@@ -53,6 +55,26 @@ public class TransformerCachingTestCase extends AbstractMuleContextTestCase
         assertTrue(trans instanceof ObjectToByteArray);
     }
 
+    @Test
+    public void testCacheUpdateWithInternedDataTypes() throws Exception
+    {
+        DataType<?> sourceType = DataTypeFactory.intern(FilterInputStream.class);
+        Transformer trans = muleContext.getRegistry().lookupTransformer(sourceType, DataType.BYTE_ARRAY_DATA_TYPE);
+        assertTrue(trans instanceof ObjectToByteArray);
+        assertSame(trans, muleContext.getRegistry().lookupTransformer(sourceType, DataType.BYTE_ARRAY_DATA_TYPE));
+
+        Transformer trans2 = new FilterInputStreamToByteArray();
+        muleContext.getRegistry().registerTransformer(trans2);
+
+        trans = muleContext.getRegistry().lookupTransformer(sourceType, DataType.BYTE_ARRAY_DATA_TYPE);
+        assertTrue(trans instanceof FilterInputStreamToByteArray);
+
+        muleContext.getRegistry().unregisterTransformer(trans2.getName());
+
+        trans = muleContext.getRegistry().lookupTransformer(sourceType, DataType.BYTE_ARRAY_DATA_TYPE);
+        assertTrue(trans instanceof ObjectToByteArray);
+    }
+
     public static class FilterInputStreamToByteArray extends AbstractTransformer implements DiscoverableTransformer
     {
         public FilterInputStreamToByteArray()
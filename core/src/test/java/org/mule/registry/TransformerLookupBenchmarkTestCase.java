@@ -0,0 +1,131 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.mule.api.MuleMessage;
+import org.mule.api.registry.MuleRegistry;
+import org.mule.api.transformer.DataType;
+import org.mule.api.transformer.Transformer;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+import org.mule.tck.junit4.rule.Benchmark;
+import org.mule.transformer.types.DataTypeFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Measures the time and the memory allocated by resolving the transformer of an
+ * auto-transformation, with datatypes created for each lookup, as before, and with
+ * interned datatypes, which are resolved by identity and should allocate nothing.
+ * <p/>
+ * Allocation is only reported on JVMs that can measure it per thread.
+ */
+public class TransformerLookupBenchmarkTestCase extends AbstractMuleContextTestCase
+{
+
+    private static final int WARM_UP_LOOKUPS = 200000;
+    private static final int LOOKUPS = 2000000;
+
+    @Rule
+    public Benchmark benchmark = new Benchmark();
+
+    private MuleRegistry registry;
+    private MuleMessage message;
+
+    @Before
+    public void setUpMessage() throws Exception
+    {
+        registry = muleContext.getRegistry();
+        message = getTestEvent(TEST_MESSAGE.getBytes()).getMessage();
+    }
+
+    @Test
+    public void testLookups() throws Exception
+    {
+        run("created datatypes", new Lookup()
+        {
+            public Transformer lookup() throws Exception
+            {
+                return registry.lookupTransformer(DataTypeFactory.createFromObject(message), DataTypeFactory.create(String.class));
+            }
+        });
+        run("interned datatypes", new Lookup()
+        {
+            public Transformer lookup() throws Exception
+            {
+                return registry.lookupTransformer(DataTypeFactory.internFromObject(message), DataTypeFactory.intern(String.class));
+            }
+        });
+        run("interned resolution only", new Lookup()
+        {
+            final DataType<?> source = DataTypeFactory.intern(byte[].class);
+
+            public Transformer lookup() throws Exception
+            {
+                return registry.lookupTransformer(source, DataType.STRING_DATA_TYPE);
+            }
+        });
+    }
+
+    private void run(String name, Lookup lookup) throws Exception
+    {
+        Transformer transformer = lookup.lookup();
+        assertEquals(TEST_MESSAGE, transformer.transform(message.getPayload()));
+        for (int i = 0; i < WARM_UP_LOOKUPS; i++)
+        {
+            lookup.lookup();
+        }
+        long allocatedBefore = getAllocatedBytes();
+        Transformer last = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++)
+        {
+            last = lookup.lookup();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = getAllocatedBytes() - allocatedBefore;
+
+        // the resolved transformer is cached, every lookup must find the same one
+        assertSame(transformer, last);
+        logger.info(String.format("%s: %d lookups in %d ms, %.1f ns and %s bytes per lookup", name, LOOKUPS,
+            elapsed / 1000000, (double) elapsed / LOOKUPS,
+            allocatedBefore < 0 ? "unknown" : String.format("%.1f", (double) allocated / LOOKUPS)));
+    }
+
+    private long getAllocatedBytes()
+    {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        try
+        {
+            Method allocatedBytes = threads.getClass().getMethod("getThreadAllocatedBytes", long.class);
+            allocatedBytes.setAccessible(true);
+            return (Long) allocatedBytes.invoke(threads, Thread.currentThread().getId());
+        }
+        catch (Exception e)
+        {
+            return -1;
+        }
+    }
+
+    private interface Lookup
+    {
+
+        Transformer lookup() throws Exception;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.retry.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.mule.api.config.MuleProperties;
+import org.mule.api.retry.DelayedRetryPolicy;
+import org.mule.api.retry.RetryCallback;
+import org.mule.api.retry.RetryContext;
+import org.mule.retry.policies.SimpleRetryPolicy;
+import org.mule.retry.policies.SimpleRetryPolicyTemplate;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+import org.mule.tck.probe.PollingProber;
+import org.mule.tck.probe.Probe;
+import org.mule.tck.probe.Prober;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RetrySchedulerTestCase extends AbstractMuleContextTestCase
+{
+
+    private RetryScheduler scheduler;
+
+    @Before
+    public void createScheduler()
+    {
+        scheduler = new RetryScheduler(muleContext, "test");
+    }
+
+    @After
+    public void disposeScheduler()
+    {
+        scheduler.dispose();
+    }
+
+    @Test
+    public void retriesUntilSuccessful() throws Exception
+    {
+        FailingCallback callback = new FailingCallback(2);
+        final FutureRetryContext context = scheduler.schedule(new SimpleRetryPolicyTemplate(10, 5), callback,
+            muleContext.getWorkManager(), 0);
+
+        waitUntilReady(context);
+        assertTrue(context.isOk());
+        assertEquals(3, callback.attempts.get());
+        assertEquals(1, scheduler.getSucceededRetries());
+        assertEquals(3, scheduler.getExecutedAttempts());
+    }
+
+    @Test
+    public void stopsWhenPolicyExhausted() throws Exception
+    {
+        FailingCallback callback = new FailingCallback(Integer.MAX_VALUE);
+        final FutureRetryContext context = scheduler.schedule(new SimpleRetryPolicyTemplate(10, 2), callback,
+            muleContext.getWorkManager(), 0);
+
+        waitUntilReady(context);
+        assertFalse(context.isOk());
+        assertEquals(3, callback.attempts.get());
+        assertEquals(1, scheduler.getExhaustedRetries());
+    }
+
+    @Test
+    public void waitingRetriesAreOnlyPending() throws Exception
+    {
+        final int retries = 50;
+        for (int i = 0; i < retries; i++)
+        {
+            scheduler.schedule(new SimpleRetryPolicyTemplate(60000, 5), new FailingCallback(1),
+                muleContext.getWorkManager(), 0);
+        }
+
+        new PollingProber(5000, 50).check(new Probe()
+        {
+            public boolean isSatisfied()
+            {
+                return scheduler.getPendingRetries() == retries;
+            }
+
+            public String describeFailure()
+            {
+                return "Expected " + retries + " pending retries but were " + scheduler.getPendingRetries();
+            }
+        });
+        assertEquals(0, scheduler.getInFlightRetries());
+        assertEquals(0, scheduler.getOverdueRetries());
+    }
+
+    @Test
+    public void reconnectionDoesNotHoldThreadsWhileWaiting() throws Exception
+    {
+        final RetryScheduler defaultScheduler = muleContext.getRegistry().lookupObject(
+            MuleProperties.OBJECT_DEFAULT_RETRY_SCHEDULER);
+        final int reconnections = 50;
+        for (int i = 0; i < reconnections; i++)
+        {
+            AsynchronousRetryTemplate template = new AsynchronousRetryTemplate(
+                new SimpleRetryPolicyTemplate(60000, 5));
+            template.setMuleContext(muleContext);
+            template.execute(new FailingCallback(1), muleContext.getWorkManager());
+        }
+
+        new PollingProber(5000, 50).check(new Probe()
+        {
+            public boolean isSatisfied()
+            {
+                // waiting for the next attempt, without any attempt holding a thread
+                return defaultScheduler.getPendingRetries() == reconnections
+                       && defaultScheduler.getInFlightRetries() == 0;
+            }
+
+            public String describeFailure()
+            {
+                return "Expected " + reconnections + " pending reconnections but were "
+                       + defaultScheduler.getPendingRetries() + ", with "
+                       + defaultScheduler.getInFlightRetries() + " in flight";
+            }
+        });
+        assertEquals(reconnections, defaultScheduler.getExecutedAttempts());
+    }
+
+    @Test
+    public void limitsInFlightRetries() throws Exception
+    {
+        scheduler.setMaxInFlightRetries(1);
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final AtomicInteger completed = new AtomicInteger(0);
+
+        for (int i = 0; i < 10; i++)
+        {
+            scheduler.schedule(new SimpleRetryPolicyTemplate(10, 0), new RetryCallback()
+            {
+                public void doWork(RetryContext context) throws Exception
+                {
+                    maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()));
+                    Thread.sleep(20);
+                    running.decrementAndGet();
+                    completed.incrementAndGet();
+                }
+
+                public String getWorkDescription()
+                {
+                    return "slow work";
+                }
+            }, muleContext.getWorkManager(), 0);
+        }
+
+        new PollingProber(5000, 50).check(new Probe()
+        {
+            public boolean isSatisfied()
+            {
+                return completed.get() == 10;
+            }
+
+            public String describeFailure()
+            {
+                return "Only " + completed.get() + " retries completed";
+            }
+        });
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void exponentialBackoff()
+    {
+        SimpleRetryPolicy policy = new SimpleRetryPolicy(100, 6, 2, 500, 0);
+        Exception cause = new Exception();
+
+        assertEquals(100, policy.nextRetryDelay(cause));
+        assertEquals(200, policy.nextRetryDelay(cause));
+        assertEquals(400, policy.nextRetryDelay(cause));
+        assertEquals(500, policy.nextRetryDelay(cause));
+        assertEquals(500, policy.nextRetryDelay(cause));
+        assertEquals(500, policy.nextRetryDelay(cause));
+        assertEquals(DelayedRetryPolicy.POLICY_EXHAUSTED, policy.nextRetryDelay(cause));
+    }
+
+    @Test
+    public void jitterStaysWithinBounds()
+    {
+        SimpleRetryPolicy policy = new SimpleRetryPolicy(1000, SimpleRetryPolicyTemplate.RETRY_COUNT_FOREVER, 1, 0, 0.2);
+        for (int i = 0; i < 100; i++)
+        {
+            long delay = policy.nextRetryDelay(new Exception());
+            assertTrue("Unexpected delay " + delay, delay >= 800 && delay <= 1200);
+        }
+    }
+
+    private void waitUntilReady(final FutureRetryContext context)
+    {
+        Prober prober = new PollingProber(5000, 50);
+        prober.check(new Probe()
+        {
+            public boolean isSatisfied()
+            {
+                return context.isReady();
+            }
+
+            public String describeFailure()
+            {
+                return "Retry did not complete";
+            }
+        });
+    }
+
+    private static class FailingCallback implements RetryCallback
+    {
+
+        private final int failures;
+        private final AtomicInteger attempts = new AtomicInteger(0);
+
+        public FailingCallback(int failures)
+        {
+            this.failures = failures;
+        }
+
+        public void doWork(RetryContext context) throws Exception
+        {
+            if (attempts.incrementAndGet() <= failures)
+            {
+                throw new Exception("simulated failure");
+            }
+        }
+
+        public String getWorkDescription()
+        {
+            return "failing callback";
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.tck.junit4.rule;
+
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.rules.ExternalResource;
+
+/**
+ * Skips the tests of a benchmark unless the {@link #ENABLED_SYSTEM_PROPERTY} system
+ * property is set to true, so they don't slow down the regular build. The check runs
+ * before any <code>@Before</code> method, so a skipped benchmark doesn't pay for its
+ * set up either.
+ */
+public class Benchmark extends ExternalResource
+{
+
+    public static final String ENABLED_SYSTEM_PROPERTY = "mule.test.benchmark";
+
+    public static boolean isEnabled()
+    {
+        return Boolean.getBoolean(ENABLED_SYSTEM_PROPERTY);
+    }
+
+    @Override
+    protected void before() throws Throwable
+    {
+        assumeTrue(isEnabled());
+    }
+}
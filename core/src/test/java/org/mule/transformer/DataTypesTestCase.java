@@ -15,8 +15,11 @@ import org.mule.tck.size.SmallTest;
 import org.mule.transformer.types.CollectionDataType;
 import org.mule.transformer.types.DataTypeFactory;
 import org.mule.transformer.types.MimeTypes;
+import org.mule.util.SerializationUtils;
 
 import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -26,6 +29,8 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 @SmallTest
@@ -183,6 +188,71 @@ public class DataTypesTestCase extends AbstractMuleTestCase
         assertEquals(Exception.class, ((CollectionDataType) dt).getItemType());
     }
 
+    @Test
+    public void testInternedTypes() throws Exception
+    {
+        DataType dt = DataTypeFactory.intern(String.class);
+
+        assertSame(dt, DataTypeFactory.intern(String.class));
+        assertSame(dt, DataTypeFactory.intern(String.class, MimeTypes.ANY));
+        assertSame(dt, DataType.STRING_DATA_TYPE);
+        assertTrue(DataTypeFactory.isInterned(dt));
+        assertEquals(dt, DataTypeFactory.create(String.class));
+        assertEquals(DataTypeFactory.create(String.class).hashCode(), dt.hashCode());
+
+        DataType xml = DataTypeFactory.intern(String.class, MimeTypes.XML);
+        assertSame(xml, DataTypeFactory.intern(String.class, MimeTypes.XML));
+        assertNotSame(dt, xml);
+        assertEquals(MimeTypes.XML, xml.getMimeType());
+    }
+
+    @Test
+    public void testInternedTypesStayInternedWhenDeserialized() throws Exception
+    {
+        DataType xml = DataTypeFactory.intern(String.class, MimeTypes.XML);
+
+        assertSame(xml, SerializationUtils.clone(xml));
+        assertSame(DataType.STRING_DATA_TYPE, SerializationUtils.clone(DataType.STRING_DATA_TYPE));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testInternedTypesAreImmutable() throws Exception
+    {
+        DataTypeFactory.intern(String.class).setMimeType(MimeTypes.XML);
+    }
+
+    @Test
+    public void testCollectionTypesAreNotInterned() throws Exception
+    {
+        DataType dt = DataTypeFactory.intern(List.class);
+
+        assertFalse(DataTypeFactory.isInterned(dt));
+        assertTrue(dt instanceof CollectionDataType);
+    }
+
+    @Test
+    public void testApplicationTypesAreNotInterned() throws Exception
+    {
+        URL classes = getClass().getProtectionDomain().getCodeSource().getLocation();
+        Class<?> applicationType = new URLClassLoader(new URL[] {classes}, null).loadClass(ApplicationType.class.getName());
+
+        DataType dt = DataTypeFactory.intern(applicationType);
+
+        assertFalse(DataTypeFactory.isInterned(dt));
+        assertEquals(applicationType, dt.getType());
+    }
+
+    @Test
+    public void testInternFromObject() throws Exception
+    {
+        assertSame(DataType.STRING_DATA_TYPE, DataTypeFactory.internFromObject("payload"));
+        assertSame(DataType.BYTE_ARRAY_DATA_TYPE, DataTypeFactory.internFromObject(new byte[0]));
+    }
+
+    public static class ApplicationType
+    {
+    }
+
     private List<Exception> listOfExceptionsMethod(String s)
     {
         return null;
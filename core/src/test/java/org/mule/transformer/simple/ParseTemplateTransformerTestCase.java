@@ -17,13 +17,16 @@ import static org.mockito.Mockito.when;
 
 import org.mule.api.MuleContext;
 import org.mule.api.MuleMessage;
+import org.mule.api.el.ExpressionLanguage;
 import org.mule.api.expression.ExpressionManager;
+import org.mule.api.expression.ExpressionTemplate;
 import org.mule.api.lifecycle.InitialisationException;
 import org.mule.api.transformer.TransformerException;
 import org.mule.tck.size.SmallTest;
 import org.mule.util.IOUtils;
 
 import java.io.IOException;
+import java.io.Serializable;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -91,4 +94,18 @@ public class ParseTemplateTransformerTestCase
         assertEquals("Parsed", response);
     }
 
+    @Test
+    public void testParseCompiledTemplate() throws TransformerException, InitialisationException, IOException
+    {
+        parseTemplateTransformer.setLocation(LOCATION);
+        String expectedExpression = IOUtils.getResourceAsString(LOCATION, this.getClass());
+        ExpressionTemplate template = new ExpressionTemplate(expectedExpression, new String[] {expectedExpression},
+            new String[0], new Serializable[0], mock(ExpressionLanguage.class));
+        when(mockExpressionManager.compileTemplate(expectedExpression)).thenReturn(template);
+        when(mockExpressionManager.parse(template, mockMuleMessage, false)).thenReturn("Compiled");
+        parseTemplateTransformer.initialise();
+
+        assertEquals("Compiled", parseTemplateTransformer.transformMessage(mockMuleMessage, "UTF-8"));
+        assertEquals("Compiled", parseTemplateTransformer.transformMessage(mockMuleMessage, "UTF-8"));
+    }
 }
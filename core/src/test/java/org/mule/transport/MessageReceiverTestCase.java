@@ -20,18 +20,22 @@ import org.mule.api.MuleException;
 import org.mule.api.MuleMessage;
 import org.mule.api.MuleSession;
 import org.mule.api.config.MuleConfiguration;
-import org.mule.api.construct.FlowConstruct;
+import org.mule.api.construct.Pipeline;
 import org.mule.api.endpoint.InboundEndpoint;
 import org.mule.api.processor.MessageProcessor;
 import org.mule.api.transport.MessageReceiver;
 import org.mule.api.transport.PropertyScope;
 import org.mule.endpoint.MuleEndpointURI;
+import org.mule.management.stats.FlowConstructStatistics;
 import org.mule.session.NullSessionHandler;
 import org.mule.tck.junit4.AbstractMuleTestCase;
 import org.mule.tck.size.SmallTest;
 import org.mule.tck.testmodels.mule.TestMessageReceiver;
 import org.mule.transaction.MuleTransactionConfig;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -55,6 +59,8 @@ public class MessageReceiverTestCase extends AbstractMuleTestCase
     private MuleContext muleContext;
     @Mock
     private MuleSession muleSession;
+    @Mock
+    private ScheduledExecutorService scheduler;
 
     @Before
     public void setup()
@@ -81,6 +87,45 @@ public class MessageReceiverTestCase extends AbstractMuleTestCase
         assertEquals(request, receiver.routeMessage(request).getMessage());
     }
 
+    @Test
+    public void routeMessageOneWayPausesSourceOnceWhileThrottled() throws MuleException
+    {
+        FlowConstructStatistics statistics = new FlowConstructStatistics("Flow", "test");
+        statistics.updateQueueOccupancy(90, 80, 50);
+        MessageReceiver receiver = createMessageReciever(MessageExchangePattern.ONE_WAY, statistics, true);
+
+        // messages in flight are processed without waiting, the receiver is stopped by the scheduler
+        assertNull(receiver.routeMessage(createRequestMessage()));
+        assertNull(receiver.routeMessage(createRequestMessage()));
+        assertEquals(1, statistics.getSourcePauses());
+        Mockito.verify(scheduler, Mockito.times(1)).scheduleWithFixedDelay(Mockito.any(Runnable.class),
+            Mockito.anyLong(), Mockito.anyLong(), Mockito.any(TimeUnit.class));
+    }
+
+    @Test
+    public void routeMessageRequestResponseIgnoresThrottling() throws MuleException
+    {
+        FlowConstructStatistics statistics = new FlowConstructStatistics("Flow", "test");
+        statistics.updateQueueOccupancy(90, 80, 50);
+        MessageReceiver receiver = createMessageReciever(MessageExchangePattern.REQUEST_RESPONSE, statistics, true);
+        MuleMessage request = createRequestMessage();
+
+        assertEquals(request, receiver.routeMessage(request).getMessage());
+        assertEquals(0, statistics.getSourcePauses());
+    }
+
+    @Test
+    public void routeMessageToReplySourceIgnoresThrottling() throws MuleException
+    {
+        FlowConstructStatistics statistics = new FlowConstructStatistics("Flow", "test");
+        statistics.updateQueueOccupancy(90, 80, 50);
+        MessageReceiver receiver = createMessageReciever(MessageExchangePattern.ONE_WAY, statistics, false);
+
+        assertNull(receiver.routeMessage(createRequestMessage()));
+        assertEquals(0, statistics.getSourcePauses());
+        Mockito.verifyZeroInteractions(scheduler);
+    }
+
     protected MuleMessage createRequestMessage()
     {
         MuleMessage request = Mockito.mock(MuleMessage.class);
@@ -92,14 +137,30 @@ public class MessageReceiverTestCase extends AbstractMuleTestCase
     }
 
     protected MessageReceiver createMessageReciever(MessageExchangePattern mep) throws MuleException
+    {
+        return createMessageReciever(mep, null, true);
+    }
+
+    /**
+     * @param flowSource false if the endpoint is not the message source of the flow,
+     *            e.g. it is the reply source of a request-reply
+     */
+    protected MessageReceiver createMessageReciever(MessageExchangePattern mep,
+                                                    FlowConstructStatistics statistics,
+                                                    boolean flowSource) throws MuleException
     {
         AbstractConnector connector = Mockito.mock(AbstractConnector.class);
         Mockito.when(connector.getSessionHandler()).thenReturn(new NullSessionHandler());
         Mockito.when(connector.getMuleContext()).thenReturn(muleContext);
-
-        FlowConstruct flowConstruct = Mockito.mock(FlowConstruct.class);
+        Mockito.when(connector.getScheduler()).thenReturn(scheduler);
 
         InboundEndpoint endpoint = Mockito.mock(InboundEndpoint.class);
+
+        Pipeline flowConstruct = Mockito.mock(Pipeline.class);
+        Mockito.when(flowConstruct.getStatistics()).thenReturn(statistics);
+        Mockito.when(flowConstruct.getMessageSource()).thenReturn(
+            flowSource ? endpoint : Mockito.mock(InboundEndpoint.class));
+
         Mockito.when(endpoint.getExchangePattern()).thenReturn(mep);
         Mockito.when(endpoint.getConnector()).thenReturn(connector);
         Mockito.when(endpoint.getEndpointURI()).thenReturn(new MuleEndpointURI("test://test", muleContext));
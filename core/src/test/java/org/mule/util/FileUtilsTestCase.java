@@ -12,15 +12,22 @@ package org.mule.util;
 
 import org.mule.tck.junit4.AbstractMuleTestCase;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -381,6 +388,93 @@ public class FileUtilsTestCase extends AbstractMuleTestCase
         }
     }
 
+    @Test
+    public void testTransferFromPosition() throws Exception
+    {
+        File source = createTestFile("transferSource");
+        FileUtils.writeStringToFile(source, "0123456789");
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        FileInputStream in = new FileInputStream(source);
+        try
+        {
+            FileChannel channel = in.getChannel();
+            long transferred = FileUtils.transfer(channel, 4, 100, Channels.newChannel(target));
+            assertEquals(6, transferred);
+            assertEquals("456789", target.toString());
+        }
+        finally
+        {
+            in.close();
+            source.delete();
+        }
+    }
+
+    @Test(expected = IOException.class, timeout = 5000)
+    public void testTransferFailsWhenTargetAcceptsNothing() throws Exception
+    {
+        File source = createTestFile("transferSource");
+        FileUtils.writeStringToFile(source, "0123456789");
+
+        FileInputStream in = new FileInputStream(source);
+        try
+        {
+            FileUtils.transfer(in.getChannel(), 0, 10, new WritableByteChannel()
+            {
+                public int write(ByteBuffer src)
+                {
+                    // a full non-blocking channel
+                    return 0;
+                }
+
+                public boolean isOpen()
+                {
+                    return true;
+                }
+
+                public void close()
+                {
+                    // nothing to close
+                }
+            });
+        }
+        finally
+        {
+            in.close();
+            source.delete();
+        }
+    }
+
+    @Test
+    public void testMoveFileWithChannelCopy() throws Exception
+    {
+        File source = createTestFile("moveSource");
+        FileUtils.writeStringToFile(source, "moved content");
+        File destination = new File(createTestDir("moveTarget"), "moved.txt");
+
+        FileUtils.moveFileWithChannelCopy(source, destination);
+
+        assertFalse(source.exists());
+        assertEquals("moved content", FileUtils.readFileToString(destination));
+        FileUtils.deleteTree(destination.getParentFile());
+    }
+
+    @Test(expected = IOException.class)
+    public void testMoveFileWithChannelCopyDoesNotOverwrite() throws Exception
+    {
+        File source = createTestFile("moveSource");
+        File destination = createTestFile("moveTarget");
+        try
+        {
+            FileUtils.moveFileWithChannelCopy(source, destination);
+        }
+        finally
+        {
+            source.delete();
+            destination.delete();
+        }
+    }
+
     private File createTestFile(String filePath) throws IOException
     {
         return File.createTempFile(filePath, ".junit");
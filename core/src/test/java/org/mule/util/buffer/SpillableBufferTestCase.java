@@ -0,0 +1,202 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.util.buffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+import org.mule.util.DefaultStreamCloserService;
+import org.mule.util.FileUtils;
+import org.mule.util.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SmallTest
+public class SpillableBufferTestCase extends AbstractMuleTestCase
+{
+
+    private static final int THRESHOLD = 2 * BodyBufferManager.CHUNK_SIZE;
+
+    private File directory;
+    private BodyBufferManager manager;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        directory = FileUtils.newFile(getWorkingDirectory(), "body-buffers");
+        manager = new BodyBufferManager();
+        manager.setMemoryThreshold(THRESHOLD);
+        manager.setDirectory(directory);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        manager.dispose();
+        FileUtils.deleteTree(directory);
+    }
+
+    @Test
+    public void keepsSmallBodiesInMemory() throws Exception
+    {
+        byte[] data = data(THRESHOLD - 1);
+        SpillableBuffer buffer = write(data);
+
+        assertFalse(buffer.isSpilled());
+        assertEquals(data.length, buffer.size());
+        assertArrayEquals(data, buffer.toByteArray());
+        assertArrayEquals(data, IOUtils.toByteArray(buffer.openStream(false)));
+        assertEquals(2 * BodyBufferManager.CHUNK_SIZE, manager.getMemoryInUse());
+        assertEquals(0, manager.getBuffersSpilled());
+
+        buffer.release();
+        assertEquals(0, manager.getMemoryInUse());
+    }
+
+    @Test
+    public void spillsLargeBodiesToFile() throws Exception
+    {
+        byte[] data = data(THRESHOLD * 3 + 17);
+        SpillableBuffer buffer = write(data);
+
+        assertTrue(buffer.isSpilled());
+        assertEquals(0, manager.getMemoryInUse());
+        assertEquals(1, manager.getBuffersSpilled());
+        assertEquals(data.length, manager.getBytesSpilled());
+        assertEquals(1, manager.getOpenSpillFiles());
+        assertEquals(1, directory.list().length);
+
+        InputStream in = buffer.openStream(true);
+        assertArrayEquals(data, IOUtils.toByteArray(in));
+        in.close();
+
+        assertTrue(buffer.isReleased());
+        assertEquals(0, manager.getOpenSpillFiles());
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void readsMemoryMappedFile() throws Exception
+    {
+        manager.setMemoryMapped(true);
+        byte[] data = data(THRESHOLD * 2);
+        SpillableBuffer buffer = write(data);
+
+        assertTrue(buffer.isSpilled());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeTo(out);
+        assertArrayEquals(data, out.toByteArray());
+        assertArrayEquals(data, IOUtils.toByteArray(buffer.openStream(false)));
+        buffer.release();
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void reusesPooledChunks() throws Exception
+    {
+        write(data(THRESHOLD)).release();
+        assertEquals(2, manager.getChunksAllocated());
+        assertEquals(THRESHOLD, manager.getPooledBytes());
+
+        write(data(THRESHOLD)).release();
+        assertEquals(2, manager.getChunksAllocated());
+        assertEquals(2, manager.getChunksReused());
+        assertEquals(THRESHOLD, manager.getPeakMemoryInUse());
+    }
+
+    @Test
+    public void limitsPooledMemory() throws Exception
+    {
+        manager.setMaxPooledBytes(BodyBufferManager.CHUNK_SIZE);
+        write(data(THRESHOLD)).release();
+
+        assertEquals(BodyBufferManager.CHUNK_SIZE, manager.getPooledBytes());
+    }
+
+    @Test
+    public void supportsMarkAndReset() throws Exception
+    {
+        byte[] data = data(BodyBufferManager.CHUNK_SIZE + 10);
+        InputStream in = write(data).openStream(true);
+
+        assertTrue(in.markSupported());
+        assertEquals(BodyBufferManager.CHUNK_SIZE, in.skip(BodyBufferManager.CHUNK_SIZE));
+        in.mark(0);
+        assertEquals(data[BodyBufferManager.CHUNK_SIZE] & 0xff, in.read());
+        in.reset();
+        assertEquals(10, in.available());
+        assertEquals(data[BodyBufferManager.CHUNK_SIZE] & 0xff, in.read());
+        in.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void failsToReadReleasedBuffer() throws Exception
+    {
+        SpillableBuffer buffer = write(data(10));
+        buffer.release();
+        buffer.openStream(false).read();
+    }
+
+    @Test
+    public void streamCloserReleasesBuffer() throws Exception
+    {
+        SpillableBuffer buffer = write(data(THRESHOLD + 1));
+        assertTrue(buffer.isSpilled());
+
+        new DefaultStreamCloserService().closeStream(buffer);
+
+        assertTrue(buffer.isReleased());
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void disposeDeletesSpilledFiles() throws Exception
+    {
+        write(data(THRESHOLD + 1));
+        write(data(THRESHOLD + 1));
+        assertEquals(2, manager.getOpenSpillFiles());
+
+        manager.dispose();
+
+        assertEquals(0, manager.getOpenSpillFiles());
+        assertEquals(0, directory.list().length);
+    }
+
+    private SpillableBuffer write(byte[] data) throws IOException
+    {
+        SpillableBuffer buffer = manager.createBuffer();
+        buffer.write(data[0]);
+        buffer.write(data, 1, data.length - 1);
+        buffer.close();
+        return buffer;
+    }
+
+    private byte[] data(int length)
+    {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            data[i] = (byte) (i * 31);
+        }
+        return data;
+    }
+}
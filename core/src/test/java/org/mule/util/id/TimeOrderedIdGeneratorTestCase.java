@@ -0,0 +1,145 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.util.id;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+@SmallTest
+public class TimeOrderedIdGeneratorTestCase extends AbstractMuleTestCase
+{
+
+    private static final String UUID_PATTERN = "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}";
+
+    private final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(0x1234, 0x567890, 0);
+
+    @Test
+    public void rendersIdsLikeUuids()
+    {
+        String id = generator.generateId().toString();
+
+        assertTrue(id, id.matches(UUID_PATTERN));
+        assertTrue(id, id.endsWith("1234-567890000000"));
+        java.util.UUID.fromString(id);
+    }
+
+    @Test
+    public void rendersOnlyWhenRead()
+    {
+        UniqueId id = generator.generateId();
+        assertFalse(id.isRendered());
+
+        String rendered = id.toString();
+        assertTrue(id.isRendered());
+        assertSame(rendered, id.toString());
+    }
+
+    @Test
+    public void idsOfAThreadAreIncreasing()
+    {
+        String previous = generator.generateId().toString();
+        for (int i = 0; i < 100000; i++)
+        {
+            String id = generator.generateId().toString();
+            assertTrue(previous + " >= " + id, previous.compareTo(id) < 0);
+            previous = id;
+        }
+    }
+
+    @Test
+    public void idsAreUniqueAcrossThreads() throws Exception
+    {
+        final int threads = 8;
+        final int idsPerThread = 20000;
+        final Set<String> ids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        final AtomicReference<String> duplicate = new AtomicReference<String>();
+        final CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++)
+        {
+            new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < idsPerThread; i++)
+                    {
+                        String id = generator.generateId().toString();
+                        if (!ids.add(id))
+                        {
+                            duplicate.set(id);
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+
+        assertNull(duplicate.get());
+        assertEquals(threads * idsPerThread, ids.size());
+    }
+
+    @Test
+    public void generatorsOfDifferentNodesDoNotOverlap()
+    {
+        TimeOrderedIdGenerator otherNode = new TimeOrderedIdGenerator(0x1235, 0x567890, 0);
+
+        String id = generator.generateId().toString();
+        String otherId = otherNode.generateId().toString();
+
+        assertFalse(id.substring(19).equals(otherId.substring(19)));
+    }
+
+    @Test
+    public void usesTheClusterNodeId()
+    {
+        generator.setClusterNodeId(7);
+
+        String id = generator.generateId().toString();
+
+        assertTrue(id, id.endsWith("0007-567890000000"));
+    }
+
+    @Test
+    public void threadsGetTheSlotsAgainInTheNextGeneration() throws Exception
+    {
+        final TimeOrderedIdGenerator lastSlot = new TimeOrderedIdGenerator(0x1234, 0x567890, (1L << 24) - 1);
+        final AtomicReference<String> otherId = new AtomicReference<String>();
+
+        String id = lastSlot.generateId().toString();
+        Thread thread = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                otherId.set(lastSlot.generateId().toString());
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertTrue(id, id.endsWith("1234-567890ffffff"));
+        assertTrue(otherId.get(), otherId.get().endsWith("1234-567891000000"));
+    }
+}
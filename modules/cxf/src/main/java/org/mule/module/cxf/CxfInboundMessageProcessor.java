@@ -24,6 +24,7 @@ import org.mule.api.transport.OutputHandler;
 import org.mule.config.i18n.MessageFactory;
 import org.mule.message.DefaultExceptionPayload;
 import org.mule.module.cxf.support.DelegatingOutputStream;
+import org.mule.module.cxf.support.WSDLQueryHandler;
 import org.mule.module.xml.stax.StaxSource;
 import org.mule.processor.AbstractInterceptingMessageProcessor;
 import org.mule.transformer.types.DataTypeFactory;
@@ -106,6 +107,8 @@ public class CxfInboundMessageProcessor extends AbstractInterceptingMessageProce
         if (server != null)
         {
             server.stop();
+            // the service may be redeployed with a different contract
+            WSDLQueryHandler.invalidate(server.getEndpoint().getEndpointInfo().getService());
         }
     }
 
@@ -189,6 +192,7 @@ public class CxfInboundMessageProcessor extends AbstractInterceptingMessageProce
         }
 
         ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] cached = null;
         String ct = null;
 
         for (QueryHandler qh : bus.getExtension(QueryHandlerRegistry.class).getHandlers())
@@ -196,17 +200,29 @@ public class CxfInboundMessageProcessor extends AbstractInterceptingMessageProce
             if (qh.isRecognizedQuery(wsdlUri, ctxUri, ei))
             {
                 ct = qh.getResponseContentType(wsdlUri, ctxUri);
-                qh.writeResponse(wsdlUri, ctxUri, ei, out);
-                out.flush();
+                if (qh instanceof WSDLQueryHandler)
+                {
+                    // send the cached rendering as is instead of copying it
+                    cached = ((WSDLQueryHandler) qh).getResponse(wsdlUri, ctxUri, ei);
+                }
+                else
+                {
+                    qh.writeResponse(wsdlUri, ctxUri, ei, out);
+                    out.flush();
+                }
             }
         }
 
-        String msg;
+        Object msg;
         if (ct == null)
         {
             ct = "text/plain";
             msg = "No query handler found for URL.";
         }
+        else if (cached != null)
+        {
+            msg = cached;
+        }
         else
         {
             msg = out.toString();
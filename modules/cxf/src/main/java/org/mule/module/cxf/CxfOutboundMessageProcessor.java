@@ -34,6 +34,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import javax.activation.DataHandler;
@@ -53,6 +55,12 @@ import org.apache.cxf.ws.addressing.WSAContextUtils;
 /**
  * The CxfOutboundMessageProcessor performs outbound CXF processing, sending an event
  * through the CXF client, then on to the next MessageProcessor.
+ * <p/>
+ * The configured client (or JAX-WS proxy) is shared by all the invocations going
+ * through this processor: its request and response contexts are thread local, so each
+ * thread reuses its own contexts, and CXF clones the interceptor chains from a cached
+ * template. Binding operations and proxy methods are resolved once per operation name
+ * and then reused.
  */
 public class CxfOutboundMessageProcessor extends AbstractInterceptingMessageProcessor
 {
@@ -68,6 +76,9 @@ public class CxfOutboundMessageProcessor extends AbstractInterceptingMessageProc
     private BindingProvider clientProxy;
     private String decoupledEndpoint;
 
+    private final ConcurrentMap<String, BindingOperationInfo> operationCache = new ConcurrentHashMap<String, BindingOperationInfo>();
+    private final ConcurrentMap<String, Method> methodCache = new ConcurrentHashMap<String, Method>();
+
     public CxfOutboundMessageProcessor(Client client)
     {
         this.client = client;
@@ -267,7 +278,27 @@ public class CxfOutboundMessageProcessor extends AbstractInterceptingMessageProc
         return method;
     }
 
+    /**
+     * Returns the binding operation for the given name, resolving it against the client
+     * endpoint only the first time it is requested.
+     */
     protected BindingOperationInfo getOperation(final String opName) throws Exception
+    {
+        if (opName == null)
+        {
+            return resolveOperation(opName);
+        }
+
+        BindingOperationInfo bop = operationCache.get(opName);
+        if (bop == null)
+        {
+            bop = resolveOperation(opName);
+            operationCache.put(opName, bop);
+        }
+        return bop;
+    }
+
+    protected BindingOperationInfo resolveOperation(final String opName) throws Exception
     {
         // Normally its not this hard to invoke the CXF Client, but we're
         // sending along some exchange properties, so we need to use a more advanced
@@ -319,11 +350,31 @@ public class CxfOutboundMessageProcessor extends AbstractInterceptingMessageProc
 
     private Method getMethodFromOperation(String op) throws Exception
     {
-        BindingOperationInfo bop = getOperation(op);
-        MethodDispatcher md = (MethodDispatcher)client.getEndpoint()
-            .getService()
-            .get(MethodDispatcher.class.getName());
-        return md.getMethod(bop);
+        Method method = methodCache.get(op);
+        if (method == null)
+        {
+            BindingOperationInfo bop = getOperation(op);
+            MethodDispatcher md = (MethodDispatcher)client.getEndpoint()
+                .getService()
+                .get(MethodDispatcher.class.getName());
+            method = md.getMethod(bop);
+            if (method != null)
+            {
+                methodCache.put(op, method);
+            }
+        }
+        return method;
+    }
+
+    /**
+     * Discards the resolved operations and methods, so they are looked up again on the
+     * next invocation. Needed only when the client endpoint binding is changed after
+     * this processor has been used.
+     */
+    public void clearOperationCache()
+    {
+        operationCache.clear();
+        methodCache.clear();
     }
 
     protected String getMethodOrOperationName(MuleEvent event) throws DispatchException
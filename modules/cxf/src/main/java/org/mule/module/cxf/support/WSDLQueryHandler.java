@@ -10,12 +10,16 @@
 
 package org.mule.module.cxf.support;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -44,6 +48,7 @@ import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.helpers.DOMUtils;
 import org.apache.cxf.helpers.XMLUtils;
 import org.apache.cxf.service.model.EndpointInfo;
+import org.apache.cxf.service.model.ServiceInfo;
 import org.apache.cxf.staxutils.StaxUtils;
 import org.apache.cxf.transport.http.UrlUtilities;
 import org.apache.cxf.transports.http.StemMatchingQueryHandler;
@@ -59,9 +64,22 @@ import org.xml.sax.InputSource;
  *  WSDLQueryHandler class preserved from cxf 2.3.
  *  CXF 2.5 removed the class and now relies on the WSDLGetInterceptor to perform the same logic, but the interceptor
  *  in its finally clause removes the content of the message from the exchange and it can be retrieved.
+ *  <p/>
+ *  Rendered responses are cached on the service, keyed by endpoint, base URL and query, so the definition and
+ *  schemas are only rewritten and serialized the first time a given document is requested. The cache lives as
+ *  long as the service model does and can be dropped explicitly with {@link #invalidate(ServiceInfo)}.
  */
 public class WSDLQueryHandler implements StemMatchingQueryHandler {
     private static final Logger LOG = LogUtils.getL7dLogger(WSDLQueryHandler.class);
+    private static final String RENDERED_PROPERTY = WSDLQueryHandler.class.getName() + ".Rendered";
+
+    /**
+     * Upper bound of rendered documents kept per service. The base URL comes from the request, so without a
+     * bound a client sending many different Host headers could make the cache grow without limit. Once
+     * reached, the least recently requested document is dropped.
+     */
+    public static final int MAX_RENDERED_PER_SERVICE = 256;
+
     private Bus bus;
 
     public WSDLQueryHandler(Bus b) {
@@ -104,6 +122,62 @@ public class WSDLQueryHandler implements StemMatchingQueryHandler {
     @Override
     public void writeResponse(String baseUri, String ctxUri,
                               EndpointInfo endpointInfo, OutputStream os) {
+        try {
+            os.write(getResponse(baseUri, ctxUri, endpointInfo));
+        } catch (IOException ex) {
+            throw new WSDLQueryException(new org.apache.cxf.common.i18n.Message("COULD_NOT_PROVIDE_WSDL",
+                                                     LOG,
+                                                     baseUri), ex);
+        }
+    }
+
+    /**
+     * Returns the rendered WSDL or XSD document for the query, rendering it only if it is not cached yet.
+     * The returned array is shared and must not be modified.
+     */
+    public byte[] getResponse(String baseUri, String ctxUri, EndpointInfo endpointInfo) {
+        Map<String, byte[]> rendered = getRenderedCache(endpointInfo.getService());
+        String key = endpointInfo.getName() + " " + baseUri;
+        byte[] response = rendered.get(key);
+        if (response == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            renderResponse(baseUri, ctxUri, endpointInfo, out);
+            response = out.toByteArray();
+            rendered.put(key, response);
+        }
+        return response;
+    }
+
+    /**
+     * Drops every cached definition, schema and rendered document of the service, so they are built again
+     * the next time they are requested.
+     */
+    public static void invalidate(ServiceInfo service) {
+        if (service != null) {
+            service.setProperty(WSDLQueryHandler.class.getName(), null);
+            service.setProperty(WSDLQueryHandler.class.getName() + ".Schemas", null);
+            service.setProperty(RENDERED_PROPERTY, null);
+        }
+    }
+
+    private Map<String, byte[]> getRenderedCache(ServiceInfo service) {
+        synchronized (service) {
+            Map<String, byte[]> rendered = CastUtils.cast((Map)service.getProperty(RENDERED_PROPERTY));
+            if (rendered == null) {
+                rendered = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                        return size() > MAX_RENDERED_PER_SERVICE;
+                    }
+                });
+                service.setProperty(RENDERED_PROPERTY, rendered);
+            }
+            return rendered;
+        }
+    }
+
+    protected void renderResponse(String baseUri, String ctxUri,
+                                  EndpointInfo endpointInfo, OutputStream os) {
         try {
             int idx = baseUri.toLowerCase().indexOf("?");
             Map<String, String> params = UrlUtilities.parseQueryString(baseUri.substring(idx + 1));
@@ -0,0 +1,161 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.module.cxf;
+
+import org.mule.MessageExchangePattern;
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.processor.MessageProcessor;
+import org.mule.api.transport.OutputHandler;
+import org.mule.module.cxf.builder.JaxWsClientMessageProcessorBuilder;
+import org.mule.module.cxf.builder.WebServiceMessageProcessorBuilder;
+import org.mule.module.cxf.testmodels.Echo;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+import org.mule.tck.junit4.rule.Benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Measures the number of invocations per second that a {@link CxfOutboundMessageProcessor}
+ * can perform against a CXF service running in the same JVM, so the cost of the client
+ * side setup is not hidden by network latency. The outbound processor sends each request
+ * straight to a {@link CxfInboundMessageProcessor} exposing {@link Echo}.
+ */
+public class CxfOutboundMessageProcessorBenchmarkTestCase extends AbstractMuleContextTestCase
+{
+
+    private static final int THREADS = 8;
+    private static final int WARMUP_INVOCATIONS = 2000;
+    private static final int INVOCATIONS = 20000;
+
+    @Rule
+    public Benchmark benchmark = new Benchmark();
+
+    private CxfInboundMessageProcessor service;
+    private CxfOutboundMessageProcessor client;
+
+    @Before
+    public void setUpProcessors() throws Exception
+    {
+        CxfConfiguration config = new CxfConfiguration();
+        config.setMuleContext(muleContext);
+        config.initialise();
+
+        WebServiceMessageProcessorBuilder serviceBuilder = new WebServiceMessageProcessorBuilder();
+        serviceBuilder.setConfiguration(config);
+        serviceBuilder.setServiceClass(Echo.class);
+        serviceBuilder.setMuleContext(muleContext);
+        service = serviceBuilder.build();
+        service.setListener(new MessageProcessor()
+        {
+            public MuleEvent process(MuleEvent event) throws MuleException
+            {
+                return event;
+            }
+        });
+        service.start();
+
+        JaxWsClientMessageProcessorBuilder clientBuilder = new JaxWsClientMessageProcessorBuilder();
+        clientBuilder.setConfiguration(config);
+        clientBuilder.setServiceClass(Echo.class);
+        clientBuilder.setOperation("echo");
+        clientBuilder.setMuleContext(muleContext);
+        client = clientBuilder.build();
+        client.setListener(new MessageProcessor()
+        {
+            public MuleEvent process(MuleEvent event) throws MuleException
+            {
+                try
+                {
+                    MuleEvent request = getTestEvent(event.getMessage().getPayloadAsString(),
+                        getTestInboundEndpoint(MessageExchangePattern.REQUEST_RESPONSE));
+                    MuleEvent response = service.process(request);
+
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    ((OutputHandler) response.getMessage().getPayload()).write(response, out);
+                    event.getMessage().setPayload(out.toString("UTF-8"));
+                    return event;
+                }
+                catch (MuleException e)
+                {
+                    throw e;
+                }
+                catch (Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testInvocationsPerSecond() throws Exception
+    {
+        invoke(WARMUP_INVOCATIONS);
+
+        long start = System.nanoTime();
+        invoke(INVOCATIONS);
+        long elapsed = System.nanoTime() - start;
+
+        logger.info(String.format("%d CXF invocations using %d threads in %d ms: %.0f invocations per second",
+            INVOCATIONS, THREADS, elapsed / 1000000, INVOCATIONS / (elapsed / 1000000000d)));
+    }
+
+    private void invoke(final int invocations) throws Exception
+    {
+        final AtomicInteger remaining = new AtomicInteger(invocations);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch done = new CountDownLatch(THREADS);
+
+        for (int i = 0; i < THREADS; i++)
+        {
+            new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        while (remaining.decrementAndGet() >= 0 && failure.get() == null)
+                        {
+                            String text = "echo-" + remaining.get();
+                            MuleEvent event = getTestEvent(text,
+                                getTestInboundEndpoint(MessageExchangePattern.REQUEST_RESPONSE));
+                            MuleEvent response = client.process(event);
+                            assertEquals(text, response.getMessage().getPayload());
+                        }
+                    }
+                    catch (Throwable t)
+                    {
+                        failure.compareAndSet(null, t);
+                    }
+                    finally
+                    {
+                        done.countDown();
+                    }
+                }
+            }, "cxf-benchmark-" + i).start();
+        }
+
+        done.await();
+        assertNull(failure.get());
+    }
+
+}
@@ -23,6 +23,7 @@ import org.mule.tck.junit4.AbstractMuleContextTestCase;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -85,4 +86,25 @@ public class CxfOutboundMessageProcessorTestCase extends AbstractMuleContextTest
         assertThat(gotEvent,Is.is(true));
     }
 
+    @Test
+    public void testOperationIsResolvedOnce() throws Exception
+    {
+        CxfConfiguration config = new CxfConfiguration();
+        config.setMuleContext(muleContext);
+        config.initialise();
+
+        SimpleClientMessageProcessorBuilder builder = new SimpleClientMessageProcessorBuilder();
+        builder.setConfiguration(config);
+        builder.setServiceClass(EchoService.class);
+        builder.setOperation("echo");
+        builder.setMuleContext(muleContext);
+
+        CxfOutboundMessageProcessor processor = builder.build();
+
+        MuleEvent event = getTestEvent("hello", getTestInboundEndpoint(MessageExchangePattern.REQUEST_RESPONSE));
+        assertSame(processor.getOperation(event), processor.getOperation(event));
+        assertSame(processor.getMethod(event), processor.getMethod(event));
+        assertEquals("echo", processor.getMethod(event).getName());
+    }
+
 }
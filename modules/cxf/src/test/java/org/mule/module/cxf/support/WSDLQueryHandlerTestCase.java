@@ -0,0 +1,92 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.module.cxf.support;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.mule.module.cxf.CxfConfiguration;
+import org.mule.module.cxf.CxfInboundMessageProcessor;
+import org.mule.module.cxf.builder.WebServiceMessageProcessorBuilder;
+import org.mule.module.cxf.testmodels.Echo;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+
+import org.apache.cxf.service.model.EndpointInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WSDLQueryHandlerTestCase extends AbstractMuleContextTestCase
+{
+    private static final String WSDL_URI = "http://localhost:8080/services/Echo?wsdl";
+
+    private WSDLQueryHandler handler;
+    private EndpointInfo endpointInfo;
+
+    @Before
+    public void createService() throws Exception
+    {
+        CxfConfiguration config = new CxfConfiguration();
+        config.setMuleContext(muleContext);
+        config.initialise();
+
+        WebServiceMessageProcessorBuilder builder = new WebServiceMessageProcessorBuilder();
+        builder.setConfiguration(config);
+        builder.setServiceClass(Echo.class);
+        builder.setMuleContext(muleContext);
+
+        CxfInboundMessageProcessor processor = builder.build();
+        handler = new WSDLQueryHandler(config.getCxfBus());
+        endpointInfo = processor.getServer().getEndpoint().getEndpointInfo();
+    }
+
+    @Test
+    public void rendersWsdlOnce() throws Exception
+    {
+        byte[] first = handler.getResponse(WSDL_URI, "/services/Echo", endpointInfo);
+        byte[] second = handler.getResponse(WSDL_URI, "/services/Echo", endpointInfo);
+
+        assertTrue(new String(first, "UTF-8").contains("definitions"));
+        assertSame(first, second);
+    }
+
+    @Test
+    public void cachesPerBaseUrl() throws Exception
+    {
+        byte[] local = handler.getResponse(WSDL_URI, "/services/Echo", endpointInfo);
+        byte[] other = handler.getResponse("http://otherhost:8080/services/Echo?wsdl", "/services/Echo", endpointInfo);
+
+        assertNotSame(local, other);
+    }
+
+    @Test
+    public void rendersAgainAfterInvalidation() throws Exception
+    {
+        byte[] first = handler.getResponse(WSDL_URI, "/services/Echo", endpointInfo);
+        WSDLQueryHandler.invalidate(endpointInfo.getService());
+        byte[] second = handler.getResponse(WSDL_URI, "/services/Echo", endpointInfo);
+
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void keepsRecentlyRequestedDocumentsWhenFull() throws Exception
+    {
+        byte[] first = handler.getResponse(WSDL_URI, "/services/Echo", endpointInfo);
+        for (int i = 0; i < WSDLQueryHandler.MAX_RENDERED_PER_SERVICE; i++)
+        {
+            handler.getResponse("http://host" + i + ":8080/services/Echo?wsdl", "/services/Echo", endpointInfo);
+            handler.getResponse(WSDL_URI, "/services/Echo", endpointInfo);
+        }
+
+        assertSame(first, handler.getResponse(WSDL_URI, "/services/Echo", endpointInfo));
+    }
+}
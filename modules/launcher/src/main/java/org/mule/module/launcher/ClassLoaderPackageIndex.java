@@ -0,0 +1,217 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.module.launcher;
+
+import org.mule.api.config.MuleProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * The packages that have classes in the jars and directories of a classloader, so a
+ * lookup of a class in any other package can be rejected without searching them. If
+ * any of the urls can't be listed, e.g. it is not a local file, the index is
+ * incomplete and every package is assumed to be present.
+ * <p/>
+ * The jars listed in the <code>Class-Path</code> manifest attribute of a jar are
+ * indexed as well, as the classloader searches them too.
+ * <p/>
+ * Indexing is enabled by default and can be disabled with the
+ * {@link #ENABLED_PROPERTY} system property.
+ */
+public class ClassLoaderPackageIndex
+{
+
+    public static final String ENABLED_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "classloader.packageIndex";
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    protected static final Log logger = LogFactory.getLog(ClassLoaderPackageIndex.class);
+
+    private final Set<String> packages = new HashSet<String>();
+    private final Set<String> indexedUrls = new HashSet<String>();
+    private boolean complete = true;
+
+    public ClassLoaderPackageIndex(URL[] urls)
+    {
+        for (URL url : urls)
+        {
+            if (complete)
+            {
+                index(url);
+            }
+        }
+    }
+
+    public static boolean isEnabled()
+    {
+        return Boolean.valueOf(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+
+    /**
+     * @return false if none of the urls has classes in the package of the class
+     */
+    public boolean mayContain(String className)
+    {
+        return !complete || packages.contains(getPackageName(className));
+    }
+
+    public boolean isComplete()
+    {
+        return complete;
+    }
+
+    public int getPackageCount()
+    {
+        return packages.size();
+    }
+
+    private void index(URL url)
+    {
+        if (!indexedUrls.add(url.toExternalForm()))
+        {
+            // already indexed, e.g. a jar listed in the manifest of several others
+            return;
+        }
+        File file = toFile(url);
+        if (file == null)
+        {
+            complete = false;
+            return;
+        }
+        try
+        {
+            if (file.isDirectory())
+            {
+                indexDirectory(file, "");
+            }
+            else if (file.isFile())
+            {
+                indexJar(file);
+            }
+            // a missing file has no classes
+        }
+        catch (IOException e)
+        {
+            if (logger.isDebugEnabled())
+            {
+                logger.debug(String.format("Could not index '%s', lookups won't use the package index", url), e);
+            }
+            complete = false;
+        }
+    }
+
+    private void indexJar(File file) throws IOException
+    {
+        JarFile jar = new JarFile(file);
+        try
+        {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements())
+            {
+                String entryName = entries.nextElement().getName();
+                if (entryName.endsWith(CLASS_SUFFIX))
+                {
+                    int lastSlash = entryName.lastIndexOf('/');
+                    packages.add(lastSlash < 0 ? "" : entryName.substring(0, lastSlash).replace('/', '.'));
+                }
+            }
+            Manifest manifest = jar.getManifest();
+            if (manifest != null)
+            {
+                indexClassPath(file, manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH));
+            }
+        }
+        finally
+        {
+            jar.close();
+        }
+    }
+
+    /**
+     * Indexes the urls of a <code>Class-Path</code> manifest attribute, which are
+     * relative to the jar that declares them.
+     */
+    private void indexClassPath(File jar, String classPath) throws MalformedURLException
+    {
+        if (classPath == null)
+        {
+            return;
+        }
+        URL base = jar.toURI().toURL();
+        for (String path : classPath.trim().split("\\s+"))
+        {
+            if (path.length() > 0 && complete)
+            {
+                index(new URL(base, path));
+            }
+        }
+    }
+
+    private void indexDirectory(File directory, String packageName)
+    {
+        File[] files = directory.listFiles();
+        if (files == null)
+        {
+            return;
+        }
+        for (File file : files)
+        {
+            if (file.isDirectory())
+            {
+                indexDirectory(file, packageName.length() == 0 ? file.getName() : packageName + "." + file.getName());
+            }
+            else if (file.getName().endsWith(CLASS_SUFFIX))
+            {
+                packages.add(packageName);
+            }
+        }
+    }
+
+    private File toFile(URL url)
+    {
+        if (!"file".equals(url.getProtocol()))
+        {
+            return null;
+        }
+        try
+        {
+            return new File(url.toURI());
+        }
+        catch (URISyntaxException e)
+        {
+            return new File(url.getPath());
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+
+    static String getPackageName(String className)
+    {
+        int lastDot = className.lastIndexOf('.');
+        return lastDot < 0 ? "" : className.substring(0, lastDot);
+    }
+}
@@ -16,6 +16,7 @@ import java.net.URL;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * TODO document overrides, blocked, systemPackages and syntax for specifying those.
@@ -37,6 +38,12 @@ public class FineGrainedControlClassLoader extends GoodCitizenClassLoader
     protected Set<String> overrides = new HashSet<String>();
     protected Set<String> blocked = new HashSet<String>();
 
+    protected final NegativeLookupCache negativeLookups = new NegativeLookupCache();
+    private final boolean indexEnabled = ClassLoaderPackageIndex.isEnabled();
+    // built on the first lookup, once the urls are added
+    private volatile ClassLoaderPackageIndex packageIndex;
+    private final AtomicLong indexRejections = new AtomicLong(0);
+
     public FineGrainedControlClassLoader(URL[] urls, ClassLoader parent)
     {
         this(urls, parent, Collections.<String>emptySet());
@@ -83,6 +90,39 @@ public class FineGrainedControlClassLoader extends GoodCitizenClassLoader
         {
             return result;
         }
+
+        // only misses of blocked classes, which are looked up in the urls of this
+        // classloader alone, are remembered: the parent may find a class later on
+        boolean localOnly = isOverridden(name) && isBlocked(name);
+        if (localOnly && negativeLookups.isMissing(name))
+        {
+            throw NegativeLookupCache.classNotFound(name);
+        }
+
+        try
+        {
+            result = findClassInChain(name);
+        }
+        catch (ClassNotFoundException e)
+        {
+            if (localOnly)
+            {
+                negativeLookups.addMissing(name);
+            }
+            throw e;
+        }
+
+        if (resolve)
+        {
+            resolveClass(result);
+        }
+
+        return result;
+    }
+
+    protected Class<?> findClassInChain(String name) throws ClassNotFoundException
+    {
+        Class<?> result;
         boolean overrideMatch = isOverridden(name);
 
 
@@ -93,9 +133,9 @@ public class FineGrainedControlClassLoader extends GoodCitizenClassLoader
             if (blockedMatch)
             {
                 // load this class from the child ONLY, don't attempt parent, let CNFE exception propagate
-                result = findClass(name);
+                result = findLocalClass(name);
             }
-            else
+            else if (mayContainClass(name))
             {
                 // load this class from the child
                 try
@@ -108,6 +148,11 @@ public class FineGrainedControlClassLoader extends GoodCitizenClassLoader
                     result = findParentClass(name);
                 }
             }
+            else
+            {
+                // the child doesn't have the package
+                result = findParentClass(name);
+            }
 
 
         }
@@ -120,16 +165,78 @@ public class FineGrainedControlClassLoader extends GoodCitizenClassLoader
             }
             catch (ClassNotFoundException e)
             {
+                if (!mayContainClass(name))
+                {
+                    throw e;
+                }
                 result = findClass(name);
             }
         }
 
-        if (resolve)
+        return result;
+    }
+
+    /**
+     * Looks up the class in the urls of this classloader only, rejecting it without a
+     * search if its package is not in the index.
+     */
+    protected Class<?> findLocalClass(String name) throws ClassNotFoundException
+    {
+        if (!mayContainClass(name))
         {
-            resolveClass(result);
+            throw NegativeLookupCache.classNotFound(name);
         }
+        return findClass(name);
+    }
 
-        return result;
+    /**
+     * @return false if the urls of this classloader have no classes in the package of
+     *         the class
+     */
+    protected boolean mayContainClass(String name)
+    {
+        if (!indexEnabled)
+        {
+            return true;
+        }
+        ClassLoaderPackageIndex index = packageIndex;
+        if (index == null)
+        {
+            index = new ClassLoaderPackageIndex(getURLs());
+            packageIndex = index;
+        }
+        if (index.mayContain(name))
+        {
+            return true;
+        }
+        indexRejections.incrementAndGet();
+        return false;
+    }
+
+    @Override
+    protected void addURL(URL url)
+    {
+        super.addURL(url);
+        packageIndex = null;
+        negativeLookups.clear();
+    }
+
+    /**
+     * @return the number of lookups that skipped the urls of this classloader because
+     *         the package is not in them
+     */
+    public long getIndexRejections()
+    {
+        return indexRejections.get();
+    }
+
+    /**
+     * @return the number of lookups of blocked classes rejected because the class was
+     *         not found before
+     */
+    public long getNegativeLookupHits()
+    {
+        return negativeLookups.getHits();
     }
 
     public boolean isOverridden(String name)
@@ -0,0 +1,127 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.module.launcher;
+
+import org.mule.api.config.MuleProperties;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the classes a classloader could not find, so frameworks probing again for
+ * optional classes don't search the whole classloader chain every time. The number of
+ * names kept is limited by the {@link #MAX_SIZE_PROPERTY} system property, 0 disables
+ * the cache. When full, an arbitrary name is dropped to make room.
+ * <p/>
+ * Only lookups answered by the classloader alone may be remembered, not those
+ * delegated to a parent or to other classloaders, which may find the class later on.
+ * A class defined later on by the same classloader is still found, as loaded classes
+ * are looked up before this cache. The cache must be cleared when urls are added to
+ * the classloader.
+ */
+public class NegativeLookupCache
+{
+
+    public static final String MAX_SIZE_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "classloader.negativeCacheSize";
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    private final int maxSize;
+    private final ConcurrentMap<String, Boolean> missing = new ConcurrentHashMap<String, Boolean>();
+    private final AtomicLong hits = new AtomicLong(0);
+
+    public NegativeLookupCache()
+    {
+        this(Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE));
+    }
+
+    public NegativeLookupCache(int maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return true if the class was not found by a previous lookup
+     */
+    public boolean isMissing(String className)
+    {
+        if (missing.containsKey(className))
+        {
+            hits.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    public void addMissing(String className)
+    {
+        if (maxSize <= 0)
+        {
+            return;
+        }
+        if (missing.size() >= maxSize)
+        {
+            Iterator<String> names = missing.keySet().iterator();
+            if (names.hasNext())
+            {
+                names.next();
+                names.remove();
+            }
+        }
+        missing.put(className, Boolean.TRUE);
+    }
+
+    public void clear()
+    {
+        missing.clear();
+    }
+
+    public int size()
+    {
+        return missing.size();
+    }
+
+    /**
+     * @return the number of lookups rejected by the cache
+     */
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    /**
+     * Creates the exception for a lookup rejected without searching the classloaders.
+     * It doesn't fill the stack trace, which is most of the cost of failing a lookup.
+     */
+    public static ClassNotFoundException classNotFound(String className)
+    {
+        return new RejectedLookupException(className);
+    }
+
+    private static class RejectedLookupException extends ClassNotFoundException
+    {
+
+        private static final long serialVersionUID = -3425735367236127937L;
+
+        RejectedLookupException(String className)
+        {
+            super(className);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace()
+        {
+            return this;
+        }
+    }
+}
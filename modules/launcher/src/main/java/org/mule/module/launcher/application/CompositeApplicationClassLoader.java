@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -37,6 +38,8 @@ public class CompositeApplicationClassLoader extends ClassLoader implements Appl
 
     private final List<ClassLoader> classLoaders;
     private final String appName;
+    // loadClass(String, boolean) of each delegate, looked up once
+    private final Map<ClassLoader, Method> loadClassMethods = new ConcurrentHashMap<ClassLoader, Method>();
 
     public CompositeApplicationClassLoader(String appName, List<ClassLoader> classLoaders)
     {
@@ -102,7 +105,12 @@ public class CompositeApplicationClassLoader extends ClassLoader implements Appl
     {
         try
         {
-            Method loadClassMethod = findDeclaredMethod(classLoader, "loadClass", String.class, boolean.class);
+            Method loadClassMethod = loadClassMethods.get(classLoader);
+            if (loadClassMethod == null)
+            {
+                loadClassMethod = findDeclaredMethod(classLoader, "loadClass", String.class, boolean.class);
+                loadClassMethods.put(classLoader, loadClassMethod);
+            }
 
             return (Class<?>) loadClassMethod.invoke(classLoader, name, resolve);
         }
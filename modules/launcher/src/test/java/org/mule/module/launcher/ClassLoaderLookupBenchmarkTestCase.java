@@ -0,0 +1,140 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.module.launcher;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.junit4.rule.Benchmark;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Simulates the class lookups of a deployment, where frameworks probe for optional
+ * classes several times, with and without the {@link ClassLoaderPackageIndex} and the
+ * {@link NegativeLookupCache}. Half of the probed packages are blocked, the cache only
+ * remembers the misses of those.
+ */
+public class ClassLoaderLookupBenchmarkTestCase extends AbstractMuleTestCase
+{
+
+    private static final int PACKAGES = 500;
+    private static final int MISSING_CLASSES = 2000;
+    private static final int PROBES_PER_CLASS = 3;
+    private static final int DEPLOYMENTS = 10;
+
+    @Rule
+    public Benchmark benchmark = new Benchmark();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private URL[] urls;
+
+    @Before
+    public void createLibrary() throws Exception
+    {
+        String[] entries = new String[PACKAGES];
+        for (int i = 0; i < PACKAGES; i++)
+        {
+            entries[i] = "com/acme/library" + i + "/Component.class";
+        }
+        File jar = ClassLoaderPackageIndexTestCase.createJar(temporaryFolder.newFile("library.jar"), entries);
+        urls = new URL[]{jar.toURI().toURL()};
+    }
+
+    @Test
+    public void testMissingClassLookups() throws Exception
+    {
+        // warm up
+        deploy(false, false, 1);
+        deploy(true, true, 1);
+
+        report("no index, no cache", deploy(false, false, DEPLOYMENTS));
+        report("index, no cache", deploy(true, false, DEPLOYMENTS));
+        report("index and cache", deploy(true, true, DEPLOYMENTS));
+    }
+
+    private long deploy(boolean indexEnabled, boolean cacheEnabled, int deployments) throws Exception
+    {
+        String previousIndex = System.setProperty(ClassLoaderPackageIndex.ENABLED_PROPERTY,
+            String.valueOf(indexEnabled));
+        String previousCache = System.setProperty(NegativeLookupCache.MAX_SIZE_PROPERTY,
+            String.valueOf(cacheEnabled ? NegativeLookupCache.DEFAULT_MAX_SIZE : 0));
+        try
+        {
+            long start = System.nanoTime();
+            for (int d = 0; d < deployments; d++)
+            {
+                FineGrainedControlClassLoader classLoader = new FineGrainedControlClassLoader(urls,
+                    getClass().getClassLoader(), Collections.singleton("-org.blocked"));
+                int misses = 0;
+                for (int probe = 0; probe < PROBES_PER_CLASS; probe++)
+                {
+                    for (int i = 0; i < MISSING_CLASSES; i++)
+                    {
+                        String packageName = i % 2 == 0 ? "org.optional" : "org.blocked";
+                        try
+                        {
+                            classLoader.loadClass(packageName + ".feature" + (i % 50) + ".Provider" + i);
+                        }
+                        catch (ClassNotFoundException e)
+                        {
+                            // expected, the feature is not present
+                            misses++;
+                        }
+                    }
+                }
+                classLoader.close();
+
+                int blockedClasses = MISSING_CLASSES / 2;
+                int blockedSearches = cacheEnabled ? blockedClasses : blockedClasses * PROBES_PER_CLASS;
+                assertEquals(MISSING_CLASSES * PROBES_PER_CLASS, misses);
+                assertEquals(cacheEnabled ? blockedClasses * (PROBES_PER_CLASS - 1) : 0,
+                    classLoader.getNegativeLookupHits());
+                assertEquals(indexEnabled ? (MISSING_CLASSES - blockedClasses) * PROBES_PER_CLASS + blockedSearches : 0,
+                    classLoader.getIndexRejections());
+            }
+            return (System.nanoTime() - start) / deployments;
+        }
+        finally
+        {
+            restore(ClassLoaderPackageIndex.ENABLED_PROPERTY, previousIndex);
+            restore(NegativeLookupCache.MAX_SIZE_PROPERTY, previousCache);
+        }
+    }
+
+    private void restore(String property, String value)
+    {
+        if (value == null)
+        {
+            System.clearProperty(property);
+        }
+        else
+        {
+            System.setProperty(property, value);
+        }
+    }
+
+    private void report(String name, long elapsedPerDeployment)
+    {
+        int lookups = MISSING_CLASSES * PROBES_PER_CLASS;
+        logger.info(String.format("%s: %d missing lookups in %.1f ms per deployment, %.1f us per lookup", name,
+            lookups, elapsedPerDeployment / 1000000.0, elapsedPerDeployment / 1000.0 / lookups));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.module.launcher;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@SmallTest
+public class ClassLoaderPackageIndexTestCase extends AbstractMuleTestCase
+{
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void indexesThePackagesOfAJar() throws Exception
+    {
+        File jar = createJar(temporaryFolder.newFile("test.jar"), "org/foo/Bar.class", "org/foo/bar/Baz.class",
+            "Root.class", "org/resources/config.xml");
+
+        ClassLoaderPackageIndex index = new ClassLoaderPackageIndex(new URL[]{jar.toURI().toURL()});
+
+        assertTrue(index.isComplete());
+        assertEquals(3, index.getPackageCount());
+        assertTrue(index.mayContain("org.foo.Bar"));
+        assertTrue(index.mayContain("org.foo.Other"));
+        assertTrue(index.mayContain("org.foo.bar.Baz"));
+        assertTrue(index.mayContain("Root"));
+        assertFalse(index.mayContain("org.resources.Config"));
+        assertFalse(index.mayContain("org.Foo"));
+        assertFalse(index.mayContain("com.acme.Missing"));
+    }
+
+    @Test
+    public void indexesThePackagesOfADirectory() throws Exception
+    {
+        File classes = temporaryFolder.newFolder("classes");
+        File packageDir = new File(classes, "org/foo");
+        assertTrue(packageDir.mkdirs());
+        assertTrue(new File(packageDir, "Bar.class").createNewFile());
+
+        ClassLoaderPackageIndex index = new ClassLoaderPackageIndex(new URL[]{classes.toURI().toURL()});
+
+        assertTrue(index.isComplete());
+        assertTrue(index.mayContain("org.foo.Bar"));
+        assertFalse(index.mayContain("org.Bar"));
+    }
+
+    @Test
+    public void ignoresMissingFiles() throws Exception
+    {
+        File missing = new File(temporaryFolder.getRoot(), "missing.jar");
+
+        ClassLoaderPackageIndex index = new ClassLoaderPackageIndex(new URL[]{missing.toURI().toURL()});
+
+        assertTrue(index.isComplete());
+        assertFalse(index.mayContain("org.foo.Bar"));
+    }
+
+    @Test
+    public void assumesEveryPackageForRemoteUrls() throws Exception
+    {
+        ClassLoaderPackageIndex index = new ClassLoaderPackageIndex(new URL[]{new URL("http://localhost/lib.jar")});
+
+        assertFalse(index.isComplete());
+        assertTrue(index.mayContain("com.acme.Missing"));
+    }
+
+    @Test
+    public void indexesTheJarsOfTheManifestClassPath() throws Exception
+    {
+        File libDir = temporaryFolder.newFolder("lib");
+        createJar(new File(libDir, "dependency.jar"), "com/acme/Dependency.class");
+        File jar = createJarWithClassPath(temporaryFolder.newFile("test.jar"), "lib/dependency.jar lib/missing.jar",
+            "org/foo/Bar.class");
+
+        ClassLoaderPackageIndex index = new ClassLoaderPackageIndex(new URL[]{jar.toURI().toURL()});
+
+        assertTrue(index.isComplete());
+        assertTrue(index.mayContain("org.foo.Bar"));
+        assertTrue(index.mayContain("com.acme.Dependency"));
+        assertFalse(index.mayContain("com.acme.other.Missing"));
+    }
+
+    @Test
+    public void assumesEveryPackageForRemoteManifestClassPath() throws Exception
+    {
+        File jar = createJarWithClassPath(temporaryFolder.newFile("test.jar"), "http://localhost/lib.jar", "org/foo/Bar.class");
+
+        ClassLoaderPackageIndex index = new ClassLoaderPackageIndex(new URL[]{jar.toURI().toURL()});
+
+        assertFalse(index.isComplete());
+        assertTrue(index.mayContain("com.acme.Missing"));
+    }
+
+    static File createJar(File file, String... entries) throws IOException
+    {
+        return createJarWithClassPath(file, null, entries);
+    }
+
+    static File createJarWithClassPath(File file, String classPath, String... entries) throws IOException
+    {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (classPath != null)
+        {
+            manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath);
+        }
+        JarOutputStream jar = new JarOutputStream(new FileOutputStream(file), manifest);
+        try
+        {
+            for (String entry : entries)
+            {
+                jar.putNextEntry(new JarEntry(entry));
+                jar.closeEntry();
+            }
+        }
+        finally
+        {
+            jar.close();
+        }
+        return file;
+    }
+}
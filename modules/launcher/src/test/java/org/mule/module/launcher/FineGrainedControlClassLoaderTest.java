@@ -13,18 +13,29 @@ package org.mule.module.launcher;
 import org.mule.tck.junit4.AbstractMuleTestCase;
 import org.mule.tck.size.SmallTest;
 
+import java.io.File;
 import java.net.URL;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 @SmallTest
 public class FineGrainedControlClassLoaderTest extends AbstractMuleTestCase
 {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void isBlockedFQClassName() throws Exception
     {
@@ -94,4 +105,94 @@ public class FineGrainedControlClassLoaderTest extends AbstractMuleTestCase
         assertTrue(classLoader.isOverridden("org.mycompany.MyClass"));
         assertTrue(classLoader.isOverridden("org.mycompany.somepackage.MyClass"));
     }
+
+    @Test
+    public void rejectsClassesOfPackagesNotInTheUrls() throws Exception
+    {
+        FineGrainedControlClassLoader classLoader = createClassLoader();
+
+        assertNotFound(classLoader, "com.acme.Missing");
+
+        assertEquals(1, classLoader.getIndexRejections());
+    }
+
+    @Test
+    public void searchesTheUrlsForClassesOfIndexedPackages() throws Exception
+    {
+        FineGrainedControlClassLoader classLoader = createClassLoader();
+
+        assertNotFound(classLoader, "org.foo.Missing");
+
+        assertEquals(0, classLoader.getIndexRejections());
+    }
+
+    @Test
+    public void remembersMissingBlockedClasses() throws Exception
+    {
+        FineGrainedControlClassLoader classLoader = createClassLoader(Collections.singleton("-com.acme"));
+
+        assertNotFound(classLoader, "com.acme.Missing");
+        assertNotFound(classLoader, "com.acme.Missing");
+
+        assertEquals(1, classLoader.getIndexRejections());
+        assertEquals(1, classLoader.getNegativeLookupHits());
+    }
+
+    @Test
+    public void doesNotRememberClassesMissingFromTheParent() throws Exception
+    {
+        FineGrainedControlClassLoader classLoader = createClassLoader();
+
+        assertNotFound(classLoader, "com.acme.Missing");
+        assertNotFound(classLoader, "com.acme.Missing");
+
+        assertEquals(2, classLoader.getIndexRejections());
+        assertEquals(0, classLoader.getNegativeLookupHits());
+        assertEquals(0, classLoader.negativeLookups.size());
+    }
+
+    @Test
+    public void addingUrlsForgetsMissingClasses() throws Exception
+    {
+        FineGrainedControlClassLoader classLoader = createClassLoader(Collections.singleton("-com.acme"));
+        assertNotFound(classLoader, "com.acme.Missing");
+        assertEquals(1, classLoader.negativeLookups.size());
+
+        classLoader.addURL(temporaryFolder.newFolder("classes").toURI().toURL());
+
+        assertEquals(0, classLoader.negativeLookups.size());
+    }
+
+    @Test
+    public void loadsClassesOfTheParent() throws Exception
+    {
+        FineGrainedControlClassLoader classLoader = createClassLoader();
+
+        assertSame(String.class, classLoader.loadClass(String.class.getName()));
+        assertEquals(0, classLoader.getNegativeLookupHits());
+    }
+
+    private FineGrainedControlClassLoader createClassLoader() throws Exception
+    {
+        return createClassLoader(Collections.<String>emptySet());
+    }
+
+    private FineGrainedControlClassLoader createClassLoader(Set<String> overrides) throws Exception
+    {
+        File jar = ClassLoaderPackageIndexTestCase.createJar(temporaryFolder.newFile("test.jar"), "org/foo/Bar.class");
+        return new FineGrainedControlClassLoader(new URL[]{jar.toURI().toURL()}, null, overrides);
+    }
+
+    private void assertNotFound(ClassLoader classLoader, String className)
+    {
+        try
+        {
+            classLoader.loadClass(className);
+            fail("Should not find " + className);
+        }
+        catch (ClassNotFoundException e)
+        {
+            // expected
+        }
+    }
 }
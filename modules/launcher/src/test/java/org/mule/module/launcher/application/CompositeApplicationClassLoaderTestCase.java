@@ -12,6 +12,7 @@ package org.mule.module.launcher.application;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import org.mule.tck.junit4.AbstractMuleTestCase;
 import org.mule.tck.size.SmallTest;
@@ -95,6 +96,29 @@ public class CompositeApplicationClassLoaderTestCase extends AbstractMuleTestCas
         compositeApplicationClassLoader.loadClass(CLASS_NAME);
     }
 
+    @Test
+    public void findsClassesAddedToAClassLoaderAfterAMiss() throws Exception
+    {
+        List<ClassLoader> classLoaders = getClassLoaders(appClassLoader, pluginClassLoader);
+
+        CompositeApplicationClassLoader compositeApplicationClassLoader = new CompositeApplicationClassLoader(APP_NAME, classLoaders);
+
+        try
+        {
+            compositeApplicationClassLoader.loadClass(CLASS_NAME);
+            fail("Class should not be found");
+        }
+        catch (ClassNotFoundException e)
+        {
+            // expected
+        }
+
+        pluginClassLoader.addClass(CLASS_NAME, PLUGIN_LOADED_CLASS);
+
+        Class<?> aClass = compositeApplicationClassLoader.loadClass(CLASS_NAME);
+        assertThat(aClass, equalTo(PLUGIN_LOADED_CLASS));
+    }
+
     @Test
     public void loadsResourceFromAppFirst() throws Exception
     {
@@ -13,6 +13,7 @@ package org.mule.module.logging;
 import java.io.Serializable;
 
 import org.apache.log4j.Level;
+import org.apache.log4j.spi.LoggingEvent;
 import org.slf4j.Marker;
 import org.slf4j.helpers.FormattingTuple;
 import org.slf4j.helpers.MarkerIgnoringBase;
@@ -30,6 +31,9 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
 
     final transient org.apache.log4j.Logger logger;
 
+    // writes the events of the application asynchronously, null to log in the calling thread
+    final transient AsyncLogPipeline pipeline;
+
     /**
      * Following the pattern discussed in pages 162 through 168 of "The complete
      * log4j manual".
@@ -44,8 +48,14 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
     // that
     // only Log4jLoggerFactory be able to create one.
     AccessibleLog4jLoggerAdapter(org.apache.log4j.Logger logger)
+    {
+        this(logger, null);
+    }
+
+    AccessibleLog4jLoggerAdapter(org.apache.log4j.Logger logger, AsyncLogPipeline pipeline)
     {
         this.logger = logger;
+        this.pipeline = pipeline;
         this.name = logger.getName();
         traceCapable = isTraceCapable();
     }
@@ -87,7 +97,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
      */
     public void trace(String msg)
     {
-        logger.log(FQCN, traceCapable ? Level.TRACE : Level.DEBUG, msg, null);
+        forwardLog(FQCN, traceCapable ? Level.TRACE : Level.DEBUG, msg, null);
     }
 
     /**
@@ -107,7 +117,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (isTraceEnabled())
         {
             FormattingTuple ft = MessageFormatter.format(format, arg);
-            logger.log(FQCN, traceCapable ? Level.TRACE : Level.DEBUG, ft
+            forwardLog(FQCN, traceCapable ? Level.TRACE : Level.DEBUG, ft
                     .getMessage(), ft.getThrowable());
         }
     }
@@ -130,7 +140,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (isTraceEnabled())
         {
             FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-            logger.log(FQCN, traceCapable ? Level.TRACE : Level.DEBUG, ft
+            forwardLog(FQCN, traceCapable ? Level.TRACE : Level.DEBUG, ft
                     .getMessage(), ft.getThrowable());
         }
     }
@@ -152,7 +162,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (isTraceEnabled())
         {
             FormattingTuple ft = MessageFormatter.arrayFormat(format, argArray);
-            logger.log(FQCN, traceCapable ? Level.TRACE : Level.DEBUG, ft
+            forwardLog(FQCN, traceCapable ? Level.TRACE : Level.DEBUG, ft
                     .getMessage(), ft.getThrowable());
         }
     }
@@ -165,7 +175,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
      */
     public void trace(String msg, Throwable t)
     {
-        logger.log(FQCN, traceCapable ? Level.TRACE : Level.DEBUG, msg, t);
+        forwardLog(FQCN, traceCapable ? Level.TRACE : Level.DEBUG, msg, t);
     }
 
     /**
@@ -185,7 +195,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
      */
     public void debug(String msg)
     {
-        logger.log(FQCN, Level.DEBUG, msg, null);
+        forwardLog(FQCN, Level.DEBUG, msg, null);
     }
 
     /**
@@ -205,7 +215,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (logger.isDebugEnabled())
         {
             FormattingTuple ft = MessageFormatter.format(format, arg);
-            logger.log(FQCN, Level.DEBUG, ft.getMessage(), ft.getThrowable());
+            forwardLog(FQCN, Level.DEBUG, ft.getMessage(), ft.getThrowable());
         }
     }
 
@@ -227,7 +237,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (logger.isDebugEnabled())
         {
             FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-            logger.log(FQCN, Level.DEBUG, ft.getMessage(), ft.getThrowable());
+            forwardLog(FQCN, Level.DEBUG, ft.getMessage(), ft.getThrowable());
         }
     }
 
@@ -248,7 +258,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (logger.isDebugEnabled())
         {
             FormattingTuple ft = MessageFormatter.arrayFormat(format, argArray);
-            logger.log(FQCN, Level.DEBUG, ft.getMessage(), ft.getThrowable());
+            forwardLog(FQCN, Level.DEBUG, ft.getMessage(), ft.getThrowable());
         }
     }
 
@@ -260,7 +270,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
      */
     public void debug(String msg, Throwable t)
     {
-        logger.log(FQCN, Level.DEBUG, msg, t);
+        forwardLog(FQCN, Level.DEBUG, msg, t);
     }
 
     /**
@@ -280,7 +290,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
      */
     public void info(String msg)
     {
-        logger.log(FQCN, Level.INFO, msg, null);
+        forwardLog(FQCN, Level.INFO, msg, null);
     }
 
     /**
@@ -299,7 +309,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (logger.isInfoEnabled())
         {
             FormattingTuple ft = MessageFormatter.format(format, arg);
-            logger.log(FQCN, Level.INFO, ft.getMessage(), ft.getThrowable());
+            forwardLog(FQCN, Level.INFO, ft.getMessage(), ft.getThrowable());
         }
     }
 
@@ -321,7 +331,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (logger.isInfoEnabled())
         {
             FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-            logger.log(FQCN, Level.INFO, ft.getMessage(), ft.getThrowable());
+            forwardLog(FQCN, Level.INFO, ft.getMessage(), ft.getThrowable());
         }
     }
 
@@ -342,7 +352,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (logger.isInfoEnabled())
         {
             FormattingTuple ft = MessageFormatter.arrayFormat(format, argArray);
-            logger.log(FQCN, Level.INFO, ft.getMessage(), ft.getThrowable());
+            forwardLog(FQCN, Level.INFO, ft.getMessage(), ft.getThrowable());
         }
     }
 
@@ -355,7 +365,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
      */
     public void info(String msg, Throwable t)
     {
-        logger.log(FQCN, Level.INFO, msg, t);
+        forwardLog(FQCN, Level.INFO, msg, t);
     }
 
     /**
@@ -375,7 +385,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
      */
     public void warn(String msg)
     {
-        logger.log(FQCN, Level.WARN, msg, null);
+        forwardLog(FQCN, Level.WARN, msg, null);
     }
 
     /**
@@ -395,7 +405,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (logger.isEnabledFor(Level.WARN))
         {
             FormattingTuple ft = MessageFormatter.format(format, arg);
-            logger.log(FQCN, Level.WARN, ft.getMessage(), ft.getThrowable());
+            forwardLog(FQCN, Level.WARN, ft.getMessage(), ft.getThrowable());
         }
     }
 
@@ -417,7 +427,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (logger.isEnabledFor(Level.WARN))
         {
             FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-            logger.log(FQCN, Level.WARN, ft.getMessage(), ft.getThrowable());
+            forwardLog(FQCN, Level.WARN, ft.getMessage(), ft.getThrowable());
         }
     }
 
@@ -438,7 +448,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (logger.isEnabledFor(Level.WARN))
         {
             FormattingTuple ft = MessageFormatter.arrayFormat(format, argArray);
-            logger.log(FQCN, Level.WARN, ft.getMessage(), ft.getThrowable());
+            forwardLog(FQCN, Level.WARN, ft.getMessage(), ft.getThrowable());
         }
     }
 
@@ -451,7 +461,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
      */
     public void warn(String msg, Throwable t)
     {
-        logger.log(FQCN, Level.WARN, msg, t);
+        forwardLog(FQCN, Level.WARN, msg, t);
     }
 
     /**
@@ -471,7 +481,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
      */
     public void error(String msg)
     {
-        logger.log(FQCN, Level.ERROR, msg, null);
+        forwardLog(FQCN, Level.ERROR, msg, null);
     }
 
     /**
@@ -491,7 +501,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (logger.isEnabledFor(Level.ERROR))
         {
             FormattingTuple ft = MessageFormatter.format(format, arg);
-            logger.log(FQCN, Level.ERROR, ft.getMessage(), ft.getThrowable());
+            forwardLog(FQCN, Level.ERROR, ft.getMessage(), ft.getThrowable());
         }
     }
 
@@ -513,7 +523,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (logger.isEnabledFor(Level.ERROR))
         {
             FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-            logger.log(FQCN, Level.ERROR, ft.getMessage(), ft.getThrowable());
+            forwardLog(FQCN, Level.ERROR, ft.getMessage(), ft.getThrowable());
         }
     }
 
@@ -534,7 +544,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
         if (logger.isEnabledFor(Level.ERROR))
         {
             FormattingTuple ft = MessageFormatter.arrayFormat(format, argArray);
-            logger.log(FQCN, Level.ERROR, ft.getMessage(), ft.getThrowable());
+            forwardLog(FQCN, Level.ERROR, ft.getMessage(), ft.getThrowable());
         }
     }
 
@@ -547,7 +557,7 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
      */
     public void error(String msg, Throwable t)
     {
-        logger.log(FQCN, Level.ERROR, msg, t);
+        forwardLog(FQCN, Level.ERROR, msg, t);
     }
 
     public void log(Marker marker, String callerFQCN, int level, String msg,
@@ -575,7 +585,25 @@ public class AccessibleLog4jLoggerAdapter extends MarkerIgnoringBase implements
                 throw new IllegalStateException("Level number " + level
                                                 + " is not recognized.");
         }
-        logger.log(callerFQCN, log4jLevel, msg, t);
+        forwardLog(callerFQCN, log4jLevel, msg, t);
+    }
+
+    /**
+     * Logs through the asynchronous pipeline of the application when there is one,
+     * applying the same level checks as {@link org.apache.log4j.Category#log(String, org.apache.log4j.Priority, Object, Throwable)}.
+     */
+    protected void forwardLog(String callerFQCN, Level level, String msg, Throwable t)
+    {
+        if (pipeline == null)
+        {
+            logger.log(callerFQCN, level, msg, t);
+            return;
+        }
+        if (logger.getLoggerRepository().isDisabled(level.toInt()) || !level.isGreaterOrEqual(logger.getEffectiveLevel()))
+        {
+            return;
+        }
+        pipeline.publish(new LoggingEvent(callerFQCN, logger, level, msg, t));
     }
 
 }
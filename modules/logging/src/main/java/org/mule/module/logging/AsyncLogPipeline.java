@@ -0,0 +1,327 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.module.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Moves the work of the appenders of an application out of the threads that log.
+ * Logging threads only snapshot the event (thread name, NDC, MDC and rendered
+ * message) and publish it to a bounded {@link LogEventRingBuffer}, a single writer
+ * thread drains it in batches and calls the appenders, so events of the application
+ * reach them in the order they were published.
+ * <p/>
+ * Disabled by default, it is configured with system properties:
+ * <ul>
+ * <li>{@link #ASYNC_PROPERTY}: true to log asynchronously</li>
+ * <li>{@link #BUFFER_SIZE_PROPERTY}: events that can wait for the writer</li>
+ * <li>{@link #BATCH_SIZE_PROPERTY}: events handed to the appenders in one pass</li>
+ * <li>{@link #OVERFLOW_POLICY_PROPERTY}: what to do when the buffer is full, see
+ * {@link OverflowPolicy}</li>
+ * <li>{@link #LOCATION_INFO_PROPERTY}: true to capture the location of the caller,
+ * needed by layouts using %C, %F, %L, %l or %M, which is expensive</li>
+ * </ul>
+ */
+public class AsyncLogPipeline
+{
+
+    public static final String ASYNC_PROPERTY = "mule.log.async";
+    public static final String BUFFER_SIZE_PROPERTY = "mule.log.async.bufferSize";
+    public static final String BATCH_SIZE_PROPERTY = "mule.log.async.batchSize";
+    public static final String OVERFLOW_POLICY_PROPERTY = "mule.log.async.overflowPolicy";
+    public static final String LOCATION_INFO_PROPERTY = "mule.log.async.locationInfo";
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final long IDLE_PARK_NANOS = 10 * 1000 * 1000;
+    private static final long FULL_PARK_NANOS = 100 * 1000;
+
+    /**
+     * What a logging thread does when the buffer is full.
+     */
+    public enum OverflowPolicy
+    {
+        /**
+         * Waits for the writer to make room, no event is lost
+         */
+        BLOCK,
+        /**
+         * Drops the event
+         */
+        DISCARD,
+        /**
+         * Drops events below WARN, waits for the writer for the rest
+         */
+        DISCARD_BELOW_WARN,
+        /**
+         * Calls the appenders in the logging thread, the event can be written before
+         * older ones still in the buffer
+         */
+        SYNCHRONOUS
+    }
+
+    private final LogEventRingBuffer<LoggingEvent> buffer;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final boolean locationInfo;
+    private final Thread writer;
+
+    private volatile boolean running = true;
+    private volatile boolean writerWaiting = false;
+
+    private final AtomicLong published = new AtomicLong(0);
+    private final AtomicLong written = new AtomicLong(0);
+    private final AtomicLong batches = new AtomicLong(0);
+    private final AtomicLong discarded = new AtomicLong(0);
+    private final AtomicLong synchronousWrites = new AtomicLong(0);
+
+    /**
+     * @return true if the {@link #ASYNC_PROPERTY} system property enables asynchronous
+     *         logging
+     */
+    public static boolean isEnabled()
+    {
+        return Boolean.getBoolean(ASYNC_PROPERTY);
+    }
+
+    /**
+     * Creates a pipeline configured with the system properties.
+     */
+    public AsyncLogPipeline(String name)
+    {
+        this(name, Integer.getInteger(BUFFER_SIZE_PROPERTY, DEFAULT_BUFFER_SIZE),
+            Integer.getInteger(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE),
+            OverflowPolicy.valueOf(System.getProperty(OVERFLOW_POLICY_PROPERTY, OverflowPolicy.BLOCK.name()).toUpperCase()),
+            Boolean.getBoolean(LOCATION_INFO_PROPERTY));
+    }
+
+    public AsyncLogPipeline(String name, int bufferSize, int batchSize, OverflowPolicy overflowPolicy, boolean locationInfo)
+    {
+        this.buffer = new LogEventRingBuffer<LoggingEvent>(bufferSize);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.locationInfo = locationInfo;
+        this.writer = new Thread(new Writer(), name);
+        // must not keep the JVM alive, pending events are written by stop()
+        writer.setDaemon(true);
+    }
+
+    public void start()
+    {
+        writer.start();
+    }
+
+    /**
+     * Hands the event to the writer thread. Once the pipeline is stopped, and for
+     * events logged by the appenders themselves, the event is written in the calling
+     * thread.
+     */
+    public void publish(LoggingEvent event)
+    {
+        if (!running || Thread.currentThread() == writer)
+        {
+            writeSynchronously(event);
+            return;
+        }
+
+        snapshot(event);
+        if (!buffer.offer(event) && !handleOverflow(event))
+        {
+            return;
+        }
+        published.incrementAndGet();
+        if (writerWaiting)
+        {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Stops the writer thread, waiting for it to write the pending events. Events
+     * still in the buffer after the timeout are written by the calling thread.
+     */
+    public void stop(long timeout) throws InterruptedException
+    {
+        running = false;
+        LockSupport.unpark(writer);
+        if (writer.isAlive())
+        {
+            writer.join(timeout);
+        }
+        if (!writer.isAlive())
+        {
+            List<LoggingEvent> remaining = new ArrayList<LoggingEvent>();
+            buffer.drainTo(remaining, Integer.MAX_VALUE);
+            for (LoggingEvent event : remaining)
+            {
+                writeSynchronously(event);
+            }
+        }
+    }
+
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    /**
+     * @return true if the event could be published after all
+     */
+    private boolean handleOverflow(LoggingEvent event)
+    {
+        if (overflowPolicy == OverflowPolicy.DISCARD
+            || (overflowPolicy == OverflowPolicy.DISCARD_BELOW_WARN && !event.getLevel().isGreaterOrEqual(Level.WARN)))
+        {
+            discarded.incrementAndGet();
+            return false;
+        }
+        if (overflowPolicy == OverflowPolicy.SYNCHRONOUS)
+        {
+            writeSynchronously(event);
+            return false;
+        }
+
+        while (!buffer.offer(event))
+        {
+            if (!running)
+            {
+                writeSynchronously(event);
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Captures the state of the logging thread the appenders may ask for.
+     */
+    private void snapshot(LoggingEvent event)
+    {
+        event.getThreadName();
+        event.getNDC();
+        event.getMDCCopy();
+        event.getRenderedMessage();
+        if (locationInfo)
+        {
+            event.getLocationInformation();
+        }
+    }
+
+    private void writeSynchronously(LoggingEvent event)
+    {
+        synchronousWrites.incrementAndGet();
+        write(event);
+    }
+
+    protected void write(LoggingEvent event)
+    {
+        try
+        {
+            event.getLogger().callAppenders(event);
+        }
+        catch (RuntimeException e)
+        {
+            LogLog.error("Could not write the log event", e);
+        }
+    }
+
+    /**
+     * @return the number of events handed to the writer thread
+     */
+    public long getPublished()
+    {
+        return published.get();
+    }
+
+    /**
+     * @return the number of events written by the writer thread
+     */
+    public long getWritten()
+    {
+        return written.get();
+    }
+
+    public long getBatches()
+    {
+        return batches.get();
+    }
+
+    /**
+     * @return the number of events dropped because the buffer was full
+     */
+    public long getDiscarded()
+    {
+        return discarded.get();
+    }
+
+    /**
+     * @return the number of events written by the thread that logged them
+     */
+    public long getSynchronousWrites()
+    {
+        return synchronousWrites.get();
+    }
+
+    public int getPending()
+    {
+        return buffer.size();
+    }
+
+    private class Writer implements Runnable
+    {
+
+        public void run()
+        {
+            List<LoggingEvent> batch = new ArrayList<LoggingEvent>(batchSize);
+            for (;;)
+            {
+                if (buffer.drainTo(batch, batchSize) > 0)
+                {
+                    for (LoggingEvent event : batch)
+                    {
+                        write(event);
+                    }
+                    written.addAndGet(batch.size());
+                    batches.incrementAndGet();
+                    batch.clear();
+                }
+                else if (!running)
+                {
+                    if (buffer.isEmpty())
+                    {
+                        return;
+                    }
+                    // an event was claimed but is not filled yet
+                    Thread.yield();
+                }
+                else
+                {
+                    writerWaiting = true;
+                    if (buffer.isEmpty())
+                    {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    writerWaiting = false;
+                }
+            }
+        }
+    }
+}
@@ -25,6 +25,8 @@ public class DispatchingLogger implements Logger
     protected Integer originalClassLoaderHash;
     private String name;
     private MuleLoggerFactory factory;
+    // last logger resolved for a context classloader other than the original one
+    private volatile ResolvedLogger lastResolved;
 
     public DispatchingLogger(Logger originalLogger, MuleLoggerFactory factory)
     {
@@ -415,12 +417,33 @@ public class DispatchingLogger implements Logger
         }
         // trick - this is probably a logger declared in a static field
         // the classloader used to create it and the TCCL can be different
-        // ask factory for the correct instance
-        return factory.getLogger(getName(), currentCl);
+        // ask factory for the correct instance, remembering it as threads of the same
+        // application keep logging through this reference
+        final int currentClHash = currentCl.hashCode();
+        final ResolvedLogger resolved = lastResolved;
+        if (resolved != null && resolved.classLoaderHash == currentClHash)
+        {
+            return resolved.logger;
+        }
+        final Logger logger = factory.getLogger(getName(), currentCl);
+        lastResolved = new ResolvedLogger(currentClHash, logger);
+        return logger;
     }
 
     public MuleLoggerFactory getFactory()
     {
         return factory;
     }
+
+    private static final class ResolvedLogger
+    {
+        private final int classLoaderHash;
+        private final Logger logger;
+
+        private ResolvedLogger(int classLoaderHash, Logger logger)
+        {
+            this.classLoaderHash = classLoaderHash;
+            this.logger = logger;
+        }
+    }
 }
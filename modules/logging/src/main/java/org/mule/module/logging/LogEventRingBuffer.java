@@ -0,0 +1,118 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.module.logging;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded ring buffer written by many threads and read by a single one, without
+ * locks. Producers claim a sequence with a compare and set on the tail and then fill
+ * its slot, the consumer empties the slots in order and only stops at a slot that
+ * was claimed but is not filled yet.
+ */
+class LogEventRingBuffer<E>
+{
+
+    private final AtomicReferenceArray<E> slots;
+    private final int capacity;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong(0);
+    // only written by the consumer
+    private volatile long head = 0;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    LogEventRingBuffer(int capacity)
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+        {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<E>(size);
+    }
+
+    /**
+     * @return false if the buffer is full
+     */
+    boolean offer(E element)
+    {
+        for (;;)
+        {
+            long sequence = tail.get();
+            if (sequence - head >= capacity)
+            {
+                return false;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1))
+            {
+                slots.lazySet((int) sequence & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves up to <code>max</code> elements to the batch, in the order they were
+     * offered. Must only be called by the consumer thread.
+     *
+     * @return the number of elements moved
+     */
+    int drainTo(List<? super E> batch, int max)
+    {
+        long sequence = head;
+        int count = 0;
+        while (count < max)
+        {
+            int index = (int) sequence & mask;
+            E element = slots.get(index);
+            if (element == null)
+            {
+                break;
+            }
+            slots.lazySet(index, null);
+            batch.add(element);
+            sequence++;
+            count++;
+        }
+        if (count > 0)
+        {
+            // releases the slots to the producers
+            head = sequence;
+        }
+        return count;
+    }
+
+    int size()
+    {
+        return (int) (tail.get() - head);
+    }
+
+    boolean isEmpty()
+    {
+        return tail.get() == head;
+    }
+
+    int getCapacity()
+    {
+        return capacity;
+    }
+}
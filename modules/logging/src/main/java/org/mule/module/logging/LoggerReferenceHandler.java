@@ -27,10 +27,25 @@ public class LoggerReferenceHandler
     // note that this is a direct log4j logger declaration, not a clogging one
     protected org.apache.log4j.Logger logger = org.apache.log4j.Logger.getLogger(getClass());
 
+    private static final long PIPELINE_STOP_TIMEOUT = 5000;
+
     public LoggerReferenceHandler(final String threadName,
                                   final ReferenceQueue<ClassLoader> referenceQueue,
                                   final Map<PhantomReference<ClassLoader>, Integer> references,
                                   final Map<Integer, ?> loggerRepository)
+    {
+        this(threadName, referenceQueue, references, loggerRepository, null);
+    }
+
+    /**
+     * @param pipelines asynchronous logging pipelines by classloader hash, stopped
+     *            together with the logging hierarchy of their application, may be null
+     */
+    public LoggerReferenceHandler(final String threadName,
+                                  final ReferenceQueue<ClassLoader> referenceQueue,
+                                  final Map<PhantomReference<ClassLoader>, Integer> references,
+                                  final Map<Integer, ?> loggerRepository,
+                                  final Map<Integer, AsyncLogPipeline> pipelines)
     {
         Executors.newSingleThreadExecutor(new ThreadFactory()
         {
@@ -54,6 +69,11 @@ public class LoggerReferenceHandler
                         logger.debug("Cleaning up the logging hierarchy");
                         final Integer classLoaderHash = references.get(reference);
                         loggerRepository.remove(classLoaderHash);
+                        final AsyncLogPipeline pipeline = pipelines == null ? null : pipelines.remove(classLoaderHash);
+                        if (pipeline != null)
+                        {
+                            pipeline.stop(PIPELINE_STOP_TIMEOUT);
+                        }
                         reference.clear();
                     }
                     catch (InterruptedException e)
@@ -25,15 +25,39 @@ public class MuleLoggerFactory implements ILoggerFactory
 {
     protected static final Integer NO_CCL_CLASSLOADER = 0;
 
+    protected static final long PIPELINE_STOP_TIMEOUT = 5000;
+
     protected ConcurrentMap<Integer, ConcurrentMap<String, Logger>> repository = new ConcurrentHashMap<Integer, ConcurrentMap<String, Logger>>();
 
     protected ReferenceQueue<ClassLoader> referenceQueue = new ReferenceQueue<ClassLoader>();
     // map ref back to the classloader hash for cleanup of repository map, as both Weak- and SoftReference's get() return null by this time
     protected Map<PhantomReference<ClassLoader>, Integer> refs = new HashMap<PhantomReference<ClassLoader>, Integer>();
 
+    // asynchronous pipeline of each application, by classloader hash, only when enabled
+    protected ConcurrentMap<Integer, AsyncLogPipeline> pipelines = new ConcurrentHashMap<Integer, AsyncLogPipeline>();
+
+    protected final boolean asyncLogging;
+
     public MuleLoggerFactory()
     {
-        new LoggerReferenceHandler("Mule.log.slf4j.ref.handler", referenceQueue, refs, repository);
+        this(AsyncLogPipeline.isEnabled());
+    }
+
+    public MuleLoggerFactory(boolean asyncLogging)
+    {
+        this.asyncLogging = asyncLogging;
+        new LoggerReferenceHandler("Mule.log.slf4j.ref.handler", referenceQueue, refs, repository, pipelines);
+        if (asyncLogging)
+        {
+            Runtime.getRuntime().addShutdownHook(new Thread("Mule.log.async.shutdown")
+            {
+                @Override
+                public void run()
+                {
+                    stopPipelines();
+                }
+            });
+        }
     }
 
     @Override
@@ -76,7 +100,7 @@ public class MuleLoggerFactory implements ILoggerFactory
             {
                 log4jLogger = LogManager.getLogger(name);
             }
-            slf4jLogger = new DispatchingLogger(new AccessibleLog4jLoggerAdapter(log4jLogger), this);
+            slf4jLogger = new DispatchingLogger(new AccessibleLog4jLoggerAdapter(log4jLogger, getPipeline(classLoader)), this);
             final Logger previous = loggerMap.putIfAbsent(name, slf4jLogger);
             if (previous != null)
             {
@@ -87,4 +111,51 @@ public class MuleLoggerFactory implements ILoggerFactory
 
         return slf4jLogger;
     }
+
+    /**
+     * @return the asynchronous pipeline of the application owning the classloader, or
+     *         null if asynchronous logging is disabled
+     */
+    protected AsyncLogPipeline getPipeline(ClassLoader classLoader)
+    {
+        if (!asyncLogging)
+        {
+            return null;
+        }
+        final Integer classLoaderHash = classLoader == null ? NO_CCL_CLASSLOADER : classLoader.hashCode();
+        AsyncLogPipeline pipeline = pipelines.get(classLoaderHash);
+        if (pipeline == null)
+        {
+            pipeline = new AsyncLogPipeline("Mule.log.async." + Integer.toHexString(classLoaderHash));
+            final AsyncLogPipeline previous = pipelines.putIfAbsent(classLoaderHash, pipeline);
+            if (previous != null)
+            {
+                pipeline = previous;
+            }
+            else
+            {
+                pipeline.start();
+            }
+        }
+        return pipeline;
+    }
+
+    /**
+     * Writes the events pending in every pipeline, logging is synchronous afterwards.
+     */
+    public void stopPipelines()
+    {
+        for (AsyncLogPipeline pipeline : pipelines.values())
+        {
+            try
+            {
+                pipeline.stop(PIPELINE_STOP_TIMEOUT);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
 }
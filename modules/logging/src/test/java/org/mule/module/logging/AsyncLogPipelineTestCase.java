@@ -0,0 +1,258 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.module.logging;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.MDC;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncLogPipelineTestCase
+{
+
+    private static final String WRITER_THREAD = "test.async.log";
+
+    private Logger log4jLogger;
+    private RecordingAppender appender;
+    private AsyncLogPipeline pipeline;
+
+    @Before
+    public void setup()
+    {
+        log4jLogger = Logger.getLogger(AsyncLogPipelineTestCase.class);
+        log4jLogger.setAdditivity(false);
+        log4jLogger.setLevel(Level.INFO);
+        appender = new RecordingAppender();
+        log4jLogger.addAppender(appender);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        appender.release.countDown();
+        if (pipeline != null)
+        {
+            pipeline.stop(1000);
+        }
+        log4jLogger.removeAllAppenders();
+    }
+
+    @Test
+    public void writesEventsInOrderOnTheWriterThread() throws Exception
+    {
+        appender.release.countDown();
+        pipeline = start(1024, AsyncLogPipeline.OverflowPolicy.BLOCK);
+        AccessibleLog4jLoggerAdapter logger = new AccessibleLog4jLoggerAdapter(log4jLogger, pipeline);
+
+        for (int i = 0; i < 500; i++)
+        {
+            logger.info("message " + i);
+        }
+        pipeline.stop(5000);
+
+        assertEquals(500, appender.events.size());
+        for (int i = 0; i < 500; i++)
+        {
+            assertEquals("message " + i, appender.events.get(i).getRenderedMessage());
+        }
+        assertFalse(appender.threads.contains(Thread.currentThread().getName()));
+        assertEquals(500, pipeline.getWritten());
+        assertTrue(pipeline.getBatches() <= 500);
+    }
+
+    @Test
+    public void checksTheLevelBeforePublishing() throws Exception
+    {
+        appender.release.countDown();
+        pipeline = start(16, AsyncLogPipeline.OverflowPolicy.BLOCK);
+        AccessibleLog4jLoggerAdapter logger = new AccessibleLog4jLoggerAdapter(log4jLogger, pipeline);
+
+        logger.debug("disabled");
+        logger.warn("enabled");
+        pipeline.stop(5000);
+
+        assertEquals(1, pipeline.getPublished());
+        assertEquals(1, appender.events.size());
+        assertEquals("enabled", appender.events.get(0).getRenderedMessage());
+    }
+
+    @Test
+    public void capturesTheContextOfTheLoggingThread() throws Exception
+    {
+        appender.release.countDown();
+        pipeline = start(16, AsyncLogPipeline.OverflowPolicy.BLOCK);
+        AccessibleLog4jLoggerAdapter logger = new AccessibleLog4jLoggerAdapter(log4jLogger, pipeline);
+
+        MDC.put("correlationId", "1234");
+        try
+        {
+            logger.info("with context");
+        }
+        finally
+        {
+            MDC.remove("correlationId");
+        }
+        pipeline.stop(5000);
+
+        LoggingEvent event = appender.events.get(0);
+        assertEquals("1234", event.getMDC("correlationId"));
+        assertEquals(Thread.currentThread().getName(), event.getThreadName());
+    }
+
+    @Test
+    public void discardsWhenFull() throws Exception
+    {
+        pipeline = start(4, AsyncLogPipeline.OverflowPolicy.DISCARD);
+
+        // the writer takes the first event and waits in the appender
+        publish(Level.INFO, "first");
+        assertTrue(appender.writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 6; i++)
+        {
+            publish(Level.INFO, "queued " + i);
+        }
+        assertEquals(2, pipeline.getDiscarded());
+
+        appender.release.countDown();
+        pipeline.stop(5000);
+        assertEquals(5, appender.events.size());
+    }
+
+    @Test
+    public void discardsOnlyEventsBelowWarnWhenFull() throws Exception
+    {
+        pipeline = start(4, AsyncLogPipeline.OverflowPolicy.DISCARD_BELOW_WARN);
+
+        publish(Level.INFO, "first");
+        assertTrue(appender.writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++)
+        {
+            publish(Level.INFO, "queued " + i);
+        }
+        publish(Level.INFO, "discarded");
+        assertEquals(1, pipeline.getDiscarded());
+
+        // waits for the writer to make room
+        Thread warning = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                publish(Level.WARN, "kept");
+            }
+        });
+        warning.start();
+        appender.release.countDown();
+        warning.join(5000);
+        pipeline.stop(5000);
+
+        assertEquals(1, pipeline.getDiscarded());
+        assertEquals(6, appender.events.size());
+        assertEquals("kept", appender.events.get(5).getRenderedMessage());
+    }
+
+    @Test
+    public void writesInTheLoggingThreadWhenFullAndSynchronous() throws Exception
+    {
+        pipeline = start(4, AsyncLogPipeline.OverflowPolicy.SYNCHRONOUS);
+
+        publish(Level.INFO, "first");
+        assertTrue(appender.writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++)
+        {
+            publish(Level.INFO, "queued " + i);
+        }
+        publish(Level.INFO, "overflow");
+        assertEquals(1, pipeline.getSynchronousWrites());
+        assertTrue(appender.threads.contains(Thread.currentThread().getName()));
+        appender.release.countDown();
+
+        pipeline.stop(5000);
+        assertEquals(6, appender.events.size());
+    }
+
+    @Test
+    public void writesInTheLoggingThreadOnceStopped() throws Exception
+    {
+        appender.release.countDown();
+        pipeline = start(16, AsyncLogPipeline.OverflowPolicy.BLOCK);
+        pipeline.stop(5000);
+
+        publish(Level.INFO, "after stop");
+
+        assertFalse(pipeline.isRunning());
+        assertEquals(1, appender.events.size());
+        assertEquals(1, pipeline.getSynchronousWrites());
+    }
+
+    private AsyncLogPipeline start(int bufferSize, AsyncLogPipeline.OverflowPolicy overflowPolicy)
+    {
+        AsyncLogPipeline started = new AsyncLogPipeline(WRITER_THREAD, bufferSize, 64, overflowPolicy, false);
+        started.start();
+        return started;
+    }
+
+    private void publish(Level level, String message)
+    {
+        pipeline.publish(new LoggingEvent(AsyncLogPipelineTestCase.class.getName(), log4jLogger, level, message, null));
+    }
+
+    private static class RecordingAppender extends AppenderSkeleton
+    {
+
+        private final List<LoggingEvent> events = new CopyOnWriteArrayList<LoggingEvent>();
+        private final List<String> threads = new CopyOnWriteArrayList<String>();
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        protected void append(LoggingEvent event)
+        {
+            if (WRITER_THREAD.equals(Thread.currentThread().getName()))
+            {
+                // holds the writer until the test releases it
+                writing.countDown();
+                try
+                {
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add(event);
+            threads.add(Thread.currentThread().getName());
+        }
+
+        public void close()
+        {
+            // nothing to close
+        }
+
+        public boolean requiresLayout()
+        {
+            return false;
+        }
+    }
+}
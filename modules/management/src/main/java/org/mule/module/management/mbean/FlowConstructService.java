@@ -134,6 +134,26 @@ public class FlowConstructService implements FlowConstructServiceMBean, MBeanReg
         return statistics.getFatalErrors();
     }
 
+    public int getQueueOccupancy()
+    {
+        return statistics.getQueueOccupancy();
+    }
+
+    public boolean isThrottling()
+    {
+        return statistics.isThrottling();
+    }
+
+    public long getThrottleCount()
+    {
+        return statistics.getThrottleCount();
+    }
+
+    public long getSourcePauses()
+    {
+        return statistics.getSourcePauses();
+    }
+
     public ObjectName preRegister(MBeanServer server, ObjectName name) throws Exception
     {
         this.server = server;
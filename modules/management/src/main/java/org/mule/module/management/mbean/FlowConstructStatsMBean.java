@@ -37,4 +37,12 @@ public interface FlowConstructStatsMBean
     long getFatalErrors();
 
     long getExecutionErrors();
+
+    int getQueueOccupancy();
+
+    boolean isThrottling();
+
+    long getThrottleCount();
+
+    long getSourcePauses();
 }
@@ -25,6 +25,8 @@ public class QueueProfileFactoryBean extends AbstractFactoryBean<QueueProfile> i
     private int maxOutstandingMessages;
     private MuleContext muleContext;
     private QueueStore<Serializable> queueStore;
+    private Integer highWatermark;
+    private Integer lowWatermark;
 
     @Override
     public Class<?> getObjectType()
@@ -41,7 +43,16 @@ public class QueueProfileFactoryBean extends AbstractFactoryBean<QueueProfile> i
             objectStore = muleContext.getRegistry().lookupObject(MuleProperties.QUEUE_STORE_DEFAULT_IN_MEMORY_NAME);
         }
 
-        return new QueueProfile(getMaxOutstandingMessages(), objectStore);
+        QueueProfile queueProfile = new QueueProfile(getMaxOutstandingMessages(), objectStore);
+        if (highWatermark != null)
+        {
+            queueProfile.setHighWatermark(highWatermark);
+        }
+        if (lowWatermark != null)
+        {
+            queueProfile.setLowWatermark(lowWatermark);
+        }
+        return queueProfile;
     }
 
     @Override
@@ -69,6 +80,24 @@ public class QueueProfileFactoryBean extends AbstractFactoryBean<QueueProfile> i
     {
         return queueStore;
     }
-}
 
+    public Integer getHighWatermark()
+    {
+        return highWatermark;
+    }
+
+    public void setHighWatermark(Integer highWatermark)
+    {
+        this.highWatermark = highWatermark;
+    }
+
+    public Integer getLowWatermark()
+    {
+        return lowWatermark;
+    }
 
+    public void setLowWatermark(Integer lowWatermark)
+    {
+        this.lowWatermark = lowWatermark;
+    }
+}
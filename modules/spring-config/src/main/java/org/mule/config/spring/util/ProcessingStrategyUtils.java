@@ -16,6 +16,7 @@ import org.mule.processor.strategy.QueuedAsynchronousProcessingStrategy;
 import org.mule.processor.strategy.QueuedThreadPerProcessorProcessingStrategy;
 import org.mule.processor.strategy.SynchronousProcessingStrategy;
 import org.mule.processor.strategy.ThreadPerProcessorProcessingStrategy;
+import org.mule.processor.strategy.WorkStealingProcessingStrategy;
 
 import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
@@ -32,6 +33,7 @@ public class ProcessingStrategyUtils
     public static String QUEUED_ASYNC_PROCESSING_STRATEGY = "queued-asynchronous";
     public static String THREAD_PER_PROCESSOR_PROCESSING_STRATEGY = "thread-per-processor";
     public static String QUEUED_THREAD_PER_PROCESSOR_PROCESSING_STRATEGY = "queued-thread-per-processor";
+    public static String WORK_STEALING_PROCESSING_STRATEGY = "work-stealing";
 
     public static void configureProcessingStrategy(Element element,
                                                    BeanDefinitionBuilder builder,
@@ -65,6 +67,11 @@ public class ProcessingStrategyUtils
             builder.addPropertyValue(PROCESSING_STRATEGY_ATTRIBUTE_NAME,
                 new QueuedThreadPerProcessorProcessingStrategy());
         }
+        else if (WORK_STEALING_PROCESSING_STRATEGY.equals(processingStrategy))
+        {
+            builder.addPropertyValue(PROCESSING_STRATEGY_ATTRIBUTE_NAME,
+                new WorkStealingProcessingStrategy());
+        }
         else if (null != processingStrategy && !processingStrategy.isEmpty())
         {
             builder.addPropertyValue(PROCESSING_STRATEGY_ATTRIBUTE_NAME, new RuntimeBeanReference(
@@ -56,6 +56,17 @@ public abstract class AbstractRetrieveMailConnector extends AbstractMailConnecto
      */
     private Flags.Flag defaultProcessMessageAction = Flags.Flag.SEEN;
 
+    /**
+     * Should the store and folder be kept open between polls. Messages are then
+     * fetched in bulk and updated in batches once the poll has processed them.
+     */
+    private volatile boolean keepFolderOpen = false;
+
+    /**
+     * The number of messages of a poll processed at the same time when the folder is
+     * kept open
+     */
+    private volatile int maxConcurrentMessages = 1;
 
     protected AbstractRetrieveMailConnector(int defaultPort, MuleContext context)
     {
@@ -138,4 +149,28 @@ public abstract class AbstractRetrieveMailConnector extends AbstractMailConnecto
     {
         this.defaultProcessMessageAction = defaultProcessMessageAction;
     }
+
+    public boolean isKeepFolderOpen()
+    {
+        return keepFolderOpen;
+    }
+
+    public void setKeepFolderOpen(boolean keepFolderOpen)
+    {
+        this.keepFolderOpen = keepFolderOpen;
+    }
+
+    public int getMaxConcurrentMessages()
+    {
+        return maxConcurrentMessages;
+    }
+
+    public void setMaxConcurrentMessages(int maxConcurrentMessages)
+    {
+        if (maxConcurrentMessages < 1)
+        {
+            maxConcurrentMessages = 1;
+        }
+        this.maxConcurrentMessages = maxConcurrentMessages;
+    }
 }
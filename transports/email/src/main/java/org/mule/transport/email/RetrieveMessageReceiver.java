@@ -28,18 +28,29 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.mail.Address;
+import javax.mail.FetchProfile;
 import javax.mail.Flags;
 import javax.mail.Folder;
 import javax.mail.Message;
 import javax.mail.MessagingException;
+import javax.mail.MethodNotSupportedException;
 import javax.mail.Store;
+import javax.mail.UIDFolder;
 import javax.mail.event.MessageCountEvent;
 import javax.mail.event.MessageCountListener;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
+import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkException;
 
 /**
  * Poll a mailbox for messages, remove the messages and route them as events into
@@ -50,6 +61,7 @@ import javax.mail.internet.MimeMessage;
  */
 public class RetrieveMessageReceiver extends AbstractPollingMessageReceiver implements MessageCountListener
 {
+    private Store store = null;
     private Folder folder = null;
     private Folder moveToFolder = null;
     private boolean backupEnabled;
@@ -57,6 +69,16 @@ public class RetrieveMessageReceiver extends AbstractPollingMessageReceiver impl
     // A lock to protect concurrent access to the folder.
     private final Object folderLock = new Object();
 
+    // Statistics of the polls made while keeping the folder open
+    private final AtomicLong pollCount = new AtomicLong(0);
+    private final AtomicLong retrievedMessageCount = new AtomicLong(0);
+    private final AtomicLong reconnectionCount = new AtomicLong(0);
+    private final AtomicLong totalFetchTime = new AtomicLong(0);
+    private final AtomicLong totalProcessingTime = new AtomicLong(0);
+    private final AtomicLong totalUpdateTime = new AtomicLong(0);
+    private final AtomicLong totalPollTime = new AtomicLong(0);
+    private volatile long lastPollTime = 0;
+
     public RetrieveMessageReceiver(Connector connector,
                                    FlowConstruct flowConstruct,
                                    InboundEndpoint endpoint,
@@ -77,10 +99,27 @@ public class RetrieveMessageReceiver extends AbstractPollingMessageReceiver impl
 
     @Override
     protected void doConnect() throws Exception
+    {
+        openStore();
+
+        // set default value if empty/null
+        if (StringUtils.isEmpty(backupFolder))
+        {
+            this.backupFolder = connector.getMuleContext().getConfiguration().getWorkingDirectory()
+                                + "/mail/" + folder.getName();
+        }
+
+        if (backupFolder != null && !this.backupFolder.endsWith(File.separator))
+        {
+            this.backupFolder += File.separator;
+        }
+    }
+
+    private void openStore() throws Exception
     {
         SessionDetails session = castConnector().getSessionDetails(endpoint);
 
-        Store store = session.newStore();
+        store = session.newStore();
         store.connect();
         folder = store.getFolder(castConnector().getMailboxFolder());
         if (castConnector().getMoveToFolder() != null)
@@ -88,24 +127,50 @@ public class RetrieveMessageReceiver extends AbstractPollingMessageReceiver impl
             moveToFolder = store.getFolder(castConnector().getMoveToFolder());
             moveToFolder.open(Folder.READ_WRITE);
         }
+    }
 
-        // set default value if empty/null
-        if (StringUtils.isEmpty(backupFolder))
+    @Override
+    protected void doDisconnect() throws Exception
+    {
+        if (castConnector().isKeepFolderOpen())
         {
-            this.backupFolder = connector.getMuleContext().getConfiguration().getWorkingDirectory()
-                                + "/mail/" + folder.getName();
+            synchronized (folderLock)
+            {
+                closeStore();
+            }
         }
+    }
 
-        if (backupFolder != null && !this.backupFolder.endsWith(File.separator))
+    private void closeStore()
+    {
+        closeFolder(folder);
+        closeFolder(moveToFolder);
+        if (store != null)
         {
-            this.backupFolder += File.separator;
+            try
+            {
+                store.close();
+            }
+            catch (MessagingException e)
+            {
+                logger.debug("ignoring exception: " + e.getMessage(), e);
+            }
         }
     }
 
-    @Override
-    protected void doDisconnect() throws Exception
+    private void closeFolder(Folder toClose)
     {
-        // nothing to do here
+        if (toClose != null && toClose.isOpen())
+        {
+            try
+            {
+                toClose.close(true);
+            }
+            catch (Exception e)
+            {
+                logger.debug("ignoring exception: " + e.getMessage(), e);
+            }
+        }
     }
 
     @Override
@@ -128,7 +193,12 @@ public class RetrieveMessageReceiver extends AbstractPollingMessageReceiver impl
         super.doStart();
         synchronized (folderLock)
         {
-            folder.addMessageCountListener(this);
+            // when the folder is kept open new messages are picked by the next poll,
+            // listening as well would route them twice
+            if (!castConnector().isKeepFolderOpen())
+            {
+                folder.addMessageCountListener(this);
+            }
         }
     }
 
@@ -327,6 +397,12 @@ public class RetrieveMessageReceiver extends AbstractPollingMessageReceiver impl
     @Override
     public void poll()
     {
+        if (castConnector().isKeepFolderOpen())
+        {
+            pollOpenFolder();
+            return;
+        }
+
         boolean done = false;
         while (!done)
         {
@@ -390,6 +466,394 @@ public class RetrieveMessageReceiver extends AbstractPollingMessageReceiver impl
     }
 
 
+    /**
+     * Polls the folder without closing it. The flags and UIDs of all the messages are
+     * fetched in a single request, then the envelopes of the messages not read yet. Once
+     * they have been routed, possibly in parallel, messages are moved and flagged with
+     * one request per operation.
+     */
+    protected void pollOpenFolder()
+    {
+        synchronized (folderLock)
+        {
+            if (getLifecycleState().isStopping() || getLifecycleState().isStopped())
+            {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            long fetched = start;
+            long processed = start;
+            int retrieved = 0;
+            try
+            {
+                checkConnection();
+
+                int count = folder.getMessageCount();
+                if (count == -1)
+                {
+                    throw new MessagingException("Cannot monitor folder: " + folder.getFullName()
+                        + " as folder is closed");
+                }
+                PollUpdate update = new PollUpdate();
+                if (count > 0)
+                {
+                    Message[] messages = fetchUnreadMessages(update);
+                    fetched = System.currentTimeMillis();
+                    retrieved = messages.length;
+
+                    processMessages(messages, update);
+                    processed = System.currentTimeMillis();
+                }
+                else
+                {
+                    fetched = processed = System.currentTimeMillis();
+                }
+                update.apply();
+            }
+            catch (Exception e)
+            {
+                // the connection is checked again on next poll
+                getConnector().getMuleContext().getExceptionListener().handleException(e);
+            }
+            finally
+            {
+                long end = System.currentTimeMillis();
+                pollCount.incrementAndGet();
+                retrievedMessageCount.addAndGet(retrieved);
+                totalFetchTime.addAndGet(fetched - start);
+                totalProcessingTime.addAndGet(processed - fetched);
+                totalUpdateTime.addAndGet(end - processed);
+                totalPollTime.addAndGet(end - start);
+                lastPollTime = end - start;
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug(String.format(
+                        "Poll of %s retrieved %d messages in %d ms (fetch %d ms, processing %d ms, update %d ms)",
+                        folder.getFullName(), retrieved, end - start, fetched - start, processed - fetched,
+                        end - processed));
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens the folders if needed and reconnects the store when the server dropped the
+     * connection.
+     */
+    private void checkConnection() throws Exception
+    {
+        boolean connected;
+        try
+        {
+            // IMAP stores send a NOOP to the server
+            connected = store != null && store.isConnected();
+        }
+        catch (IllegalStateException e)
+        {
+            connected = false;
+        }
+        if (!connected)
+        {
+            if (store != null)
+            {
+                logger.info("Connection to " + folder.getFullName() + " was lost, reconnecting");
+                closeStore();
+                reconnectionCount.incrementAndGet();
+            }
+            openStore();
+        }
+        if (!folder.isOpen())
+        {
+            folder.open(Folder.READ_WRITE);
+        }
+        if (moveToFolder != null && !moveToFolder.isOpen())
+        {
+            moveToFolder.open(Folder.READ_WRITE);
+        }
+    }
+
+    private Message[] fetchUnreadMessages(PollUpdate update) throws MessagingException
+    {
+        Message[] messages = folder.getMessages();
+        FetchProfile flagsProfile = new FetchProfile();
+        flagsProfile.add(FetchProfile.Item.FLAGS);
+        if (folder instanceof UIDFolder)
+        {
+            flagsProfile.add(UIDFolder.FetchProfileItem.UID);
+        }
+        folder.fetch(messages, flagsProfile);
+
+        List<Message> unread = new ArrayList<Message>();
+        for (Message message : messages)
+        {
+            if (!message.isExpunged() && !message.getFlags().contains(Flags.Flag.DELETED)
+                && !message.getFlags().contains(Flags.Flag.SEEN))
+            {
+                unread.add(message);
+            }
+        }
+        int batchSize = getBatchSize(unread.size());
+        Message[] batch = unread.subList(0, batchSize).toArray(new Message[batchSize]);
+
+        FetchProfile envelopeProfile = new FetchProfile();
+        envelopeProfile.add(FetchProfile.Item.ENVELOPE);
+        envelopeProfile.add(FetchProfile.Item.CONTENT_INFO);
+        folder.fetch(batch, envelopeProfile);
+        update.addUids(batch);
+        return batch;
+    }
+
+    private void processMessages(Message[] messages, final PollUpdate update) throws Exception
+    {
+        int maxConcurrentMessages = castConnector().getMaxConcurrentMessages();
+        if (maxConcurrentMessages == 1)
+        {
+            for (Message message : messages)
+            {
+                if (getLifecycleState().isStopping() || getLifecycleState().isStopped())
+                {
+                    break;
+                }
+                processMessage(message, update);
+            }
+            return;
+        }
+
+        final Semaphore permits = new Semaphore(maxConcurrentMessages);
+        final CountDownLatch done = new CountDownLatch(messages.length);
+        for (final Message message : messages)
+        {
+            if (getLifecycleState().isStopping() || getLifecycleState().isStopped())
+            {
+                done.countDown();
+                continue;
+            }
+            permits.acquire();
+            try
+            {
+                getWorkManager().scheduleWork(new Work()
+                {
+                    public void run()
+                    {
+                        try
+                        {
+                            processMessage(message, update);
+                        }
+                        finally
+                        {
+                            permits.release();
+                            done.countDown();
+                        }
+                    }
+
+                    public void release()
+                    {
+                        // nothing to release
+                    }
+                });
+            }
+            catch (WorkException e)
+            {
+                permits.release();
+                done.countDown();
+                throw e;
+            }
+        }
+        done.await();
+    }
+
+    /**
+     * Routes a message and records what to do with it once the poll completes, with the
+     * same rules as {@link #messagesAdded(MessageCountEvent)}.
+     */
+    private void processMessage(Message original, PollUpdate update)
+    {
+        MuleMessage message = null;
+        try
+        {
+            MimeMessage mimeMessage = new MimeMessage((MimeMessage) original);
+            storeMessage(mimeMessage);
+            message = createMuleMessage(mimeMessage, endpoint.getEncoding());
+
+            if (castConnector().isDeleteReadMessages())
+            {
+                update.add(original, Flags.Flag.DELETED, true);
+            }
+            else if (getEndpoint().getFilter() != null && getEndpoint().getFilter().accept(message))
+            {
+                Flags.Flag flag = castConnector().getDefaultProcessMessageAction();
+                if (flag != null)
+                {
+                    update.add(original, flag, flag == Flags.Flag.DELETED);
+                }
+            }
+            else
+            {
+                update.add(original, Flags.Flag.SEEN, true);
+            }
+            routeMessage(message);
+        }
+        catch (org.mule.api.MessagingException e)
+        {
+            //Already handled by TransactionTemplate
+        }
+        catch (Exception e)
+        {
+            Exception forwarded;
+            if (message != null)
+            {
+                forwarded = new org.mule.api.MessagingException(EmailMessages.routingError(), message, e);
+            }
+            else
+            {
+                forwarded = new ReceiveException(endpoint, -1, e);
+            }
+            connector.getMuleContext().getExceptionListener().handleException(forwarded);
+        }
+    }
+
+    /**
+     * The messages to move and flag at the end of a poll. Messages are looked up again by
+     * UID when the folder supports it, as other clients may have expunged messages and
+     * changed their numbers during the poll.
+     */
+    private class PollUpdate
+    {
+        private final Map<Message, Long> uids = new HashMap<Message, Long>();
+        private final List<Message> moved = new ArrayList<Message>();
+        private final Map<Flags.Flag, List<Message>> flagged = new LinkedHashMap<Flags.Flag, List<Message>>();
+
+        void addUids(Message[] messages) throws MessagingException
+        {
+            if (folder instanceof UIDFolder)
+            {
+                for (Message message : messages)
+                {
+                    uids.put(message, ((UIDFolder) folder).getUID(message));
+                }
+            }
+        }
+
+        synchronized void add(Message message, Flags.Flag flag, boolean move)
+        {
+            if (move && moveToFolder != null)
+            {
+                moved.add(message);
+            }
+            List<Message> messages = flagged.get(flag);
+            if (messages == null)
+            {
+                messages = new ArrayList<Message>();
+                flagged.put(flag, messages);
+            }
+            messages.add(message);
+        }
+
+        synchronized void apply() throws MessagingException
+        {
+            if (!moved.isEmpty())
+            {
+                folder.copyMessages(resolve(moved), moveToFolder);
+            }
+            for (Map.Entry<Flags.Flag, List<Message>> entry : flagged.entrySet())
+            {
+                folder.setFlags(resolve(entry.getValue()), new Flags(entry.getKey()), true);
+            }
+            if (flagged.containsKey(Flags.Flag.DELETED))
+            {
+                try
+                {
+                    folder.expunge();
+                }
+                catch (MethodNotSupportedException e)
+                {
+                    // POP3 only deletes messages when the folder is closed, it is reopened
+                    // on next poll
+                    folder.close(true);
+                }
+            }
+        }
+
+        private Message[] resolve(List<Message> messages) throws MessagingException
+        {
+            if (uids.isEmpty())
+            {
+                return messages.toArray(new Message[messages.size()]);
+            }
+            long[] messageUids = new long[messages.size()];
+            for (int i = 0; i < messageUids.length; i++)
+            {
+                messageUids[i] = uids.get(messages.get(i));
+            }
+            List<Message> resolved = new ArrayList<Message>(messageUids.length);
+            for (Message message : ((UIDFolder) folder).getMessagesByUID(messageUids))
+            {
+                // null if the message was expunged by another client
+                if (message != null)
+                {
+                    resolved.add(message);
+                }
+            }
+            return resolved.toArray(new Message[resolved.size()]);
+        }
+    }
+
+    /**
+     * @return the number of polls made while keeping the folder open
+     */
+    public long getPollCount()
+    {
+        return pollCount.get();
+    }
+
+    public long getRetrievedMessageCount()
+    {
+        return retrievedMessageCount.get();
+    }
+
+    /**
+     * @return the number of times the connection to the server was reopened after it
+     *         was lost
+     */
+    public long getReconnectionCount()
+    {
+        return reconnectionCount.get();
+    }
+
+    /**
+     * @return the milliseconds spent fetching message numbers, flags and envelopes
+     */
+    public long getTotalFetchTime()
+    {
+        return totalFetchTime.get();
+    }
+
+    /**
+     * @return the milliseconds spent routing messages
+     */
+    public long getTotalProcessingTime()
+    {
+        return totalProcessingTime.get();
+    }
+
+    /**
+     * @return the milliseconds spent moving, flagging and expunging messages
+     */
+    public long getTotalUpdateTime()
+    {
+        return totalUpdateTime.get();
+    }
+
+    public long getTotalPollTime()
+    {
+        return totalPollTime.get();
+    }
+
+    public long getLastPollTime()
+    {
+        return lastPollTime;
+    }
+
     @Override
     protected boolean pollOnPrimaryInstanceOnly()
     {
@@ -401,6 +865,10 @@ public class RetrieveMessageReceiver extends AbstractPollingMessageReceiver impl
     {
         synchronized (folderLock)
         {
+            if (castConnector().isKeepFolderOpen())
+            {
+                closeStore();
+            }
             if (null != folder)
             {
                 folder.removeMessageCountListener(this);
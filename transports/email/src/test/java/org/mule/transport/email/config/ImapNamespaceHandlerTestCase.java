@@ -50,6 +50,8 @@ public class ImapNamespaceHandlerTestCase extends AbstractEmailNamespaceHandlerT
         assertTrue(c.isStarted());
         
         assertEquals(Flags.Flag.SEEN, c.getDefaultProcessMessageAction());
+        assertTrue(c.isKeepFolderOpen());
+        assertEquals(4, c.getMaxConcurrentMessages());
     }
 
     @Test
@@ -77,6 +79,8 @@ public class ImapNamespaceHandlerTestCase extends AbstractEmailNamespaceHandlerT
         assertTrue(c.isStarted());
         
         assertNull(c.getDefaultProcessMessageAction());
+        assertFalse(c.isKeepFolderOpen());
+        assertEquals(1, c.getMaxConcurrentMessages());
     }
 
     @Test
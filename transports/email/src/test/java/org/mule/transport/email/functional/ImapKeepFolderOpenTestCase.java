@@ -0,0 +1,92 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.email.functional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.mule.api.MuleMessage;
+import org.mule.api.client.MuleClient;
+import org.mule.api.transport.MessageReceiver;
+import org.mule.transport.AbstractConnector;
+import org.mule.transport.email.GreenMailUtilities;
+import org.mule.transport.email.ImapConnector;
+import org.mule.transport.email.RetrieveMessageReceiver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import javax.mail.internet.MimeMessage;
+
+import org.junit.Test;
+import org.junit.runners.Parameterized.Parameters;
+
+public class ImapKeepFolderOpenTestCase extends AbstractEmailFunctionalTestCase
+{
+
+    private static final int MESSAGES = 10;
+
+    public ImapKeepFolderOpenTestCase(ConfigVariant variant, String configResources)
+    {
+        super(variant, STRING_MESSAGE, ImapConnector.IMAP, configResources);
+    }
+
+    @Parameters
+    public static Collection<Object[]> parameters()
+    {
+        return Arrays.asList(new Object[][]{
+            {ConfigVariant.FLOW, "imap-keep-folder-open-test-flow.xml"}
+        });
+    }
+
+    @Override
+    protected void generateAndStoreEmail() throws Exception
+    {
+        List<MimeMessage> messages = new ArrayList<MimeMessage>();
+        for (int i = 0; i < MESSAGES; i++)
+        {
+            messages.add(GreenMailUtilities.toMessage(DEFAULT_MESSAGE, DEFAULT_EMAIL, null));
+        }
+        storeEmail(messages);
+    }
+
+    @Test
+    public void testRetrievesAllMessagesThroughOpenFolder() throws Exception
+    {
+        MuleClient client = muleContext.getClient();
+        for (int i = 0; i < MESSAGES; i++)
+        {
+            MuleMessage reply = client.request("vm://receive", RECEIVE_TIMEOUT);
+            assertNotNull(reply);
+            verifyMessage((String) reply.getPayload());
+        }
+
+        RetrieveMessageReceiver receiver = getReceiver();
+        assertEquals(MESSAGES, receiver.getRetrievedMessageCount());
+        assertTrue(receiver.getPollCount() > 0);
+        assertEquals(0, receiver.getReconnectionCount());
+
+        // read messages are deleted, so later polls do not route them again
+        Thread.sleep(1000);
+        assertEquals(MESSAGES, receiver.getRetrievedMessageCount());
+        assertTrue(receiver.getFolder().isOpen());
+    }
+
+    private RetrieveMessageReceiver getReceiver()
+    {
+        AbstractConnector connector = (AbstractConnector) muleContext.getRegistry().lookupConnector("imapConnector");
+        MessageReceiver receiver = connector.getReceivers().values().iterator().next();
+        return (RetrieveMessageReceiver) receiver;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.file;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the result of previous directory listings so that a
+ * {@link FileMessageReceiver} only lists the directories that changed since the last
+ * poll. A directory is considered unchanged when its modification time is the same
+ * as when it was last listed and that time is older than the settle time, which
+ * covers file systems with a coarse timestamp resolution. Files that were listed but
+ * not consumed (not aged enough, locked by a writer, etc.) are kept as pending and
+ * offered again without listing the directory. Files currently being processed are
+ * still guarded by the receiver, this class only replaces the listing.
+ * <p/>
+ * When a directory is listed again, the subdirectories that are no longer in it are
+ * forgotten together with everything below them.
+ */
+public class DirectoryScanTracker
+{
+
+    public static final long DEFAULT_SETTLE_TIME = 2000;
+    public static final int DEFAULT_FULL_SCAN_INTERVAL = 100;
+
+    private final long settleTime;
+    private final int fullScanInterval;
+
+    private final Map<String, DirectoryState> directories = new ConcurrentHashMap<String, DirectoryState>();
+
+    private int scansSinceFullScan = 0;
+    private boolean fullScan = true;
+
+    private final AtomicLong listedDirectories = new AtomicLong(0);
+    private final AtomicLong skippedDirectories = new AtomicLong(0);
+
+    public DirectoryScanTracker()
+    {
+        this(DEFAULT_SETTLE_TIME, DEFAULT_FULL_SCAN_INTERVAL);
+    }
+
+    /**
+     * @param settleTime directories modified less than this number of milliseconds
+     *            ago are always listed
+     * @param fullScanInterval number of scans after which every directory is listed
+     *            again regardless of its timestamp, zero to disable
+     */
+    public DirectoryScanTracker(long settleTime, int fullScanInterval)
+    {
+        this.settleTime = settleTime;
+        this.fullScanInterval = fullScanInterval;
+    }
+
+    /**
+     * Signals the start of a new scan.
+     */
+    public synchronized void beginScan()
+    {
+        scansSinceFullScan++;
+        fullScan = directories.isEmpty() || (fullScanInterval > 0 && scansSinceFullScan >= fullScanInterval);
+        if (fullScan)
+        {
+            scansSinceFullScan = 0;
+        }
+    }
+
+    /**
+     * @return whether the given directory changed since it was last listed and must
+     *         be listed again
+     */
+    public boolean needsListing(File directory)
+    {
+        if (fullScan)
+        {
+            return true;
+        }
+        DirectoryState state = directories.get(directory.getAbsolutePath());
+        if (state == null)
+        {
+            return true;
+        }
+        long lastModified = directory.lastModified();
+        return lastModified != state.lastModified || System.currentTimeMillis() - lastModified < settleTime;
+    }
+
+    /**
+     * Records the result of listing a directory.
+     *
+     * @param directory the listed directory
+     * @param lastModified the directory timestamp read before listing it
+     * @param files the files found in the directory
+     * @param subdirectories the subdirectories found in the directory
+     */
+    public void listed(File directory, long lastModified, List<File> files, List<File> subdirectories)
+    {
+        listedDirectories.incrementAndGet();
+        DirectoryState previous = directories.put(directory.getAbsolutePath(), new DirectoryState(lastModified,
+            files, subdirectories));
+        if (previous != null)
+        {
+            for (File subdirectory : previous.subdirectories)
+            {
+                if (!subdirectories.contains(subdirectory))
+                {
+                    forget(subdirectory);
+                }
+            }
+        }
+    }
+
+    private void forget(File directory)
+    {
+        String path = directory.getAbsolutePath();
+        String descendantPrefix = path + File.separator;
+        for (Iterator<String> paths = directories.keySet().iterator(); paths.hasNext();)
+        {
+            String tracked = paths.next();
+            if (tracked.equals(path) || tracked.startsWith(descendantPrefix))
+            {
+                paths.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the files remembered for an unchanged directory
+     */
+    public List<File> getRememberedFiles(File directory)
+    {
+        skippedDirectories.incrementAndGet();
+        DirectoryState state = directories.get(directory.getAbsolutePath());
+        return state == null ? Collections.<File>emptyList() : state.getFiles();
+    }
+
+    /**
+     * @return the subdirectories remembered for an unchanged directory
+     */
+    public List<File> getRememberedSubdirectories(File directory)
+    {
+        DirectoryState state = directories.get(directory.getAbsolutePath());
+        return state == null ? Collections.<File>emptyList() : state.subdirectories;
+    }
+
+    /**
+     * Forgets a file once it has been consumed so it is not offered again.
+     */
+    public void consumed(File file)
+    {
+        DirectoryState state = directories.get(file.getParentFile().getAbsolutePath());
+        if (state != null)
+        {
+            state.remove(file);
+        }
+    }
+
+    public long getListedDirectories()
+    {
+        return listedDirectories.get();
+    }
+
+    public long getSkippedDirectories()
+    {
+        return skippedDirectories.get();
+    }
+
+    public void reset()
+    {
+        directories.clear();
+        fullScan = true;
+    }
+
+    private static class DirectoryState
+    {
+        private final long lastModified;
+        private final Set<File> files;
+        private final List<File> subdirectories;
+
+        public DirectoryState(long lastModified, List<File> files, List<File> subdirectories)
+        {
+            this.lastModified = lastModified;
+            this.files = new LinkedHashSet<File>(files);
+            this.subdirectories = new ArrayList<File>(subdirectories);
+        }
+
+        public synchronized List<File> getFiles()
+        {
+            return new ArrayList<File>(files);
+        }
+
+        public synchronized void remove(File file)
+        {
+            files.remove(file);
+        }
+    }
+}
@@ -38,6 +38,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -114,6 +115,16 @@ public class FileConnector extends AbstractConnector
 
     private boolean recursive = false;
 
+    private boolean incrementalScan = false;
+
+    private int maxConcurrentFiles = 1;
+
+    private final AtomicLong transferCount = new AtomicLong();
+
+    private final AtomicLong transferredBytes = new AtomicLong();
+
+    private final AtomicLong transferTime = new AtomicLong();
+
     public FileConnector(MuleContext context)
     {
         super(context);
@@ -516,6 +527,28 @@ public class FileConnector extends AbstractConnector
      */
     @Override
     public OutputStream getOutputStream(OutboundEndpoint endpoint, MuleEvent event) throws MuleException
+    {
+        File file = getOutputFile(endpoint, event);
+        try
+        {
+            return new FileOutputStream(file, isOutputAppend());
+        }
+        catch (IOException e)
+        {
+            throw new DispatchException(CoreMessages.streamingFailedNoStream(), event, endpoint, e);
+        }
+    }
+
+    /**
+     * Resolves, and creates if needed, the file an outbound endpoint writes the
+     * given event to.
+     *
+     * @param endpoint the endpoint that releates to this Dispatcher
+     * @param event the current event being processed
+     * @return the file to write to
+     * @throws org.mule.api.MuleException if the file cannot be created
+     */
+    public File getOutputFile(OutboundEndpoint endpoint, MuleEvent event) throws MuleException
     {
         MuleMessage message = event.getMessage();
         String address = endpoint.getEndpointURI().getAddress();
@@ -564,7 +597,7 @@ public class FileConnector extends AbstractConnector
                 logger.info("Writing file to: " + file.getAbsolutePath());
             }
 
-            return new FileOutputStream(file, isOutputAppend());
+            return file;
         }
         catch (IOException e)
         {
@@ -572,6 +605,50 @@ public class FileConnector extends AbstractConnector
         }
     }
 
+    /**
+     * Records a file transfer done without copying the content through the heap,
+     * either by renaming the file or by a channel transfer.
+     *
+     * @param source description of where the bytes came from
+     * @param target description of where the bytes went to
+     * @param bytes number of bytes transferred
+     * @param millis time taken by the transfer
+     */
+    protected void transferCompleted(String source, String target, long bytes, long millis)
+    {
+        transferCount.incrementAndGet();
+        transferredBytes.addAndGet(bytes);
+        transferTime.addAndGet(millis);
+        if (logger.isDebugEnabled())
+        {
+            logger.debug(String.format("Transferred %d bytes from %s to %s in %d ms", bytes, source, target, millis));
+        }
+    }
+
+    /**
+     * @return number of zero copy transfers done by this connector
+     */
+    public long getTransferCount()
+    {
+        return transferCount.get();
+    }
+
+    /**
+     * @return total number of bytes moved by zero copy transfers
+     */
+    public long getTransferredBytes()
+    {
+        return transferredBytes.get();
+    }
+
+    /**
+     * @return total time in milliseconds spent in zero copy transfers
+     */
+    public long getTransferTime()
+    {
+        return transferTime.get();
+    }
+
     protected void move(final File sourceFile, File destinationFile) throws DefaultMuleException
     {
         if (destinationFile != null)
@@ -631,4 +708,24 @@ public class FileConnector extends AbstractConnector
     {
         this.recursive = recursive;
     }
+
+    public boolean isIncrementalScan()
+    {
+        return incrementalScan;
+    }
+
+    public void setIncrementalScan(boolean incrementalScan)
+    {
+        this.incrementalScan = incrementalScan;
+    }
+
+    public int getMaxConcurrentFiles()
+    {
+        return maxConcurrentFiles;
+    }
+
+    public void setMaxConcurrentFiles(int maxConcurrentFiles)
+    {
+        this.maxConcurrentFiles = maxConcurrentFiles;
+    }
 }
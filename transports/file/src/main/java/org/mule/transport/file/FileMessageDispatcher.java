@@ -27,12 +27,19 @@ import org.mule.util.StringUtils;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FilenameFilter;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 /**
  * <code>FileMessageDispatcher</code> is used to read/write files to the filesystem
+ * <p/>
+ * When the payload is a file stream coming from a file inbound endpoint, the content
+ * is not copied through the heap: the file is renamed into place when it would
+ * otherwise be deleted once consumed, or transferred with a file channel transfer.
  */
 public class FileMessageDispatcher extends AbstractMessageDispatcher
 {
@@ -56,15 +63,39 @@ public class FileMessageDispatcher extends AbstractMessageDispatcher
         // Wrap the transformed message before passing it to the filename parser
         MuleMessage message = new DefaultMuleMessage(data, event.getMessage(), event.getMuleContext());
 
-        FileOutputStream fos = (FileOutputStream) connector.getOutputStream(getEndpoint(), event);
-        try
+        FileOutputStream fos;
+        if (data instanceof ReceiverFileInputStream && !connector.isOutputAppend())
         {
-            if (event.getMessage().getOutboundProperty(FileConnector.PROPERTY_FILENAME) == null)
+            // resolved once, the output pattern may not give the same name again
+            File target = connector.getOutputFile(getEndpoint(), event);
+            boolean renamed;
+            try
+            {
+                renamed = renameReceivedFile(event, (ReceiverFileInputStream) data, target);
+            }
+            catch (Exception e)
             {
-                event.getMessage().setOutboundProperty(FileConnector.PROPERTY_FILENAME,
-                                                       message.getOutboundProperty(FileConnector.PROPERTY_FILENAME,
-                                                                                   StringUtils.EMPTY));
+                // don't leave the empty file created for the output behind
+                if (target.length() == 0)
+                {
+                    target.delete();
+                }
+                throw e;
             }
+            if (renamed)
+            {
+                setFilenameProperty(event, message);
+                return;
+            }
+            fos = new FileOutputStream(target);
+        }
+        else
+        {
+            fos = (FileOutputStream) connector.getOutputStream(getEndpoint(), event);
+        }
+        try
+        {
+            setFilenameProperty(event, message);
 
             if (data instanceof byte[])
             {
@@ -78,6 +109,10 @@ public class FileMessageDispatcher extends AbstractMessageDispatcher
             {
                 ((OutputHandler) data).write(event, fos);
             }
+            else if (data instanceof FileInputStream)
+            {
+                transferFile((FileInputStream) data, fos);
+            }
             else
             {
                 InputStream is = event.transformMessage(DataTypeFactory.create(InputStream.class));
@@ -92,6 +127,70 @@ public class FileMessageDispatcher extends AbstractMessageDispatcher
         }
     }
 
+    private void setFilenameProperty(MuleEvent event, MuleMessage message)
+    {
+        if (event.getMessage().getOutboundProperty(FileConnector.PROPERTY_FILENAME) == null)
+        {
+            event.getMessage().setOutboundProperty(FileConnector.PROPERTY_FILENAME,
+                                                   message.getOutboundProperty(FileConnector.PROPERTY_FILENAME,
+                                                                               StringUtils.EMPTY));
+        }
+    }
+
+    /**
+     * Moves a received file that has not been read yet to its output location by
+     * renaming it.
+     *
+     * @param target the output file, which must be written instead if the rename fails
+     * @return whether the file was renamed, if not the content must be written
+     */
+    protected boolean renameReceivedFile(MuleEvent event, ReceiverFileInputStream stream, File target)
+        throws Exception
+    {
+        File source = stream.getCurrentFile();
+        long length = source.length();
+        long start = System.currentTimeMillis();
+        if (stream.renameTo(target))
+        {
+            connector.transferCompleted(source.getAbsolutePath(), target.getAbsolutePath(), length,
+                System.currentTimeMillis() - start);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes the remaining content of a file stream using a channel transfer, so the
+     * bytes are not copied through the heap. The stream is closed afterwards.
+     */
+    protected void transferFile(FileInputStream source, FileOutputStream target) throws IOException
+    {
+        long start = System.currentTimeMillis();
+        try
+        {
+            FileChannel sourceChannel = source.getChannel();
+            long position = sourceChannel.position();
+            long bytes = FileUtils.transfer(sourceChannel, position, sourceChannel.size() - position,
+                target.getChannel());
+            sourceChannel.position(position + bytes);
+            connector.transferCompleted(describe(source), getEndpoint().getEndpointURI().getAddress(), bytes,
+                System.currentTimeMillis() - start);
+        }
+        finally
+        {
+            source.close();
+        }
+    }
+
+    private String describe(FileInputStream source)
+    {
+        if (source instanceof ReceiverFileInputStream)
+        {
+            return ((ReceiverFileInputStream) source).getCurrentFile().getAbsolutePath();
+        }
+        return source.toString();
+    }
+
     /**
      * There is no associated session for a file connector
      *
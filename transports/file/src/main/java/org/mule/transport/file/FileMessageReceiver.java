@@ -49,14 +49,24 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 
+import javax.resource.spi.work.Work;
+
 import org.apache.commons.collections.comparators.ReverseComparator;
 
 /**
  * <code>FileMessageReceiver</code> is a polling listener that reads files from a
  * directory.
+ * <p/>
+ * When the connector is configured with <code>incrementalScan</code>, directories whose
+ * timestamp did not change since the previous poll are not listed again (see
+ * {@link DirectoryScanTracker}). When <code>maxConcurrentFiles</code> is greater than
+ * one and no comparator is configured, the files found on each poll are processed in
+ * parallel on the receiver work manager, with at most that many files in process at a
+ * time.
  */
 
 public class FileMessageReceiver extends AbstractPollingMessageReceiver
@@ -81,6 +91,7 @@ public class FileMessageReceiver extends AbstractPollingMessageReceiver
     private LockFactory lockFactory;
     private boolean poolOnPrimaryInstanceOnly;
     private ObjectStore<String> filesBeingProcessingObjectStore;
+    private DirectoryScanTracker scanTracker;
 
     public FileMessageReceiver(Connector connector,
                                FlowConstruct flowConstruct,
@@ -115,6 +126,11 @@ public class FileMessageReceiver extends AbstractPollingMessageReceiver
         }
 
         checkMustForceSync();
+
+        if (fileConnector.isIncrementalScan())
+        {
+            scanTracker = new DirectoryScanTracker();
+        }
     }
 
     /**
@@ -178,7 +194,10 @@ public class FileMessageReceiver extends AbstractPollingMessageReceiver
     @Override
     protected void doDisconnect() throws Exception
     {
-        // template method
+        if (scanTracker != null)
+        {
+            scanTracker.reset();
+        }
     }
 
     @Override
@@ -202,53 +221,131 @@ public class FileMessageReceiver extends AbstractPollingMessageReceiver
             {
                 Collections.sort(files, comparator);
             }
-            for (File file : files)
+
+            // ordering is only honoured when a comparator is configured
+            if (comparator == null && fileConnector.getMaxConcurrentFiles() > 1)
             {
-                if (getLifecycleState().isStopping())
+                pollFilesConcurrently(files, fileConnector.getMaxConcurrentFiles());
+            }
+            else
+            {
+                for (File file : files)
                 {
-                    break;
+                    if (getLifecycleState().isStopping())
+                    {
+                        break;
+                    }
+                    pollFile(file);
                 }
-                // don't process directories
-                if (file.isFile())
+            }
+        }
+        catch (Exception e)
+        {
+            getConnector().getMuleContext().getExceptionListener().handleException(e);
+        }
+    }
+
+    /**
+     * Processes the files using the receiver work manager, keeping at most
+     * <code>maxConcurrentFiles</code> of them in process at the same time. Returns
+     * once all of them have been processed.
+     */
+    protected void pollFilesConcurrently(List<File> files, int maxConcurrentFiles) throws Exception
+    {
+        final Semaphore permits = new Semaphore(maxConcurrentFiles);
+        for (final File file : files)
+        {
+            if (getLifecycleState().isStopping())
+            {
+                break;
+            }
+            permits.acquire();
+            try
+            {
+                getWorkManager().scheduleWork(new Work()
                 {
-                    Lock fileLock = lockFactory.createLock(file.getName());
-                    if (fileLock.tryLock())
+                    @Override
+                    public void run()
                     {
                         try
                         {
-                            String fileAbsolutePath = file.getAbsolutePath();
-                            try
-                            {
-                                filesBeingProcessingObjectStore.store(fileAbsolutePath, fileAbsolutePath);
-                                if (logger.isDebugEnabled())
-                                {
-                                    logger.debug(String.format("Flag for $ stored successfully.", fileAbsolutePath));
-                                }
-                            }
-                            catch (ObjectAlreadyExistsException e)
-                            {
-                                if (logger.isDebugEnabled())
-                                {
-                                    logger.debug(String.format("Flag for %s being processed is on. Skipping file.", fileAbsolutePath));
-                                }
-                                continue;
-                            }
-                            if (file.exists())
-                            {
-                                processFile(file);
-                            }
+                            pollFile(file);
+                        }
+                        catch (Exception e)
+                        {
+                            getConnector().getMuleContext().getExceptionListener().handleException(e);
                         }
                         finally
                         {
-                            fileLock.unlock();
+                            permits.release();
                         }
                     }
-                }
+
+                    @Override
+                    public void release()
+                    {
+                        // nothing to do
+                    }
+                });
+            }
+            catch (Exception e)
+            {
+                permits.release();
+                throw e;
             }
         }
-        catch (Exception e)
+
+        // wait for the in process files before the next poll
+        permits.acquire(maxConcurrentFiles);
+        permits.release(maxConcurrentFiles);
+    }
+
+    /**
+     * Processes a single listed file, unless it is a directory or it is already being
+     * processed.
+     */
+    protected void pollFile(File file) throws Exception
+    {
+        // don't process directories
+        if (!file.isFile())
         {
-            getConnector().getMuleContext().getExceptionListener().handleException(e);
+            return;
+        }
+        Lock fileLock = lockFactory.createLock(file.getName());
+        if (fileLock.tryLock())
+        {
+            try
+            {
+                String fileAbsolutePath = file.getAbsolutePath();
+                try
+                {
+                    filesBeingProcessingObjectStore.store(fileAbsolutePath, fileAbsolutePath);
+                    if (logger.isDebugEnabled())
+                    {
+                        logger.debug(String.format("Flag for $ stored successfully.", fileAbsolutePath));
+                    }
+                }
+                catch (ObjectAlreadyExistsException e)
+                {
+                    if (logger.isDebugEnabled())
+                    {
+                        logger.debug(String.format("Flag for %s being processed is on. Skipping file.", fileAbsolutePath));
+                    }
+                    return;
+                }
+                if (file.exists())
+                {
+                    processFile(file);
+                }
+            }
+            finally
+            {
+                fileLock.unlock();
+                if (scanTracker != null && !file.exists())
+                {
+                    scanTracker.consumed(file);
+                }
+            }
         }
     }
 
@@ -542,10 +639,14 @@ public class FileMessageReceiver extends AbstractPollingMessageReceiver
         // File in its moved location
         if (destinationFile != null)
         {
-            // move sourceFile to new destination
+            // move sourceFile to new destination, renaming it when possible
             try
             {
-                FileUtils.moveFile(sourceFile, destinationFile);
+                long length = sourceFile.length();
+                long start = System.currentTimeMillis();
+                FileUtils.moveFileWithChannelCopy(sourceFile, destinationFile);
+                fileConnector.transferCompleted(sourceFile.getAbsolutePath(), destinationFile.getAbsolutePath(),
+                    length, System.currentTimeMillis() - start);
             }
             catch (IOException e)
             {
@@ -663,6 +764,10 @@ public class FileMessageReceiver extends AbstractPollingMessageReceiver
         try
         {
             List<File> files = new ArrayList<File>();
+            if (scanTracker != null)
+            {
+                scanTracker.beginScan();
+            }
             this.basicListFiles(readDirectory, files);
             return (files.isEmpty() ? NO_FILES : files);
         }
@@ -674,6 +779,21 @@ public class FileMessageReceiver extends AbstractPollingMessageReceiver
 
     protected void basicListFiles(File currentDirectory, List<File> discoveredFiles)
     {
+        if (scanTracker != null && !scanTracker.needsListing(currentDirectory))
+        {
+            discoveredFiles.addAll(scanTracker.getRememberedFiles(currentDirectory));
+            if (fileConnector.isRecursive())
+            {
+                for (File subdirectory : scanTracker.getRememberedSubdirectories(currentDirectory))
+                {
+                    this.basicListFiles(subdirectory, discoveredFiles);
+                }
+            }
+            return;
+        }
+
+        // read the timestamp before listing so changes made while listing are seen next time
+        long lastModified = currentDirectory.lastModified();
         File[] files;
         if (fileFilter != null)
         {
@@ -690,22 +810,40 @@ public class FileMessageReceiver extends AbstractPollingMessageReceiver
             return;
         }
 
+        List<File> directoryFiles = new ArrayList<File>();
+        List<File> subdirectories = new ArrayList<File>();
         for (File file : files)
         {
             if (!file.isDirectory())
             {
-                discoveredFiles.add(file);
+                directoryFiles.add(file);
             }
             else
             {
-                if (fileConnector.isRecursive())
-                {
-                    this.basicListFiles(file, discoveredFiles);
-                }
+                subdirectories.add(file);
+            }
+        }
+        discoveredFiles.addAll(directoryFiles);
+
+        if (scanTracker != null)
+        {
+            scanTracker.listed(currentDirectory, lastModified, directoryFiles, subdirectories);
+        }
+
+        if (fileConnector.isRecursive())
+        {
+            for (File subdirectory : subdirectories)
+            {
+                this.basicListFiles(subdirectory, discoveredFiles);
             }
         }
     }
 
+    DirectoryScanTracker getScanTracker()
+    {
+        return scanTracker;
+    }
+
     /**
      * Exception tolerant roll back method
      *
@@ -35,6 +35,7 @@ class ReceiverFileInputStream extends FileInputStream
     private File moveToOnClose;
     private boolean streamProcessingError;
     private InputStreamCloseListener closeListener;
+    private boolean renamed;
 
     public ReceiverFileInputStream(File currentFile, boolean deleteOnClose, File moveToOnClose)
         throws FileNotFoundException
@@ -56,7 +57,7 @@ class ReceiverFileInputStream extends FileInputStream
     {
         super.close();
 
-        if (!streamProcessingError)
+        if (!streamProcessingError && !renamed)
         {
             if (moveToOnClose != null)
             {
@@ -88,6 +89,36 @@ class ReceiverFileInputStream extends FileInputStream
         }
     }
 
+    /**
+     * Hands the whole file over to a new location by renaming it, which avoids
+     * copying its content. This is only possible while nothing has been read from the
+     * stream and when the file would be deleted once the stream is closed anyway.
+     * The stream is closed when the rename succeeds.
+     *
+     * @param destination the new location of the file
+     * @return whether the file was renamed
+     */
+    boolean renameTo(File destination) throws IOException
+    {
+        if (!deleteOnClose || moveToOnClose != null || streamProcessingError || getChannel().position() != 0)
+        {
+            return false;
+        }
+        // the destination was created when it was resolved, and a file can't be renamed
+        // over an existing one on every platform
+        if (destination.length() == 0)
+        {
+            destination.delete();
+        }
+        if (!currentFile.renameTo(destination))
+        {
+            return false;
+        }
+        renamed = true;
+        close();
+        return true;
+    }
+
     public File getCurrentFile()
     {
         return currentFile;
@@ -0,0 +1,125 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@SmallTest
+public class DirectoryScanTrackerTestCase extends AbstractMuleTestCase
+{
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+
+    @Before
+    public void createDirectory() throws Exception
+    {
+        directory = temporaryFolder.newFolder("scan-tracker");
+        // make the directory look settled
+        directory.setLastModified(System.currentTimeMillis() - 10000);
+    }
+
+    @Test
+    public void firstScanListsEverything()
+    {
+        DirectoryScanTracker tracker = new DirectoryScanTracker(1000, 0);
+        tracker.beginScan();
+        assertTrue(tracker.needsListing(directory));
+    }
+
+    @Test
+    public void unchangedDirectoryIsNotListedAgain()
+    {
+        DirectoryScanTracker tracker = new DirectoryScanTracker(1000, 0);
+        File pending = new File(directory, "pending.txt");
+
+        tracker.beginScan();
+        tracker.listed(directory, directory.lastModified(), Arrays.asList(pending), Collections.<File>emptyList());
+
+        tracker.beginScan();
+        assertFalse(tracker.needsListing(directory));
+        assertEquals(Arrays.asList(pending), tracker.getRememberedFiles(directory));
+
+        tracker.consumed(pending);
+        assertTrue(tracker.getRememberedFiles(directory).isEmpty());
+    }
+
+    @Test
+    public void modifiedDirectoryIsListedAgain()
+    {
+        DirectoryScanTracker tracker = new DirectoryScanTracker(1000, 0);
+        tracker.beginScan();
+        tracker.listed(directory, directory.lastModified(), Collections.<File>emptyList(), Collections.<File>emptyList());
+
+        directory.setLastModified(System.currentTimeMillis() - 5000);
+        tracker.beginScan();
+        assertTrue(tracker.needsListing(directory));
+    }
+
+    @Test
+    public void recentlyModifiedDirectoryIsAlwaysListed()
+    {
+        DirectoryScanTracker tracker = new DirectoryScanTracker(60000, 0);
+        tracker.beginScan();
+        tracker.listed(directory, directory.lastModified(), Collections.<File>emptyList(), Collections.<File>emptyList());
+
+        tracker.beginScan();
+        assertTrue(tracker.needsListing(directory));
+    }
+
+    @Test
+    public void fullScanIsForcedPeriodically()
+    {
+        DirectoryScanTracker tracker = new DirectoryScanTracker(1000, 2);
+        tracker.beginScan();
+        tracker.listed(directory, directory.lastModified(), Collections.<File>emptyList(), Collections.<File>emptyList());
+
+        tracker.beginScan();
+        assertFalse(tracker.needsListing(directory));
+        tracker.beginScan();
+        assertTrue(tracker.needsListing(directory));
+    }
+
+    @Test
+    public void subdirectoryNoLongerListedIsForgotten() throws Exception
+    {
+        File subdirectory = temporaryFolder.newFolder("scan-tracker/sub");
+        subdirectory.setLastModified(System.currentTimeMillis() - 10000);
+        directory.setLastModified(System.currentTimeMillis() - 10000);
+        DirectoryScanTracker tracker = new DirectoryScanTracker(1000, 0);
+        tracker.beginScan();
+        tracker.listed(directory, directory.lastModified(), Collections.<File>emptyList(), Arrays.asList(subdirectory));
+        tracker.listed(subdirectory, subdirectory.lastModified(), Collections.<File>emptyList(), Collections.<File>emptyList());
+
+        tracker.beginScan();
+        assertFalse(tracker.needsListing(subdirectory));
+        tracker.listed(directory, directory.lastModified(), Collections.<File>emptyList(), Collections.<File>emptyList());
+
+        tracker.beginScan();
+        assertTrue(tracker.needsListing(subdirectory));
+    }
+}
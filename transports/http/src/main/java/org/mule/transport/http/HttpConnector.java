@@ -24,6 +24,7 @@ import org.mule.api.transport.MessageReceiver;
 import org.mule.api.transport.NoReceiverForEndpointException;
 import org.mule.config.i18n.CoreMessages;
 import org.mule.transport.ConnectException;
+import org.mule.transport.http.async.AsyncHttpClient;
 import org.mule.transport.http.i18n.HttpMessages;
 import org.mule.transport.http.ntlm.NTLMScheme;
 import org.mule.transport.tcp.TcpConnector;
@@ -41,6 +42,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
+import javax.resource.spi.work.Work;
+
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.httpclient.Credentials;
 import org.apache.commons.httpclient.HttpClient;
@@ -198,6 +201,14 @@ public class HttpConnector extends TcpConnector
 
     private org.mule.transport.http.HttpConnectionManager connectionManager;
 
+    private int asyncMaxConnectionsPerHost = AsyncHttpClient.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+
+    private int asyncMaxInFlightRequests = AsyncHttpClient.DEFAULT_MAX_IN_FLIGHT;
+
+    private int asyncPipelineDepth = AsyncHttpClient.DEFAULT_PIPELINE_DEPTH;
+
+    private AsyncHttpClient asyncHttpClient;
+
     public HttpConnector(MuleContext context)
     {
         super(context);
@@ -275,6 +286,7 @@ public class HttpConnector extends TcpConnector
             connectionManager.dispose();
             connectionManager = null;
         }
+        stopAsyncHttpClient();
         super.doDispose();
     }
 
@@ -283,6 +295,7 @@ public class HttpConnector extends TcpConnector
     {
         this.connectionManager.dispose();
         this.connectionManager = null;
+        stopAsyncHttpClient();
     }
 
     @Override
@@ -506,6 +519,70 @@ public class HttpConnector extends TcpConnector
         }
     }
 
+    /**
+     * Returns the non-blocking client used by
+     * {@link org.mule.transport.http.async.AsyncHttpRequestMessageProcessor}, starting it
+     * the first time it is needed.
+     */
+    public synchronized AsyncHttpClient getAsyncHttpClient() throws IOException
+    {
+        if (asyncHttpClient == null)
+        {
+            asyncHttpClient = new AsyncHttpClient("http.async.client." + getName(), asyncMaxConnectionsPerHost,
+                asyncMaxInFlightRequests, asyncPipelineDepth, AsyncHttpClient.DEFAULT_IDLE_TIMEOUT);
+        }
+        asyncHttpClient.start();
+        return asyncHttpClient;
+    }
+
+    protected synchronized void stopAsyncHttpClient()
+    {
+        if (asyncHttpClient != null)
+        {
+            asyncHttpClient.stop();
+            asyncHttpClient = null;
+        }
+    }
+
+    /**
+     * Processes the response of a non-blocking request on a dispatcher thread, so the
+     * I/O thread of the {@link AsyncHttpClient} is never blocked.
+     */
+    public void scheduleAsyncResponseWork(Work work) throws Exception
+    {
+        getDispatcherWorkManager().scheduleWork(work);
+    }
+
+    public int getAsyncMaxConnectionsPerHost()
+    {
+        return asyncMaxConnectionsPerHost;
+    }
+
+    public void setAsyncMaxConnectionsPerHost(int asyncMaxConnectionsPerHost)
+    {
+        this.asyncMaxConnectionsPerHost = asyncMaxConnectionsPerHost;
+    }
+
+    public int getAsyncMaxInFlightRequests()
+    {
+        return asyncMaxInFlightRequests;
+    }
+
+    public void setAsyncMaxInFlightRequests(int asyncMaxInFlightRequests)
+    {
+        this.asyncMaxInFlightRequests = asyncMaxInFlightRequests;
+    }
+
+    public int getAsyncPipelineDepth()
+    {
+        return asyncPipelineDepth;
+    }
+
+    public void setAsyncPipelineDepth(int asyncPipelineDepth)
+    {
+        this.asyncPipelineDepth = asyncPipelineDepth;
+    }
+
     /**
      * Ensures that the supplied URL starts with a '/'.
      */
@@ -14,12 +14,16 @@ import org.mule.DefaultMuleMessage;
 import org.mule.MessageExchangePattern;
 import org.mule.api.MuleContext;
 import org.mule.api.MuleMessage;
+import org.mule.api.config.MuleProperties;
 import org.mule.api.transport.MessageTypeNotSupportedException;
 import org.mule.transport.AbstractMuleMessageFactory;
+import org.mule.transport.http.async.AsyncHttpResponse;
 import org.mule.util.CaseInsensitiveHashMap;
 import org.mule.util.IOUtils;
 import org.mule.util.PropertiesUtils;
 import org.mule.util.StringUtils;
+import org.mule.util.buffer.BodyBufferManager;
+import org.mule.util.buffer.SpillableBuffer;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -45,6 +49,13 @@ import org.apache.commons.logging.LogFactory;
 
 public class HttpMuleMessageFactory extends AbstractMuleMessageFactory
 {
+    /**
+     * When true, large bodies of one-way requests are spilled to disk by the
+     * {@link BodyBufferManager} and the payload is a stream on the spilled file, which
+     * can only be read once. By default the payload is always a byte[].
+     */
+    public static final String SPILL_ONE_WAY_BODIES_PROPERTY = MuleProperties.SYSTEM_PROPERTY_PREFIX + "http.spillOneWayBodies";
+
     private static Log log = LogFactory.getLog(HttpMuleMessageFactory.class);
     private static final String DEFAULT_ENCODING = "UTF-8";
 
@@ -60,7 +71,7 @@ public class HttpMuleMessageFactory extends AbstractMuleMessageFactory
     @Override
     protected Class<?>[] getSupportedTransportMessageTypes()
     {
-        return new Class[]{HttpRequest.class, HttpMethod.class};
+        return new Class[]{HttpRequest.class, HttpMethod.class, AsyncHttpResponse.class};
     }
 
     @Override
@@ -74,6 +85,11 @@ public class HttpMuleMessageFactory extends AbstractMuleMessageFactory
         {
             return extractPayloadFromHttpMethod((HttpMethod) transportMessage);
         }
+        else if (transportMessage instanceof AsyncHttpResponse)
+        {
+            // the body was read by the I/O thread of the client, there is no stream to release
+            return ((AsyncHttpResponse) transportMessage).getBody();
+        }
         else
         {
             // This should never happen because of the supported type checking
@@ -98,14 +114,48 @@ public class HttpMuleMessageFactory extends AbstractMuleMessageFactory
             // before it can be read.
             if (!exchangePattern.hasResponse())
             {
-                log.debug("Reading HTTP POST InputStream into byte[] for asynchronous messaging.");
-                body = IOUtils.toByteArray((InputStream) body);
+                if (Boolean.getBoolean(SPILL_ONE_WAY_BODIES_PROPERTY))
+                {
+                    body = bufferBody((InputStream) body);
+                }
+                else
+                {
+                    log.debug("Reading HTTP POST InputStream into byte[] for asynchronous messaging.");
+                    body = IOUtils.toByteArray((InputStream) body);
+                }
             }
         }
 
         return body;
     }
 
+    /**
+     * Reads the body into a byte[], or into a file when it is larger than the memory
+     * threshold of the {@link BodyBufferManager}. The spilled file is deleted when the
+     * returned stream is closed.
+     */
+    protected Object bufferBody(InputStream body) throws IOException
+    {
+        log.debug("Buffering HTTP POST InputStream for asynchronous messaging.");
+        SpillableBuffer buffer = BodyBufferManager.lookup(muleContext).createBuffer();
+        try
+        {
+            IOUtils.copyLarge(body, buffer);
+        }
+        catch (IOException e)
+        {
+            buffer.release();
+            throw e;
+        }
+        if (buffer.isSpilled())
+        {
+            return buffer.openStream(true);
+        }
+        byte[] bytes = buffer.toByteArray();
+        buffer.release();
+        return bytes;
+    }
+
     protected Object extractPayloadFromHttpMethod(HttpMethod httpMethod) throws IOException
     {
         InputStream body = httpMethod.getResponseBodyAsStream();
@@ -148,6 +198,15 @@ public class HttpMuleMessageFactory extends AbstractMuleMessageFactory
             statusCode = String.valueOf(httpMethod.getStatusCode());
             headers = convertHeadersToMap(httpMethod.getResponseHeaders(), uri);
         }
+        else if (transportMessage instanceof AsyncHttpResponse)
+        {
+            AsyncHttpResponse response = (AsyncHttpResponse) transportMessage;
+            method = response.getRequest().getMethod();
+            httpVersion = HttpVersion.parse(response.getHttpVersion());
+            uri = response.getRequest().getUri();
+            statusCode = String.valueOf(response.getStatusCode());
+            headers = convertHeadersToMap(response.getHeaders(), uri);
+        }
         else
         {
             // This should never happen because of the supported type checking in our superclass
@@ -15,6 +15,7 @@ import org.mule.api.MuleContext;
 import org.mule.transport.http.multipart.MultiPartInputStream;
 import org.mule.transport.http.multipart.Part;
 import org.mule.transport.http.multipart.PartDataSource;
+import org.mule.util.buffer.BodyBufferManager;
 
 import java.io.IOException;
 import java.util.Collection;
@@ -39,7 +40,8 @@ public class HttpMultipartMuleMessageFactory extends HttpMuleMessageFactory
 
         if (httpRequest.getContentType().contains("multipart/form-data"))
         {
-            MultiPartInputStream in = new MultiPartInputStream(httpRequest.getBody(), httpRequest.getContentType(), null);
+            MultiPartInputStream in = new MultiPartInputStream(httpRequest.getBody(), httpRequest.getContentType(), null,
+                BodyBufferManager.lookup(muleContext));
 
             // We need to store this so that the headers for the part can be read
             parts = in.getParts();
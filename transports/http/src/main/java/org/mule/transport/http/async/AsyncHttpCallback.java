@@ -0,0 +1,26 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.http.async;
+
+/**
+ * Receives the outcome of a request executed by an {@link AsyncHttpClient}. Exactly one
+ * of the methods is called for each request.
+ * <p/>
+ * Callbacks run on the I/O thread of the client, so they must hand any processing over
+ * to another thread instead of blocking it.
+ */
+public interface AsyncHttpCallback
+{
+
+    void completed(AsyncHttpResponse response);
+
+    void failed(Exception e);
+}
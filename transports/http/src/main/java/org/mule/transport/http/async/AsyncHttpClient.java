@@ -0,0 +1,814 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.http.async;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A non-blocking HTTP/1.1 client. A single I/O thread writes requests and reads
+ * responses for all connections using a {@link Selector}, and the outcome of each
+ * request is delivered to an {@link AsyncHttpCallback}, so no thread waits for the
+ * remote server.
+ * <p/>
+ * Connections are pooled per host and port, up to <code>maxConnectionsPerHost</code>,
+ * and kept alive between requests. When all of them are busy and
+ * <code>pipelineDepth</code> is greater than one, idempotent requests are pipelined on
+ * connections that already answered a request, otherwise they wait for a connection
+ * to be free. At most <code>maxInFlight</code> requests are accepted at a time:
+ * {@link #execute(AsyncHttpRequest, long, AsyncHttpCallback)} waits for one to
+ * complete once the limit is reached.
+ * <p/>
+ * Plain HTTP only: requests through a proxy or over TLS must use the blocking client.
+ */
+public class AsyncHttpClient
+{
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 8;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+    public static final int DEFAULT_PIPELINE_DEPTH = 1;
+    public static final long DEFAULT_IDLE_TIMEOUT = 30000;
+
+    private static final long SELECT_TIMEOUT = 100;
+    private static final long STOP_TIMEOUT = 5000;
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    protected transient final Log logger = LogFactory.getLog(AsyncHttpClient.class);
+
+    private final String name;
+    private final int maxConnectionsPerHost;
+    private final int maxInFlight;
+    private final int pipelineDepth;
+    private final long idleTimeout;
+    private final Semaphore inFlight;
+
+    private final Queue<Exchange> submissions = new ConcurrentLinkedQueue<Exchange>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean(false);
+
+    // only used by the I/O thread
+    private final Map<String, HostPool> pools = new HashMap<String, HostPool>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+    private volatile Selector selector;
+    private volatile Thread ioThread;
+    private volatile boolean running = false;
+
+    private final AtomicLong completedRequests = new AtomicLong(0);
+    private final AtomicLong failedRequests = new AtomicLong(0);
+    private final AtomicLong pipelinedRequests = new AtomicLong(0);
+    private final AtomicLong openedConnections = new AtomicLong(0);
+    private final AtomicInteger openConnections = new AtomicInteger(0);
+
+    public AsyncHttpClient(String name)
+    {
+        this(name, DEFAULT_MAX_CONNECTIONS_PER_HOST, DEFAULT_MAX_IN_FLIGHT, DEFAULT_PIPELINE_DEPTH,
+            DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param name the name of the I/O thread
+     * @param maxConnectionsPerHost the maximum number of connections open to each host
+     *            and port
+     * @param maxInFlight the maximum number of requests waiting for a response
+     * @param pipelineDepth the maximum number of requests sent on a connection before
+     *            its first response arrives, 1 disables pipelining
+     * @param idleTimeout the time in milliseconds idle connections are kept open
+     */
+    public AsyncHttpClient(String name, int maxConnectionsPerHost, int maxInFlight, int pipelineDepth,
+                           long idleTimeout)
+    {
+        this.name = name;
+        this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.pipelineDepth = Math.max(1, pipelineDepth);
+        this.idleTimeout = idleTimeout;
+        this.inFlight = new Semaphore(this.maxInFlight);
+    }
+
+    public synchronized void start() throws IOException
+    {
+        if (running)
+        {
+            return;
+        }
+        selector = Selector.open();
+        running = true;
+        ioThread = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                runLoop();
+            }
+        }, name + ".io");
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    /**
+     * Stops the I/O thread. Requests not completed yet fail.
+     */
+    public synchronized void stop()
+    {
+        if (!running)
+        {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try
+        {
+            ioThread.join(STOP_TIMEOUT);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        ioThread = null;
+    }
+
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    /**
+     * Sends a request. The callback is invoked on the I/O thread once the response is
+     * read or the request fails, including when no response arrives within the
+     * timeout.
+     *
+     * @param timeout the time in milliseconds to wait for the response, and for a free
+     *            slot if <code>maxInFlight</code> requests are already in flight; no
+     *            limit if not positive
+     * @throws RejectedExecutionException if the client is stopped or no slot became free
+     *             within the timeout
+     */
+    public void execute(AsyncHttpRequest request, long timeout, AsyncHttpCallback callback)
+        throws IOException, InterruptedException
+    {
+        if (!running)
+        {
+            throw new RejectedExecutionException(name + " is not running");
+        }
+        Exchange exchange = new Exchange(request, callback, request.encode(), timeout);
+
+        if (!inFlight.tryAcquire(timeout > 0 ? timeout : Long.MAX_VALUE, TimeUnit.MILLISECONDS))
+        {
+            throw new RejectedExecutionException(String.format(
+                "%s has %d requests in flight, none completed within %d ms", name, maxInFlight, timeout));
+        }
+        submissions.add(exchange);
+        if (!running)
+        {
+            // the I/O thread may have drained the submissions already
+            failSubmissions();
+        }
+        else if (wakeupPending.compareAndSet(false, true))
+        {
+            selector.wakeup();
+        }
+    }
+
+    private void runLoop()
+    {
+        long lastSweep = System.currentTimeMillis();
+        while (running)
+        {
+            try
+            {
+                wakeupPending.set(false);
+                processSubmissions();
+                selector.select(SELECT_TIMEOUT);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext())
+                {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastSweep >= SELECT_TIMEOUT)
+                {
+                    sweep(now);
+                    lastSweep = now;
+                }
+            }
+            catch (Exception e)
+            {
+                logger.error("Unexpected error in " + name, e);
+            }
+        }
+        shutdown();
+    }
+
+    private void processSubmissions()
+    {
+        Exchange exchange;
+        while ((exchange = submissions.poll()) != null)
+        {
+            AsyncHttpRequest request = exchange.request;
+            String key = request.getHost() + ":" + request.getPort();
+            HostPool pool = pools.get(key);
+            if (pool == null)
+            {
+                pool = new HostPool(request.getHost(), request.getPort());
+                pools.put(key, pool);
+            }
+            pool.pending.add(exchange);
+            dispatch(pool);
+        }
+    }
+
+    /**
+     * Assigns the requests waiting in a pool to connections.
+     */
+    private void dispatch(HostPool pool)
+    {
+        while (!pool.pending.isEmpty())
+        {
+            Exchange exchange = pool.pending.peek();
+            Connection connection = pool.idleConnection();
+            if (connection == null && pool.connections.size() < maxConnectionsPerHost)
+            {
+                try
+                {
+                    connection = open(pool);
+                }
+                catch (IOException e)
+                {
+                    pool.address = null;
+                    pool.pending.poll();
+                    fail(exchange, e);
+                    continue;
+                }
+            }
+            if (connection == null && pipelineDepth > 1 && exchange.request.isIdempotent())
+            {
+                connection = pool.pipelineConnection();
+            }
+            if (connection == null)
+            {
+                // all the connections are busy
+                return;
+            }
+            pool.pending.poll();
+            connection.enqueue(exchange);
+        }
+    }
+
+    private Connection open(HostPool pool) throws IOException
+    {
+        if (pool.address == null)
+        {
+            pool.address = new InetSocketAddress(pool.host, pool.port);
+        }
+        SocketChannel channel = SocketChannel.open();
+        try
+        {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            boolean connected = channel.connect(pool.address);
+            Connection connection = new Connection(pool, channel);
+            connection.connected = connected;
+            connection.key = channel.register(selector, connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT,
+                connection);
+            pool.connections.add(connection);
+            openedConnections.incrementAndGet();
+            openConnections.incrementAndGet();
+            return connection;
+        }
+        catch (IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void handle(SelectionKey key)
+    {
+        Connection connection = (Connection) key.attachment();
+        try
+        {
+            if (key.isValid() && key.isConnectable())
+            {
+                connection.channel.finishConnect();
+                connection.connected = true;
+                connection.updateInterest();
+            }
+            if (key.isValid() && key.isWritable())
+            {
+                write(connection);
+            }
+            if (key.isValid() && key.isReadable())
+            {
+                read(connection);
+            }
+        }
+        catch (IOException e)
+        {
+            connectionFailed(connection, e);
+        }
+    }
+
+    private void write(Connection connection) throws IOException
+    {
+        while (!connection.writeQueue.isEmpty())
+        {
+            Exchange exchange = connection.writeQueue.peek();
+            connection.channel.write(exchange.requestBuffer);
+            if (exchange.requestBuffer.hasRemaining())
+            {
+                // the socket buffer is full
+                return;
+            }
+            exchange.written = true;
+            connection.writeQueue.poll();
+        }
+        connection.updateInterest();
+    }
+
+    private void read(Connection connection) throws IOException
+    {
+        readBuffer.clear();
+        int read = connection.channel.read(readBuffer);
+        if (read < 0)
+        {
+            endOfStream(connection);
+            return;
+        }
+        readBuffer.flip();
+
+        while (readBuffer.hasRemaining())
+        {
+            Exchange exchange = connection.outstanding.peek();
+            if (exchange == null)
+            {
+                throw new IOException("Unexpected data received from " + connection.pool);
+            }
+            AsyncHttpResponse response = connection.parser.parse(readBuffer);
+            if (response == null)
+            {
+                return;
+            }
+            responseReceived(connection, response);
+            if (!connection.keepAlive)
+            {
+                // the server closes the connection after this response
+                connectionFailed(connection, new IOException("Connection closed by " + connection.pool));
+                return;
+            }
+        }
+        dispatch(connection.pool);
+    }
+
+    private void endOfStream(Connection connection)
+    {
+        if (!connection.outstanding.isEmpty() && connection.parser.isStarted())
+        {
+            try
+            {
+                responseReceived(connection, connection.parser.endOfStream());
+            }
+            catch (IOException e)
+            {
+                connectionFailed(connection, e);
+                return;
+            }
+        }
+        connectionFailed(connection, new IOException("Connection closed by " + connection.pool));
+    }
+
+    private void responseReceived(Connection connection, AsyncHttpResponse response)
+    {
+        Exchange exchange = connection.outstanding.poll();
+        connection.responses++;
+        connection.lastUsed = System.currentTimeMillis();
+        connection.keepAlive = response.isKeepAlive();
+        if (!connection.outstanding.isEmpty())
+        {
+            connection.parser.reset(connection.outstanding.peek().request);
+        }
+        complete(exchange, response);
+    }
+
+    /**
+     * Closes a connection. Requests not sent yet, and idempotent requests sent but not
+     * answered, go back to the pool once; the others fail.
+     */
+    private void connectionFailed(Connection connection, IOException e)
+    {
+        close(connection);
+        HostPool pool = connection.pool;
+        if (!connection.connected)
+        {
+            pool.address = null;
+            for (Exchange exchange : connection.outstanding)
+            {
+                fail(exchange, e);
+            }
+        }
+        else
+        {
+            LinkedList<Exchange> retries = new LinkedList<Exchange>();
+            boolean head = true;
+            for (Exchange exchange : connection.outstanding)
+            {
+                boolean answered = head && connection.parser.isStarted();
+                if (!exchange.written && exchange.requestBuffer.position() == 0)
+                {
+                    retries.add(exchange);
+                }
+                else if (exchange.request.isIdempotent() && !exchange.retried && !answered)
+                {
+                    exchange.retried = true;
+                    exchange.written = false;
+                    exchange.requestBuffer.rewind();
+                    retries.add(exchange);
+                }
+                else
+                {
+                    fail(exchange, e);
+                }
+                head = false;
+            }
+            pool.pending.addAll(0, retries);
+        }
+        connection.outstanding.clear();
+        connection.writeQueue.clear();
+        if (running)
+        {
+            dispatch(pool);
+        }
+    }
+
+    private void close(Connection connection)
+    {
+        if (connection.closed)
+        {
+            return;
+        }
+        connection.closed = true;
+        if (connection.key != null)
+        {
+            connection.key.cancel();
+        }
+        try
+        {
+            connection.channel.close();
+        }
+        catch (IOException e)
+        {
+            logger.debug("Error closing connection to " + connection.pool, e);
+        }
+        connection.pool.connections.remove(connection);
+        openConnections.decrementAndGet();
+    }
+
+    /**
+     * Fails the requests that timed out and closes idle connections.
+     */
+    private void sweep(long now)
+    {
+        Iterator<HostPool> poolIterator = pools.values().iterator();
+        while (poolIterator.hasNext())
+        {
+            HostPool pool = poolIterator.next();
+
+            Iterator<Exchange> pending = pool.pending.iterator();
+            while (pending.hasNext())
+            {
+                Exchange exchange = pending.next();
+                if (now >= exchange.deadline)
+                {
+                    pending.remove();
+                    fail(exchange, new SocketTimeoutException("Timed out waiting for a connection to " + pool));
+                }
+            }
+
+            for (Connection connection : new ArrayList<Connection>(pool.connections))
+            {
+                Exchange head = connection.outstanding.peek();
+                if (head != null && now >= head.deadline)
+                {
+                    // pipelined responses would be out of order if only this request was
+                    // dropped, so the connection is closed
+                    connection.outstanding.poll();
+                    connection.parser.reset(null);
+                    fail(head,new SocketTimeoutException("Timed out waiting for the response to " + head.request));
+                    connectionFailed(connection, new IOException("Connection closed after a timeout"));
+                }
+                else if (head == null && now - connection.lastUsed > idleTimeout)
+                {
+                    close(connection);
+                }
+            }
+
+            if (pool.pending.isEmpty() && pool.connections.isEmpty())
+            {
+                poolIterator.remove();
+            }
+        }
+    }
+
+    private void shutdown()
+    {
+        IOException stopped = new IOException(name + " was stopped");
+        for (HostPool pool : pools.values())
+        {
+            for (Connection connection : new ArrayList<Connection>(pool.connections))
+            {
+                close(connection);
+                for (Exchange exchange : connection.outstanding)
+                {
+                    fail(exchange, stopped);
+                }
+            }
+            for (Exchange exchange : pool.pending)
+            {
+                fail(exchange, stopped);
+            }
+        }
+        pools.clear();
+        failSubmissions();
+        try
+        {
+            selector.close();
+        }
+        catch (IOException e)
+        {
+            logger.debug("Error closing selector of " + name, e);
+        }
+    }
+
+    private void failSubmissions()
+    {
+        Exchange exchange;
+        while ((exchange = submissions.poll()) != null)
+        {
+            fail(exchange, new IOException(name + " was stopped"));
+        }
+    }
+
+    private void complete(Exchange exchange, AsyncHttpResponse response)
+    {
+        if (exchange.finish())
+        {
+            completedRequests.incrementAndGet();
+            try
+            {
+                exchange.callback.completed(response);
+            }
+            catch (RuntimeException e)
+            {
+                logger.error("Error in callback for " + exchange.request, e);
+            }
+        }
+    }
+
+    private void fail(Exchange exchange, Exception e)
+    {
+        if (exchange.finish())
+        {
+            failedRequests.incrementAndGet();
+            try
+            {
+                exchange.callback.failed(e);
+            }
+            catch (RuntimeException re)
+            {
+                logger.error("Error in callback for " + exchange.request, re);
+            }
+        }
+    }
+
+    /**
+     * @return the number of requests waiting for a response
+     */
+    public int getInFlight()
+    {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public long getCompletedRequests()
+    {
+        return completedRequests.get();
+    }
+
+    public long getFailedRequests()
+    {
+        return failedRequests.get();
+    }
+
+    /**
+     * @return the number of requests sent on a connection that had not answered the
+     *         previous one yet
+     */
+    public long getPipelinedRequests()
+    {
+        return pipelinedRequests.get();
+    }
+
+    public int getOpenConnections()
+    {
+        return openConnections.get();
+    }
+
+    /**
+     * @return the number of connections opened since the client started, compared with
+     *         the number of requests it tells how well connections are reused
+     */
+    public long getOpenedConnections()
+    {
+        return openedConnections.get();
+    }
+
+    public int getMaxConnectionsPerHost()
+    {
+        return maxConnectionsPerHost;
+    }
+
+    public int getMaxInFlight()
+    {
+        return maxInFlight;
+    }
+
+    public int getPipelineDepth()
+    {
+        return pipelineDepth;
+    }
+
+    private class Exchange
+    {
+        private final AsyncHttpRequest request;
+        private final AsyncHttpCallback callback;
+        private final ByteBuffer requestBuffer;
+        private final long deadline;
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        private boolean written;
+        private boolean retried;
+
+        public Exchange(AsyncHttpRequest request, AsyncHttpCallback callback, ByteBuffer requestBuffer,
+                        long timeout)
+        {
+            this.request = request;
+            this.callback = callback;
+            this.requestBuffer = requestBuffer;
+            this.deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+        }
+
+        /**
+         * @return true the first time it is called, so a request completes only once
+         */
+        public boolean finish()
+        {
+            if (finished.compareAndSet(false, true))
+            {
+                inFlight.release();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private class HostPool
+    {
+        private final String host;
+        private final int port;
+        private final LinkedList<Exchange> pending = new LinkedList<Exchange>();
+        private final List<Connection> connections = new ArrayList<Connection>();
+        private InetSocketAddress address;
+
+        public HostPool(String host, int port)
+        {
+            this.host = host;
+            this.port = port;
+        }
+
+        public Connection idleConnection()
+        {
+            for (Connection connection : connections)
+            {
+                if (connection.keepAlive && connection.outstanding.isEmpty())
+                {
+                    return connection;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the least busy connection that is known to be kept alive and only has
+         *         idempotent requests outstanding
+         */
+        public Connection pipelineConnection()
+        {
+            Connection best = null;
+            for (Connection connection : connections)
+            {
+                if (connection.keepAlive && connection.responses > 0
+                    && connection.outstanding.size() < pipelineDepth && connection.isIdempotent()
+                    && (best == null || connection.outstanding.size() < best.outstanding.size()))
+                {
+                    best = connection;
+                }
+            }
+            return best;
+        }
+
+        @Override
+        public String toString()
+        {
+            return host + ":" + port;
+        }
+    }
+
+    private class Connection
+    {
+        private final HostPool pool;
+        private final SocketChannel channel;
+        private final HttpResponseParser parser = new HttpResponseParser();
+        private final LinkedList<Exchange> outstanding = new LinkedList<Exchange>();
+        private final LinkedList<Exchange> writeQueue = new LinkedList<Exchange>();
+        private SelectionKey key;
+        private boolean connected;
+        private boolean closed;
+        private boolean keepAlive = true;
+        private int responses;
+        private long lastUsed = System.currentTimeMillis();
+
+        public Connection(HostPool pool, SocketChannel channel)
+        {
+            this.pool = pool;
+            this.channel = channel;
+        }
+
+        public void enqueue(Exchange exchange)
+        {
+            if (outstanding.isEmpty())
+            {
+                parser.reset(exchange.request);
+            }
+            else
+            {
+                pipelinedRequests.incrementAndGet();
+            }
+            outstanding.add(exchange);
+            writeQueue.add(exchange);
+            lastUsed = System.currentTimeMillis();
+            updateInterest();
+        }
+
+        public void updateInterest()
+        {
+            if (connected && key.isValid())
+            {
+                key.interestOps(writeQueue.isEmpty()
+                                ? SelectionKey.OP_READ
+                                : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        public boolean isIdempotent()
+        {
+            for (Exchange exchange : outstanding)
+            {
+                if (!exchange.request.isIdempotent())
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
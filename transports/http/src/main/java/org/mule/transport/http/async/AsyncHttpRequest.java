@@ -0,0 +1,207 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.http.async;
+
+import org.mule.transport.http.HttpConstants;
+import org.mule.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
+import org.apache.commons.httpclient.methods.RequestEntity;
+
+/**
+ * An HTTP/1.1 request for an {@link AsyncHttpClient}. The body is held in memory so the
+ * request can be written without blocking.
+ */
+public class AsyncHttpRequest
+{
+
+    private static final String HEADER_ENCODING = "ISO-8859-1";
+    private static final String CRLF = "\r\n";
+
+    private final String method;
+    private final String host;
+    private final int port;
+    private final String requestUri;
+    private final List<Header> headers = new ArrayList<Header>();
+    private byte[] body;
+
+    /**
+     * @param method the HTTP method, i.e. GET
+     * @param host the host to connect to
+     * @param port the port to connect to
+     * @param requestUri the path and query of the request, i.e. /orders?id=1
+     */
+    public AsyncHttpRequest(String method, String host, int port, String requestUri)
+    {
+        this.method = method.toUpperCase();
+        this.host = host;
+        this.port = port;
+        this.requestUri = StringUtils.isEmpty(requestUri) ? "/" : requestUri;
+    }
+
+    /**
+     * Creates a request from a commons-httpclient method, so the transformers that build
+     * methods for the {@link org.mule.transport.http.HttpClientMessageDispatcher} can be
+     * reused. Entities are written to memory.
+     */
+    public static AsyncHttpRequest fromHttpMethod(HttpMethod httpMethod, String host, int port)
+        throws IOException
+    {
+        String requestUri = httpMethod.getPath();
+        if (StringUtils.isNotEmpty(httpMethod.getQueryString()))
+        {
+            requestUri += "?" + httpMethod.getQueryString();
+        }
+        AsyncHttpRequest request = new AsyncHttpRequest(httpMethod.getName(), host, port, requestUri);
+        for (Header header : httpMethod.getRequestHeaders())
+        {
+            request.addHeader(header.getName(), header.getValue());
+        }
+
+        if (httpMethod instanceof EntityEnclosingMethod)
+        {
+            RequestEntity entity = ((EntityEnclosingMethod) httpMethod).getRequestEntity();
+            if (entity != null)
+            {
+                if (entity.getContentType() != null && request.getHeader(HttpConstants.HEADER_CONTENT_TYPE) == null)
+                {
+                    request.addHeader(HttpConstants.HEADER_CONTENT_TYPE, entity.getContentType());
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream(
+                    entity.getContentLength() > 0 ? (int) entity.getContentLength() : 1024);
+                entity.writeRequest(out);
+                request.setBody(out.toByteArray());
+            }
+        }
+        return request;
+    }
+
+    public void addHeader(String name, String value)
+    {
+        headers.add(new Header(name, value));
+    }
+
+    public String getHeader(String name)
+    {
+        for (Header header : headers)
+        {
+            if (header.getName().equalsIgnoreCase(name))
+            {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    public void setBody(byte[] body)
+    {
+        this.body = body;
+    }
+
+    public byte[] getBody()
+    {
+        return body;
+    }
+
+    public String getMethod()
+    {
+        return method;
+    }
+
+    public String getHost()
+    {
+        return host;
+    }
+
+    public int getPort()
+    {
+        return port;
+    }
+
+    public String getRequestUri()
+    {
+        return requestUri;
+    }
+
+    /**
+     * @return the absolute URI of the request
+     */
+    public String getUri()
+    {
+        return "http://" + host + ":" + port + requestUri;
+    }
+
+    /**
+     * @return true if the request can be sent again, or pipelined behind other
+     *         requests, without side effects
+     */
+    public boolean isIdempotent()
+    {
+        return HttpConstants.METHOD_GET.equals(method) || HttpConstants.METHOD_HEAD.equals(method)
+               || HttpConstants.METHOD_OPTIONS.equals(method);
+    }
+
+    /**
+     * @return the request line, headers and body as they are sent
+     */
+    ByteBuffer encode() throws UnsupportedEncodingException
+    {
+        StringBuilder head = new StringBuilder(256);
+        head.append(method).append(' ').append(requestUri).append(" HTTP/1.1").append(CRLF);
+        head.append(HttpConstants.HEADER_HOST).append(": ").append(host);
+        if (port != HttpConstants.DEFAULT_HTTP_PORT)
+        {
+            head.append(':').append(port);
+        }
+        head.append(CRLF);
+        for (Header header : headers)
+        {
+            String name = header.getName();
+            // framing headers are set from the body below
+            if (!name.equalsIgnoreCase(HttpConstants.HEADER_HOST)
+                && !name.equalsIgnoreCase(HttpConstants.HEADER_CONTENT_LENGTH)
+                && !name.equalsIgnoreCase(HttpConstants.HEADER_TRANSFER_ENCODING))
+            {
+                head.append(name).append(": ").append(header.getValue()).append(CRLF);
+            }
+        }
+        if (body != null || !isIdempotent())
+        {
+            head.append(HttpConstants.HEADER_CONTENT_LENGTH).append(": ").append(body == null ? 0 : body.length).append(CRLF);
+        }
+        head.append(CRLF);
+
+        byte[] headBytes = head.toString().getBytes(HEADER_ENCODING);
+        ByteBuffer buffer = ByteBuffer.allocate(headBytes.length + (body == null ? 0 : body.length));
+        buffer.put(headBytes);
+        if (body != null)
+        {
+            buffer.put(body);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public String toString()
+    {
+        return method + " " + getUri();
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.http.async;
+
+import org.mule.DefaultMuleEvent;
+import org.mule.OptimizedRequestContext;
+import org.mule.VoidMuleEvent;
+import org.mule.api.DefaultMuleException;
+import org.mule.api.MessagingException;
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.MuleMessage;
+import org.mule.api.config.MuleProperties;
+import org.mule.api.exception.MessagingExceptionHandler;
+import org.mule.api.lifecycle.Initialisable;
+import org.mule.api.lifecycle.InitialisationException;
+import org.mule.api.transport.DispatchException;
+import org.mule.api.transport.MuleMessageFactory;
+import org.mule.config.i18n.CoreMessages;
+import org.mule.endpoint.MuleEndpointURI;
+import org.mule.message.DefaultExceptionPayload;
+import org.mule.processor.AbstractInterceptingMessageProcessor;
+import org.mule.transport.http.HttpConnector;
+import org.mule.transport.http.HttpConstants;
+import org.mule.transport.http.HttpResponseException;
+import org.mule.transport.http.transformers.ObjectToHttpClientMethodRequest;
+import org.mule.transport.service.TransportFactory;
+import org.mule.util.AttributeEvaluator;
+import org.mule.util.StringUtils;
+
+import java.net.URI;
+
+import javax.resource.spi.work.Work;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.lang.BooleanUtils;
+
+/**
+ * Sends an HTTP request without blocking the flow thread. The request is built from
+ * the message as an outbound HTTP endpoint would build it, and sent by the
+ * {@link AsyncHttpClient} of the connector. The flow thread returns as soon as the
+ * request is queued; when the response arrives the rest of the flow processes it on a
+ * dispatcher thread of the connector, like the reply of a request-reply scope.
+ * <p/>
+ * As with <code>async</code>, the result of the flow is not returned to a
+ * request-response inbound endpoint. A status code of 400 or more sets an exception
+ * payload unless {@link HttpConnector#HTTP_DISABLE_STATUS_CODE_EXCEPTION_CHECK} is set,
+ * and transport failures, including timeouts, are handled by the exception strategy of
+ * the flow.
+ * <p/>
+ * Only plain HTTP is supported, without a proxy.
+ */
+public class AsyncHttpRequestMessageProcessor extends AbstractInterceptingMessageProcessor
+    implements Initialisable
+{
+
+    private String address;
+    private String method;
+    private long responseTimeout = -1;
+    private HttpConnector connector;
+
+    private AttributeEvaluator addressEvaluator;
+    private ObjectToHttpClientMethodRequest requestTransformer;
+    private MuleMessageFactory messageFactory;
+
+    public void initialise() throws InitialisationException
+    {
+        if (address == null)
+        {
+            throw new InitialisationException(CoreMessages.objectIsNull("address"), this);
+        }
+        try
+        {
+            if (connector == null)
+            {
+                MuleEndpointURI uri = new MuleEndpointURI(HttpConnector.HTTP + "://localhost", muleContext);
+                uri.initialise();
+                connector = (HttpConnector) new TransportFactory(muleContext).getOrCreateConnectorByProtocol(uri);
+            }
+            if (StringUtils.isNotBlank(connector.getProxyHostname()))
+            {
+                throw new InitialisationException(
+                    CoreMessages.createStaticMessage("Non-blocking HTTP requests do not support proxies, connector "
+                                                     + connector.getName() + " has a proxy configured"), this);
+            }
+            messageFactory = connector.createMuleMessageFactory();
+
+            requestTransformer = new ObjectToHttpClientMethodRequest();
+            requestTransformer.setMuleContext(muleContext);
+            requestTransformer.initialise();
+        }
+        catch (InitialisationException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new InitialisationException(e, this);
+        }
+
+        addressEvaluator = new AttributeEvaluator(address);
+        addressEvaluator.initialize(muleContext.getExpressionManager());
+        if (responseTimeout < 0)
+        {
+            responseTimeout = muleContext.getConfiguration().getDefaultResponseTimeout();
+        }
+    }
+
+    public MuleEvent process(MuleEvent event) throws MuleException
+    {
+        if (event.isTransacted())
+        {
+            throw new MessagingException(
+                CoreMessages.createStaticMessage("Unable to send a non-blocking HTTP request in a transaction"),
+                event, this);
+        }
+
+        // the flow thread carries on with the event once the request is queued, so the
+        // request and the continuation work on their own copy, made on this thread
+        MuleEvent requestEvent = DefaultMuleEvent.copy(event);
+        MuleMessage message = requestEvent.getMessage();
+        AsyncHttpRequest request;
+        try
+        {
+            String uriString = String.valueOf(addressEvaluator.resolveValue(message));
+            URI uri = new URI(uriString);
+            if (!HttpConnector.HTTP.equalsIgnoreCase(uri.getScheme()))
+            {
+                throw new MessagingException(
+                    CoreMessages.createStaticMessage("Non-blocking requests only support the http scheme: "
+                                                     + uriString), event, this);
+            }
+
+            message.setOutboundProperty(MuleProperties.MULE_ENDPOINT_PROPERTY, uriString);
+            if (method != null)
+            {
+                message.setOutboundProperty(HttpConnector.HTTP_METHOD_PROPERTY, method);
+            }
+            HttpMethod httpMethod = (HttpMethod) requestTransformer.transform(message, requestEvent);
+            if (uri.getUserInfo() != null && httpMethod.getRequestHeader(HttpConstants.HEADER_AUTHORIZATION) == null)
+            {
+                httpMethod.addRequestHeader(HttpConstants.HEADER_AUTHORIZATION,
+                    "Basic " + new String(Base64.encodeBase64(uri.getUserInfo().getBytes(requestEvent.getEncoding()))));
+            }
+
+            int port = uri.getPort() == -1 ? HttpConstants.DEFAULT_HTTP_PORT : uri.getPort();
+            request = AsyncHttpRequest.fromHttpMethod(httpMethod, uri.getHost(), port);
+        }
+        catch (MessagingException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new MessagingException(event, e, this);
+        }
+
+        try
+        {
+            connector.getAsyncHttpClient().execute(request, responseTimeout, new ResponseCallback(requestEvent));
+        }
+        catch (Exception e)
+        {
+            throw new MessagingException(CoreMessages.createStaticMessage("Unable to send " + request), event, e,
+                this);
+        }
+
+        if (muleContext.getConfiguration().isFlowEndingWithOneWayEndpointReturnsNull())
+        {
+            return event;
+        }
+        return VoidMuleEvent.getInstance();
+    }
+
+    protected boolean isErrorStatus(MuleMessage request, AsyncHttpResponse response)
+    {
+        String disableCheck = request.getInvocationProperty(HttpConnector.HTTP_DISABLE_STATUS_CODE_EXCEPTION_CHECK);
+        if (disableCheck == null)
+        {
+            disableCheck = request.getOutboundProperty(HttpConnector.HTTP_DISABLE_STATUS_CODE_EXCEPTION_CHECK);
+        }
+        return response.getStatusCode() >= HttpConstants.SC_BAD_REQUEST && !BooleanUtils.toBoolean(disableCheck);
+    }
+
+    /**
+     * Hands the outcome of the request over to a dispatcher thread, the I/O thread of the
+     * client must not run the flow.
+     */
+    private class ResponseCallback implements AsyncHttpCallback
+    {
+        private final MuleEvent event;
+
+        public ResponseCallback(MuleEvent event)
+        {
+            this.event = event;
+        }
+
+        public void completed(AsyncHttpResponse response)
+        {
+            schedule(new ContinuationWork(event, response, null));
+        }
+
+        public void failed(Exception e)
+        {
+            schedule(new ContinuationWork(event, null, e));
+        }
+
+        private void schedule(ContinuationWork work)
+        {
+            try
+            {
+                connector.scheduleAsyncResponseWork(work);
+            }
+            catch (Exception e)
+            {
+                handleException(event, new DefaultMuleException(
+                    CoreMessages.errorSchedulingMessageProcessorForAsyncInvocation(next), e));
+            }
+        }
+    }
+
+    /**
+     * Unlike {@link org.mule.work.AbstractMuleEventWork} this doesn't copy the event: it
+     * is created on an I/O thread, after the flow thread moved on, and is given the copy
+     * made by {@link #process(MuleEvent)}.
+     */
+    private class ContinuationWork implements Work
+    {
+        private final MuleEvent event;
+        private final AsyncHttpResponse response;
+        private final Exception failure;
+
+        public ContinuationWork(MuleEvent event, AsyncHttpResponse response, Exception failure)
+        {
+            this.event = event;
+            this.response = response;
+            this.failure = failure;
+        }
+
+        public void release()
+        {
+            // no-op
+        }
+
+        public void run()
+        {
+            OptimizedRequestContext.unsafeSetEvent(event);
+            if (failure != null)
+            {
+                handleException(event, new DispatchException(
+                    CoreMessages.createStaticMessage("Failed to send " + event.getMessage().getOutboundProperty(
+                        MuleProperties.MULE_ENDPOINT_PROPERTY)), event, AsyncHttpRequestMessageProcessor.this,
+                    failure));
+                return;
+            }
+
+            try
+            {
+                MuleMessage message = messageFactory.create(response, event.getEncoding());
+                if (isErrorStatus(event.getMessage(), response))
+                {
+                    message.setExceptionPayload(new DefaultExceptionPayload(new HttpResponseException(
+                        response.getReasonPhrase(), response.getStatusCode())));
+                }
+                processNext(new DefaultMuleEvent(message, event));
+            }
+            catch (MessagingException e)
+            {
+                handleException(e.getEvent(), e);
+            }
+            catch (Exception e)
+            {
+                handleException(event, new MessagingException(event, e, AsyncHttpRequestMessageProcessor.this));
+            }
+        }
+    }
+
+    private void handleException(MuleEvent event, Exception e)
+    {
+        MessagingExceptionHandler exceptionHandler = event.getFlowConstruct() != null
+                                                     ? event.getFlowConstruct().getExceptionListener()
+                                                     : null;
+        if (exceptionHandler != null)
+        {
+            exceptionHandler.handleException(e, event);
+        }
+        else
+        {
+            muleContext.getExceptionListener().handleException(e);
+        }
+    }
+
+    public String getAddress()
+    {
+        return address;
+    }
+
+    /**
+     * @param address the http address to send the request to, may contain expressions
+     */
+    public void setAddress(String address)
+    {
+        this.address = address;
+    }
+
+    public String getMethod()
+    {
+        return method;
+    }
+
+    /**
+     * @param method the HTTP method, by default it is taken from the
+     *            <code>http.method</code> property of the message, or POST
+     */
+    public void setMethod(String method)
+    {
+        this.method = method;
+    }
+
+    public long getResponseTimeout()
+    {
+        return responseTimeout;
+    }
+
+    public void setResponseTimeout(long responseTimeout)
+    {
+        this.responseTimeout = responseTimeout;
+    }
+
+    public HttpConnector getConnector()
+    {
+        return connector;
+    }
+
+    public void setConnector(HttpConnector connector)
+    {
+        this.connector = connector;
+    }
+}
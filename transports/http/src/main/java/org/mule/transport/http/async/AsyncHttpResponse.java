@@ -0,0 +1,111 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.http.async;
+
+import org.mule.transport.http.HttpConstants;
+
+import org.apache.commons.httpclient.Header;
+
+/**
+ * A response read by an {@link AsyncHttpClient}, with its body fully read. It is
+ * supported as a transport message by the
+ * {@link org.mule.transport.http.HttpMuleMessageFactory}.
+ */
+public class AsyncHttpResponse
+{
+
+    private final AsyncHttpRequest request;
+    private final String httpVersion;
+    private final int statusCode;
+    private final String reasonPhrase;
+    private final Header[] headers;
+    private final byte[] body;
+
+    public AsyncHttpResponse(AsyncHttpRequest request,
+                             String httpVersion,
+                             int statusCode,
+                             String reasonPhrase,
+                             Header[] headers,
+                             byte[] body)
+    {
+        this.request = request;
+        this.httpVersion = httpVersion;
+        this.statusCode = statusCode;
+        this.reasonPhrase = reasonPhrase;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    public AsyncHttpRequest getRequest()
+    {
+        return request;
+    }
+
+    public String getHttpVersion()
+    {
+        return httpVersion;
+    }
+
+    public int getStatusCode()
+    {
+        return statusCode;
+    }
+
+    public String getReasonPhrase()
+    {
+        return reasonPhrase;
+    }
+
+    public Header[] getHeaders()
+    {
+        return headers;
+    }
+
+    public Header getHeader(String name)
+    {
+        for (Header header : headers)
+        {
+            if (header.getName().equalsIgnoreCase(name))
+            {
+                return header;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the body of the response, empty if it had none
+     */
+    public byte[] getBody()
+    {
+        return body;
+    }
+
+    /**
+     * @return true if the connection the response was read from can be used for another
+     *         request
+     */
+    public boolean isKeepAlive()
+    {
+        Header connection = getHeader(HttpConstants.HEADER_CONNECTION);
+        if (HttpConstants.HTTP10.equals(httpVersion))
+        {
+            return connection != null && HttpConstants.HEADER_KEEP_ALIVE.equalsIgnoreCase(connection.getValue());
+        }
+        return connection == null || !"close".equalsIgnoreCase(connection.getValue());
+    }
+
+    @Override
+    public String toString()
+    {
+        return httpVersion + " " + statusCode + " " + reasonPhrase + " (" + request + ")";
+    }
+}
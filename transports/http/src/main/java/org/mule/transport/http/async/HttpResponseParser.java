@@ -0,0 +1,338 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.http.async;
+
+import org.mule.transport.http.HttpConstants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.httpclient.Header;
+
+/**
+ * Parses HTTP/1.1 responses from the bytes read from a non-blocking channel, as they
+ * arrive. Responses may be delimited by their content length, be chunked or last until
+ * the connection is closed. Bytes following a complete response are left in the buffer,
+ * they belong to the response of the next pipelined request.
+ */
+class HttpResponseParser
+{
+
+    private static final int MAX_LINE_LENGTH = 8192;
+
+    private enum State
+    {
+        STATUS_LINE, HEADERS, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILERS, UNTIL_CLOSE
+    }
+
+    private AsyncHttpRequest request;
+    private State state;
+    private final StringBuilder line = new StringBuilder(128);
+    private boolean started;
+
+    private String httpVersion;
+    private int statusCode;
+    private String reasonPhrase;
+    private List<Header> headers;
+    private ByteArrayOutputStream body;
+    private long remaining;
+
+    /**
+     * Prepares the parser for the response to the given request.
+     */
+    public void reset(AsyncHttpRequest request)
+    {
+        this.request = request;
+        this.state = State.STATUS_LINE;
+        this.started = false;
+        this.line.setLength(0);
+        this.headers = new ArrayList<Header>();
+        this.body = null;
+        this.remaining = 0;
+    }
+
+    /**
+     * @return true once any byte of the current response has been read
+     */
+    public boolean isStarted()
+    {
+        return started;
+    }
+
+    /**
+     * Consumes bytes from the buffer until a response is complete or the buffer is
+     * exhausted.
+     *
+     * @return the response, or <code>null</code> if more bytes are needed
+     */
+    public AsyncHttpResponse parse(ByteBuffer buffer) throws IOException
+    {
+        if (buffer.hasRemaining())
+        {
+            started = true;
+        }
+        while (buffer.hasRemaining())
+        {
+            switch (state)
+            {
+                case STATUS_LINE :
+                    if (readLine(buffer) && line.length() > 0)
+                    {
+                        parseStatusLine();
+                        state = State.HEADERS;
+                    }
+                    break;
+                case HEADERS :
+                    if (readLine(buffer))
+                    {
+                        if (line.length() > 0)
+                        {
+                            parseHeader();
+                        }
+                        else if (endOfHeaders())
+                        {
+                            return complete();
+                        }
+                    }
+                    break;
+                case BODY :
+                    copyBody(buffer);
+                    if (remaining == 0)
+                    {
+                        return complete();
+                    }
+                    break;
+                case CHUNK_SIZE :
+                    if (readLine(buffer))
+                    {
+                        parseChunkSize();
+                    }
+                    break;
+                case CHUNK_DATA :
+                    copyBody(buffer);
+                    if (remaining == 0)
+                    {
+                        state = State.CHUNK_END;
+                    }
+                    break;
+                case CHUNK_END :
+                    if (readLine(buffer))
+                    {
+                        state = State.CHUNK_SIZE;
+                    }
+                    break;
+                case TRAILERS :
+                    if (readLine(buffer) && line.length() == 0)
+                    {
+                        return complete();
+                    }
+                    break;
+                case UNTIL_CLOSE :
+                    remaining = buffer.remaining();
+                    copyBody(buffer);
+                    break;
+                default :
+                    throw new IllegalStateException(state.name());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Called when the connection is closed by the server.
+     *
+     * @return the response if its body lasts until the connection is closed
+     * @throws IOException if the response is incomplete
+     */
+    public AsyncHttpResponse endOfStream() throws IOException
+    {
+        if (state == State.UNTIL_CLOSE)
+        {
+            return complete();
+        }
+        throw new IOException("Connection closed before the response to " + request + " was complete");
+    }
+
+    private boolean readLine(ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            char c = (char) (buffer.get() & 0xff);
+            if (c == '\n')
+            {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r')
+                {
+                    line.setLength(length - 1);
+                }
+                return true;
+            }
+            if (line.length() >= MAX_LINE_LENGTH)
+            {
+                throw new IOException("Response line longer than " + MAX_LINE_LENGTH + " characters");
+            }
+            line.append(c);
+        }
+        return false;
+    }
+
+    private void parseStatusLine() throws IOException
+    {
+        String[] parts = line.toString().split(" ", 3);
+        line.setLength(0);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/"))
+        {
+            throw new IOException("Invalid status line for " + request + ": " + parts[0]);
+        }
+        httpVersion = parts[0];
+        try
+        {
+            statusCode = Integer.parseInt(parts[1]);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IOException("Invalid status code for " + request + ": " + parts[1]);
+        }
+        reasonPhrase = parts.length > 2 ? parts[2] : "";
+    }
+
+    private void parseHeader()
+    {
+        char first = line.charAt(0);
+        if ((first == ' ' || first == '\t') && !headers.isEmpty())
+        {
+            // folded value of the previous header
+            Header previous = headers.get(headers.size() - 1);
+            previous.setValue(previous.getValue() + " " + line.toString().trim());
+        }
+        else
+        {
+            int colon = line.indexOf(":");
+            if (colon > 0)
+            {
+                headers.add(new Header(line.substring(0, colon).trim(), line.substring(colon + 1).trim()));
+            }
+        }
+        line.setLength(0);
+    }
+
+    /**
+     * Decides how the body is delimited once the headers are read.
+     *
+     * @return true if the response has no body
+     */
+    private boolean endOfHeaders() throws IOException
+    {
+        if (statusCode >= 100 && statusCode < 200)
+        {
+            // an interim response, the final one follows
+            headers = new ArrayList<Header>();
+            state = State.STATUS_LINE;
+            return false;
+        }
+
+        body = new ByteArrayOutputStream();
+        if (HttpConstants.METHOD_HEAD.equals(request.getMethod()) || statusCode == 204 || statusCode == 304)
+        {
+            return true;
+        }
+
+        String transferEncoding = getHeader(HttpConstants.HEADER_TRANSFER_ENCODING);
+        String contentLength = getHeader(HttpConstants.HEADER_CONTENT_LENGTH);
+        if (transferEncoding != null && !"identity".equalsIgnoreCase(transferEncoding))
+        {
+            state = State.CHUNK_SIZE;
+        }
+        else if (contentLength != null)
+        {
+            try
+            {
+                remaining = Long.parseLong(contentLength.trim());
+            }
+            catch (NumberFormatException e)
+            {
+                throw new IOException("Invalid content length for " + request + ": " + contentLength);
+            }
+            if (remaining == 0)
+            {
+                return true;
+            }
+            state = State.BODY;
+        }
+        else
+        {
+            state = State.UNTIL_CLOSE;
+        }
+        return false;
+    }
+
+    private void parseChunkSize() throws IOException
+    {
+        String size = line.toString();
+        line.setLength(0);
+        int extension = size.indexOf(';');
+        if (extension >= 0)
+        {
+            size = size.substring(0, extension);
+        }
+        try
+        {
+            remaining = Long.parseLong(size.trim(), 16);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IOException("Invalid chunk size for " + request + ": " + size);
+        }
+        state = remaining == 0 ? State.TRAILERS : State.CHUNK_DATA;
+    }
+
+    private void copyBody(ByteBuffer buffer)
+    {
+        int length = (int) Math.min(remaining, buffer.remaining());
+        if (buffer.hasArray())
+        {
+            body.write(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+            buffer.position(buffer.position() + length);
+        }
+        else
+        {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            body.write(bytes, 0, length);
+        }
+        remaining -= length;
+    }
+
+    private String getHeader(String name)
+    {
+        for (Header header : headers)
+        {
+            if (header.getName().equalsIgnoreCase(name))
+            {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private AsyncHttpResponse complete()
+    {
+        line.setLength(0);
+        AsyncHttpResponse response = new AsyncHttpResponse(request, httpVersion, statusCode, reasonPhrase,
+            headers.toArray(new Header[headers.size()]), body.toByteArray());
+        request = null;
+        state = State.STATUS_LINE;
+        return response;
+    }
+}
@@ -29,6 +29,7 @@ import org.mule.transport.http.CookieWrapper;
 import org.mule.transport.http.HttpConnector;
 import org.mule.transport.http.HttpConstants;
 import org.mule.transport.http.HttpPollingConnector;
+import org.mule.transport.http.async.AsyncHttpRequestMessageProcessor;
 import org.mule.transport.http.builder.HttpCookiesDefinitionParser;
 import org.mule.transport.http.builder.HttpResponseDefinitionParser;
 import org.mule.transport.http.components.HttpResponseBuilder;
@@ -73,6 +74,8 @@ public class HttpNamespaceHandler extends AbstractMuleNamespaceHandler
 
         registerMuleBeanDefinitionParser("static-resource-handler",
                 new MessageProcessorDefinitionParser(StaticResourceMessageProcessor.class));
+        registerMuleBeanDefinitionParser("async-request",
+                new MessageProcessorDefinitionParser(AsyncHttpRequestMessageProcessor.class));
 
         registerBeanDefinitionParser("response-builder", new MessageProcessorDefinitionParser(HttpResponseBuilder.class));
         registerMuleBeanDefinitionParser("header", new ChildMapEntryDefinitionParser("headers", "name", "value")).addCollection("headers");
@@ -23,11 +23,11 @@ package org.mule.transport.http.multipart;
 
 
 import org.mule.model.streaming.DeleteOnCloseFileInputStream;
+import org.mule.util.buffer.BodyBufferManager;
+import org.mule.util.buffer.SpillableBuffer;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -57,6 +57,7 @@ public class MultiPartInputStream
     protected MultiMap _map;
     protected Map<String, Part> _parts;
     protected File _tmpDir;
+    protected BodyBufferManager _bufferManager;
 
 
 
@@ -66,6 +67,7 @@ public class MultiPartInputStream
         protected String _name;
         protected String _filename;
         protected File _file;
+        protected SpillableBuffer _buffer;
         protected OutputStream _out;
         protected String _contentType;
         protected MultiMap<String> _headers;
@@ -96,9 +98,11 @@ public class MultiPartInputStream
             }
             else
             {
-                //Write to a buffer in memory until we discover we've exceed the
-                //MultipartConfig fileSizeThreshold
-                _out = new ByteArrayOutputStream();
+                //Write to a buffer until we discover we've exceed the
+                //MultipartConfig fileSizeThreshold, the buffer itself spills to
+                //the temp dir once it exceeds the memory threshold of the manager
+                _buffer = _bufferManager.createBuffer(_bufferManager.getMemoryThreshold(), _tmpDir);
+                _out = _buffer;
             }
         }
 
@@ -141,12 +145,15 @@ public class MultiPartInputStream
             FileOutputStream fos = new FileOutputStream(_file);
             BufferedOutputStream bos = new BufferedOutputStream(fos);
 
-            if (_size > 0 && _out != null)
+            if (_size > 0 && _buffer != null)
             {
                 //already written some bytes, so need to copy them into the file
-                _out.flush();
-                ((ByteArrayOutputStream)_out).writeTo(bos);
-                _out.close();
+                _buffer.writeTo(bos);
+            }
+            if (_buffer != null)
+            {
+                _buffer.release();
+                _buffer = null;
             }
             _out = bos;
         }
@@ -200,10 +207,15 @@ public class MultiPartInputStream
                // Automatically close and delete the temp file when end of input has been reached (MULE-6732).
                return new BufferedInputStream(new AutoCloseInputStream(new DeleteOnCloseFileInputStream(_file)));
            }
+           else if (_buffer.isSpilled())
+           {
+               // Same as a file, the spilled buffer is released when end of input has been reached.
+               return new BufferedInputStream(new AutoCloseInputStream(_buffer.openStream(true)));
+           }
            else
            {
-               //part content is in a ByteArrayOutputStream
-               return new ByteArrayInputStream(((ByteArrayOutputStream)_out).toByteArray());
+               //part content is in memory and can be read again
+               return _buffer.openStream(false);
            }
         }
 
@@ -230,13 +242,13 @@ public class MultiPartInputStream
         {
             if (_file == null)
             {
-                //part data is only in the ByteArrayOutputStream and never been written to disk
+                //part data is only in the buffer and never been written to disk
                 _file = new File (_tmpDir, fileName);
                 BufferedOutputStream bos = null;
                 try
                 {
                     bos = new BufferedOutputStream(new FileOutputStream(_file));
-                    ((ByteArrayOutputStream)_out).writeTo(bos);
+                    _buffer.writeTo(bos);
                     bos.flush();
                 }
                 finally
@@ -259,6 +271,8 @@ public class MultiPartInputStream
         {
             if (_file != null)
                 _file.delete();
+            if (_buffer != null)
+                _buffer.release();
         }
 
 
@@ -291,12 +305,27 @@ public class MultiPartInputStream
      * @param config MultipartConfiguration
      */
     public MultiPartInputStream(InputStream in, String contentType, MultipartConfiguration config)
+    {
+        this(in, contentType, config, null);
+    }
+
+    /**
+     * @param in Request input stream
+     * @param contentType Content-Type header
+     * @param config MultipartConfiguration
+     * @param bufferManager holds the parts without a filename, the shared manager if null
+     */
+    public MultiPartInputStream(InputStream in, String contentType, MultipartConfiguration config,
+                                BodyBufferManager bufferManager)
     {
         _in = new BufferedInputStream(in);
        _contentType = contentType;
        _config = config;
        if (_config == null)
            _config = __DEFAULT_MULTIPART_CONFIG;
+       _bufferManager = bufferManager;
+       if (_bufferManager == null)
+           _bufferManager = BodyBufferManager.lookup(null);
     }
 
 
@@ -22,6 +22,9 @@ import org.mule.api.MuleMessage;
 import org.mule.api.transport.MessageTypeNotSupportedException;
 import org.mule.api.transport.MuleMessageFactory;
 import org.mule.transport.AbstractMuleMessageFactoryTestCase;
+import org.mule.transport.http.async.AsyncHttpRequest;
+import org.mule.transport.http.async.AsyncHttpResponse;
+import org.mule.util.buffer.BodyBufferManager;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
@@ -102,11 +105,29 @@ public class HttpMuleMessageFactoryTestCase extends AbstractMuleMessageFactoryTe
         assertTrue(Arrays.equals(TEST_MESSAGE.getBytes(), payload));
     }
 
+    @Test
+    public void testHttpRequestLargePostPayloadIsNotSpilledByDefault() throws Exception
+    {
+        HttpMuleMessageFactory factory = (HttpMuleMessageFactory) createMuleMessageFactory();
+        factory.setExchangePattern(MessageExchangePattern.ONE_WAY);
+
+        byte[] body = new byte[(int) BodyBufferManager.DEFAULT_MEMORY_THRESHOLD * 2];
+        Arrays.fill(body, (byte) 'a');
+        MuleMessage message = factory.create(createPostHttpRequest(body), encoding);
+        assertEquals(byte[].class, message.getPayload().getClass());
+        assertTrue(Arrays.equals(body, (byte[]) message.getPayload()));
+    }
+
     private HttpRequest createPostHttpRequest() throws Exception
+    {
+        return createPostHttpRequest(TEST_MESSAGE.getBytes());
+    }
+
+    private HttpRequest createPostHttpRequest(byte[] body) throws Exception
     {
         String line = REQUEST_LINE.replace(HttpConstants.METHOD_GET, HttpConstants.METHOD_POST);
         RequestLine requestLine = RequestLine.parseLine(line);
-        InputStream stream = new ByteArrayInputStream(TEST_MESSAGE.getBytes());
+        InputStream stream = new ByteArrayInputStream(body);
         return new HttpRequest(requestLine, HEADERS, stream, encoding);
     }
     
@@ -163,6 +184,25 @@ public class HttpMuleMessageFactoryTestCase extends AbstractMuleMessageFactoryTe
         assertEquals("200", message.getInboundProperty(HttpConnector.HTTP_STATUS_PROPERTY));
     }
 
+    @Test
+    public void testAsyncHttpResponse() throws Exception
+    {
+        AsyncHttpRequest request = new AsyncHttpRequest(HttpConstants.METHOD_GET, "localhost", 80, REQUEST);
+        AsyncHttpResponse response = new AsyncHttpResponse(request, HttpConstants.HTTP11, 200, "OK", HEADERS,
+            TEST_MESSAGE.getBytes());
+
+        MuleMessageFactory factory = createMuleMessageFactory();
+        MuleMessage message = factory.create(response, encoding);
+        assertNotNull(message);
+        assertEquals(TEST_MESSAGE, message.getPayloadAsString());
+        assertEquals(HttpConstants.METHOD_GET, message.getInboundProperty(HttpConnector.HTTP_METHOD_PROPERTY));
+        assertEquals(HttpVersion.HTTP_1_1.toString(), message.getInboundProperty(HttpConnector.HTTP_VERSION_PROPERTY));
+        assertEquals("200", message.getInboundProperty(HttpConnector.HTTP_STATUS_PROPERTY));
+        assertEquals("foo-value", message.getInboundProperty("foo-header"));
+        Map<String, Object> queryParams = (Map<String, Object>) message.getInboundProperty(HttpConnector.HTTP_QUERY_PARAMS);
+        assertEquals("John", queryParams.get("name"));
+    }
+
     @Test
     public void testQueryParamProperties() throws Exception
     {
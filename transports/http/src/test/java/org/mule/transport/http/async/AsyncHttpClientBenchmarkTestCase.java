@@ -0,0 +1,184 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.http.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.junit4.rule.Benchmark;
+import org.mule.transport.http.HttpConstants;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.methods.GetMethod;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Measures latency under load of requests to a slow local server, sent by threads
+ * blocking on commons-httpclient as the {@link org.mule.transport.http.HttpClientMessageDispatcher}
+ * does, and sent by a single thread through an {@link AsyncHttpClient}. The blocking
+ * client is limited by its number of threads, the non-blocking one only by its
+ * in-flight and connection limits.
+ */
+public class AsyncHttpClientBenchmarkTestCase extends AbstractMuleTestCase
+{
+
+    private static final long SERVER_DELAY = 50;
+    private static final int REQUESTS = 2000;
+    private static final int BLOCKING_THREADS = 16;
+    private static final int MAX_CONNECTIONS = 64;
+    private static final int MAX_IN_FLIGHT = 256;
+    private static final long TIMEOUT = 30000;
+
+    @Rule
+    public Benchmark benchmark = new Benchmark();
+
+    private StubHttpServer server;
+
+    @Before
+    public void startServer() throws Exception
+    {
+        server = new StubHttpServer(SERVER_DELAY);
+    }
+
+    @After
+    public void stopServer() throws Exception
+    {
+        if (server != null)
+        {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testBlockingClient() throws Exception
+    {
+        MultiThreadedHttpConnectionManager connectionManager = new MultiThreadedHttpConnectionManager();
+        connectionManager.getParams().setDefaultMaxConnectionsPerHost(BLOCKING_THREADS);
+        connectionManager.getParams().setMaxTotalConnections(BLOCKING_THREADS);
+        final HttpClient client = new HttpClient(connectionManager);
+        final String uri = "http://localhost:" + server.getPort() + "/blocking";
+
+        final long[] latencies = new long[REQUESTS];
+        final AtomicInteger next = new AtomicInteger(0);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch done = new CountDownLatch(BLOCKING_THREADS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BLOCKING_THREADS; i++)
+        {
+            new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        int request;
+                        while ((request = next.getAndIncrement()) < REQUESTS && failure.get() == null)
+                        {
+                            long sent = System.nanoTime();
+                            GetMethod method = new GetMethod(uri);
+                            try
+                            {
+                                assertEquals(200, client.executeMethod(method));
+                                method.getResponseBody();
+                            }
+                            finally
+                            {
+                                method.releaseConnection();
+                            }
+                            latencies[request] = System.nanoTime() - sent;
+                        }
+                    }
+                    catch (Throwable t)
+                    {
+                        failure.compareAndSet(null, t);
+                    }
+                    finally
+                    {
+                        done.countDown();
+                    }
+                }
+            }, "blocking-benchmark-" + i).start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        connectionManager.shutdown();
+
+        assertNull(failure.get());
+        report("blocking client with " + BLOCKING_THREADS + " threads", elapsed, latencies);
+    }
+
+    @Test
+    public void testNonBlockingClient() throws Exception
+    {
+        AsyncHttpClient client = new AsyncHttpClient("benchmark", MAX_CONNECTIONS, MAX_IN_FLIGHT, 1,
+            AsyncHttpClient.DEFAULT_IDLE_TIMEOUT);
+        client.start();
+
+        final long[] latencies = new long[REQUESTS];
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch done = new CountDownLatch(REQUESTS);
+
+        long start = System.nanoTime();
+        try
+        {
+            for (int i = 0; i < REQUESTS; i++)
+            {
+                final int request = i;
+                final long sent = System.nanoTime();
+                client.execute(new AsyncHttpRequest(HttpConstants.METHOD_GET, "localhost", server.getPort(),
+                    "/non-blocking"), TIMEOUT, new AsyncHttpCallback()
+                {
+                    public void completed(AsyncHttpResponse response)
+                    {
+                        latencies[request] = System.nanoTime() - sent;
+                        done.countDown();
+                    }
+
+                    public void failed(Exception e)
+                    {
+                        failure.compareAndSet(null, e);
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+        finally
+        {
+            client.stop();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertNull(failure.get());
+        report(String.format("non-blocking client with one thread, %d connections and %d requests in flight",
+            MAX_CONNECTIONS, MAX_IN_FLIGHT), elapsed, latencies);
+    }
+
+    private void report(String client, long elapsed, long[] latencies)
+    {
+        Arrays.sort(latencies);
+        logger.info(String.format(
+            "%d requests to a server answering in %d ms, %s: %.0f requests per second, latency p50 %d ms, p99 %d ms",
+            REQUESTS, SERVER_DELAY, client, REQUESTS / (elapsed / 1000000000d),
+            latencies[REQUESTS / 2] / 1000000, latencies[REQUESTS * 99 / 100] / 1000000));
+    }
+}
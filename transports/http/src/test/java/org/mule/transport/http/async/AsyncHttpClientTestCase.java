@@ -0,0 +1,230 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.http.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.transport.http.HttpConstants;
+
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class AsyncHttpClientTestCase extends AbstractMuleTestCase
+{
+
+    private static final long TIMEOUT = 5000;
+
+    private StubHttpServer server;
+    private AsyncHttpClient client;
+
+    @After
+    public void tearDown() throws Exception
+    {
+        if (client != null)
+        {
+            client.stop();
+        }
+        if (server != null)
+        {
+            server.close();
+        }
+    }
+
+    @Test
+    public void reusesKeepAliveConnections() throws Exception
+    {
+        server = new StubHttpServer(0);
+        client = startClient(1, 1);
+
+        for (int i = 0; i < 5; i++)
+        {
+            RecordingCallback callback = new RecordingCallback(1);
+            client.execute(get("/test" + i), TIMEOUT, callback);
+            callback.await();
+            assertEquals("GET /test" + i + " HTTP/1.1", new String(callback.responses.get(0).getBody()));
+        }
+        assertEquals(1, server.getConnections());
+        assertEquals(1, client.getOpenedConnections());
+        assertEquals(5, client.getCompletedRequests());
+        assertEquals(0, client.getInFlight());
+    }
+
+    @Test
+    public void sendsBody() throws Exception
+    {
+        server = new StubHttpServer(0);
+        client = startClient(2, 1);
+
+        AsyncHttpRequest request = new AsyncHttpRequest(HttpConstants.METHOD_POST, "localhost", server.getPort(), "/post");
+        request.addHeader(HttpConstants.HEADER_CONTENT_TYPE, "text/plain");
+        request.setBody("some data".getBytes());
+        RecordingCallback callback = new RecordingCallback(1);
+        client.execute(request, TIMEOUT, callback);
+        callback.await();
+
+        assertEquals(200, callback.responses.get(0).getStatusCode());
+        assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    public void limitsConnectionsPerHost() throws Exception
+    {
+        server = new StubHttpServer(50);
+        client = startClient(2, 1);
+
+        RecordingCallback callback = new RecordingCallback(10);
+        for (int i = 0; i < 10; i++)
+        {
+            client.execute(get("/test" + i), TIMEOUT, callback);
+        }
+        callback.await();
+
+        assertEquals(10, callback.responses.size());
+        assertTrue(server.getConnections() <= 2);
+        assertEquals(0, client.getPipelinedRequests());
+    }
+
+    @Test
+    public void pipelinesIdempotentRequests() throws Exception
+    {
+        server = new StubHttpServer(20);
+        client = startClient(1, 4);
+
+        // the first response proves the connection is kept alive
+        RecordingCallback first = new RecordingCallback(1);
+        client.execute(get("/first"), TIMEOUT, first);
+        first.await();
+
+        RecordingCallback callback = new RecordingCallback(8);
+        for (int i = 0; i < 8; i++)
+        {
+            client.execute(get("/test" + i), TIMEOUT, callback);
+        }
+        callback.await();
+
+        assertEquals(8, callback.responses.size());
+        assertEquals(1, server.getConnections());
+        assertTrue(client.getPipelinedRequests() > 0);
+    }
+
+    @Test
+    public void opensNewConnectionWhenServerCloses() throws Exception
+    {
+        server = new StubHttpServer(0);
+        server.setCloseAfterResponse(true);
+        client = startClient(1, 1);
+
+        RecordingCallback callback = new RecordingCallback(3);
+        for (int i = 0; i < 3; i++)
+        {
+            client.execute(get("/test" + i), TIMEOUT, callback);
+        }
+        callback.await();
+
+        assertEquals(3, callback.responses.size());
+        assertEquals(3, server.getConnections());
+    }
+
+    @Test
+    public void failsOnTimeout() throws Exception
+    {
+        server = new StubHttpServer(2000);
+        client = startClient(1, 1);
+
+        RecordingCallback callback = new RecordingCallback(1);
+        client.execute(get("/slow"), 200, callback);
+        callback.await();
+
+        assertTrue(callback.failures.get(0) instanceof SocketTimeoutException);
+        assertEquals(1, client.getFailedRequests());
+        assertEquals(0, client.getInFlight());
+    }
+
+    @Test
+    public void failsOnConnectionRefused() throws Exception
+    {
+        server = new StubHttpServer(0);
+        int port = server.getPort();
+        server.close();
+        client = startClient(1, 1);
+
+        RecordingCallback callback = new RecordingCallback(1);
+        client.execute(new AsyncHttpRequest(HttpConstants.METHOD_GET, "localhost", port, "/"), TIMEOUT, callback);
+        callback.await();
+
+        assertEquals(1, callback.failures.size());
+    }
+
+    @Test
+    public void failsPendingRequestsOnStop() throws Exception
+    {
+        server = new StubHttpServer(2000);
+        client = startClient(1, 1);
+
+        RecordingCallback callback = new RecordingCallback(2);
+        client.execute(get("/slow"), TIMEOUT, callback);
+        client.execute(get("/slow"), TIMEOUT, callback);
+        client.stop();
+        callback.await();
+
+        assertEquals(2, callback.failures.size());
+    }
+
+    private AsyncHttpClient startClient(int maxConnections, int pipelineDepth) throws Exception
+    {
+        AsyncHttpClient client = new AsyncHttpClient("test", maxConnections, 100, pipelineDepth,
+            AsyncHttpClient.DEFAULT_IDLE_TIMEOUT);
+        client.start();
+        return client;
+    }
+
+    private AsyncHttpRequest get(String uri)
+    {
+        return new AsyncHttpRequest(HttpConstants.METHOD_GET, "localhost", server.getPort(), uri);
+    }
+
+    private static class RecordingCallback implements AsyncHttpCallback
+    {
+        private final CountDownLatch latch;
+        private final List<AsyncHttpResponse> responses = new CopyOnWriteArrayList<AsyncHttpResponse>();
+        private final List<Exception> failures = new CopyOnWriteArrayList<Exception>();
+
+        public RecordingCallback(int count)
+        {
+            latch = new CountDownLatch(count);
+        }
+
+        public void completed(AsyncHttpResponse response)
+        {
+            responses.add(response);
+            latch.countDown();
+        }
+
+        public void failed(Exception e)
+        {
+            failures.add(e);
+            latch.countDown();
+        }
+
+        public void await() throws InterruptedException
+        {
+            assertTrue("Timed out waiting for responses", latch.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.http.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+import org.mule.transport.http.HttpConstants;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+@SmallTest
+public class HttpResponseParserTestCase extends AbstractMuleTestCase
+{
+
+    private HttpResponseParser parser;
+
+    @Before
+    public void setUp()
+    {
+        parser = new HttpResponseParser();
+        parser.reset(new AsyncHttpRequest(HttpConstants.METHOD_GET, "localhost", 8080, "/"));
+    }
+
+    @Test
+    public void parsesContentLengthResponse() throws Exception
+    {
+        AsyncHttpResponse response = parser.parse(buffer("HTTP/1.1 200 OK\r\nContent-Length: 5\r\nX-Test: a\r\n\r\nhello"));
+
+        assertNotNull(response);
+        assertEquals(200, response.getStatusCode());
+        assertEquals("OK", response.getReasonPhrase());
+        assertEquals(HttpConstants.HTTP11, response.getHttpVersion());
+        assertEquals("a", response.getHeader("x-test").getValue());
+        assertEquals("hello", new String(response.getBody()));
+        assertTrue(response.isKeepAlive());
+    }
+
+    @Test
+    public void parsesResponseSplitAcrossReads() throws Exception
+    {
+        String data = "HTTP/1.1 200 OK\r\nContent-Length: 11\r\n\r\nhello world";
+        AsyncHttpResponse response = null;
+        for (int i = 0; i < data.length(); i++)
+        {
+            assertNull(response);
+            response = parser.parse(buffer(data.substring(i, i + 1)));
+        }
+        assertNotNull(response);
+        assertEquals("hello world", new String(response.getBody()));
+    }
+
+    @Test
+    public void parsesChunkedResponse() throws Exception
+    {
+        AsyncHttpResponse response = parser.parse(buffer("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+                                                         + "5;ext=1\r\nhello\r\n6\r\n world\r\n0\r\nX-Trailer: t\r\n\r\n"));
+
+        assertNotNull(response);
+        assertEquals("hello world", new String(response.getBody()));
+    }
+
+    @Test
+    public void leavesPipelinedResponseInBuffer() throws Exception
+    {
+        ByteBuffer buffer = buffer("HTTP/1.1 200 OK\r\nContent-Length: 1\r\n\r\na"
+                                   + "HTTP/1.1 404 Not Found\r\nContent-Length: 1\r\n\r\nb");
+
+        assertEquals("a", new String(parser.parse(buffer).getBody()));
+        assertTrue(buffer.hasRemaining());
+
+        parser.reset(new AsyncHttpRequest(HttpConstants.METHOD_GET, "localhost", 8080, "/other"));
+        AsyncHttpResponse second = parser.parse(buffer);
+        assertEquals(404, second.getStatusCode());
+        assertEquals("b", new String(second.getBody()));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void skipsInterimResponses() throws Exception
+    {
+        AsyncHttpResponse response = parser.parse(buffer("HTTP/1.1 100 Continue\r\n\r\n"
+                                                         + "HTTP/1.1 201 Created\r\nContent-Length: 0\r\n\r\n"));
+
+        assertEquals(201, response.getStatusCode());
+        assertEquals(0, response.getBody().length);
+    }
+
+    @Test
+    public void headResponseHasNoBody() throws Exception
+    {
+        parser.reset(new AsyncHttpRequest(HttpConstants.METHOD_HEAD, "localhost", 8080, "/"));
+        AsyncHttpResponse response = parser.parse(buffer("HTTP/1.1 200 OK\r\nContent-Length: 100\r\n\r\n"));
+
+        assertNotNull(response);
+        assertEquals(0, response.getBody().length);
+    }
+
+    @Test
+    public void readsBodyUntilClose() throws Exception
+    {
+        assertNull(parser.parse(buffer("HTTP/1.0 200 OK\r\n\r\nhello")));
+        assertTrue(parser.isStarted());
+
+        AsyncHttpResponse response = parser.endOfStream();
+        assertEquals("hello", new String(response.getBody()));
+        assertFalse(response.isKeepAlive());
+    }
+
+    @Test(expected = IOException.class)
+    public void failsOnIncompleteResponse() throws Exception
+    {
+        assertNull(parser.parse(buffer("HTTP/1.1 200 OK\r\nContent-Length: 10\r\n\r\nhello")));
+        parser.endOfStream();
+    }
+
+    @Test(expected = IOException.class)
+    public void failsOnInvalidStatusLine() throws Exception
+    {
+        parser.parse(buffer("SMTP ready\r\n"));
+    }
+
+    private ByteBuffer buffer(String data) throws Exception
+    {
+        return ByteBuffer.wrap(data.getBytes("ISO-8859-1"));
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.http.async;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A keep-alive HTTP server answering every request after a fixed delay, with the
+ * request line as body. Requests on a connection are answered in order, so pipelined
+ * requests are supported.
+ */
+class StubHttpServer
+{
+
+    private final long delay;
+    private final ServerSocket serverSocket;
+    private final List<Socket> sockets = new CopyOnWriteArrayList<Socket>();
+    private final AtomicInteger connections = new AtomicInteger(0);
+    private final AtomicInteger requests = new AtomicInteger(0);
+    private volatile boolean closeAfterResponse = false;
+
+    public StubHttpServer(long delay) throws IOException
+    {
+        this.delay = delay;
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getByName("localhost"));
+        Thread acceptor = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                accept();
+            }
+        }, "stub-http-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort()
+    {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnections()
+    {
+        return connections.get();
+    }
+
+    public int getRequests()
+    {
+        return requests.get();
+    }
+
+    /**
+     * Answers with <code>Connection: close</code> and closes each connection after one
+     * response.
+     */
+    public void setCloseAfterResponse(boolean closeAfterResponse)
+    {
+        this.closeAfterResponse = closeAfterResponse;
+    }
+
+    public void close() throws IOException
+    {
+        serverSocket.close();
+        for (Socket socket : sockets)
+        {
+            socket.close();
+        }
+    }
+
+    private void accept()
+    {
+        while (!serverSocket.isClosed())
+        {
+            try
+            {
+                final Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                sockets.add(socket);
+                Thread handler = new Thread(new Runnable()
+                {
+                    public void run()
+                    {
+                        serve(socket);
+                    }
+                }, "stub-http-connection");
+                handler.setDaemon(true);
+                handler.start();
+            }
+            catch (IOException e)
+            {
+                // closed
+            }
+        }
+    }
+
+    private void serve(Socket socket)
+    {
+        try
+        {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            String requestLine;
+            while ((requestLine = readLine(in)) != null)
+            {
+                int contentLength = 0;
+                String header;
+                while ((header = readLine(in)) != null && header.length() > 0)
+                {
+                    if (header.toLowerCase().startsWith("content-length:"))
+                    {
+                        contentLength = Integer.parseInt(header.substring(15).trim());
+                    }
+                }
+                for (int i = 0; i < contentLength; i++)
+                {
+                    in.read();
+                }
+                requests.incrementAndGet();
+                if (delay > 0)
+                {
+                    Thread.sleep(delay);
+                }
+
+                byte[] body = requestLine.getBytes("ISO-8859-1");
+                String head = "HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\nContent-Length: " + body.length
+                              + (closeAfterResponse ? "\r\nConnection: close" : "") + "\r\n\r\n";
+                out.write(head.getBytes("ISO-8859-1"));
+                out.write(body);
+                out.flush();
+                if (closeAfterResponse)
+                {
+                    break;
+                }
+            }
+            socket.close();
+        }
+        catch (Exception e)
+        {
+            // the connection was closed
+        }
+        finally
+        {
+            sockets.remove(socket);
+        }
+    }
+
+    private String readLine(InputStream in) throws IOException
+    {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != -1)
+        {
+            if (b == '\n')
+            {
+                String result = line.toString("ISO-8859-1");
+                return result.endsWith("\r") ? result.substring(0, result.length() - 1) : result;
+            }
+            line.write(b);
+        }
+        return null;
+    }
+}
@@ -36,11 +36,15 @@ import org.mule.transport.ConnectException;
 import org.mule.transport.jdbc.sqlstrategy.DefaultSqlStatementStrategyFactory;
 import org.mule.transport.jdbc.sqlstrategy.SqlStatementStrategyFactory;
 import org.mule.transport.jdbc.xa.DataSourceWrapper;
+import org.mule.util.MapUtils;
 import org.mule.util.StringUtils;
 import org.mule.util.TemplateParser;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.text.MessageFormat;
 import java.util.List;
 import java.util.Map;
@@ -50,8 +54,10 @@ import java.util.regex.Pattern;
 import javax.sql.DataSource;
 import javax.sql.XADataSource;
 
+import org.apache.commons.dbutils.DbUtils;
 import org.apache.commons.dbutils.QueryRunner;
 import org.apache.commons.dbutils.ResultSetHandler;
+import org.apache.commons.dbutils.RowProcessor;
 
 public class JdbcConnector extends AbstractConnector implements Testable
 {
@@ -61,6 +67,9 @@ public class JdbcConnector extends AbstractConnector implements Testable
     // declaration
     public static final String PROPERTY_POLLING_FREQUENCY = "pollingFrequency";
     public static final long DEFAULT_POLLING_FREQUENCY = 1000;
+    public static final String PROPERTY_STREAMING = "streaming";
+    public static final String PROPERTY_FETCH_SIZE = "fetchSize";
+    public static final String PROPERTY_STREAMING_BATCH_SIZE = "streamingBatchSize";
 
     private static final Pattern STATEMENT_ARGS = TemplateParser.WIGGLY_MULE_TEMPLATE_PATTERN;
 
@@ -77,10 +86,28 @@ public class JdbcConnector extends AbstractConnector implements Testable
 
     protected DataSource dataSource;
     protected ResultSetHandler resultSetHandler;
+    protected RowProcessor rowProcessor;
     protected QueryRunner queryRunner;
 
     private int queryTimeout;
 
+    /**
+     * Should select statements expose the open cursor as a lazily consumed
+     * {@link ResultSetMessageSequence} instead of reading it through the
+     * {@link ResultSetHandler}?
+     */
+    private boolean streaming = false;
+
+    /**
+     * Fetch size hint given to the driver when streaming. Zero leaves the driver default.
+     */
+    private int fetchSize = 0;
+
+    /**
+     * Number of rows routed together as a single message when streaming on an inbound endpoint.
+     */
+    private int streamingBatchSize = 1;
+
     /**
      * Should each DB record be received in a separate transaction or should there be a single transaction for
      * the entire ResultSet?
@@ -105,6 +132,10 @@ public class JdbcConnector extends AbstractConnector implements Testable
             resultSetHandler = new org.apache.commons.dbutils.handlers.MapListHandler(
                 new ColumnAliasRowProcessor());
         }
+        if (rowProcessor == null)
+        {
+            rowProcessor = new ColumnAliasRowProcessor();
+        }
         if (queryRunner == null)
         {
             if (this.queryTimeout >= 0)
@@ -328,6 +359,89 @@ public class JdbcConnector extends AbstractConnector implements Testable
         return params;
     }
 
+    /**
+     * Executes a select statement and exposes its cursor as a lazily consumed
+     * {@link ResultSetMessageSequence}. Rows are only read from the database as the
+     * sequence is iterated.
+     *
+     * @param endpoint the endpoint used to resolve fetch size and query timeout
+     * @param con connection used to run the statement
+     * @param sql the prepared statement form of the select
+     * @param params values for the statement placeholders
+     * @param closeConnection whether the sequence must close the connection once it
+     *            is closed, which should be the case when it is not bound to a
+     *            transaction
+     */
+    public ResultSetMessageSequence openResultSet(ImmutableEndpoint endpoint,
+                                                  Connection con,
+                                                  String sql,
+                                                  Object[] params,
+                                                  boolean closeConnection) throws SQLException
+    {
+        PreparedStatement stmt = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+            ResultSet.CONCUR_READ_ONLY);
+        try
+        {
+            int endpointFetchSize = getFetchSize(endpoint);
+            if (endpointFetchSize != 0)
+            {
+                stmt.setFetchSize(endpointFetchSize);
+            }
+            QueryRunner runner = getQueryRunnerFor(endpoint);
+            if (runner instanceof ExtendedQueryRunner && ((ExtendedQueryRunner) runner).getQueryTimeout() >= 0)
+            {
+                stmt.setQueryTimeout(((ExtendedQueryRunner) runner).getQueryTimeout());
+            }
+            for (int i = 0; params != null && i < params.length; i++)
+            {
+                if (params[i] != null)
+                {
+                    stmt.setObject(i + 1, params[i]);
+                }
+                else
+                {
+                    stmt.setNull(i + 1, Types.VARCHAR);
+                }
+            }
+            return new ResultSetMessageSequence(con, stmt, stmt.executeQuery(), rowProcessor,
+                closeConnection);
+        }
+        catch (SQLException e)
+        {
+            DbUtils.closeQuietly(stmt);
+            throw e;
+        }
+    }
+
+    /**
+     * @return whether select statements on the given endpoint are streamed. The
+     *         endpoint "streaming" property overrides the connector setting.
+     */
+    public boolean isStreaming(ImmutableEndpoint endpoint)
+    {
+        return MapUtils.getBooleanValue(endpoint.getProperties(), PROPERTY_STREAMING, streaming);
+    }
+
+    /**
+     * @return the fetch size for the given endpoint. The endpoint "fetchSize"
+     *         property overrides the connector setting.
+     */
+    public int getFetchSize(ImmutableEndpoint endpoint)
+    {
+        return MapUtils.getIntValue(endpoint.getProperties(), PROPERTY_FETCH_SIZE, fetchSize);
+    }
+
+    /**
+     * @return the number of rows routed per message when streaming on the given
+     *         endpoint. The endpoint "streamingBatchSize" property overrides the
+     *         connector setting.
+     */
+    public int getStreamingBatchSize(ImmutableEndpoint endpoint)
+    {
+        return Math.max(1, MapUtils.getIntValue(endpoint.getProperties(), PROPERTY_STREAMING_BATCH_SIZE,
+            streamingBatchSize));
+    }
+
     protected Object getParamValue(ImmutableEndpoint endpoint, MuleMessage message, String param)
     {
         Object value = null;
@@ -458,6 +572,16 @@ public class JdbcConnector extends AbstractConnector implements Testable
         this.resultSetHandler = resultSetHandler;
     }
 
+    public RowProcessor getRowProcessor()
+    {
+        return rowProcessor;
+    }
+
+    public void setRowProcessor(RowProcessor rowProcessor)
+    {
+        this.rowProcessor = rowProcessor;
+    }
+
     public QueryRunner getQueryRunnerFor(ImmutableEndpoint endpoint)
     {
         String queryTimeoutAsString = (String) endpoint.getProperty("queryTimeout");
@@ -563,6 +687,36 @@ public class JdbcConnector extends AbstractConnector implements Testable
         this.queryTimeout = queryTimeout;
     }
 
+    public boolean isStreaming()
+    {
+        return streaming;
+    }
+
+    public void setStreaming(boolean streaming)
+    {
+        this.streaming = streaming;
+    }
+
+    public int getFetchSize()
+    {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize)
+    {
+        this.fetchSize = fetchSize;
+    }
+
+    public int getStreamingBatchSize()
+    {
+        return streamingBatchSize;
+    }
+
+    public void setStreamingBatchSize(int streamingBatchSize)
+    {
+        this.streamingBatchSize = streamingBatchSize;
+    }
+
     @Override
     protected <T> T getOperationResourceFactory()
     {
@@ -55,7 +55,12 @@ public class JdbcMessageDispatcher extends AbstractMessageDispatcher
             logger.debug("Dispatch event: " + event);
         }
         
-        doSend(event);
+        MuleMessage result = doSend(event);
+        // nobody reads the result of a one-way call, release a streamed cursor
+        if (result != null && result.getPayload() instanceof ResultSetMessageSequence)
+        {
+            ((ResultSetMessageSequence) result.getPayload()).close();
+        }
     }
 
     @Override
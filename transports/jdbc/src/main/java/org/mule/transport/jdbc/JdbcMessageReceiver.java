@@ -11,12 +11,18 @@
 package org.mule.transport.jdbc;
 
 import org.mule.DefaultMuleMessage;
+import org.mule.api.MessagingException;
+import org.mule.api.MuleEvent;
 import org.mule.api.MuleMessage;
 import org.mule.api.construct.FlowConstruct;
 import org.mule.api.endpoint.InboundEndpoint;
+import org.mule.api.execution.ExecutionCallback;
+import org.mule.api.execution.ExecutionTemplate;
 import org.mule.api.lifecycle.CreateException;
 import org.mule.api.transaction.Transaction;
 import org.mule.api.transport.Connector;
+import org.mule.routing.MessageSequence;
+import org.mule.routing.outbound.PartitionedMessageSequence;
 import org.mule.transaction.TransactionCoordination;
 import org.mule.transaction.XaTransactionFactory;
 import org.mule.transport.TransactedPollingMessageReceiver;
@@ -32,6 +38,11 @@ import java.util.List;
 /**
  * Implements {@link TransactedPollingMessageReceiver} reading data from a database.
  * Provides a way to acknowledge each read data using a SQL statement.
+ * <p/>
+ * When the connector or endpoint is configured for streaming, the read statement
+ * is not loaded through the result set handler. Instead, rows are read from the open
+ * cursor and each row (or batch of <code>streamingBatchSize</code> rows) is routed and
+ * acknowledged as soon as it is read.
  */
 public class JdbcMessageReceiver extends TransactedPollingMessageReceiver
 {
@@ -118,8 +129,140 @@ public class JdbcMessageReceiver extends TransactedPollingMessageReceiver
         // noop
     }
 
+    @Override
+    public void poll() throws Exception
+    {
+        if (!connector.isStreaming(endpoint))
+        {
+            super.poll();
+            return;
+        }
+        if (!flowConstruct.getMuleContext().isPrimaryPollingInstance())
+        {
+            return;
+        }
+
+        try
+        {
+            if (isReceiveMessagesInTransaction())
+            {
+                // The whole cursor is consumed inside a single transaction
+                ExecutionTemplate<MuleEvent> pt = createExecutionTemplate();
+                pt.execute(new ExecutionCallback<MuleEvent>()
+                {
+                    @Override
+                    public MuleEvent process() throws Exception
+                    {
+                        streamMessages(null);
+                        return null;
+                    }
+                });
+            }
+            else
+            {
+                streamMessages(createExecutionTemplate());
+            }
+        }
+        catch (Exception e)
+        {
+            getConnector().getMuleContext().handleException(e);
+        }
+    }
+
+    /**
+     * Executes the read statement and routes the rows as they are read from the
+     * cursor. The cursor connection is kept open only while rows are being consumed.
+     *
+     * @param perMessageTemplate template used to process each row or batch in its own
+     *            transaction, or null when all of them are processed in the current one
+     */
+    protected void streamMessages(ExecutionTemplate<MuleEvent> perMessageTemplate) throws Exception
+    {
+        boolean inTransaction = TransactionCoordination.getInstance().getTransaction() != null;
+        Connection con = null;
+        ResultSetMessageSequence rows = null;
+        try
+        {
+            con = this.connector.getConnection();
+            Object[] params = connector.getParams(endpoint, this.readParams, null, this.endpoint.getEndpointURI().getAddress());
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("SQL QUERY (streaming): " + readStmt + ", params = " + ArrayUtils.toString(params));
+            }
+            rows = connector.openResultSet(endpoint, con, this.readStmt, params, false);
+
+            final int batchSize = connector.getStreamingBatchSize(endpoint);
+            MessageSequence<?> sequence = rows;
+            if (batchSize > 1)
+            {
+                sequence = new PartitionedMessageSequence<Object>(rows, batchSize);
+            }
+
+            while (sequence.hasNext() && isStarted())
+            {
+                final Object record = sequence.next();
+                if (perMessageTemplate == null)
+                {
+                    processMessage(record, batchSize > 1);
+                }
+                else
+                {
+                    try
+                    {
+                        perMessageTemplate.execute(new ExecutionCallback<MuleEvent>()
+                        {
+                            @Override
+                            public MuleEvent process() throws Exception
+                            {
+                                processMessage(record, batchSize > 1);
+                                return null;
+                            }
+                        });
+                    }
+                    catch (MessagingException e)
+                    {
+                        // already managed by the execution template, keep reading
+                    }
+                }
+            }
+
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Streamed " + rows.getRowCount() + " rows");
+            }
+        }
+        finally
+        {
+            if (rows != null)
+            {
+                rows.close();
+            }
+            if (!inTransaction)
+            {
+                JdbcUtils.close(con);
+            }
+        }
+    }
+
     @Override
     public void processMessage(Object message) throws Exception
+    {
+        processMessage(message, aggregateResult);
+        if (hasAckStatement())
+        {
+            // Reset this flag
+            aggregateResult = false;
+        }
+    }
+
+    /**
+     * Routes a record and executes the acknowledge statement for it.
+     *
+     * @param message the record, or the list of records when batched
+     * @param batched whether the message is a list of records that must be
+     *            acknowledged with a batch statement
+     */
+    protected void processMessage(Object message, boolean batched) throws Exception
     {
         Connection con = null;
         Transaction tx = TransactionCoordination.getInstance().getTransaction();
@@ -131,7 +274,7 @@ public class JdbcMessageReceiver extends TransactedPollingMessageReceiver
             {
                 con = this.connector.getConnection();
 
-                if (aggregateResult)
+                if (batched)
                 {
                     List<MuleMessage> messages = createMuleMessages((List) message);
                     int[] nbRows = executeBatchAckStatement(con, messages);
@@ -140,8 +283,6 @@ public class JdbcMessageReceiver extends TransactedPollingMessageReceiver
                     {
                         logger.warn(".ack statement did not update any rows");
                     }
-                    // Reset this flag
-                    aggregateResult = false;
                 }
                 else
                 {
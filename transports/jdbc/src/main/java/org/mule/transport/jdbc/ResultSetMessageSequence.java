@@ -0,0 +1,162 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.jdbc;
+
+import org.mule.api.MuleRuntimeException;
+import org.mule.config.i18n.MessageFactory;
+import org.mule.routing.AbstractMessageSequence;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.dbutils.DbUtils;
+import org.apache.commons.dbutils.RowProcessor;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A {@link org.mule.routing.MessageSequence} that lazily reads the rows of an open
+ * {@link ResultSet}. Each row is converted using the configured {@link RowProcessor}
+ * only when it is requested, so the whole result never needs to fit in memory.
+ * <p/>
+ * The underlying statement and result set are released as soon as the cursor is
+ * exhausted or {@link #close()} is invoked. The connection is only closed by this
+ * sequence when it was created owning it, that is, when it is not bound to a
+ * transaction.
+ */
+public class ResultSetMessageSequence extends AbstractMessageSequence<Object> implements Closeable
+{
+
+    private static final Log logger = LogFactory.getLog(ResultSetMessageSequence.class);
+
+    private final Connection connection;
+    private final Statement statement;
+    private final ResultSet resultSet;
+    private final RowProcessor rowProcessor;
+    private final boolean closeConnection;
+
+    private Boolean nextAvailable;
+    private boolean closed;
+    private long rowCount;
+
+    public ResultSetMessageSequence(Connection connection,
+                                    Statement statement,
+                                    ResultSet resultSet,
+                                    RowProcessor rowProcessor,
+                                    boolean closeConnection)
+    {
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.rowProcessor = rowProcessor;
+        this.closeConnection = closeConnection;
+    }
+
+    public int size()
+    {
+        return UNKNOWN_SIZE;
+    }
+
+    public synchronized boolean hasNext()
+    {
+        if (closed)
+        {
+            return false;
+        }
+        if (nextAvailable == null)
+        {
+            try
+            {
+                nextAvailable = resultSet.next();
+            }
+            catch (SQLException e)
+            {
+                close();
+                throw new MuleRuntimeException(MessageFactory.createStaticMessage("Unable to read next row from result set"), e);
+            }
+            if (!nextAvailable)
+            {
+                close();
+            }
+        }
+        return nextAvailable;
+    }
+
+    public synchronized Object next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        nextAvailable = null;
+        try
+        {
+            rowCount++;
+            return rowProcessor.toMap(resultSet);
+        }
+        catch (SQLException e)
+        {
+            close();
+            throw new MuleRuntimeException(MessageFactory.createStaticMessage("Unable to read row " + rowCount + " from result set"), e);
+        }
+    }
+
+    /**
+     * @return the number of rows read so far
+     */
+    public synchronized long getRowCount()
+    {
+        return rowCount;
+    }
+
+    public synchronized boolean isClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * Releases the result set and the statement, and the connection when this
+     * sequence owns it. Calling this method more than once has no effect.
+     */
+    public synchronized void close()
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        nextAvailable = Boolean.FALSE;
+
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Closing result set after reading " + rowCount + " rows");
+        }
+
+        DbUtils.closeQuietly(resultSet);
+        DbUtils.closeQuietly(statement);
+        if (closeConnection)
+        {
+            try
+            {
+                JdbcUtils.commitAndClose(connection);
+            }
+            catch (SQLException e)
+            {
+                logger.warn("Unable to close streaming connection", e);
+            }
+        }
+    }
+
+}
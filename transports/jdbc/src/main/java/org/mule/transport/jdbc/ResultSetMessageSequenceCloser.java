@@ -0,0 +1,32 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.jdbc;
+
+import org.mule.api.util.StreamCloser;
+
+/**
+ * Closes the cursor of a streamed select result, e.g. when the message carrying it
+ * fails, so its statement and connection are released without consuming it.
+ */
+public class ResultSetMessageSequenceCloser implements StreamCloser
+{
+
+    public boolean canClose(Class streamType)
+    {
+        return ResultSetMessageSequence.class.isAssignableFrom(streamType);
+    }
+
+    public void close(Object stream) throws Exception
+    {
+        ((ResultSetMessageSequence) stream).close();
+    }
+
+}
@@ -18,6 +18,7 @@ import org.mule.api.transaction.Transaction;
 import org.mule.transaction.TransactionCoordination;
 import org.mule.transport.jdbc.JdbcConnector;
 import org.mule.transport.jdbc.JdbcUtils;
+import org.mule.transport.jdbc.ResultSetMessageSequence;
 import org.mule.util.ArrayUtils;
 
 import java.sql.Connection;
@@ -29,6 +30,10 @@ import org.apache.log4j.Logger;
 
 /**
  * Implements strategy for handling normal select statements + acks.  
+ * <p/>
+ * When the endpoint is configured for streaming, the select is executed once and the
+ * resulting message carries a {@link ResultSetMessageSequence} as payload, which reads
+ * the rows lazily from the open cursor. Ack statements are not supported in that mode.
  */
 public  class SelectSqlStatementStrategy implements SqlStatementStrategy
 {
@@ -53,6 +58,15 @@ public  class SelectSqlStatementStrategy implements SqlStatementStrategy
         readStmt = connector.parseStatement(readStmt, readParams);
         ackStmt = connector.parseStatement(ackStmt, ackParams);
 
+        if (connector.isStreaming(endpoint))
+        {
+            if (ackStmt != null)
+            {
+                logger.warn("Ack statement is ignored when streaming select results: " + ackStmt);
+            }
+            return executeStreamingStatement(connector, endpoint, event, readStmt, readParams, connection);
+        }
+
         long t0 = System.currentTimeMillis();
 
         //This method is used in both JDBCMessageDispatcher and JDBCMessageRequester.
@@ -138,4 +152,43 @@ public  class SelectSqlStatementStrategy implements SqlStatementStrategy
         }
         return message;
     }
+
+    /**
+     * Executes the read statement once and returns a message whose payload is the
+     * lazily consumed cursor. When there is no transaction the sequence takes
+     * ownership of the connection and closes it once it is exhausted or closed. A
+     * message that fails later on has its sequence closed by the
+     * {@link org.mule.transport.jdbc.ResultSetMessageSequenceCloser}.
+     */
+    protected MuleMessage executeStreamingStatement(JdbcConnector connector, ImmutableEndpoint endpoint,
+                                                    MuleEvent event, String readStmt, List readParams,
+                                                    Connection connection) throws Exception
+    {
+        Object[] params = connector.getParams(endpoint, readParams,
+            event != null ? event.getMessage() : null,
+            endpoint.getEndpointURI().getAddress());
+
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("SQL QUERY (streaming): " + readStmt + ", params = " + ArrayUtils.toString(params));
+        }
+
+        boolean ownsConnection = TransactionCoordination.getInstance().getTransaction() == null;
+        ResultSetMessageSequence result = connector.openResultSet(endpoint, connection, readStmt, params,
+            ownsConnection);
+
+        try
+        {
+            if (event != null)
+            {
+                return new DefaultMuleMessage(result, event.getMessage(), connector.getMuleContext());
+            }
+            return new DefaultMuleMessage(result, connector.getMuleContext());
+        }
+        catch (RuntimeException e)
+        {
+            result.close();
+            throw e;
+        }
+    }
 }
@@ -17,6 +17,7 @@ import org.mule.api.endpoint.ImmutableEndpoint;
 import org.mule.transaction.TransactionCoordination;
 import org.mule.transport.jdbc.JdbcConnector;
 import org.mule.transport.jdbc.JdbcUtils;
+import org.mule.transport.jdbc.ResultSetMessageSequence;
 
 public class SqlStatementStrategyExecutor
 {
@@ -26,7 +27,8 @@ public class SqlStatementStrategyExecutor
         try
         {
             MuleMessage muleMessage = strategy.executeStatement(connector, endpoint, event, timeout, connection);
-            if (TransactionCoordination.getInstance().getTransaction() == null)
+            // A streamed result owns the connection until its cursor is consumed
+            if (TransactionCoordination.getInstance().getTransaction() == null && !isStreamed(muleMessage))
             {
                 JdbcUtils.commitAndClose(connection);
             }
@@ -41,4 +43,9 @@ public class SqlStatementStrategyExecutor
             throw e;
         }
     }
+
+    private boolean isStreamed(MuleMessage muleMessage)
+    {
+        return muleMessage != null && muleMessage.getPayload() instanceof ResultSetMessageSequence;
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.dbutils.RowProcessor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+@SmallTest
+public class ResultSetMessageSequenceTestCase extends AbstractMuleTestCase
+{
+
+    @Mock
+    private Connection connection;
+    @Mock
+    private Statement statement;
+    @Mock
+    private ResultSet resultSet;
+    @Mock
+    private RowProcessor rowProcessor;
+
+    @Test
+    public void readsRowsLazily() throws Exception
+    {
+        Map row = Collections.singletonMap("ID", 1);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(rowProcessor.toMap(resultSet)).thenReturn(row);
+
+        ResultSetMessageSequence sequence = new ResultSetMessageSequence(connection, statement, resultSet, rowProcessor, false);
+
+        verify(resultSet, never()).next();
+        assertTrue(sequence.hasNext());
+        assertTrue(sequence.hasNext());
+        verify(resultSet, times(1)).next();
+        assertEquals(row, sequence.next());
+        assertEquals(row, sequence.next());
+        assertFalse(sequence.hasNext());
+        assertEquals(2, sequence.getRowCount());
+        assertTrue(sequence.isClosed());
+    }
+
+    @Test
+    public void closesCursorWhenExhaustedKeepingSharedConnection() throws Exception
+    {
+        when(resultSet.next()).thenReturn(false);
+
+        ResultSetMessageSequence sequence = new ResultSetMessageSequence(connection, statement, resultSet, rowProcessor, false);
+
+        assertTrue(sequence.isEmpty());
+        verify(resultSet).close();
+        verify(statement).close();
+        verify(connection, never()).close();
+    }
+
+    @Test
+    public void closesOwnedConnection() throws Exception
+    {
+        when(connection.getAutoCommit()).thenReturn(true);
+
+        ResultSetMessageSequence sequence = new ResultSetMessageSequence(connection, statement, resultSet, rowProcessor, true);
+        sequence.close();
+        sequence.close();
+
+        verify(resultSet).close();
+        verify(statement).close();
+        verify(connection, times(1)).close();
+        assertFalse(sequence.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void failsWhenNoMoreRows() throws Exception
+    {
+        when(resultSet.next()).thenReturn(false);
+
+        new ResultSetMessageSequence(connection, statement, resultSet, rowProcessor, false).next();
+    }
+
+    @Test
+    public void closerReleasesUnreadCursor() throws Exception
+    {
+        ResultSetMessageSequence sequence = new ResultSetMessageSequence(connection, statement, resultSet, rowProcessor, true);
+        ResultSetMessageSequenceCloser closer = new ResultSetMessageSequenceCloser();
+
+        assertTrue(closer.canClose(sequence.getClass()));
+        closer.close(sequence);
+
+        assertTrue(sequence.isClosed());
+        verify(resultSet).close();
+        verify(statement).close();
+        verify(connection).close();
+    }
+}
@@ -22,6 +22,7 @@ import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.MulticastSocket;
 import java.net.URI;
+import java.nio.channels.DatagramChannel;
 
 import javax.resource.spi.work.Work;
 
@@ -41,6 +42,17 @@ public class MulticastMessageReceiver extends UdpMessageReceiver
         return socket;
     }
 
+    /**
+     * Datagram channels can only join multicast groups from Java 7, so in non-blocking
+     * mode the receive loops read from the multicast socket, still using pooled buffers
+     * and dispatching through a batch worker.
+     */
+    @Override
+    protected DatagramChannel openChannel() throws Exception
+    {
+        return null;
+    }
+
     protected Work createWork(DatagramPacket packet) throws IOException
     {
         return new MulticastWorker(packet);
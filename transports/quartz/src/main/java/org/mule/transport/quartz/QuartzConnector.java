@@ -13,15 +13,20 @@ package org.mule.transport.quartz;
 import org.mule.api.MuleContext;
 import org.mule.api.MuleException;
 import org.mule.api.config.MuleProperties;
+import org.mule.api.endpoint.EndpointCache;
 import org.mule.api.lifecycle.InitialisationException;
 import org.mule.api.transport.ConnectorException;
 import org.mule.config.i18n.CoreMessages;
+import org.mule.endpoint.SimpleEndpointCache;
 import org.mule.transport.AbstractConnector;
 
 import java.util.Properties;
 
+import org.quartz.CronTrigger;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerFactory;
+import org.quartz.SimpleTrigger;
+import org.quartz.Trigger;
 import org.quartz.impl.StdSchedulerFactory;
 
 /**
@@ -47,6 +52,10 @@ public class QuartzConnector extends AbstractConnector
 
     public static final String DEFAULT_GROUP_NAME = "mule";
 
+    public static final String MISFIRE_SMART_POLICY = "SMART_POLICY";
+    public static final String MISFIRE_FIRE_ONCE_NOW = "FIRE_ONCE_NOW";
+    public static final String MISFIRE_DO_NOTHING = "DO_NOTHING";
+
     /**
      * Properties to be used for creating the scheduler.  If no properties are given, the
      * scheduler will be created by <code>StdSchedulerFactory.getDefaultScheduler()</code>
@@ -59,9 +68,32 @@ public class QuartzConnector extends AbstractConnector
      */
     private Scheduler quartzScheduler = null;
 
+    /**
+     * The milliseconds during which events generated by jobs are collected and routed
+     * as a batch, 0 to route each event on the scheduler thread that generated it.
+     */
+    private long batchWindow = 0;
+
+    /**
+     * What the scheduler does with triggers that could not fire on time, one of the
+     * MISFIRE constants. The default is the smart policy of each trigger type.
+     */
+    private String misfireInstruction = MISFIRE_SMART_POLICY;
+
+    /**
+     * The milliseconds a trigger can be late before it is considered misfired, -1 to
+     * keep the default of the job store.
+     */
+    private long misfireThreshold = -1;
+
+    private final EndpointCache endpointCache;
+    private QuartzStatistics statistics;
+    private QuartzEventBatcher eventBatcher;
+
     public QuartzConnector(MuleContext context)
     {
         super(context);
+        endpointCache = new SimpleEndpointCache(context);
     }
     
     @Override
@@ -75,6 +107,10 @@ public class QuartzConnector extends AbstractConnector
         //Set the thread count, we can't seem to plug in our work manager unfortunately
         factoryProperties.setProperty("org.quartz.threadPool.class", "org.quartz.simpl.SimpleThreadPool");
         factoryProperties.setProperty("org.quartz.threadPool.threadCount", String.valueOf(getReceiverThreadingProfile().getMaxThreadsActive()));
+        if (misfireThreshold >= 0 && factoryProperties.getProperty("org.quartz.jobStore.misfireThreshold") == null)
+        {
+            factoryProperties.setProperty("org.quartz.jobStore.misfireThreshold", String.valueOf(misfireThreshold));
+        }
         String instanceName = factoryProperties.getProperty("org.quartz.scheduler.instanceName");
         if (instanceName == null)
         {
@@ -90,7 +126,11 @@ public class QuartzConnector extends AbstractConnector
                 quartzScheduler = factory.getScheduler();
             }
             quartzScheduler.getContext().put(MuleProperties.MULE_CONTEXT_PROPERTY, muleContext);            
-        
+
+            // the scheduler may be shared by several connectors
+            statistics = new QuartzStatistics("mule-statistics-" + getName(),
+                quartzScheduler.getMetaData().getThreadPoolSize());
+            quartzScheduler.addGlobalTriggerListener(statistics);
         }
         catch (Exception e)
         {
@@ -105,6 +145,10 @@ public class QuartzConnector extends AbstractConnector
         {
             if (quartzScheduler != null)
             {
+                if (statistics != null)
+                {
+                    quartzScheduler.removeGlobalTriggerListener(statistics.getName());
+                }
                 quartzScheduler.shutdown();
             }
         }
@@ -131,6 +175,11 @@ public class QuartzConnector extends AbstractConnector
     {
         try
         {
+            if (batchWindow > 0)
+            {
+                eventBatcher = new QuartzEventBatcher(batchWindow, getScheduler(), getReceiverWorkManager(),
+                    muleContext);
+            }
             quartzScheduler.start();
         }
         catch (Exception e)
@@ -148,6 +197,11 @@ public class QuartzConnector extends AbstractConnector
             {
                 quartzScheduler.standby();
             }
+            if (eventBatcher != null)
+            {
+                eventBatcher.stop();
+                eventBatcher = null;
+            }
         }
         catch (Exception e)
         {
@@ -179,4 +233,91 @@ public class QuartzConnector extends AbstractConnector
     {
         this.factoryProperties = factoryProperties;
     }
+
+    /**
+     * Sets the misfire instruction of the connector on a trigger created for one of its
+     * endpoints.
+     */
+    public void applyMisfireInstruction(Trigger trigger)
+    {
+        if (MISFIRE_SMART_POLICY.equals(misfireInstruction))
+        {
+            // the default of all triggers
+            return;
+        }
+        boolean fireNow = MISFIRE_FIRE_ONCE_NOW.equals(misfireInstruction);
+        if (trigger instanceof CronTrigger)
+        {
+            trigger.setMisfireInstruction(fireNow
+                                                 ? CronTrigger.MISFIRE_INSTRUCTION_FIRE_ONCE_NOW
+                                                 : CronTrigger.MISFIRE_INSTRUCTION_DO_NOTHING);
+        }
+        else if (trigger instanceof SimpleTrigger)
+        {
+            trigger.setMisfireInstruction(fireNow
+                                                 ? SimpleTrigger.MISFIRE_INSTRUCTION_RESCHEDULE_NOW_WITH_EXISTING_REPEAT_COUNT
+                                                 : SimpleTrigger.MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_REMAINING_COUNT);
+        }
+    }
+
+    public long getBatchWindow()
+    {
+        return batchWindow;
+    }
+
+    public void setBatchWindow(long batchWindow)
+    {
+        this.batchWindow = batchWindow;
+    }
+
+    public String getMisfireInstruction()
+    {
+        return misfireInstruction;
+    }
+
+    public void setMisfireInstruction(String misfireInstruction)
+    {
+        if (!MISFIRE_SMART_POLICY.equals(misfireInstruction) && !MISFIRE_FIRE_ONCE_NOW.equals(misfireInstruction)
+            && !MISFIRE_DO_NOTHING.equals(misfireInstruction))
+        {
+            throw new IllegalArgumentException("Unknown misfire instruction: " + misfireInstruction);
+        }
+        this.misfireInstruction = misfireInstruction;
+    }
+
+    public long getMisfireThreshold()
+    {
+        return misfireThreshold;
+    }
+
+    public void setMisfireThreshold(long misfireThreshold)
+    {
+        this.misfireThreshold = misfireThreshold;
+    }
+
+    /**
+     * @return the cache of the endpoints jobs dispatch to or poll, so they are not
+     *         built again on every fire
+     */
+    public EndpointCache getEndpointCache()
+    {
+        return endpointCache;
+    }
+
+    /**
+     * @return the statistics of the scheduler, null until the connector is initialised
+     */
+    public QuartzStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+    /**
+     * @return the batcher of generated events, null unless the batch window is set and
+     *         the connector is started
+     */
+    public QuartzEventBatcher getEventBatcher()
+    {
+        return eventBatcher;
+    }
 }
@@ -0,0 +1,216 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.quartz;
+
+import org.mule.api.MuleContext;
+import org.mule.api.MuleMessage;
+import org.mule.api.context.WorkManager;
+import org.mule.transport.AbstractMessageReceiver;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.resource.spi.work.Work;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Collects the events generated by Quartz jobs during a short window and routes them
+ * as a single batch on a receiver thread, so the threads of the scheduler are released
+ * as soon as a trigger fires. Triggers of the same receiver firing again before the
+ * batch is routed are coalesced into one event, carrying the number of fires in the
+ * {@link #COALESCED_FIRES_PROPERTY} invocation property.
+ */
+public class QuartzEventBatcher
+{
+
+    public static final String COALESCED_FIRES_PROPERTY = "quartz.coalescedFires";
+
+    protected transient Log logger = LogFactory.getLog(getClass());
+
+    private final long window;
+    private final ScheduledExecutorService scheduler;
+    private final WorkManager workManager;
+    private final MuleContext muleContext;
+
+    private final Object lock = new Object();
+    private Map<AbstractMessageReceiver, PendingEvent> pending = new LinkedHashMap<AbstractMessageReceiver, PendingEvent>();
+    private boolean flushScheduled = false;
+    private volatile boolean stopped = false;
+
+    private final AtomicLong batches = new AtomicLong(0);
+    private final AtomicLong batchedEvents = new AtomicLong(0);
+    private final AtomicLong coalescedFires = new AtomicLong(0);
+
+    public QuartzEventBatcher(long window, ScheduledExecutorService scheduler, WorkManager workManager,
+                              MuleContext muleContext)
+    {
+        this.window = window;
+        this.scheduler = scheduler;
+        this.workManager = workManager;
+        this.muleContext = muleContext;
+    }
+
+    /**
+     * Adds the event of a trigger to the current batch.
+     *
+     * @param properties invocation properties of the event
+     */
+    public void add(AbstractMessageReceiver receiver, Object payload, Map<?, ?> properties)
+    {
+        synchronized (lock)
+        {
+            if (stopped)
+            {
+                return;
+            }
+            PendingEvent event = pending.get(receiver);
+            if (event == null)
+            {
+                pending.put(receiver, new PendingEvent(receiver, payload, properties));
+            }
+            else
+            {
+                // the latest fire wins, the receiver gets a single event
+                event.payload = payload;
+                event.properties = properties;
+                event.fires++;
+                coalescedFires.incrementAndGet();
+            }
+            if (!flushScheduled)
+            {
+                flushScheduled = true;
+                scheduler.schedule(new Runnable()
+                {
+                    public void run()
+                    {
+                        flush();
+                    }
+                }, window, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    protected void flush()
+    {
+        final List<PendingEvent> batch;
+        synchronized (lock)
+        {
+            flushScheduled = false;
+            if (stopped || pending.isEmpty())
+            {
+                return;
+            }
+            batch = new ArrayList<PendingEvent>(pending.values());
+            pending = new LinkedHashMap<AbstractMessageReceiver, PendingEvent>();
+        }
+        batches.incrementAndGet();
+        batchedEvents.addAndGet(batch.size());
+
+        try
+        {
+            workManager.scheduleWork(new Work()
+            {
+                public void run()
+                {
+                    for (PendingEvent event : batch)
+                    {
+                        event.route();
+                    }
+                }
+
+                public void release()
+                {
+                    // nothing to release
+                }
+            });
+        }
+        catch (Exception e)
+        {
+            muleContext.getExceptionListener().handleException(e);
+        }
+    }
+
+    /**
+     * Discards the events not routed yet. The batcher can't be used afterwards.
+     */
+    public void stop()
+    {
+        synchronized (lock)
+        {
+            stopped = true;
+            if (!pending.isEmpty() && logger.isDebugEnabled())
+            {
+                logger.debug("Discarding " + pending.size() + " events generated before stopping");
+            }
+            pending.clear();
+        }
+    }
+
+    public long getWindow()
+    {
+        return window;
+    }
+
+    public long getBatches()
+    {
+        return batches.get();
+    }
+
+    public long getBatchedEvents()
+    {
+        return batchedEvents.get();
+    }
+
+    /**
+     * @return the number of fires merged into an event of the same receiver
+     */
+    public long getCoalescedFires()
+    {
+        return coalescedFires.get();
+    }
+
+    private class PendingEvent
+    {
+        private final AbstractMessageReceiver receiver;
+        private Object payload;
+        private Map<?, ?> properties;
+        private int fires = 1;
+
+        PendingEvent(AbstractMessageReceiver receiver, Object payload, Map<?, ?> properties)
+        {
+            this.receiver = receiver;
+            this.payload = payload;
+            this.properties = properties;
+        }
+
+        void route()
+        {
+            try
+            {
+                MuleMessage message = receiver.createMuleMessage(payload, receiver.getEndpoint().getEncoding());
+                message.setInvocationProperty(QuartzConnector.PROPERTY_JOB_DATA, properties);
+                message.setInvocationProperty(COALESCED_FIRES_PROPERTY, fires);
+                receiver.routeMessage(message);
+            }
+            catch (Exception e)
+            {
+                muleContext.getExceptionListener().handleException(e);
+            }
+        }
+    }
+}
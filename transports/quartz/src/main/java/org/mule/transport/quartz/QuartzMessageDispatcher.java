@@ -68,6 +68,7 @@ public class QuartzMessageDispatcher extends AbstractMessageDispatcher
 
         JobDataMap jobDataMap = new JobDataMap();
         jobDataMap.put(QuartzConnector.PROPERTY_JOB_DYNAMIC, Boolean.TRUE);
+        jobDataMap.put(QuartzMessageReceiver.QUARTZ_CONNECTOR_PROPERTY, connector.getName());
         MuleMessage msg = event.getMessage();
         // populate from invocation and outbound scopes only
         for (String key : msg.getInvocationPropertyNames())
@@ -167,7 +168,9 @@ public class QuartzMessageDispatcher extends AbstractMessageDispatcher
         trigger.setJobName(jobDetail.getName());
         trigger.setJobGroup(jobGroupName);
 
-        Scheduler scheduler = ((QuartzConnector) this.getConnector()).getQuartzScheduler();
+        QuartzConnector quartzConnector = (QuartzConnector) this.getConnector();
+        quartzConnector.applyMisfireInstruction(trigger);
+        Scheduler scheduler = quartzConnector.getQuartzScheduler();
 
         // Minimize the the time window capturing the start time and scheduling the job.
         long start = System.currentTimeMillis();
@@ -170,6 +170,7 @@ public class QuartzMessageReceiver extends AbstractMessageReceiver
             trigger.setGroup(groupName);
             trigger.setJobName(endpoint.getEndpointURI().getAddress());
             trigger.setJobGroup(jobGroupName);
+            connector.applyMisfireInstruction(trigger);
 
             // Minimize the the time window capturing the start time and scheduling the job.
             long start = System.currentTimeMillis();
@@ -0,0 +1,164 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.quartz;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.Trigger;
+import org.quartz.TriggerListener;
+
+/**
+ * Listens to the triggers of a Quartz scheduler to report how late jobs start and how
+ * busy the threads of the scheduler are. A trigger fires late when the scheduler had
+ * no thread available at its scheduled time, so lateness and saturation usually grow
+ * together.
+ */
+public class QuartzStatistics implements TriggerListener
+{
+
+    private final String name;
+    private volatile int threadPoolSize;
+
+    private final AtomicInteger activeJobs = new AtomicInteger(0);
+    private final AtomicInteger peakActiveJobs = new AtomicInteger(0);
+    private final AtomicLong firedTriggers = new AtomicLong(0);
+    private final AtomicLong saturatedFires = new AtomicLong(0);
+    private final AtomicLong misfiredTriggers = new AtomicLong(0);
+    private final AtomicLong totalLateness = new AtomicLong(0);
+    private final AtomicLong maxLateness = new AtomicLong(0);
+
+    public QuartzStatistics(String name, int threadPoolSize)
+    {
+        this.name = name;
+        this.threadPoolSize = threadPoolSize;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void triggerFired(Trigger trigger, JobExecutionContext context)
+    {
+        firedTriggers.incrementAndGet();
+        int active = activeJobs.incrementAndGet();
+        int peak = peakActiveJobs.get();
+        while (active > peak && !peakActiveJobs.compareAndSet(peak, active))
+        {
+            peak = peakActiveJobs.get();
+        }
+        if (threadPoolSize > 0 && active >= threadPoolSize)
+        {
+            saturatedFires.incrementAndGet();
+        }
+
+        if (context.getScheduledFireTime() != null && context.getFireTime() != null)
+        {
+            long lateness = Math.max(0, context.getFireTime().getTime() - context.getScheduledFireTime().getTime());
+            totalLateness.addAndGet(lateness);
+            long max = maxLateness.get();
+            while (lateness > max && !maxLateness.compareAndSet(max, lateness))
+            {
+                max = maxLateness.get();
+            }
+        }
+    }
+
+    public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context)
+    {
+        return false;
+    }
+
+    public void triggerMisfired(Trigger trigger)
+    {
+        misfiredTriggers.incrementAndGet();
+    }
+
+    public void triggerComplete(Trigger trigger, JobExecutionContext context, int triggerInstructionCode)
+    {
+        activeJobs.decrementAndGet();
+    }
+
+    public int getThreadPoolSize()
+    {
+        return threadPoolSize;
+    }
+
+    public void setThreadPoolSize(int threadPoolSize)
+    {
+        this.threadPoolSize = threadPoolSize;
+    }
+
+    /**
+     * @return the number of jobs being executed
+     */
+    public int getActiveJobs()
+    {
+        return activeJobs.get();
+    }
+
+    public int getPeakActiveJobs()
+    {
+        return peakActiveJobs.get();
+    }
+
+    /**
+     * @return the percentage of the scheduler threads executing jobs
+     */
+    public int getThreadPoolSaturation()
+    {
+        return threadPoolSize > 0 ? activeJobs.get() * 100 / threadPoolSize : 0;
+    }
+
+    public long getFiredTriggers()
+    {
+        return firedTriggers.get();
+    }
+
+    /**
+     * @return the number of triggers that fired when all the scheduler threads were busy
+     */
+    public long getSaturatedFires()
+    {
+        return saturatedFires.get();
+    }
+
+    public long getMisfiredTriggers()
+    {
+        return misfiredTriggers.get();
+    }
+
+    /**
+     * @return the mean of the milliseconds between the scheduled and actual fire times
+     */
+    public long getAverageLateness()
+    {
+        long fired = firedTriggers.get();
+        return fired == 0 ? 0 : totalLateness.get() / fired;
+    }
+
+    public long getMaxLateness()
+    {
+        return maxLateness.get();
+    }
+
+    public void clear()
+    {
+        peakActiveJobs.set(activeJobs.get());
+        firedTriggers.set(0);
+        saturatedFires.set(0);
+        misfiredTriggers.set(0);
+        totalLateness.set(0);
+        maxLateness.set(0);
+    }
+}
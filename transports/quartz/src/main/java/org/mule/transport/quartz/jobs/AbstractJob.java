@@ -11,9 +11,12 @@ package org.mule.transport.quartz.jobs;
 
 import org.mule.api.MuleContext;
 import org.mule.api.config.MuleProperties;
+import org.mule.api.transport.Connector;
 import org.mule.transport.quartz.QuartzConnector;
+import org.mule.transport.quartz.QuartzMessageReceiver;
 
 import org.quartz.Job;
+import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.SchedulerContext;
@@ -42,6 +45,21 @@ public abstract class AbstractJob implements Job
      */
     protected abstract void doExecute(JobExecutionContext jobExecutionContext) throws JobExecutionException;
 
+    /**
+     * @return the connector that scheduled the job, null if the job data does not name
+     *         a Quartz connector
+     */
+    protected QuartzConnector lookupConnector(JobDataMap jobDataMap)
+    {
+        String connectorName = (String) jobDataMap.get(QuartzMessageReceiver.QUARTZ_CONNECTOR_PROPERTY);
+        if (connectorName == null)
+        {
+            return null;
+        }
+        Connector connector = muleContext.getRegistry().lookupConnector(connectorName);
+        return connector instanceof QuartzConnector ? (QuartzConnector) connector : null;
+    }
+
     protected MuleContext getMuleContext(JobExecutionContext jobExecutionContext) throws JobExecutionException
     {
         try
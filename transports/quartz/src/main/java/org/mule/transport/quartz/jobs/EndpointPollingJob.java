@@ -10,6 +10,7 @@
 
 package org.mule.transport.quartz.jobs;
 
+import org.mule.MessageExchangePattern;
 import org.mule.api.MuleEvent;
 import org.mule.api.MuleMessage;
 import org.mule.api.ThreadSafeAccess;
@@ -17,8 +18,8 @@ import org.mule.api.endpoint.EndpointBuilder;
 import org.mule.api.endpoint.InboundEndpoint;
 import org.mule.api.transaction.Transaction;
 import org.mule.api.transport.PropertyScope;
+import org.mule.api.transport.ReceiveException;
 import org.mule.execution.TransactionalErrorHandlingExecutionTemplate;
-import org.mule.module.client.MuleClient;
 import org.mule.api.execution.ExecutionCallback;
 import org.mule.api.execution.ExecutionTemplate;
 import org.mule.transaction.MuleTransactionConfig;
@@ -136,8 +137,16 @@ public class EndpointPollingJob extends AbstractJob
                     }
                     else
                     {
-                        MuleClient client = new MuleClient(connector.getMuleContext());
-                        result = client.request(jobConfig.getEndpointRef(), jobConfig.getTimeout());
+                        InboundEndpoint inlineEndpoint = connector.getEndpointCache().getInboundEndpoint(
+                            jobConfig.getEndpointRef(), MessageExchangePattern.ONE_WAY);
+                        try
+                        {
+                            result = inlineEndpoint.request(jobConfig.getTimeout());
+                        }
+                        catch (Exception e)
+                        {
+                            throw new ReceiveException(inlineEndpoint, jobConfig.getTimeout(), e);
+                        }
                     }
 
                     if (result != null)
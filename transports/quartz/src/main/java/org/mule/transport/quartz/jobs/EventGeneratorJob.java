@@ -17,6 +17,7 @@ import org.mule.transport.AbstractConnector;
 import org.mule.transport.AbstractMessageReceiver;
 import org.mule.transport.NullPayload;
 import org.mule.transport.quartz.QuartzConnector;
+import org.mule.transport.quartz.QuartzEventBatcher;
 import org.mule.transport.quartz.QuartzMessageReceiver;
 import org.mule.transport.quartz.i18n.QuartzMessages;
 
@@ -27,6 +28,7 @@ import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.SchedulerException;
+import org.quartz.StatefulJob;
 
 /**
  * Will generate a new event based o the scheduled time. The payload of the event is
@@ -98,6 +100,16 @@ public class EventGeneratorJob extends AbstractJob
                 }
             }
             
+            QuartzEventBatcher batcher = connector instanceof QuartzConnector
+                                                                             ? ((QuartzConnector) connector).getEventBatcher()
+                                                                             : null;
+            // events of stateful jobs are routed synchronously, one trigger at a time
+            if (batcher != null && !(this instanceof StatefulJob))
+            {
+                batcher.add(receiver, payload, jobExecutionContext.getJobDetail().getJobDataMap());
+                return;
+            }
+
             MuleMessage msg = receiver.createMuleMessage(payload, receiver.getEndpoint().getEncoding());
             // If the job is stateful users can store state in this map and have it available for the next job trigger
             msg.setInvocationProperty(
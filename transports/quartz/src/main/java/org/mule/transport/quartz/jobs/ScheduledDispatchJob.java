@@ -10,8 +10,14 @@
 
 package org.mule.transport.quartz.jobs;
 
+import org.mule.DefaultMuleEvent;
+import org.mule.DefaultMuleMessage;
+import org.mule.MessageExchangePattern;
 import org.mule.api.MuleException;
+import org.mule.api.MuleMessage;
 import org.mule.api.config.MuleProperties;
+import org.mule.api.endpoint.OutboundEndpoint;
+import org.mule.client.DefaultLocalMuleClient;
 import org.mule.module.client.MuleClient;
 import org.mule.transport.NullPayload;
 import org.mule.transport.quartz.QuartzConnector;
@@ -70,8 +76,21 @@ public class ScheduledDispatchJob extends AbstractJob implements Serializable
 
             logger.debug("Dispatching payload on: " + config.getEndpointRef());
 
-            MuleClient client = new MuleClient(muleContext);
-            client.dispatch(endpointRef, payload, jobDataMap);
+            QuartzConnector connector = lookupConnector(jobDataMap);
+            if (connector != null)
+            {
+                // the endpoint is only built on the first fire
+                OutboundEndpoint endpoint = connector.getEndpointCache().getOutboundEndpoint(endpointRef,
+                    MessageExchangePattern.ONE_WAY, null);
+                MuleMessage message = new DefaultMuleMessage(payload, jobDataMap, muleContext);
+                endpoint.process(new DefaultMuleEvent(message, MessageExchangePattern.ONE_WAY,
+                    new DefaultLocalMuleClient.MuleClientFlowConstruct(muleContext)));
+            }
+            else
+            {
+                MuleClient client = new MuleClient(muleContext);
+                client.dispatch(endpointRef, payload, jobDataMap);
+            }
         }
         catch (MuleException e)
         {
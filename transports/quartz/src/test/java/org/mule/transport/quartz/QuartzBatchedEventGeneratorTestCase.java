@@ -0,0 +1,110 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.mule.api.MuleEventContext;
+import org.mule.tck.functional.CountdownCallback;
+import org.mule.tck.functional.FunctionalTestComponent;
+import org.mule.tck.junit4.FunctionalTestCase;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+import org.quartz.CronTrigger;
+import org.quartz.SimpleTrigger;
+
+public class QuartzBatchedEventGeneratorTestCase extends FunctionalTestCase
+{
+
+    private static final int FIRES = 10;
+
+    @Override
+    protected String getConfigResources()
+    {
+        return "quartz-batched-event-generator-config.xml";
+    }
+
+    @Test
+    public void testFiresAreCoalescedIntoBatches() throws Exception
+    {
+        List<Integer> tenant1Fires = listen("tenant1");
+        List<Integer> tenant2Fires = listen("tenant2");
+
+        QuartzConnector connector = (QuartzConnector) muleContext.getRegistry().lookupConnector("quartzConnector");
+        QuartzEventBatcher batcher = connector.getEventBatcher();
+        assertNotNull(batcher);
+
+        // every fire ends up in exactly one event, wait until all of them are routed
+        long deadline = System.currentTimeMillis() + RECEIVE_TIMEOUT;
+        while ((sum(tenant1Fires) < FIRES || sum(tenant2Fires) < FIRES) && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(100);
+        }
+        assertEquals(FIRES, sum(tenant1Fires));
+        assertEquals(FIRES, sum(tenant2Fires));
+
+        assertTrue(tenant1Fires.size() < FIRES);
+        assertTrue(batcher.getCoalescedFires() > 0);
+        assertTrue(batcher.getBatches() <= batcher.getBatchedEvents());
+
+        QuartzStatistics statistics = connector.getStatistics();
+        assertEquals(2 * FIRES, statistics.getFiredTriggers());
+        assertTrue(statistics.getPeakActiveJobs() > 0);
+    }
+
+    @Test
+    public void testMisfireInstructionIsAppliedToTriggers() throws Exception
+    {
+        QuartzConnector connector = (QuartzConnector) muleContext.getRegistry().lookupConnector("quartzConnector");
+        assertEquals(QuartzConnector.MISFIRE_DO_NOTHING, connector.getMisfireInstruction());
+
+        SimpleTrigger simpleTrigger = new SimpleTrigger();
+        connector.applyMisfireInstruction(simpleTrigger);
+        assertEquals(SimpleTrigger.MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_REMAINING_COUNT,
+            simpleTrigger.getMisfireInstruction());
+
+        CronTrigger cronTrigger = new CronTrigger();
+        connector.applyMisfireInstruction(cronTrigger);
+        assertEquals(CronTrigger.MISFIRE_INSTRUCTION_DO_NOTHING, cronTrigger.getMisfireInstruction());
+    }
+
+    private List<Integer> listen(String flowName) throws Exception
+    {
+        final List<Integer> fires = new CopyOnWriteArrayList<Integer>();
+        FunctionalTestComponent component = getFunctionalTestComponent(flowName);
+        component.setEventCallback(new CountdownCallback(FIRES)
+        {
+            @Override
+            public void eventReceived(MuleEventContext context, Object component) throws Exception
+            {
+                fires.add((Integer) context.getMessage().getInvocationProperty(
+                    QuartzEventBatcher.COALESCED_FIRES_PROPERTY));
+                super.eventReceived(context, component);
+            }
+        });
+        return fires;
+    }
+
+    private int sum(List<Integer> fires)
+    {
+        int sum = 0;
+        for (Integer fire : fires)
+        {
+            sum += fire;
+        }
+        return sum;
+    }
+}
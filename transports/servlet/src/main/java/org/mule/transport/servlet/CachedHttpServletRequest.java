@@ -10,25 +10,37 @@
 package org.mule.transport.servlet;
 
 import org.mule.util.IOUtils;
+import org.mule.util.buffer.BodyBufferManager;
+import org.mule.util.buffer.SpillableBuffer;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
 
+/**
+ * Reads the body of a request up front so it can be read more than once. The body is
+ * held in a {@link SpillableBuffer}, in memory while small and in a temporary file
+ * once large, and is released when its stream is closed.
+ */
 public class CachedHttpServletRequest extends HttpServletRequestWrapper
 {
 
     private CachedServletInputStream cachedServletInputStream;
 
     public CachedHttpServletRequest(HttpServletRequest request)
+    {
+        this(request, BodyBufferManager.lookup(null));
+    }
+
+    public CachedHttpServletRequest(HttpServletRequest request, BodyBufferManager bufferManager)
     {
         super(request);
         try
         {
-            this.cachedServletInputStream = new CachedServletInputStream(request.getInputStream());
+            this.cachedServletInputStream = new CachedServletInputStream(request.getInputStream(), bufferManager);
         }
         catch (IOException e)
         {
@@ -51,14 +63,23 @@ public class CachedHttpServletRequest extends HttpServletRequestWrapper
 
     private static class CachedServletInputStream extends ServletInputStream
     {
-        private ByteArrayInputStream cachedStream;
+        private InputStream cachedStream;
 
-        public CachedServletInputStream(ServletInputStream servletInputStream)
+        public CachedServletInputStream(ServletInputStream servletInputStream, BodyBufferManager bufferManager)
+            throws IOException
         {
-            byte[] bytes = IOUtils.toByteArray(servletInputStream);
-            this.cachedStream = new ByteArrayInputStream(bytes);
+            SpillableBuffer buffer = bufferManager.createBuffer();
+            try
+            {
+                IOUtils.copyLarge(servletInputStream, buffer);
+                this.cachedStream = buffer.openStream(true);
+            }
+            catch (IOException e)
+            {
+                buffer.release();
+                throw e;
+            }
         }
-
         @Override
         public int available() throws IOException
         {
@@ -31,6 +31,7 @@ import org.mule.transport.http.i18n.HttpMessages;
 import org.mule.transport.service.TransportFactory;
 import org.mule.transport.servlet.i18n.ServletMessages;
 import org.mule.util.PropertiesUtils;
+import org.mule.util.buffer.BodyBufferManager;
 
 import java.io.IOException;
 import java.util.Map;
@@ -236,7 +237,7 @@ public class MuleReceiverServlet extends AbstractReceiverServlet
         {
             if (this.useCachedHttpServletRequest)
             {
-                request = new CachedHttpServletRequest(request);
+                request = new CachedHttpServletRequest(request, BodyBufferManager.lookup(muleContext));
             }
             MessageReceiver receiver = getReceiverForURI(request);
 
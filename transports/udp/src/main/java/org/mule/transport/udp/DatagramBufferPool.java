@@ -0,0 +1,101 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.udp;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of {@link ByteBuffer}s used to receive datagrams. Buffers are
+ * allocated lazily up to the maximum size of the pool; once all of them are in use
+ * {@link #acquire()} returns <code>null</code> instead of allocating more, so the
+ * number of received datagrams waiting to be processed is bounded.
+ */
+public class DatagramBufferPool
+{
+
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicInteger allocated = new AtomicInteger(0);
+    private final int maxBuffers;
+    private final int bufferSize;
+    private final boolean direct;
+
+    /**
+     * @param maxBuffers the maximum number of buffers to allocate
+     * @param bufferSize the capacity of each buffer, the size of the largest datagram
+     *            that can be received
+     * @param direct whether to allocate direct buffers, which avoid an intermediate
+     *            copy when reading from a channel
+     */
+    public DatagramBufferPool(int maxBuffers, int bufferSize, boolean direct)
+    {
+        this.maxBuffers = maxBuffers;
+        this.bufferSize = bufferSize;
+        this.direct = direct;
+    }
+
+    /**
+     * @return a cleared buffer, or <code>null</code> if all the buffers of the pool are
+     *         in use
+     */
+    public ByteBuffer acquire()
+    {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer != null)
+        {
+            return buffer;
+        }
+
+        while (true)
+        {
+            int current = allocated.get();
+            if (current >= maxBuffers)
+            {
+                return null;
+            }
+            if (allocated.compareAndSet(current, current + 1))
+            {
+                return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+            }
+        }
+    }
+
+    public void release(ByteBuffer buffer)
+    {
+        buffer.clear();
+        buffers.offer(buffer);
+    }
+
+    /**
+     * @return the number of buffers currently acquired
+     */
+    public int getInUse()
+    {
+        return allocated.get() - buffers.size();
+    }
+
+    public int getMaxBuffers()
+    {
+        return maxBuffers;
+    }
+
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    public boolean isDirect()
+    {
+        return direct;
+    }
+}
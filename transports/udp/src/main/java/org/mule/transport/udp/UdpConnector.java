@@ -18,7 +18,9 @@ import org.mule.api.endpoint.InboundEndpoint;
 import org.mule.api.lifecycle.InitialisationException;
 import org.mule.transport.AbstractConnector;
 
+import java.io.IOException;
 import java.net.DatagramSocket;
+import java.nio.channels.DatagramChannel;
 
 import org.apache.commons.pool.impl.GenericKeyedObjectPool;
 
@@ -33,12 +35,19 @@ public class UdpConnector extends AbstractConnector
     public static final String KEEP_SEND_SOCKET_OPEN_PROPERTY = "keepSendSocketOpen";
     public static final String ADDRESS_PROPERTY = "packet.address";
     public static final String PORT_PROPERTY = "packet.port";
+    public static final int DEFAULT_RECEIVER_THREADS = 1;
+    public static final int DEFAULT_RECEIVE_BATCH_SIZE = 16;
+    public static final int DEFAULT_MAX_PENDING_PACKETS = 256;
 
     protected int timeout = DEFAULT_SOCKET_TIMEOUT;
     protected int sendBufferSize = DEFAULT_BUFFER_SIZE;
     protected int receiveBufferSize = DEFAULT_BUFFER_SIZE;
     protected boolean keepSendSocketOpen = true;
     protected boolean broadcast;
+    protected boolean nonBlockingReceive = false;
+    protected int receiverThreads = DEFAULT_RECEIVER_THREADS;
+    protected int receiveBatchSize = DEFAULT_RECEIVE_BATCH_SIZE;
+    protected int maxPendingPackets = DEFAULT_MAX_PENDING_PACKETS;
     protected GenericKeyedObjectPool dispatcherSocketsPool = new GenericKeyedObjectPool();
     protected UdpSocketFactory socketFactory;
 
@@ -163,6 +172,76 @@ public class UdpConnector extends AbstractConnector
         this.keepSendSocketOpen = keepSendSocketOpen;
     }
 
+    public boolean isNonBlockingReceive()
+    {
+        return nonBlockingReceive;
+    }
+
+    /**
+     * When true, receivers read datagrams from a non-blocking channel into pooled
+     * buffers and dispatch them in batches, instead of allocating a packet and
+     * scheduling a work per datagram.
+     */
+    public void setNonBlockingReceive(boolean nonBlockingReceive)
+    {
+        this.nonBlockingReceive = nonBlockingReceive;
+    }
+
+    public int getReceiverThreads()
+    {
+        return receiverThreads;
+    }
+
+    /**
+     * The number of loops reading datagrams from each receiver socket in non-blocking
+     * mode.
+     */
+    public void setReceiverThreads(int receiverThreads)
+    {
+        if (receiverThreads < 1)
+        {
+            receiverThreads = DEFAULT_RECEIVER_THREADS;
+        }
+        this.receiverThreads = receiverThreads;
+    }
+
+    public int getReceiveBatchSize()
+    {
+        return receiveBatchSize;
+    }
+
+    /**
+     * The maximum number of datagrams read in one go and dispatched to the flow as a
+     * single work in non-blocking mode.
+     */
+    public void setReceiveBatchSize(int receiveBatchSize)
+    {
+        if (receiveBatchSize < 1)
+        {
+            receiveBatchSize = DEFAULT_RECEIVE_BATCH_SIZE;
+        }
+        this.receiveBatchSize = receiveBatchSize;
+    }
+
+    public int getMaxPendingPackets()
+    {
+        return maxPendingPackets;
+    }
+
+    /**
+     * The number of receive buffers of each receiver in non-blocking mode, that is the
+     * maximum number of datagrams received but not processed yet. Datagrams arriving
+     * while all of them are in use are dropped.
+     */
+    public void setMaxPendingPackets(int maxPendingPackets)
+    {
+        if (maxPendingPackets < 1)
+        {
+            maxPendingPackets = DEFAULT_MAX_PENDING_PACKETS;
+        }
+        this.maxPendingPackets = maxPendingPackets;
+    }
+
     /**
      * Lookup a socket in the list of dispatcher sockets but don't create a new
      * socket
@@ -179,6 +258,11 @@ public class UdpConnector extends AbstractConnector
         return (DatagramSocket) socketFactory.makeObject(endpoint);
     }
 
+    DatagramChannel getServerChannel(InboundEndpoint endpoint) throws IOException
+    {
+        return socketFactory.createServerChannel(endpoint);
+    }
+
     void releaseSocket(DatagramSocket socket, ImmutableEndpoint endpoint) throws Exception
     {
         // Sockets can't be recycled if we close them at the end...
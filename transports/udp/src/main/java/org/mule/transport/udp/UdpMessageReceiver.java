@@ -33,22 +33,59 @@ import java.net.SocketAddress;
 import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.resource.spi.work.Work;
 import javax.resource.spi.work.WorkException;
 import javax.resource.spi.work.WorkManager;
 
-/** <code>UdpMessageReceiver</code> receives UDP message packets. */
+/**
+ * <code>UdpMessageReceiver</code> receives UDP message packets.
+ * <p/>
+ * By default a single thread blocks on the socket and schedules a work per packet. When
+ * the connector is configured for non-blocking receive, the receiver reads from a
+ * {@link DatagramChannel} in {@link UdpConnector#getReceiverThreads()} loops instead:
+ * datagrams are read into buffers of a bounded {@link DatagramBufferPool} and all the
+ * datagrams available on a wake up, up to {@link UdpConnector#getReceiveBatchSize()},
+ * are processed by a single work. Datagrams arriving while all the buffers are waiting
+ * to be processed are dropped and counted.
+ */
 public class UdpMessageReceiver extends AbstractMessageReceiver implements Work
 {
+    /**
+     * Milliseconds a receive loop waits for datagrams before checking whether the
+     * receiver is being disposed.
+     */
+    public static final long SELECT_TIMEOUT = 1000;
+
+    /**
+     * Length in milliseconds of the window over which the receive rate is measured.
+     */
+    public static final long RECEIVE_RATE_WINDOW = 1000;
+
     protected DatagramSocket socket = null;
+    protected DatagramChannel channel = null;
+    protected DatagramBufferPool bufferPool;
     protected InetAddress inetAddress;
     protected int bufferSize;
     private URI uri;
 
     protected final AtomicBoolean disposing = new AtomicBoolean(false);
 
+    private final AtomicLong receivedPackets = new AtomicLong(0);
+    private final AtomicLong droppedPackets = new AtomicLong(0);
+    private final AtomicLong dispatchedBatches = new AtomicLong(0);
+    private final AtomicLong rateWindowStart = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong rateWindowPackets = new AtomicLong(0);
+    private volatile long receiveRate = 0;
+
     public UdpMessageReceiver(Connector connector, FlowConstruct flowConstruct, InboundEndpoint endpoint)
             throws CreateException
     {
@@ -75,9 +112,16 @@ public class UdpMessageReceiver extends AbstractMessageReceiver implements Work
     @Override
     protected void doConnect() throws Exception
     {
+        UdpConnector udpConnector = (UdpConnector) connector;
+        if (udpConnector.isNonBlockingReceive())
+        {
+            connectReceiveLoops(udpConnector);
+            return;
+        }
+
         try
         {
-            socket = ((UdpConnector) connector).getServerSocket(endpoint);
+            socket = udpConnector.getServerSocket(endpoint);
         }
         catch (Exception e)
         {
@@ -94,6 +138,44 @@ public class UdpMessageReceiver extends AbstractMessageReceiver implements Work
         }
     }
 
+    private void connectReceiveLoops(UdpConnector udpConnector) throws Exception
+    {
+        try
+        {
+            channel = openChannel();
+            socket = channel != null ? channel.socket() : udpConnector.getServerSocket(endpoint);
+        }
+        catch (Exception e)
+        {
+            throw new ConnectException(UdpMessages.failedToBind(uri), e, this);
+        }
+
+        bufferPool = new DatagramBufferPool(udpConnector.getMaxPendingPackets(), bufferSize, channel != null);
+        try
+        {
+            for (int i = 0; i < udpConnector.getReceiverThreads(); i++)
+            {
+                getWorkManager().scheduleWork(new ReceiveLoop(udpConnector.getReceiveBatchSize()),
+                    WorkManager.INDEFINITE, null, connector);
+            }
+        }
+        catch (WorkException e)
+        {
+            throw new ConnectException(CoreMessages.failedToScheduleWork(), e, this);
+        }
+    }
+
+    /**
+     * Opens the channel used to receive datagrams in non-blocking mode.
+     *
+     * @return the channel, or <code>null</code> if datagrams cannot be received through
+     *         a channel, in which case the receive loops read from the server socket
+     */
+    protected DatagramChannel openChannel() throws Exception
+    {
+        return ((UdpConnector) connector).getServerChannel(getEndpoint());
+    }
+
     @Override
     protected void doDisconnect() throws Exception
     {
@@ -151,6 +233,7 @@ public class UdpMessageReceiver extends AbstractMessageReceiver implements Work
                             logger.debug("Receiving packet on " + uri);
                         }
                         socket.receive(packet);
+                        packetReceived();
 
                         if (logger.isTraceEnabled())
                         {
@@ -164,6 +247,7 @@ public class UdpMessageReceiver extends AbstractMessageReceiver implements Work
                         }
                         catch (WorkException e)
                         {
+                            droppedPackets.incrementAndGet();
                             logger.error("Udp receiver interrupted: " + e.getMessage(), e);
                         }
                     }
@@ -190,6 +274,107 @@ public class UdpMessageReceiver extends AbstractMessageReceiver implements Work
         dispose();
     }
 
+    /**
+     * Reads one datagram into the given buffer.
+     *
+     * @return the address of the sender, or <code>null</code> if no datagram was
+     *         available
+     */
+    protected SocketAddress receive(ByteBuffer buffer) throws IOException
+    {
+        if (channel != null)
+        {
+            return channel.receive(buffer);
+        }
+
+        DatagramPacket packet = new DatagramPacket(buffer.array(), buffer.arrayOffset() + buffer.position(),
+            buffer.remaining());
+        try
+        {
+            socket.receive(packet);
+        }
+        catch (SocketTimeoutException e)
+        {
+            return null;
+        }
+        buffer.position(buffer.position() + packet.getLength());
+        return packet.getSocketAddress();
+    }
+
+    /**
+     * Sends a response datagram from the receiver socket.
+     */
+    protected void send(byte[] data, SocketAddress address) throws IOException
+    {
+        if (channel != null)
+        {
+            channel.send(ByteBuffer.wrap(data), address);
+        }
+        else
+        {
+            socket.send(new DatagramPacket(data, data.length, address));
+        }
+    }
+
+    private void packetReceived()
+    {
+        receivedPackets.incrementAndGet();
+        long now = System.currentTimeMillis();
+        long windowStart = rateWindowStart.get();
+        if (now - windowStart >= RECEIVE_RATE_WINDOW && rateWindowStart.compareAndSet(windowStart, now))
+        {
+            receiveRate = rateWindowPackets.getAndSet(0) * 1000 / (now - windowStart);
+        }
+        rateWindowPackets.incrementAndGet();
+    }
+
+    /**
+     * @return the number of datagrams received since the receiver was created
+     */
+    public long getReceivedPackets()
+    {
+        return receivedPackets.get();
+    }
+
+    /**
+     * @return the number of datagrams received but discarded because there was no
+     *         buffer to hold them or because the work manager rejected their processing
+     */
+    public long getDroppedPackets()
+    {
+        return droppedPackets.get();
+    }
+
+    /**
+     * @return the number of batches of datagrams dispatched in non-blocking mode
+     */
+    public long getDispatchedBatches()
+    {
+        return dispatchedBatches.get();
+    }
+
+    /**
+     * @return the number of datagrams per second received over the last complete
+     *         measuring window, 0 if nothing was received recently
+     */
+    public long getReceiveRate()
+    {
+        if (System.currentTimeMillis() - rateWindowStart.get() >= 2 * RECEIVE_RATE_WINDOW)
+        {
+            return 0;
+        }
+        return receiveRate;
+    }
+
+    /**
+     * @return the number of datagrams received in non-blocking mode and waiting to be
+     *         processed
+     */
+    public int getPendingPackets()
+    {
+        return bufferPool == null ? 0 : bufferPool.getInUse();
+    }
+
     @Override
     protected void doDispose()
     {
@@ -274,4 +459,231 @@ public class UdpMessageReceiver extends AbstractMessageReceiver implements Work
             }
         }
     }
+
+    /**
+     * Reads the datagrams available on the socket in batches and schedules a
+     * {@link UdpBatchWorker} for each batch.
+     */
+    protected class ReceiveLoop implements Work
+    {
+        private final int batchSize;
+        private final ByteBuffer discardBuffer = ByteBuffer.allocate(bufferSize);
+
+        public ReceiveLoop(int batchSize)
+        {
+            this.batchSize = batchSize;
+        }
+
+        public void release()
+        {
+            // nothing to release
+        }
+
+        public void run()
+        {
+            Selector selector = null;
+            try
+            {
+                if (channel != null)
+                {
+                    selector = Selector.open();
+                    channel.register(selector, SelectionKey.OP_READ);
+                }
+
+                while (!disposing.get() && !socket.isClosed())
+                {
+                    if (!connector.isStarted())
+                    {
+                        Thread.sleep(100);
+                        continue;
+                    }
+
+                    try
+                    {
+                        if (selector != null)
+                        {
+                            if (selector.select(SELECT_TIMEOUT) == 0)
+                            {
+                                continue;
+                            }
+                            selector.selectedKeys().clear();
+                        }
+
+                        List<ReceivedDatagram> batch = receiveBatch();
+                        if (!batch.isEmpty())
+                        {
+                            dispatch(batch);
+                        }
+                    }
+                    catch (Exception e)
+                    {
+                        if (!connector.isDisposed() && !disposing.get() && !socket.isClosed())
+                        {
+                            logger.debug("Receive failed on socket: " + e, e);
+                            getConnector().getMuleContext().getExceptionListener().handleException(e);
+                        }
+                    }
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch (IOException e)
+            {
+                if (!disposing.get())
+                {
+                    getConnector().getMuleContext().getExceptionListener().handleException(e);
+                }
+            }
+            finally
+            {
+                if (selector != null)
+                {
+                    try
+                    {
+                        selector.close();
+                    }
+                    catch (IOException e)
+                    {
+                        logger.debug("Failed to close selector: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        private List<ReceivedDatagram> receiveBatch() throws IOException
+        {
+            List<ReceivedDatagram> batch = new ArrayList<ReceivedDatagram>(batchSize);
+            // without a channel only the first receive can be done without waiting for
+            // more datagrams, so batches hold a single datagram
+            int reads = channel != null ? batchSize : 1;
+            for (int i = 0; i < reads; i++)
+            {
+                ByteBuffer buffer = bufferPool.acquire();
+                if (buffer == null)
+                {
+                    // the flow is not keeping up, read the datagram to drop it
+                    discardBuffer.clear();
+                    if (receive(discardBuffer) == null)
+                    {
+                        break;
+                    }
+                    packetReceived();
+                    droppedPackets.incrementAndGet();
+                    continue;
+                }
+
+                SocketAddress address;
+                try
+                {
+                    address = receive(buffer);
+                }
+                catch (IOException e)
+                {
+                    bufferPool.release(buffer);
+                    throw e;
+                }
+                if (address == null)
+                {
+                    bufferPool.release(buffer);
+                    break;
+                }
+
+                buffer.flip();
+                packetReceived();
+                batch.add(new ReceivedDatagram(buffer, address));
+            }
+            return batch;
+        }
+
+        private void dispatch(List<ReceivedDatagram> batch)
+        {
+            if (logger.isTraceEnabled())
+            {
+                logger.trace("Received " + batch.size() + " packets on: " + uri);
+            }
+
+            try
+            {
+                getWorkManager().scheduleWork(new UdpBatchWorker(batch), WorkManager.INDEFINITE, null, connector);
+                dispatchedBatches.incrementAndGet();
+            }
+            catch (WorkException e)
+            {
+                for (ReceivedDatagram datagram : batch)
+                {
+                    bufferPool.release(datagram.buffer);
+                }
+                droppedPackets.addAndGet(batch.size());
+                logger.error("Udp receiver failed to dispatch " + batch.size() + " packets: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    protected static class ReceivedDatagram
+    {
+        private final ByteBuffer buffer;
+        private final SocketAddress address;
+
+        public ReceivedDatagram(ByteBuffer buffer, SocketAddress address)
+        {
+            this.buffer = buffer;
+            this.address = address;
+        }
+    }
+
+    /**
+     * Routes a batch of datagrams received in non-blocking mode, one after the other.
+     */
+    protected class UdpBatchWorker implements Work
+    {
+        private final List<ReceivedDatagram> batch;
+
+        public UdpBatchWorker(List<ReceivedDatagram> batch)
+        {
+            this.batch = batch;
+        }
+
+        public void release()
+        {
+            // nothing to release
+        }
+
+        public void run()
+        {
+            for (ReceivedDatagram datagram : batch)
+            {
+                try
+                {
+                    process(datagram);
+                }
+                catch (Exception e)
+                {
+                    if (!disposing.get())
+                    {
+                        getConnector().getMuleContext().getExceptionListener().handleException(e);
+                    }
+                }
+            }
+        }
+
+        private void process(ReceivedDatagram datagram) throws Exception
+        {
+            byte[] data = new byte[datagram.buffer.remaining()];
+            datagram.buffer.get(data);
+            bufferPool.release(datagram.buffer);
+
+            DatagramPacket packet = new DatagramPacket(data, data.length, datagram.address);
+            MuleMessage message = createMuleMessage(packet, endpoint.getEncoding());
+            message.setProperty(MuleProperties.MULE_REMOTE_CLIENT_ADDRESS, datagram.address, PropertyScope.INBOUND);
+            MuleEvent event = routeMessage(message);
+            MuleMessage returnMessage = event == null ? null : event.getMessage();
+
+            if (endpoint.getExchangePattern().hasResponse() && returnMessage != null)
+            {
+                send(returnMessage.getPayloadAsBytes(), datagram.address);
+            }
+        }
+    }
 }
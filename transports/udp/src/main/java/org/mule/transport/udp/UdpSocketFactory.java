@@ -17,7 +17,9 @@ import org.mule.util.MapUtils;
 import java.io.IOException;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.DatagramChannel;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -87,6 +89,49 @@ public class UdpSocketFactory implements KeyedPoolableObjectFactory
         return socket;
     }
 
+    /**
+     * Creates a non-blocking channel bound to the host and port of the given inbound
+     * endpoint, used when the connector receives datagrams in non-blocking mode.
+     */
+    public DatagramChannel createServerChannel(InboundEndpoint ep) throws IOException
+    {
+        DatagramChannel channel = DatagramChannel.open();
+        try
+        {
+            DatagramSocket socket = channel.socket();
+            UdpConnector connector = (UdpConnector)ep.getConnector();
+            if (connector.getReceiveBufferSize() != Connector.INT_VALUE_NOT_SET
+                && socket.getReceiveBufferSize() != connector.getReceiveBufferSize())
+            {
+                socket.setReceiveBufferSize(connector.getReceiveBufferSize());
+            }
+            if (connector.getSendBufferSize() != Connector.INT_VALUE_NOT_SET
+                && socket.getSendBufferSize() != connector.getSendBufferSize())
+            {
+                socket.setSendBufferSize(connector.getSendBufferSize());
+            }
+            socket.setBroadcast(connector.isBroadcast());
+
+            int port = ep.getEndpointURI().getPort();
+            String host = ep.getEndpointURI().getHost();
+            if ("null".equalsIgnoreCase(host))
+            {
+                socket.bind(new InetSocketAddress(Math.max(port, 0)));
+            }
+            else
+            {
+                socket.bind(new InetSocketAddress(InetAddress.getByName(host), Math.max(port, 0)));
+            }
+            channel.configureBlocking(false);
+            return channel;
+        }
+        catch (IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
     public void destroyObject(Object key, Object object) throws Exception
     {
         Socket socket = (Socket)object;
@@ -37,6 +37,10 @@ public class UdpNamespaceHandlerTestCase extends FunctionalTestCase
         assertEquals(3456, c.getSendBufferSize());
         assertEquals(true, c.isBroadcast());
         assertEquals(false, c.isKeepSendSocketOpen());
+        assertEquals(true, c.isNonBlockingReceive());
+        assertEquals(2, c.getReceiverThreads());
+        assertEquals(8, c.getReceiveBatchSize());
+        assertEquals(64, c.getMaxPendingPackets());
 
         assertTrue(c.isConnected());
         assertTrue(c.isStarted());
@@ -0,0 +1,64 @@
+/*
+ * $Id$
+ * --------------------------------------------------------------------------------------
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.transport.udp.functional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.mule.api.MuleMessage;
+import org.mule.api.client.MuleClient;
+import org.mule.tck.junit4.FunctionalTestCase;
+import org.mule.tck.junit4.rule.DynamicPort;
+import org.mule.transport.udp.UdpConnector;
+import org.mule.transport.udp.UdpMessageReceiver;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+public class UdpNonBlockingReceiveTestCase extends FunctionalTestCase
+{
+
+    private static final int MESSAGES = 20;
+
+    @Rule
+    public DynamicPort dynamicPort = new DynamicPort("port1");
+
+    @Override
+    protected String getConfigResources()
+    {
+        return "udp-non-blocking-receive-config.xml";
+    }
+
+    @Test
+    public void receivesAllPackets() throws Exception
+    {
+        MuleClient client = muleContext.getClient();
+        Set<String> received = new HashSet<String>();
+        for (int i = 0; i < MESSAGES; i++)
+        {
+            client.dispatch("serverEndpoint", "hello" + i, null);
+            MuleMessage message = client.request("vm://foo", RECEIVE_TIMEOUT);
+            assertNotNull(message);
+            received.add(message.getPayloadAsString());
+        }
+
+        assertEquals(MESSAGES, received.size());
+
+        UdpConnector connector = (UdpConnector) muleContext.getRegistry().lookupConnector("udpConnector");
+        UdpMessageReceiver receiver = (UdpMessageReceiver) connector.getReceivers().values().iterator().next();
+        assertEquals(MESSAGES, receiver.getReceivedPackets());
+        assertEquals(0, receiver.getDroppedPackets());
+        assertEquals(0, receiver.getPendingPackets());
+    }
+}